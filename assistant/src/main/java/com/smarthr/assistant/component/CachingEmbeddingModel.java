@@ -0,0 +1,167 @@
+package com.smarthr.assistant.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Caché de embeddings de consultas delante del {@link EmbeddingModel}: cada {@code similaritySearch} con
+ * query embebe el texto, y las consultas (la fija de ausencias, las ampliaciones de {@code rewriteQuery})
+ * se repiten mucho.
+ * <p>
+ * La clave es el modelo más el texto con los espacios normalizados. En memoria es una LRU acotada; si hay
+ * directorio, los embeddings se guardan también en disco y sobreviven a los reinicios. Los documentos que
+ * se indexan no pasan por la caché: cada uno se embebe una vez y no se repiten.
+ */
+@Slf4j
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+    private final String model;
+    private final Map<String, float[]> memory;
+    private final EmbeddingDiskStore disk;
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+    /** Contadores en el último {@link #reportSinceLast()}: memoria, disco y fallos. */
+    private final double[] reported = new double[3];
+
+    /**
+     * @param directory    directorio del nivel en disco; {@code null} para usar solo memoria
+     * @param diskEntries  máximo de entradas en disco antes de compactar
+     */
+    public CachingEmbeddingModel(EmbeddingModel delegate, String model, int maxEntries, Path directory,
+                                 int diskEntries, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.model = model;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.disk = directory == null ? null : openDisk(directory, diskEntries);
+
+        this.memoryHits = counter(registry, "hit", "memory");
+        this.diskHits = counter(registry, "hit", "disk");
+        this.misses = counter(registry, "miss", "none");
+        Gauge.builder("assistant.embedding.cache.size", this, CachingEmbeddingModel::size)
+                .description("Embeddings de consultas en memoria")
+                .tag("model", model)
+                .register(registry);
+    }
+
+    @Override
+    public float[] embed(String text) {
+        String key = key(text);
+        float[] cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+        }
+        if (cached != null) {
+            memoryHits.increment();
+            return cached.clone();
+        }
+
+        cached = disk == null ? null : disk.get(key);
+        if (cached != null) {
+            diskHits.increment();
+        } else {
+            misses.increment();
+            cached = delegate.embed(text);
+            if (disk != null) {
+                disk.put(key, cached);
+            }
+        }
+        synchronized (memory) {
+            memory.put(key, cached);
+        }
+        return cached.clone();
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        return delegate.call(request);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return delegate.embed(document);
+    }
+
+    @Override
+    public List<float[]> embed(List<Document> documents, EmbeddingOptions options, BatchingStrategy batchingStrategy) {
+        return delegate.embed(documents, options, batchingStrategy);
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+
+    /**
+     * Resumen de aciertos desde la llamada anterior, o {@code null} si no ha habido consultas. Sin actuator
+     * los contadores no se exportan, así que {@link EmbeddingCacheReporter} lo escribe en el log.
+     */
+    public String reportSinceLast() {
+        double[] now = {memoryHits.count(), diskHits.count(), misses.count()};
+        double memory, disk, missed;
+        synchronized (reported) {
+            memory = now[0] - reported[0];
+            disk = now[1] - reported[1];
+            missed = now[2] - reported[2];
+            System.arraycopy(now, 0, reported, 0, now.length);
+        }
+        double total = memory + disk + missed;
+        if (total == 0) {
+            return null;
+        }
+        return String.format(Locale.ROOT, "%s: %.0f consultas, %.1f%% aciertos (memoria %.0f, disco %.0f), %d en memoria",
+                model, total, 100 * (memory + disk) / total, memory, disk, size());
+    }
+
+    public int size() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    /** Modelo y texto sin espacios repetidos ni en los extremos; mayúsculas y tildes sí cuentan para el modelo. */
+    String key(String text) {
+        return model + '\u0000' + (text == null ? "" : text.strip().replaceAll("\\s+", " "));
+    }
+
+    private Counter counter(MeterRegistry registry, String result, String tier) {
+        return Counter.builder("assistant.embedding.cache.requests")
+                .description("Consultas a la caché de embeddings")
+                .tag("model", model)
+                .tag("result", result)
+                .tag("tier", tier)
+                .register(registry);
+    }
+
+    private static EmbeddingDiskStore openDisk(Path directory, int maxEntries) {
+        try {
+            EmbeddingDiskStore store = new EmbeddingDiskStore(directory.resolve("query-embeddings.bin"), maxEntries);
+            log.info("🧠 Caché de embeddings en disco: {} entradas en {}", store.size(), directory);
+            return store;
+        } catch (IOException e) {
+            log.warn("No se pudo abrir la caché de embeddings en {}; solo se usará memoria: {}", directory, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.smarthr.assistant.component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Escribe cada cierto tiempo el ratio de aciertos de la caché de embeddings. El asistente no lleva
+ * actuator, así que sus contadores de Micrometer no llegan a ningún sitio y este es su único informe.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingCacheReporter {
+
+    private final ObjectProvider<EmbeddingModel> embeddingModel;
+
+    @Scheduled(initialDelayString = "${embedding.cache.report-interval:PT5M}",
+            fixedDelayString = "${embedding.cache.report-interval:PT5M}")
+    public void report() {
+        embeddingModel.orderedStream()
+                .filter(CachingEmbeddingModel.class::isInstance)
+                .map(model -> ((CachingEmbeddingModel) model).reportSinceLast())
+                .filter(Objects::nonNull)
+                .forEach(summary -> log.info("🧠 Caché de embeddings {}", summary));
+    }
+}
@@ -0,0 +1,155 @@
+package com.smarthr.assistant.component;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Nivel en disco de {@link CachingEmbeddingModel}: un fichero de registros {@code clave → float[]} que solo
+ * crece por el final. En memoria se guarda únicamente el desplazamiento de cada clave.
+ * <p>
+ * Un registro cortado por una caída se descarta al abrir. Al superar el máximo se reescribe el fichero
+ * con la mitad más reciente de las entradas.
+ */
+@Slf4j
+class EmbeddingDiskStore {
+
+    private static final int MAGIC = 0x53484543; // "SHEC"
+
+    private final Path file;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Long> offsets = new LinkedHashMap<>();
+    private RandomAccessFile data;
+
+    EmbeddingDiskStore(Path file, int maxEntries) throws IOException {
+        this.file = file;
+        this.maxEntries = maxEntries;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.data = open(file);
+        load();
+    }
+
+    synchronized float[] get(String key) {
+        Long offset = offsets.get(key);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            data.seek(offset);
+            readKey(data);
+            return readVector(data);
+        } catch (IOException e) {
+            log.warn("No se pudo leer un embedding de {}: {}", file, e.getMessage());
+            offsets.remove(key);
+            return null;
+        }
+    }
+
+    synchronized void put(String key, float[] vector) {
+        if (offsets.containsKey(key)) {
+            return;
+        }
+        try {
+            long offset = data.length();
+            data.seek(offset);
+            data.write(record(key, vector));
+            offsets.put(key, offset);
+            if (offsets.size() > maxEntries) {
+                compact();
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo guardar un embedding en {}: {}", file, e.getMessage());
+        }
+    }
+
+    synchronized int size() {
+        return offsets.size();
+    }
+
+    private void load() throws IOException {
+        long valid = Integer.BYTES;
+        data.seek(valid);
+        try {
+            while (data.getFilePointer() < data.length()) {
+                String key = readKey(data);
+                readVector(data);
+                offsets.put(key, valid);
+                valid = data.getFilePointer();
+            }
+        } catch (EOFException | IllegalArgumentException e) {
+            log.warn("Caché de embeddings {} cortada en el byte {}; se descarta el final", file, valid);
+            data.setLength(valid);
+        }
+    }
+
+    /** Reescribe el fichero con la mitad más reciente y lo cambia por el actual. */
+    private void compact() throws IOException {
+        List<String> keep = new ArrayList<>(offsets.keySet()).subList(offsets.size() - maxEntries / 2, offsets.size());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        LinkedHashMap<String, Long> moved = new LinkedHashMap<>();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            long offset = Integer.BYTES;
+            for (String key : keep) {
+                data.seek(offsets.get(key));
+                byte[] record = record(readKey(data), readVector(data));
+                out.write(record);
+                moved.put(key, offset);
+                offset += record.length;
+            }
+        }
+        data.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        data = open(file);
+        offsets.clear();
+        offsets.putAll(moved);
+    }
+
+    private static RandomAccessFile open(Path file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+        if (raf.length() < Integer.BYTES) {
+            raf.setLength(0);
+            raf.writeInt(MAGIC);
+        } else if (raf.readInt() != MAGIC) {
+            raf.close();
+            throw new IOException("no es un fichero de caché de embeddings: " + file);
+        }
+        return raf;
+    }
+
+    private static byte[] record(String key, float[] vector) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + k.length + Float.BYTES * vector.length);
+        buffer.putInt(k.length).put(k).putInt(vector.length);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    private static String readKey(RandomAccessFile in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.length()) {
+            throw new IllegalArgumentException("longitud de clave no válida: " + length);
+        }
+        byte[] key = new byte[length];
+        in.readFully(key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private static float[] readVector(RandomAccessFile in) throws IOException {
+        int dims = in.readInt();
+        if (dims < 0 || (long) dims * Float.BYTES > in.length()) {
+            throw new IllegalArgumentException("dimensión no válida: " + dims);
+        }
+        byte[] bytes = new byte[dims * Float.BYTES];
+        in.readFully(bytes);
+        float[] vector = new float[dims];
+        ByteBuffer.wrap(bytes).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
@@ -0,0 +1,120 @@
+package com.smarthr.assistant.component;
+
+import com.smarthr.assistant.component.EntityDictionary.Mention;
+import com.smarthr.assistant.component.EntityDictionary.Type;
+
+import java.util.*;
+
+/**
+ * Autómata de Aho–Corasick sobre texto normalizado. Inmutable: se construye entero con los términos
+ * y luego solo se consulta, así que lo pueden usar varios hilos a la vez.
+ */
+final class EntityAutomaton {
+
+    /** Término del diccionario que termina en un nodo. */
+    record Entry(Type type, String value, int length) {
+    }
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    private final Entry[][] outputs;
+
+    /** @param terms término normalizado → entidades a las que apunta (un término puede ser de varios tipos) */
+    EntityAutomaton(Map<String, List<Entry>> terms) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<List<Entry>> out = new ArrayList<>();
+        children.add(new TreeMap<>());
+        out.add(new ArrayList<>());
+
+        terms.forEach((term, entries) -> {
+            int node = 0;
+            for (int i = 0; i < term.length(); i++) {
+                Integer to = children.get(node).get(term.charAt(i));
+                if (to == null) {
+                    to = children.size();
+                    children.get(node).put(term.charAt(i), to);
+                    children.add(new TreeMap<>());
+                    out.add(new ArrayList<>());
+                }
+                node = to;
+            }
+            out.get(node).addAll(entries);
+        });
+
+        int size = children.size();
+        this.labels = new char[size][];
+        this.targets = new int[size][];
+        for (int node = 0; node < size; node++) {
+            TreeMap<Character, Integer> edges = children.get(node);
+            labels[node] = new char[edges.size()];
+            targets[node] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                labels[node][i] = edge.getKey();
+                targets[node][i++] = edge.getValue();
+            }
+        }
+
+        // Enlaces de fallo por niveles; cada nodo hereda las salidas de su enlace
+        this.fail = new int[size];
+        this.outputs = new Entry[size][];
+        outputs[0] = out.get(0).toArray(NO_ENTRIES);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            List<Entry> merged = out.get(node);
+            merged.addAll(Arrays.asList(outputs[fail[node]]));
+            outputs[node] = merged.isEmpty() ? NO_ENTRIES : merged.toArray(NO_ENTRIES);
+            for (int i = 0; i < labels[node].length; i++) {
+                int child = targets[node][i];
+                int f = fail[node];
+                int to;
+                while ((to = next(f, labels[node][i])) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[child] = to < 0 ? 0 : to;
+                queue.add(child);
+            }
+        }
+    }
+
+    /** Todas las menciones de palabra completa, en una pasada sobre el texto. */
+    List<Mention> scan(String text) {
+        List<Mention> found = new ArrayList<>();
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int to;
+            while ((to = next(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(to, 0);
+            for (Entry entry : outputs[state]) {
+                int start = i + 1 - entry.length();
+                if (isBoundary(text, start - 1) && isBoundary(text, i + 1)) {
+                    found.add(new Mention(entry.type(), entry.value(), start, i + 1));
+                }
+            }
+        }
+        return found;
+    }
+
+    int nodes() {
+        return labels.length;
+    }
+
+    private int next(int node, char c) {
+        int i = Arrays.binarySearch(labels[node], c);
+        return i < 0 ? -1 : targets[node][i];
+    }
+
+    private static boolean isBoundary(String text, int i) {
+        return i < 0 || i >= text.length() || !Character.isLetterOrDigit(text.charAt(i));
+    }
+}
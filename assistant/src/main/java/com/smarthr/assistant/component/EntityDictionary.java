@@ -0,0 +1,223 @@
+package com.smarthr.assistant.component;
+
+import com.smarthr.assistant.dto.ProjectRagDto;
+import com.smarthr.assistant.utils.AssistantChatUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * Entidades conocidas (empleados, proyectos y sus códigos, clientes, ubicaciones, departamentos y skills)
+ * compiladas en un {@link EntityAutomaton}: una pasada sobre el mensaje normalizado encuentra todas las
+ * menciones.
+ * <p>
+ * Los términos salen de los metadatos de los documentos del vector store: al arrancar se leen los que ya
+ * estaban guardados y después se aplican altas y bajas. Cada cambio compila un autómata nuevo y lo publica
+ * de golpe, así que una consulta ve el diccionario anterior o el nuevo, nunca uno a medias.
+ */
+@Slf4j
+@Component
+public class EntityDictionary {
+
+    public enum Type { EMPLOYEE, PROJECT_NAME, PROJECT_CODE, CLIENT, LOCATION, DEPARTMENT, SKILL }
+
+    /** Mención de una entidad en {@code [start, end)} del texto normalizado. */
+    public record Mention(Type type, String value, int start, int end) {
+    }
+
+    /** Menciones de un mensaje, en orden de aparición. */
+    public record Mentions(List<Mention> all) {
+
+        /** Valor de la primera mención del tipo (la más larga si empiezan igual), o {@code null}. */
+        public String first(Type type) {
+            Mention best = null;
+            for (Mention m : all) {
+                if (m.type() == type && (best == null || m.start() < best.start()
+                        || m.start() == best.start() && m.end() > best.end())) {
+                    best = m;
+                }
+            }
+            return best == null ? null : best.value();
+        }
+
+        public boolean has(Type type) {
+            return all.stream().anyMatch(m -> m.type() == type);
+        }
+    }
+
+    /**
+     * Alias que no están en los datos y los valores que ya se reconocían antes de sincronizar. Nombres de
+     * proyecto, clientes y ubicaciones se guardan normalizados porque los handlers comparan así los metadatos.
+     */
+    private static final Map<Type, Map<String, String>> SEED = Map.of(
+            Type.PROJECT_NAME, Map.of(
+                    "optimizacion de procesos", "optimizacion de procesos",
+                    "desarrollo apis", "desarrollo apis",
+                    "portal web", "portal web corporativo",
+                    "migracion cloud", "migracion cloud",
+                    "sistema rrhh", "sistema rrhh"),
+            Type.PROJECT_CODE, Map.of(
+                    "prj001", "PRJ001", "prj002", "PRJ002", "prj003", "PRJ003",
+                    "prj004", "PRJ004", "prj005", "PRJ005", "prj006", "PRJ006"),
+            Type.CLIENT, Map.of(
+                    "nike", "nike", "ibm", "ibm", "salesforce", "salesforce",
+                    "microsoft", "microsoft", "accenture", "accenture", "smarthr", "smarthr"),
+            Type.LOCATION, Map.of(
+                    "madrid", "madrid", "barcelona", "barcelona", "sevilla", "sevilla",
+                    "remote", "remote", "remoto", "remote"),
+            Type.DEPARTMENT, Map.of(
+                    "desarrollo", "Desarrollo", "data", "Data", "marketing", "Marketing",
+                    "recursos humanos", "Recursos Humanos", "rrhh", "Recursos Humanos"),
+            Type.SKILL, Map.of(
+                    "docker", "docker", "kubernetes", "kubernetes", "java", "java",
+                    "spring", "spring", "python", "python"));
+
+    /**
+     * Términos, nombre normalizado de cada documento de empleado y el autómata compilado; se sustituye entero.
+     * El nombre de un empleado deja el diccionario cuando se borra el último documento que lo usa.
+     */
+    private record Compiled(Map<Type, Map<String, String>> terms, Map<String, String> employees,
+                            EntityAutomaton automaton) {
+    }
+
+    private final AtomicReference<Compiled> current = new AtomicReference<>(compile(seed(), new HashMap<>()));
+
+    public Mentions scan(String normalized) {
+        return new Mentions(current.get().automaton().scan(normalized));
+    }
+
+    /** Sustituye el diccionario por el de estos documentos (id → metadatos), p. ej. todo el vector store. */
+    public void rebuild(Map<String, Map<String, Object>> documents) {
+        Map<Type, Map<String, String>> terms = seed();
+        Map<String, String> employees = new HashMap<>();
+        documents.forEach((id, metadata) -> addDocument(terms, employees, id, metadata));
+        Compiled compiled = compile(terms, employees);
+        current.set(compiled);
+        log.info("📚 Diccionario de entidades: {} términos, {} nodos", count(terms), compiled.automaton().nodes());
+    }
+
+    /** Añade lo que traen los documentos nuevos o actualizados; los que no son de entidades se ignoran. */
+    public void addDocuments(Collection<Document> documents) {
+        update((terms, employees) -> documents.forEach(d -> {
+            removeDocument(terms, employees, d.getId());
+            addDocument(terms, employees, d.getId(), d.getMetadata());
+        }));
+    }
+
+    /** Quita los empleados de esos documentos; proyectos, clientes y demás pueden seguir siendo de otros. */
+    public void removeDocuments(Collection<String> ids) {
+        update((terms, employees) -> ids.forEach(id -> removeDocument(terms, employees, id)));
+    }
+
+    private void update(BiConsumer<Map<Type, Map<String, String>>, Map<String, String>> change) {
+        current.updateAndGet(c -> {
+            Map<Type, Map<String, String>> terms = copy(c.terms());
+            Map<String, String> employees = new HashMap<>(c.employees());
+            change.accept(terms, employees);
+            return compile(terms, employees);
+        });
+    }
+
+    private static void addDocument(Map<Type, Map<String, String>> terms, Map<String, String> employees,
+                                    String id, Map<String, Object> metadata) {
+        switch (String.valueOf(metadata.get("type"))) {
+            case "EMPLOYEE" -> {
+                String name = text(metadata.get("name"));
+                put(terms, Type.EMPLOYEE, name, name);
+                if (name != null && !AssistantChatUtils.normalizeText(name).isEmpty()) {
+                    employees.put(id, AssistantChatUtils.normalizeText(name));
+                }
+                String location = text(metadata.get("location"));
+                put(terms, Type.LOCATION, location, AssistantChatUtils.normalizeText(location));
+                put(terms, Type.DEPARTMENT, text(metadata.get("department")), text(metadata.get("department")));
+                if (metadata.get("skills") instanceof Collection<?> skills) {
+                    skills.forEach(s -> put(terms, Type.SKILL, text(s), text(s)));
+                }
+                if (metadata.get("projects") instanceof Collection<?> projects) {
+                    for (Object p : projects) {
+                        if (p instanceof ProjectRagDto dto) {
+                            addProject(terms, dto.name(), dto.code(), dto.client(), dto.ubication());
+                        } else if (p instanceof Map<?, ?> map) {
+                            addProject(terms, text(map.get("name")), text(map.get("code")),
+                                    text(map.get("client")), text(map.get("ubication")));
+                        }
+                    }
+                }
+            }
+            case "PROJECT" -> addProject(terms, text(metadata.get("projectName")), text(metadata.get("code")),
+                    text(metadata.get("client")), text(metadata.get("ubication")));
+            case "DEPARTMENT" -> {
+                String name = nameOf(metadata, "department:");
+                put(terms, Type.DEPARTMENT, name, name);
+            }
+            case "SKILL" -> {
+                String name = nameOf(metadata, "skill:");
+                put(terms, Type.SKILL, name, name);
+            }
+            default -> {
+            }
+        }
+    }
+
+    private static void removeDocument(Map<Type, Map<String, String>> terms, Map<String, String> employees, String id) {
+        String name = employees.remove(id);
+        if (name != null && !employees.containsValue(name)) {
+            terms.get(Type.EMPLOYEE).remove(name);
+        }
+    }
+
+    private static void addProject(Map<Type, Map<String, String>> terms, String name, String code, String client,
+                                   String location) {
+        put(terms, Type.PROJECT_NAME, name, AssistantChatUtils.normalizeText(name));
+        put(terms, Type.PROJECT_CODE, code, code);
+        put(terms, Type.CLIENT, client, AssistantChatUtils.normalizeText(client));
+        put(terms, Type.LOCATION, location, AssistantChatUtils.normalizeText(location));
+    }
+
+    /** Departamentos y skills solo llevan el nombre en el {@code entityId} ("skill:Java"). */
+    private static String nameOf(Map<String, Object> metadata, String prefix) {
+        String entityId = text(metadata.get("entityId"));
+        return entityId != null && entityId.startsWith(prefix) ? entityId.substring(prefix.length()) : null;
+    }
+
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static void put(Map<Type, Map<String, String>> terms, Type type, String term, String value) {
+        String key = AssistantChatUtils.normalizeText(term);
+        if (!key.isEmpty() && value != null) {
+            terms.get(type).put(key, value);
+        }
+    }
+
+    private static Map<Type, Map<String, String>> seed() {
+        Map<Type, Map<String, String>> terms = new EnumMap<>(Type.class);
+        for (Type type : Type.values()) {
+            terms.put(type, new HashMap<>(SEED.getOrDefault(type, Map.of())));
+        }
+        return terms;
+    }
+
+    private static Map<Type, Map<String, String>> copy(Map<Type, Map<String, String>> terms) {
+        Map<Type, Map<String, String>> copy = new EnumMap<>(Type.class);
+        terms.forEach((type, byTerm) -> copy.put(type, new HashMap<>(byTerm)));
+        return copy;
+    }
+
+    private static int count(Map<Type, Map<String, String>> terms) {
+        return terms.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private static Compiled compile(Map<Type, Map<String, String>> terms, Map<String, String> employees) {
+        Map<String, List<EntityAutomaton.Entry>> entries = new HashMap<>();
+        terms.forEach((type, byTerm) -> byTerm.forEach((term, value) -> entries
+                .computeIfAbsent(term, t -> new ArrayList<>())
+                .add(new EntityAutomaton.Entry(type, value, term.length()))));
+        return new Compiled(terms, employees, new EntityAutomaton(entries));
+    }
+}
@@ -0,0 +1,53 @@
+package com.smarthr.assistant.component;
+
+import com.smarthr.assistant.utils.RagIntent;
+
+import java.util.List;
+
+/**
+ * Resultado inmutable de analizar un mensaje del chat: texto normalizado, palabras, intención,
+ * consulta ampliada para la búsqueda y entidades. Las entidades que no aparecen son {@code null}.
+ */
+public record QueryAnalysis(
+        String message,
+        String normalized,
+        List<String> words,
+        RagIntent intent,
+        String rewrittenQuery,
+        String employeeName,
+        String employeeLocation,
+        String department,
+        String projectName,
+        String projectLocation,
+        String client,
+        String projectCode,
+        String skill,
+        boolean wantsEmployees) {
+
+    public QueryAnalysis {
+        words = List.copyOf(words);
+    }
+
+    public boolean mentionsSkill() {
+        return skill != null;
+    }
+
+    /** {@code true} si el mensaje contiene la palabra completa (normalizada). */
+    public boolean hasWord(String word) {
+        return words.contains(word);
+    }
+
+    /** {@code true} si el mensaje contiene esas palabras seguidas y en ese orden. */
+    public boolean hasPhrase(String... phrase) {
+        for (int i = 0; i + phrase.length <= words.size(); i++) {
+            int j = 0;
+            while (j < phrase.length && words.get(i + j).equals(phrase[j])) {
+                j++;
+            }
+            if (j == phrase.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
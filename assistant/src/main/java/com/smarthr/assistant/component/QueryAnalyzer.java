@@ -0,0 +1,92 @@
+package com.smarthr.assistant.component;
+
+import com.smarthr.assistant.utils.AssistantChatUtils;
+import com.smarthr.assistant.utils.RagIntent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analiza cada mensaje una sola vez: lo normaliza, lo separa en palabras y extrae intención y entidades
+ * (estas con una sola pasada del {@link EntityDictionary}).
+ * <p>
+ * El router, {@code RagService} y sus handlers leen el {@link QueryAnalysis} en lugar de volver a
+ * normalizar el mensaje y pasarle expresiones regulares en cada paso.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryAnalyzer {
+
+    private final EntityDictionary entityDictionary;
+
+    public QueryAnalysis analyze(String message) {
+        String original = message == null ? "" : message;
+        String n = AssistantChatUtils.normalizeText(original);
+        EntityDictionary.Mentions mentions = entityDictionary.scan(n);
+
+        // Los empleados conocidos se reconocen aunque no vengan en mayúsculas; si no, "Nombre Apellido"
+        String employeeName = mentions.first(EntityDictionary.Type.EMPLOYEE);
+        if (employeeName == null) {
+            employeeName = AssistantChatUtils.employeeNameOf(original);
+        }
+
+        return new QueryAnalysis(
+                original,
+                n,
+                words(n),
+                intent(n, employeeName),
+                AssistantChatUtils.rewriteQuery(original, n),
+                employeeName,
+                AssistantChatUtils.employeeLocationOf(original),
+                mentions.first(EntityDictionary.Type.DEPARTMENT),
+                mentions.first(EntityDictionary.Type.PROJECT_NAME),
+                mentions.first(EntityDictionary.Type.LOCATION),
+                mentions.first(EntityDictionary.Type.CLIENT),
+                mentions.first(EntityDictionary.Type.PROJECT_CODE),
+                mentions.first(EntityDictionary.Type.SKILL),
+                n.contains("empleado") || n.contains("trabajan") || n.contains("participan"));
+    }
+
+    private static RagIntent intent(String n, String employeeName) {
+        boolean project = n.contains("proyecto");
+
+        // Caso especial: pregunta por proyectos de una persona
+        if (employeeName != null && project)
+            return RagIntent.EMPLOYEE;
+
+        if (n.contains("empleados") && project)
+            return RagIntent.EMPLOYEE_BY_PROJECT;
+
+        if (n.contains("empleado") || n.contains("trabaja"))
+            return RagIntent.EMPLOYEE;
+
+        if (project)
+            return RagIntent.PROJECT;
+
+        if (n.contains("departamento"))
+            return RagIntent.DEPARTMENT;
+
+        if (n.contains("ausencia") || n.contains("vacaciones") || n.contains("permiso"))
+            return RagIntent.LEAVE_REQUEST;
+
+        return RagIntent.GENERIC;
+    }
+
+    /** Palabras del texto normalizado, cortando por todo lo que no sea letra o dígito. */
+    private static List<String> words(String n) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= n.length(); i++) {
+            boolean letter = i < n.length() && Character.isLetterOrDigit(n.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(n.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
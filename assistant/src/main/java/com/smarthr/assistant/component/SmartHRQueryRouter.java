@@ -1,23 +1,32 @@
 package com.smarthr.assistant.component;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Set;
+
 @Component
+@RequiredArgsConstructor
 public class SmartHRQueryRouter {
 
+    private static final Set<String> GREETINGS = Set.of("hola", "buenas", "hello", "gracias");
+
+    private final QueryAnalyzer queryAnalyzer;
+
     public QueryType classify(String message) {
+        return classify(queryAnalyzer.analyze(message));
+    }
 
-        String m = message.toLowerCase();
+    public QueryType classify(QueryAnalysis query) {
 
-        if (m.matches(".*\\b(hola|buenos días|buenas|hello|gracias)\\b.*")) {
+        if (query.words().stream().anyMatch(GREETINGS::contains) || query.hasPhrase("buenos", "dias")) {
             return QueryType.SMALL_TALK;
         }
 
-        if (m.matches(".*\\b(cuántos|cuantos|número de|total de)\\b.*")) {
+        if (query.hasWord("cuantos") || query.hasPhrase("numero", "de") || query.hasPhrase("total", "de")) {
             return QueryType.AGGREGATION;
         }
 
         return QueryType.RAG;
     }
 }
-
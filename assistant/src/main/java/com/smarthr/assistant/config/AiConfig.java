@@ -1,10 +1,21 @@
 package com.smarthr.assistant.config;
 
+import com.smarthr.assistant.component.CachingEmbeddingModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
 
 @Configuration
+@EnableScheduling
 public class AiConfig {
 
     @Bean
@@ -17,4 +28,30 @@ public class AiConfig {
                 """)
                 .build();
     }
+
+    /**
+     * Envuelve el EmbeddingModel de Ollama con la caché de consultas. Es un post-procesador y no un bean
+     * más porque la autoconfiguración de Ollama solo crea el suyo si no hay otro EmbeddingModel. Sin actuator
+     * no hay MeterRegistry de la aplicación; los contadores van a uno local que resume {@code EmbeddingCacheReporter}.
+     */
+    @Bean
+    public static BeanPostProcessor cachingEmbeddingModel(Environment env, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof EmbeddingModel model) || bean instanceof CachingEmbeddingModel
+                        || !env.getProperty("embedding.cache.enabled", Boolean.class, true)) {
+                    return bean;
+                }
+                String directory = env.getProperty("embedding.cache.directory", "");
+                return new CachingEmbeddingModel(model,
+                        env.getProperty("spring.ai.ollama.embedding.options.model",
+                                env.getProperty("spring.ai.ollama.embedding.model", beanName)),
+                        env.getProperty("embedding.cache.max-entries", Integer.class, 1000),
+                        directory.isBlank() ? null : Path.of(directory),
+                        env.getProperty("embedding.cache.disk-max-entries", Integer.class, 20000),
+                        meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+            }
+        };
+    }
 }
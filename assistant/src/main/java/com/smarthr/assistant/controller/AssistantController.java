@@ -6,9 +6,11 @@ import com.smarthr.assistant.dto.EmployeeChatRequest;
 import com.smarthr.assistant.service.SmartHRAssistantService;
 import org.springframework.http.ResponseEntity;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
 
+@Slf4j
 @RestController
 @RequestMapping("/api/assistant")
 @RequiredArgsConstructor
@@ -21,14 +23,14 @@ public class AssistantController {
     public ResponseEntity<Map<String, String>> chat(@RequestBody Map<String, String> request) {
 
         String message = request.getOrDefault("message", "").trim();
-        System.out.println("🧠 Chat SmartHR RAG: " + message);
+        log.debug("🧠 Chat SmartHR RAG: {}", message);
 
         try {
             String response = assistantService.chat(message, null);
             return ResponseEntity.ok(Map.of("response", response));
 
         } catch (Exception e) {
-            System.out.println("❌ Error RAG: " + e.getMessage());
+            log.warn("❌ Error RAG: {}", e.getMessage());
             return ResponseEntity.ok(Map.of(
                     "response", "El asistente no está disponible en este momento. Contacte con el administrador del sistema."
             ));
@@ -1,8 +1,10 @@
 package com.smarthr.assistant.controller;
 
+import com.smarthr.assistant.component.EntityDictionary;
 import com.smarthr.assistant.dto.EmployeeCompleteDto;
 import com.smarthr.assistant.dto.EmployeeRagDto;
 import com.smarthr.assistant.dto.LeaveRequestRagDto;
+import com.smarthr.assistant.dto.RagBatchRequest;
 import com.smarthr.assistant.service.RagService;
 import com.smarthr.assistant.utils.VgVectorInyection;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +19,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -27,6 +30,8 @@ public class RagSyncController {
 
     private final RagService ragService;
 
+    private final EntityDictionary entityDictionary;
+
     @Autowired
     private VgVectorInyection vgVectorInyection;
 
@@ -44,6 +49,7 @@ public class RagSyncController {
             // Convertir el DTO a documentos y guardarlos
             List<Document> documents = ragService.buildEmployee(employeeDto);
             vgVectorInyection.upsertDocuments(documents, vectorStore);
+            entityDictionary.addDocuments(documents);
 
             return ResponseEntity.ok("Empleado insertado en RAG correctamente");
         } catch (Exception e) {
@@ -74,9 +80,33 @@ public class RagSyncController {
             @RequestBody EmployeeRagDto dto
     ) {
         log.info("delete employee {}", dto);
-        vgVectorInyection.deleteEmployee(dto, pgvectorStore);
+        entityDictionary.removeDocuments(vgVectorInyection.deleteEmployee(dto, pgvectorStore));
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<String> batch(@RequestBody RagBatchRequest request) {
+        List<Document> upserts = new ArrayList<>();
+        if (request.employees() != null) {
+            request.employees().forEach(e -> upserts.add(vgVectorInyection.employeeToDoc(e)));
+        }
+        if (request.leaveRequests() != null) {
+            request.leaveRequests().forEach(l -> upserts.add(vgVectorInyection.leaveRequestRagToDoc(l)));
+        }
+
+        List<String> deleteIds = new ArrayList<>();
+        if (request.deletedEmployees() != null) {
+            request.deletedEmployees().forEach(e -> deleteIds.addAll(vgVectorInyection.employeeDocIds(e)));
+        }
 
+        log.info("batch RAG: {} upserts, {} deletes", upserts.size(), deleteIds.size());
+        try {
+            vgVectorInyection.applyBatch(upserts, deleteIds, vectorStore);
+            entityDictionary.removeDocuments(deleteIds);
+            entityDictionary.addDocuments(upserts);
+            return ResponseEntity.ok("Lote aplicado en RAG: " + upserts.size() + " upserts, " + deleteIds.size() + " borrados");
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Error aplicando lote en RAG: " + e.getMessage());
+        }
+    }
 }
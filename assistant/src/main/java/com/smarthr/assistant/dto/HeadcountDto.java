@@ -0,0 +1,8 @@
+package com.smarthr.assistant.dto;
+
+/** Fila de {@code /api/analytics/headcount}: nombre del grupo (departamento, puesto o ubicación) y empleados. */
+public record HeadcountDto(
+        Long id,
+        String name,
+        long employees
+) {}
@@ -0,0 +1,9 @@
+package com.smarthr.assistant.dto;
+
+/** Fila de {@code /api/analytics/leave}: solicitudes y días por tipo y estado. */
+public record LeaveSummaryDto(
+        String type,
+        String status,
+        long requests,
+        long days
+) {}
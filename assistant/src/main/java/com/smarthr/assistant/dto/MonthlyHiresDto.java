@@ -0,0 +1,8 @@
+package com.smarthr.assistant.dto;
+
+/** Fila de {@code /api/analytics/hires}: altas de un mes. */
+public record MonthlyHiresDto(
+        int year,
+        int month,
+        long hires
+) {}
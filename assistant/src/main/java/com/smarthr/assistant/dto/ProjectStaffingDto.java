@@ -0,0 +1,10 @@
+package com.smarthr.assistant.dto;
+
+/** Fila de {@code /api/analytics/projects/staffing}: proyecto activo y empleados asignados. */
+public record ProjectStaffingDto(
+        Long projectId,
+        String code,
+        String name,
+        String client,
+        long employees
+) {}
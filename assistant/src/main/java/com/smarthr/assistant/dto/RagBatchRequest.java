@@ -0,0 +1,13 @@
+package com.smarthr.assistant.dto;
+
+import java.util.List;
+
+/**
+ * Lote mixto de cambios para el RAG: empleados y ausencias a insertar/actualizar
+ * y empleados a borrar. Cualquiera de las listas puede venir vacía o nula.
+ */
+public record RagBatchRequest(
+        List<EmployeeCompleteDto> employees,
+        List<LeaveRequestRagDto> leaveRequests,
+        List<EmployeeRagDto> deletedEmployees
+) {}
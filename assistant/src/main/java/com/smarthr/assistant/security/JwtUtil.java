@@ -1,30 +1,94 @@
 package com.smarthr.assistant.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Component
 public class JwtUtil {
 
+    /** Como mucho se reutiliza una verificación durante este tiempo, aunque el token dure más. */
+    private static final long MAX_CACHE_MILLIS = 10 * 60 * 1000L;
+
+    private record VerifiedToken(Claims claims, long expiresAtMillis) {}
+
     private final Key secretKey;
+    private final Clock clock;
+    private final JwtParser parser;
+    private final Map<String, VerifiedToken> verifiedTokens;
+
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.verified-cache.max-size:10000}") int verifiedCacheSize) {
+        this(secret, verifiedCacheSize, Clock.systemUTC());
+    }
 
-    public JwtUtil(@Value("${jwt.secret}") String secret) {
+    /** El reloj decide tanto la caducidad en caché como la del propio token; los tests lo adelantan. */
+    public JwtUtil(String secret, int verifiedCacheSize, Clock clock) {
         this.secretKey = Keys.hmacShaKeyFor(
                 secret.getBytes(StandardCharsets.UTF_8)
         );
+        this.clock = clock;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .setClock(() -> Date.from(clock.instant()))
+                .build();
+        // LRU por orden de acceso, acotada en tamaño
+        this.verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        };
     }
 
     public Claims validateToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String digest = digest(token);
+        long now = clock.millis();
+
+        synchronized (verifiedTokens) {
+            VerifiedToken cached = verifiedTokens.get(digest);
+            if (cached != null) {
+                if (cached.expiresAtMillis() > now) {
+                    return cached.claims();
+                }
+                verifiedTokens.remove(digest);
+            }
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+
+        Date exp = claims.getExpiration();
+        long expiresAt = now + MAX_CACHE_MILLIS;
+        if (exp != null) {
+            expiresAt = Math.min(expiresAt, exp.getTime());
+        }
+        synchronized (verifiedTokens) {
+            verifiedTokens.put(digest, new VerifiedToken(claims, expiresAt));
+        }
+        return claims;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
     }
 }
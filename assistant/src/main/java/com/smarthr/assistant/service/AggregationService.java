@@ -1,28 +1,156 @@
 package com.smarthr.assistant.service;
 
 
+import com.smarthr.assistant.component.QueryAnalysis;
+import com.smarthr.assistant.dto.HeadcountDto;
+import com.smarthr.assistant.dto.LeaveSummaryDto;
+import com.smarthr.assistant.dto.MonthlyHiresDto;
+import com.smarthr.assistant.dto.ProjectStaffingDto;
+import com.smarthr.assistant.utils.AssistantChatUtils;
 import lombok.RequiredArgsConstructor;
-
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
+/**
+ * Preguntas agregadas del chat ("¿cuántos empleados hay en Desarrollo?"). Los totales los calcula el
+ * backend en {@code /api/analytics}; el RAG solo ve unos cuantos documentos y no sirve para contar.
+ * La llamada reenvía el token del usuario, así que el backend decide quién puede ver las cifras.
+ */
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class AggregationService {
 
-    public String handle(String message) {
-
-        if (message.matches("(?i).*cuántos.*empleados.*")) {
-            return """
-            No dispongo de información agregada exacta en este momento.
-            Para conocer el número total de empleados, consulte el panel de RRHH
-            o el sistema corporativo oficial.
+    private static final String UNAVAILABLE = """
+            No dispongo de información agregada en este momento.
+            Por favor, contacte con RRHH o con el administrador del sistema.
             """;
+
+    private static final ParameterizedTypeReference<List<HeadcountDto>> HEADCOUNT = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<ProjectStaffingDto>> STAFFING = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<LeaveSummaryDto>> LEAVE = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<MonthlyHiresDto>> HIRES = new ParameterizedTypeReference<>() {};
+
+    private final RestTemplate restTemplate;
+
+    @Value("${backend.url:http://backend:8080}")
+    private String backendUrl = "http://backend:8080";
+
+    public String handle(QueryAnalysis query) {
+        try {
+            if (query.normalized().contains("ausencia") || query.hasWord("vacaciones") || query.hasWord("permisos")) {
+                return leave();
+            }
+            if (query.normalized().contains("proyecto")) {
+                return projects(query);
+            }
+            if (query.hasWord("altas") || query.hasWord("contratados") || query.hasWord("incorporaciones")) {
+                return hires();
+            }
+            return headcount(query);
+        } catch (HttpClientErrorException.Unauthorized | HttpClientErrorException.Forbidden e) {
+            return "Solo el personal de RRHH puede consultar indicadores agregados.";
+        } catch (RestClientException e) {
+            log.warn("❌ Error consultando analytics en el backend: {}", e.getMessage());
+            return UNAVAILABLE;
         }
+    }
 
-        return """
-        No dispongo de información agregada para esa consulta.
-        Por favor, contacte con RRHH o con el administrador del sistema.
-        """;
+    private String headcount(QueryAnalysis query) {
+        if (query.department() != null) {
+            return find(get("/api/analytics/headcount?by=department", HEADCOUNT), query.department())
+                    .map(h -> "En el departamento " + h.name() + " hay " + h.employees() + " empleado(s).")
+                    .orElse("No hay empleados en el departamento " + query.department() + ".");
+        }
+
+        String location = query.projectLocation() != null ? query.projectLocation() : query.employeeLocation();
+        if (location != null) {
+            long employees = find(get("/api/analytics/headcount?by=location", HEADCOUNT), location)
+                    .map(HeadcountDto::employees).orElse(0L);
+            return "En " + location + " hay " + employees + " empleado(s).";
+        }
+
+        List<HeadcountDto> byDepartment = get("/api/analytics/headcount?by=department", HEADCOUNT);
+        long total = byDepartment.stream().mapToLong(HeadcountDto::employees).sum();
+        return "En SmartHR hay " + total + " empleado(s): " + byDepartment.stream()
+                .map(h -> (h.name() != null ? h.name() : "Sin departamento") + " " + h.employees())
+                .collect(Collectors.joining(", ")) + ".";
+    }
+
+    private String projects(QueryAnalysis query) {
+        List<ProjectStaffingDto> staffing = get("/api/analytics/projects/staffing", STAFFING);
+
+        List<ProjectStaffingDto> matching = staffing.stream()
+                .filter(p -> matches(p.name(), query.projectName()) || matches(p.code(), query.projectCode())
+                        || matches(p.client(), query.client()))
+                .toList();
+        if (!matching.isEmpty()) {
+            return matching.stream()
+                    .map(p -> "En el proyecto " + p.name() + " (" + p.code() + ", " + p.client() + ") hay "
+                            + p.employees() + " empleado(s) asignado(s).")
+                    .collect(Collectors.joining("\n"));
+        }
+        return "Hay " + staffing.size() + " proyecto(s) activo(s) con "
+                + staffing.stream().mapToLong(ProjectStaffingDto::employees).sum() + " asignación(es) en vigor.";
+    }
+
+    private String leave() {
+        Map<String, Long> byStatus = get("/api/analytics/leave", LEAVE).stream()
+                .collect(Collectors.groupingBy(LeaveSummaryDto::status, Collectors.summingLong(LeaveSummaryDto::requests)));
+        long total = byStatus.values().stream().mapToLong(Long::longValue).sum();
+        return "Este año hay " + total + " solicitud(es) de ausencia: "
+                + byStatus.getOrDefault("PENDING", 0L) + " pendiente(s), "
+                + byStatus.getOrDefault("APPROVED", 0L) + " aprobada(s) y "
+                + byStatus.getOrDefault("REJECTED", 0L) + " rechazada(s).";
     }
-}
 
+    private String hires() {
+        LocalDate from = LocalDate.now().withDayOfYear(1);
+        long hires = get("/api/analytics/hires?from=" + from, HIRES).stream().mapToLong(MonthlyHiresDto::hires).sum();
+        return "Este año se han dado de alta " + hires + " empleado(s).";
+    }
+
+    private <T> List<T> get(String path, ParameterizedTypeReference<List<T>> type) {
+        HttpHeaders headers = new HttpHeaders();
+        String authorization = currentAuthorization();
+        if (authorization != null) {
+            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        List<T> body = restTemplate.exchange(backendUrl + path, HttpMethod.GET, new HttpEntity<>(headers), type).getBody();
+        return body != null ? body : List.of();
+    }
 
+    /** Cabecera Authorization de la petición de chat en curso, o null fuera de una petición. */
+    private static String currentAuthorization() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getHeader(HttpHeaders.AUTHORIZATION);
+        }
+        return null;
+    }
+
+    private static Optional<HeadcountDto> find(List<HeadcountDto> rows, String name) {
+        return rows.stream().filter(h -> matches(h.name(), name)).findFirst();
+    }
+
+    /** Compara sin mayúsculas ni tildes; las entidades del análisis ya vienen normalizadas. */
+    private static boolean matches(String value, String wanted) {
+        return value != null && wanted != null
+                && AssistantChatUtils.normalizeText(value).equals(AssistantChatUtils.normalizeText(wanted));
+    }
+}
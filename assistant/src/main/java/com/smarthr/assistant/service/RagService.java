@@ -1,8 +1,12 @@
 package com.smarthr.assistant.service;
 
+import com.smarthr.assistant.component.EntityDictionary;
+import com.smarthr.assistant.component.QueryAnalysis;
+import com.smarthr.assistant.component.QueryAnalyzer;
 import com.smarthr.assistant.dto.*;
 import com.smarthr.assistant.utils.AssistantChatUtils;
 import com.smarthr.assistant.utils.RagIntent;
+import com.smarthr.assistant.utils.RelationshipIndex;
 import com.smarthr.assistant.utils.VgVectorInyection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +23,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import com.smarthr.assistant.utils.VgVectorInyection.*;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,6 +46,27 @@ public class RagService {
     @Autowired
     public final AssistantChatUtils assistantChatUtils;
 
+    private final QueryAnalyzer queryAnalyzer;
+
+    private final EntityDictionary entityDictionary;
+
+    /**
+     * Reconstruye el índice de IDs y el diccionario de entidades con lo que ya había en el vector store
+     * antes del arranque; sin esto el diccionario volvería a los valores fijos tras cada reinicio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexVectorStore() {
+        try {
+            Map<String, Map<String, Object>> stored = new HashMap<>();
+            log.info("🗂️ Índice de documentos cargado: {} documentos", vgVectorInyection.indexExisting(vectorStore, stored::put));
+            if (!stored.isEmpty()) {
+                entityDictionary.rebuild(stored);
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo cargar el índice de documentos; se usará la búsqueda vectorial: {}", e.getMessage());
+        }
+    }
+
     //@EventListener(ApplicationReadyEvent.class)
     public void syncSmartHRData() {
         for (int i = 0; i < 6; i++) {
@@ -63,7 +89,9 @@ public class RagService {
 
                 List<Document> documents = buildDocuments(snapshot);
                 vgVectorInyection.upsertDocuments(documents, vectorStore);
-
+                Map<String, Map<String, Object>> metadata = new HashMap<>();
+                documents.forEach(d -> metadata.put(d.getId(), d.getMetadata()));
+                entityDictionary.rebuild(metadata);
 
                 log.info("✅ RAG sincronizado: {} documentos", documents.size());
                 return;
@@ -93,36 +121,34 @@ public class RagService {
         return docs;
     }
     public String chatWithRag(String message) {
+        return chatWithRag(queryAnalyzer.analyze(message));
+    }
+
+    public String chatWithRag(QueryAnalysis query) {
 
-        RagIntent intent = detectIntent(message);
-        System.out.println("🔍 Intent detected: " + intent);
-        String enhancedQuery = assistantChatUtils.rewriteQuery(message);
-        System.out.println("📝 Enhanced query: " + enhancedQuery);
+        String message = query.message();
+        RagIntent intent = query.intent();
+        String enhancedQuery = query.rewrittenQuery();
+        log.debug("🔍 Intent detected: {} · enhanced query: {}", intent, enhancedQuery);
 
         if (intent == RagIntent.LEAVE_REQUEST) {
-            return handleAbsenceQuery(message);
+            return handleAbsenceQuery(query);
         }
 
         if (intent == RagIntent.EMPLOYEE_BY_PROJECT) {
-            return handleEmployeesByProject(message, enhancedQuery);
+            return handleEmployeesByProject(query);
         }
 
         if (intent == RagIntent.PROJECT) {
-            return handleProjects(message, enhancedQuery);
+            return handleProjects(query);
         }
 
-        String employeeName = assistantChatUtils.extractEmployeeName(message);
+        String employeeName = query.employeeName();
         if (employeeName != null) {
             String cleanName = assistantChatUtils.normalize(employeeName);
-            List<Document> employees = vectorStore.similaritySearch(
-                            SearchRequest.builder()
-                                    .topK(100) // aumentar topK
-                                    .filterExpression("type == 'EMPLOYEE'")
-                                    .build()
-                    ).stream()
-                    .filter(d -> assistantChatUtils.normalize(d.getText()).contains(cleanName) ||
-                            assistantChatUtils.normalize((String)d.getMetadata().get("entityId")).contains(cleanName.replace(" ", "-")))
-                    .toList();
+            List<Document> employees = employeeDocuments(employeeName,
+                    d -> assistantChatUtils.normalize(d.getText()).contains(cleanName) ||
+                            assistantChatUtils.normalize((String)d.getMetadata().get("entityId")).contains(cleanName.replace(" ", "-")));
 
             if (!employees.isEmpty()) {
                 return answerWithContext(message, employees);
@@ -133,7 +159,7 @@ public class RagService {
             }
         }
 
-        String location = assistantChatUtils.extractEmployeeLocation(message);
+        String location = query.employeeLocation();
         if (location != null) {
             List<Document> employees = vectorStore.similaritySearch(
                     SearchRequest.builder()
@@ -148,21 +174,22 @@ public class RagService {
                 return answerWithContext(message, employees);
         }
 
-        if (assistantChatUtils.containsSkill(message)) {
-            List<Document> employees = vectorStore.similaritySearch(
-                    SearchRequest.builder()
-                            .query(enhancedQuery)
-                            .topK(20)
-                            .filterExpression("type == 'EMPLOYEE'")
-                            .build()
-            );
+        if (query.mentionsSkill()) {
+            List<Document> employees = vgVectorInyection.findRelatedEmployees(
+                            new RelationshipIndex.Criteria(null, null, null, null, query.skill()), vectorStore)
+                    .orElseGet(() -> vectorStore.similaritySearch(
+                            SearchRequest.builder()
+                                    .query(enhancedQuery)
+                                    .topK(20)
+                                    .filterExpression("type == 'EMPLOYEE'")
+                                    .build()
+                    ));
 
             if (!employees.isEmpty())
                 return answerWithContext(message, employees);
         }
 
-        String department = assistantChatUtils.extractDepartment(message);
-        String locationFallback = assistantChatUtils.extractEmployeeLocation(message);
+        String department = query.department();
 
         StringBuilder filterExpr = new StringBuilder("type == 'EMPLOYEE'");
 
@@ -170,9 +197,9 @@ public class RagService {
             filterExpr.append(" && department == '").append(department).append("'");
         }
 
-        if (locationFallback != null) {
+        if (location != null) {
             filterExpr.append(" && location == '")
-                    .append(assistantChatUtils.capitalize(locationFallback))
+                    .append(assistantChatUtils.capitalize(location))
                     .append("'");
         }
 
@@ -190,24 +217,21 @@ public class RagService {
     }
 
     public String chatForEmployee(String employeeName, String message) {
+        return chatForEmployee(employeeName, queryAnalyzer.analyze(message));
+    }
+
+    public String chatForEmployee(String employeeName, QueryAnalysis query) {
+        String message = query.message();
         String cleanName = assistantChatUtils.normalize(employeeName);
         log.info("👤 Chat for employee: {}", employeeName);
+        log.info("🔍 Intent detected: {}", query.intent());
 
-        RagIntent intent = detectIntent(message);
-        log.info("🔍 Intent detected: {}", intent);
-
-        if (intent == RagIntent.LEAVE_REQUEST) {
-            return handleAbsenceQueryForEmployee(employeeName, message);
+        if (query.intent() == RagIntent.LEAVE_REQUEST) {
+            return handleAbsenceQueryForEmployee(employeeName, query);
         }
 
-        List<Document> employeeDocs = vectorStore.similaritySearch(
-                        SearchRequest.builder()
-                                .topK(20)
-                                .filterExpression("type == 'EMPLOYEE'")
-                                .build()
-                ).stream()
-                .filter(d -> assistantChatUtils.normalize(d.getText()).contains(cleanName))
-                .toList();
+        List<Document> employeeDocs = employeeDocuments(employeeName,
+                d -> assistantChatUtils.normalize(d.getText()).contains(cleanName));
 
         if (employeeDocs.isEmpty()) {
             return "No he encontrado información para " + employeeName;
@@ -216,13 +240,14 @@ public class RagService {
         return answerWithContext(message, employeeDocs);
     }
 
-    public String handleAbsenceQueryForEmployee(String employeeName, String message) {
+    public String handleAbsenceQueryForEmployee(String employeeName, QueryAnalysis query) {
 
         String cleanName = assistantChatUtils.normalize(employeeName);
 
-        List<Document> leaves = searchLeaveRequests(message).stream()
-                .filter(doc -> assistantChatUtils.normalize(doc.getText()).contains(cleanName))
-                .toList();
+        List<Document> leaves = vgVectorInyection.findLeaveRequestDocuments(employeeName, vectorStore)
+                .orElseGet(() -> searchLeaveRequests().stream()
+                        .filter(doc -> assistantChatUtils.normalize(doc.getText()).contains(cleanName))
+                        .toList());
 
         if (leaves.isEmpty()) {
             return """
@@ -257,7 +282,7 @@ public class RagService {
         CONTEXTO:
         %s
         """.formatted(context))
-                .user(message)
+                .user(query.message())
                 .call()
                 .content();
 
@@ -276,7 +301,23 @@ public class RagService {
                 .content();
     }
 
-    private List<Document> searchLeaveRequests(String message) {
+    /**
+     * Documentos del empleado por ID desde el índice; si no está indexado, recorre los empleados del
+     * vector store con el filtro de texto.
+     */
+    private List<Document> employeeDocuments(String employeeName, Predicate<Document> matchesName) {
+        return vgVectorInyection.findEmployeeDocuments(employeeName, vectorStore)
+                .orElseGet(() -> vectorStore.similaritySearch(
+                                SearchRequest.builder()
+                                        .topK(100)
+                                        .filterExpression("type == 'EMPLOYEE'")
+                                        .build()
+                        ).stream()
+                        .filter(matchesName)
+                        .toList());
+    }
+
+    private List<Document> searchLeaveRequests() {
         SearchRequest request = SearchRequest.builder()
                 .query("solicitud ausencia vacaciones enfermedad baja excedencia leave request")
                 .topK(30)
@@ -287,45 +328,31 @@ public class RagService {
         return vectorStore.similaritySearch(request);
     }
 
-    public RagIntent detectIntent(String message) {
-        String lower = assistantChatUtils.normalize(message);
-
-        // 🔥 Caso especial: pregunta por proyectos de una persona
-        if (assistantChatUtils.extractEmployeeName(message) != null
-                && lower.contains("proyecto")) {
-            return RagIntent.EMPLOYEE;
-        }
-
-        if (lower.contains("empleados") && lower.contains("proyecto"))
-            return RagIntent.EMPLOYEE_BY_PROJECT;
+    public String handleProjects(QueryAnalysis query) {
 
-        if (lower.contains("empleado") || lower.contains("empleados") || lower.contains("trabaja"))
-            return RagIntent.EMPLOYEE;
+        String message = query.message();
+        String targetProject = query.projectName();
+        String targetLocation = query.projectLocation();
+        String targetClient = query.client();
 
-        if (lower.contains("proyecto"))
-            return RagIntent.PROJECT;
+        log.debug("📝 target: {}, {}, {}", targetLocation, targetProject, targetClient);
 
-        if (lower.contains("departamento"))
-            return RagIntent.DEPARTMENT;
+        RelationshipIndex.Criteria criteria =
+                new RelationshipIndex.Criteria(targetProject, null, targetClient, targetLocation, null);
 
-        if (lower.contains("ausencia") || lower.contains("vacaciones") || lower.contains("permiso"))
-            return RagIntent.LEAVE_REQUEST;
-
-        return RagIntent.GENERIC;
-    }
-
-
-    public String handleProjects(String message, String enhancedQuery) {
-
-        String targetProject = assistantChatUtils.extractProjectNameFromMessage(message);
-        String targetLocation = assistantChatUtils.extractProjectLocation(message);
-        String targetClient = assistantChatUtils.extractClientFromMessage(message);
-
-        System.out.println("📝 target: " + targetLocation + ", " + targetProject + ", " + targetClient);
+        // Con filtros, el índice de relaciones da los proyectos (o sus empleados) sin búsqueda vectorial
+        if (criteria.hasProjectFilter()) {
+            Optional<List<Document>> indexed = query.wantsEmployees()
+                    ? vgVectorInyection.findRelatedEmployees(criteria, vectorStore)
+                    : vgVectorInyection.findProjectDocuments(criteria, vectorStore);
+            if (indexed.isPresent()) {
+                return answerWithContext(message, indexed.get());
+            }
+        }
 
         //Buscar proyectos
         SearchRequest projectRequest = SearchRequest.builder()
-                .query(enhancedQuery)
+                .query(query.rewrittenQuery())
                 .topK(15)
                 .similarityThreshold(0.2f)
                 .filterExpression("type == 'PROJECT'")
@@ -344,36 +371,15 @@ public class RagService {
         List<Document> matchedProjects = projectDocs.stream()
                 .filter(doc -> {
                     Map<String, Object> meta = doc.getMetadata();
-
-                    String pName = assistantChatUtils.normalize((String) meta.get("projectName"));
-                    String pClient = assistantChatUtils.normalize((String) meta.get("client"));
-                    String pLocation = assistantChatUtils.normalize((String) meta.get("ubication"));
-
-                    boolean matchByName =
-                            targetProject != null &&
-                                    (pName.contains(targetProject) || targetProject.contains(pName));
-
-                    boolean matchByClient =
-                            targetClient != null &&
-                                    pClient.contains(targetClient);
-
-                    boolean matchByLocation =
-                            targetLocation != null &&
-                                    pLocation.equals(targetLocation);
-
-                    return matchByName || matchByClient || matchByLocation;
+                    return matchesProject(criteria, meta.get("projectName"), meta.get("code"),
+                            meta.get("client"), meta.get("ubication"));
                 })
                 .toList();
 
         if (matchedProjects.isEmpty()) return assistantChatUtils.noDataResponse();
 
         // ¿La pregunta pide EMPLEADOS?
-        boolean wantsEmployees =
-                assistantChatUtils.normalize(message).contains("empleado")
-                        || assistantChatUtils.normalize(message).contains("trabajan")
-                        || assistantChatUtils.normalize(message).contains("participan");
-
-        if (!wantsEmployees) {
+        if (!query.wantsEmployees()) {
             return answerWithContext(message, matchedProjects);
         }
 
@@ -414,18 +420,28 @@ public class RagService {
         return answerWithContext(message, matchedEmployees);
     }
 
-    public String handleEmployeesByProject(String message, String enhancedQuery) {
+    public String handleEmployeesByProject(QueryAnalysis query) {
+
+        String message = query.message();
+
+        RelationshipIndex.Criteria criteria = new RelationshipIndex.Criteria(query.projectName(), query.projectCode(),
+                query.client(), query.projectLocation(), query.skill());
+        if (criteria.hasProjectFilter()) {
+            Optional<List<Document>> indexed = vgVectorInyection.findRelatedEmployees(criteria, vectorStore);
+            if (indexed.isPresent()) {
+                return answerWithContext(message, indexed.get());
+            }
+        }
 
         SearchRequest projectRequest = SearchRequest.builder()
-                .query(enhancedQuery)
+                .query(query.rewrittenQuery())
                 .topK(10)
                 .similarityThreshold(0.2f)
                 .filterExpression("type == 'PROJECT'")
                 .build();
 
-        System.out.println("🔍 Searching projects with request: " + projectRequest);
         List<Document> projectDocs = vectorStore.similaritySearch(projectRequest);
-        System.out.println("🔍 projectDocs: " + projectDocs.stream().map(Document::toString).collect(Collectors.joining("\n")));
+        log.debug("🔍 {} projectDocs", projectDocs.size());
         if (projectDocs.isEmpty()) return assistantChatUtils.noDataResponse();
 
 
@@ -436,22 +452,16 @@ public class RagService {
                         .build()
         );
 
-        String targetProject = assistantChatUtils.extractProjectNameFromMessage(message);
-        System.out.println("🔍 targetProject: " + targetProject);
-        String targetProjectLocation = assistantChatUtils.extractProjectLocation(message);
-        System.out.println("🔍 targetProjectLocation: " + targetProjectLocation);
+        String targetProject = query.projectName();
+        String targetProjectLocation = query.projectLocation();
+        log.debug("🔍 targetProject: {}, targetProjectLocation: {}", targetProject, targetProjectLocation);
 
         Set<String> clientsNormalized = projectDocs.stream()
                 .map(d ->  assistantChatUtils.normalize((String) d.getMetadata().get("client")))
                 .filter(s -> !s.isBlank())
                 .collect(Collectors.toSet());
 
-        boolean hasProjectName = targetProject != null;
-        boolean hasLocation = targetProjectLocation != null;
-        boolean hasClient = !clientsNormalized.isEmpty();
-        boolean hasProjectCode = assistantChatUtils.extractProjectCode(message) != null;
-
-        if (!hasProjectName && !hasLocation && !hasClient && !hasProjectCode) {
+        if (!criteria.hasProjectFilter() && clientsNormalized.isEmpty()) {
             return assistantChatUtils.noDataResponse();
         }
 
@@ -463,22 +473,15 @@ public class RagService {
                         for (Object pObj : col) {
 
                             if (pObj instanceof Map<?, ?> pMap) {
-
-                                String pName = assistantChatUtils.normalize((String) pMap.get("name"));
-                                String pClient = assistantChatUtils.normalize((String) pMap.get("client"));
-                                String pLocation = assistantChatUtils.normalize((String) pMap.get("ubication"));
-
-                                boolean matchByName = targetProject != null &&
-                                        (pName.contains(targetProject) || targetProject.contains(pName));
-
-                                boolean matchByClient = targetProject == null &&
-                                        clientsNormalized.stream()
-                                                .anyMatch(c -> c.contains(pClient) || pClient.contains(c));
-
-                                boolean matchByLocation = targetProjectLocation != null &&
-                                        pLocation.equals(targetProjectLocation);
-
-                                if (matchByName || matchByClient || matchByLocation) {
+                                // Sin filtros explícitos valen los clientes de los proyectos parecidos a la pregunta
+                                boolean match = criteria.hasProjectFilter()
+                                        ? matchesProject(criteria, pMap.get("name"), pMap.get("code"),
+                                                pMap.get("client"), pMap.get("ubication"))
+                                        : clientsNormalized.stream().anyMatch(c -> {
+                                            String pClient = normalized(pMap.get("client"));
+                                            return !pClient.isEmpty() && (c.contains(pClient) || pClient.contains(c));
+                                        });
+                                if (match) {
                                     return true;
                                 }
                             }
@@ -494,18 +497,46 @@ public class RagService {
         return answerWithContext(message, matchedEmployees);
     }
 
-    public String handleAbsenceQuery(String message) {
-        List<Document> leaves = searchLeaveRequests(message);
+    /**
+     * Mismo criterio que {@link RelationshipIndex}: cada filtro presente tiene que cumplirse (AND), así
+     * que el recorrido sin índice responde lo mismo que el índice.
+     */
+    private boolean matchesProject(RelationshipIndex.Criteria criteria, Object name, Object code, Object client,
+                                   Object location) {
+        if (criteria.projectName() != null) {
+            String pName = normalized(name);
+            String target = normalized(criteria.projectName());
+            if (pName.isEmpty() || !(pName.contains(target) || target.contains(pName))) return false;
+        }
+        if (criteria.projectCode() != null && !normalized(code).equals(normalized(criteria.projectCode()))) {
+            return false;
+        }
+        if (criteria.client() != null) {
+            String pClient = normalized(client);
+            if (pClient.isEmpty() || !pClient.contains(normalized(criteria.client()))) return false;
+        }
+        return criteria.location() == null || normalized(location).equals(normalized(criteria.location()));
+    }
 
-        String employeeName = assistantChatUtils.extractEmployeeName(message);
+    private String normalized(Object value) {
+        return value == null ? "" : Objects.toString(assistantChatUtils.normalize(value.toString()), "");
+    }
 
-        if (employeeName != null) {
+    public String handleAbsenceQuery(QueryAnalysis query) {
+        String employeeName = query.employeeName();
+
+        Optional<List<Document>> indexed = employeeName != null
+                ? vgVectorInyection.findLeaveRequestDocuments(employeeName, vectorStore)
+                : Optional.empty();
+        List<Document> leaves = indexed.orElseGet(this::searchLeaveRequests);
+
+        if (employeeName != null && indexed.isEmpty()) {
             String clean = assistantChatUtils.normalize(employeeName);
             leaves = leaves.stream().filter(doc -> assistantChatUtils.normalize(doc.getText()).contains(clean)).toList();
         }
 
         if (leaves.isEmpty() && employeeName != null) {
-            leaves = searchLeaveRequests("ausencias historicas");
+            leaves = searchLeaveRequests();
         }
 
         if (leaves.isEmpty()) {
@@ -532,7 +563,7 @@ public class RagService {
         CONTEXTO:
         %s
         """.formatted(context))
-                .user(message)
+                .user(query.message())
                 .call()
                 .content();
     }
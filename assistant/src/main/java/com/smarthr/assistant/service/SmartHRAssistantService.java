@@ -1,5 +1,7 @@
 package com.smarthr.assistant.service;
 
+import com.smarthr.assistant.component.QueryAnalysis;
+import com.smarthr.assistant.component.QueryAnalyzer;
 import com.smarthr.assistant.component.SmartHRQueryRouter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -8,25 +10,26 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class SmartHRAssistantService {
 
+    private final QueryAnalyzer queryAnalyzer;
     private final SmartHRQueryRouter router;
     private final RagService ragService;
     private final AggregationService aggregationService;
 
     public String chat(String message, String employeeId) {
-        switch (router.classify(message)) {
+        QueryAnalysis query = queryAnalyzer.analyze(message);
+        switch (router.classify(query)) {
             case SMALL_TALK:
                 return "Hola. Soy el asistente interno de SmartHR. ¿En qué puedo ayudarte?";
             case AGGREGATION:
-                return aggregationService.handle(message);
+                return aggregationService.handle(query);
             case RAG:
                 if (employeeId != null) {
-                    return ragService.chatForEmployee(employeeId, message);
+                    return ragService.chatForEmployee(employeeId, query);
                 } else {
-                    return ragService.chatWithRag(message);
+                    return ragService.chatWithRag(query);
                 }
             default:
                 return "";
         }
     }
 }
-
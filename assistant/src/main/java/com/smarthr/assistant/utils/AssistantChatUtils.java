@@ -1,10 +1,13 @@
 package com.smarthr.assistant.utils;
 
+import com.smarthr.assistant.component.EntityDictionary;
 import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.text.Normalizer;
 import java.util.List;
+import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -12,24 +15,51 @@ import java.util.stream.Collectors;
 @Component
 public class AssistantChatUtils {
 
+    private static final Pattern EMPLOYEE_NAME =
+            Pattern.compile("([A-ZÁÉÍÓÚÑ][a-záéíóúñ]+\\s+[A-ZÁÉÍÓÚÑ][a-záéíóúñ]+)");
+    private static final Pattern EMPLOYEE_LOCATION =
+            Pattern.compile("ubicaci[oó]n\\s+en\\s+([A-Za-zÁÉÍÓÚÑáéíóúñ ]+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+
+    private final EntityDictionary entityDictionary;
+
+    /** Con el diccionario inicial, sin datos sincronizados. */
+    public AssistantChatUtils() {
+        this(new EntityDictionary());
+    }
+
+    @Autowired
+    public AssistantChatUtils(EntityDictionary entityDictionary) {
+        this.entityDictionary = entityDictionary;
+    }
+
     public String rewriteQuery(String original) {
-        String lower = original.toLowerCase().trim();
-        if (lower.contains("ausencia") || lower.contains("ausencias"))
+        return rewriteQuery(original, normalizeText(original));
+    }
+
+    /** Igual que {@link #rewriteQuery(String)} con el mensaje ya normalizado. */
+    public static String rewriteQuery(String original, String n) {
+        if (n.contains("ausencia"))
             return original + " solicitud ausencia leave request sickness pending approved vacaciones baja médica ";
-        if (lower.contains("pendiente") || lower.contains("pendientes"))
+        if (n.contains("pendiente"))
             return original + " pending status abierto no aprobado solicitud";
-        if (lower.contains("empleado") || lower.contains("empleados"))
+        if (n.contains("empleado"))
             return original + " empleado nombre departamento puesto";
-        if (lower.contains("habilidad") || lower.contains("habilidades"))
+        if (n.contains("habilidad"))
             return original + " java spring boot docker kubernetes postgresql redis git javascript";
-        if (lower.contains("salario") || lower.contains("sueldo"))
+        if (n.contains("salario") || n.contains("sueldo"))
             return original + " salario sueldo pago bonus contrato permanente precario";
         return original;
     }
 
     public String extractEmployeeName(String message) {
-        Pattern p = Pattern.compile("([A-ZÁÉÍÓÚÑ][a-záéíóúñ]+\\s+[A-ZÁÉÍÓÚÑ][a-záéíóúñ]+)");
-        Matcher m = p.matcher(message);
+        String known = find(message, EntityDictionary.Type.EMPLOYEE);
+        return known != null ? known : employeeNameOf(message);
+    }
+
+    /** Primer "Nombre Apellido" del mensaje original (sin normalizar: depende de las mayúsculas). */
+    public static String employeeNameOf(String message) {
+        Matcher m = EMPLOYEE_NAME.matcher(message);
         if (m.find()) return m.group(1);
         return null;
     }
@@ -46,84 +76,58 @@ public class AssistantChatUtils {
     }
 
     public String extractDepartment(String message) {
-        String n = normalize(message);
-        if (n.contains("desarrollo")) return "Desarrollo";
-        if (n.contains("data")) return "Data";
-        if (n.contains("marketing")) return "Marketing";
-        if (n.contains("recursos humanos") || n.contains("rrhh")) return "Recursos Humanos";
-        return null;
+        return find(message, EntityDictionary.Type.DEPARTMENT);
     }
+
     public String normalize(String text) {
+        return normalizeText(text);
+    }
+
+    /** Sin tildes, en minúsculas y sin espacios en los extremos; los textos ASCII no pasan por el Normalizer. */
+    public static String normalizeText(String text) {
         if (text == null) return "";
-        return Normalizer.normalize(text, Normalizer.Form.NFD)
-                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
-                .toLowerCase()
-                .trim();
+        String folded = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        return folded.toLowerCase(Locale.ROOT).trim();
     }
 
     public String extractProjectLocation(String message) {
-        String n = normalize(message);
-
-        if (n.contains("madrid")) return "madrid";
-        if (n.contains("barcelona")) return "barcelona";
-        if (n.contains("remote") || n.contains("remoto")) return "remote";
-        if (n.contains("sevilla")) return "sevilla";
-
-        return null;
+        return find(message, EntityDictionary.Type.LOCATION);
     }
 
     public String extractClientFromMessage(String message) {
-        String n = normalize(message);
-
-        // patrones habituales
-        if (n.contains("cliente nike") || n.contains("nike")) return "nike";
-        if (n.contains("cliente ibm") || n.contains("ibm")) return "ibm";
-        if (n.contains("cliente salesforce") || n.contains("salesforce")) return "salesforce";
-        if (n.contains("cliente microsoft") || n.contains("microsoft")) return "microsoft";
-        if (n.contains("cliente accenture") || n.contains("accenture")) return "accenture";
-        if (n.contains("cliente smarthr") || n.contains("smarthr")) return "smarthr";
-
-        return null;
+        return find(message, EntityDictionary.Type.CLIENT);
     }
 
     public String extractProjectCode(String message) {
-        String n = normalize(message);
-
-        // Comparar en minúsculas ya que normalize() convierte a minúsculas
-        if (n.contains("prj001")) return "PRJ001";
-        if (n.contains("prj002")) return "PRJ002";
-        if (n.contains("prj003")) return "PRJ003";
-        if (n.contains("prj004")) return "PRJ004";
-        if (n.contains("prj005")) return "PRJ005";
-        if (n.contains("prj006")) return "PRJ006";
-
-        return null;
+        return find(message, EntityDictionary.Type.PROJECT_CODE);
     }
 
     public String extractEmployeeLocation(String message) {
-        Pattern p = Pattern.compile("ubicaci[oó]n\\s+en\\s+([A-Za-zÁÉÍÓÚÑáéíóúñ ]+)", Pattern.CASE_INSENSITIVE);
-        Matcher m = p.matcher(message);
+        return employeeLocationOf(message);
+    }
+
+    public static String employeeLocationOf(String message) {
+        Matcher m = EMPLOYEE_LOCATION.matcher(message);
         if (m.find()) return m.group(1).trim();
         return null;
     }
 
     public boolean containsSkill(String message) {
-        String m = normalize(message);
-        return m.contains("docker") || m.contains("kubernetes")
-                || m.contains("java") || m.contains("spring")
-                || m.contains("python");
+        return entityDictionary.scan(normalize(message)).has(EntityDictionary.Type.SKILL);
     }
 
     public String extractProjectNameFromMessage(String message) {
-        String n = normalize(message);
-
-        if (n.contains("optimizacion de procesos")) return "optimizacion de procesos";
-        if (n.contains("desarrollo apis")) return "desarrollo apis";
-        if (n.contains("portal web")) return "portal web corporativo";
-        if (n.contains("migracion cloud")) return "migracion cloud";
-        if (n.contains("sistema rrhh")) return "sistema rrhh";
+        return find(message, EntityDictionary.Type.PROJECT_NAME);
+    }
 
-        return null;
+    private String find(String message, EntityDictionary.Type type) {
+        return entityDictionary.scan(normalize(message)).first(type);
     }
 
     public String capitalize(String s) {
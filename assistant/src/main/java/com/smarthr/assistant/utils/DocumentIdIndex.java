@@ -0,0 +1,114 @@
+package com.smarthr.assistant.utils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria de los documentos de empleados y de sus ausencias: nombre normalizado y
+ * {@code entityId} → IDs del vector store. Lo mantiene {@link VgVectorInyection} en cada alta y baja.
+ * Las lecturas no bloquean; las escrituras, poco frecuentes, se serializan.
+ */
+public class DocumentIdIndex {
+
+    private record Indexed(String type, String name, String entityId) {
+    }
+
+    private final Map<String, Indexed> byId = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> employeeIdsByName = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> leaveIdsByName = new ConcurrentHashMap<>();
+    private final Map<String, String> idByEntityId = new ConcurrentHashMap<>();
+
+    /** Indexa un documento de empleado o de ausencia; el resto de tipos se ignora. */
+    public synchronized void put(String id, Map<String, Object> metadata) {
+        String type = (String) metadata.get("type");
+        Map<String, Set<String>> byName = byName(type);
+        if (byName == null) {
+            return;
+        }
+        remove(id);
+        Object name = metadata.get("EMPLOYEE".equals(type) ? "name" : "employeeName");
+        String key = AssistantChatUtils.normalizeText(name != null ? name.toString() : nameFromId(id));
+        String entityId = (String) metadata.get("entityId");
+
+        byId.put(id, new Indexed(type, key, entityId));
+        byName.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        if (entityId != null) {
+            idByEntityId.put(entityId, id);
+        }
+    }
+
+    public synchronized void remove(String id) {
+        Indexed old = byId.remove(id);
+        if (old == null) {
+            return;
+        }
+        byName(old.type()).computeIfPresent(old.name(), (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+        if (old.entityId() != null) {
+            idByEntityId.remove(old.entityId(), id);
+        }
+    }
+
+    /** Quita todos los documentos de un empleado, también los que tengan un ID distinto del esperado. */
+    public synchronized void removeEmployee(String name) {
+        String key = AssistantChatUtils.normalizeText(name);
+        for (Set<String> ids : List.of(employeeIdsByName.getOrDefault(key, Set.of()), leaveIdsByName.getOrDefault(key, Set.of()))) {
+            List.copyOf(ids).forEach(this::remove);
+        }
+    }
+
+    /** IDs de los documentos del empleado; vacío si el nombre no está indexado. */
+    public List<String> employeeIds(String name) {
+        return lookup(employeeIdsByName, name);
+    }
+
+    public List<String> leaveRequestIds(String name) {
+        return lookup(leaveIdsByName, name);
+    }
+
+    public Optional<String> idOfEntity(String entityId) {
+        return Optional.ofNullable(idByEntityId.get(entityId));
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Nombre completo por igualdad; si no, los nombres que lo contienen como palabras completas
+     * ("ana" → "ana garcia"), igual que el filtro por texto al que sustituye pero sin salir de memoria.
+     */
+    private static List<String> lookup(Map<String, Set<String>> byName, String name) {
+        String key = AssistantChatUtils.normalizeText(name);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Set<String> exact = byName.get(key);
+        if (exact != null) {
+            return List.copyOf(exact);
+        }
+        String padded = " " + key + " ";
+        List<String> ids = new ArrayList<>();
+        byName.forEach((indexed, set) -> {
+            if ((" " + indexed + " ").contains(padded)) {
+                ids.addAll(set);
+            }
+        });
+        return ids;
+    }
+
+    private Map<String, Set<String>> byName(String type) {
+        if ("EMPLOYEE".equals(type)) return employeeIdsByName;
+        if ("LEAVE_REQUEST".equals(type)) return leaveIdsByName;
+        return null;
+    }
+
+    /** {@code employee:ana-garcia:ana@smarthr.dev} o {@code leave:ana-garcia:2025-07-01} → "ana garcia". */
+    private static String nameFromId(String id) {
+        int first = id.indexOf(':');
+        int last = id.lastIndexOf(':');
+        return first < last ? id.substring(first + 1, last).replace('-', ' ') : "";
+    }
+}
@@ -0,0 +1,208 @@
+package com.smarthr.assistant.utils;
+
+import com.smarthr.assistant.dto.ProjectRagDto;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Relaciones entre empleados, proyectos y skills sacadas de los documentos al ingerirlos:
+ * proyecto → empleados, cliente → proyectos, ubicación → proyectos y skill → empleados.
+ * <p>
+ * Las claves van normalizadas; los valores son IDs del vector store (empleados) o claves de proyecto
+ * (su nombre normalizado). Las preguntas por proyecto, cliente o skill se resuelven con búsquedas en
+ * estos mapas e intersecciones de conjuntos, sin recorrer los metadatos anidados de cada empleado.
+ */
+public class RelationshipIndex {
+
+    /** Criterios de una pregunta; los {@code null} no filtran y los demás se combinan con AND. */
+    public record Criteria(String projectName, String projectCode, String client, String location, String skill) {
+
+        public boolean hasProjectFilter() {
+            return projectName != null || projectCode != null || client != null || location != null;
+        }
+    }
+
+    private record Project(String key, String code, String client, String location) {
+    }
+
+    private final Map<String, Project> projects = new HashMap<>();
+    private final Map<String, String> projectDocIds = new HashMap<>();
+    private final Map<String, String> projectByCode = new HashMap<>();
+    private final Map<String, Set<String>> projectsByClient = new HashMap<>();
+    private final Map<String, Set<String>> projectsByLocation = new HashMap<>();
+    private final Map<String, Set<String>> employeesByProject = new HashMap<>();
+    private final Map<String, Set<String>> employeesBySkill = new HashMap<>();
+    /**
+     * Lo que aportó cada empleado, para deshacerlo al reemplazar o borrar su documento. Un proyecto
+     * sale de {@code projects} y sus mapas cuando deja de citarlo el último empleado o documento.
+     */
+    private final Map<String, List<String>> projectsOfEmployee = new HashMap<>();
+    private final Map<String, List<String>> skillsOfEmployee = new HashMap<>();
+
+    /** Indexa un documento de empleado o de proyecto; el resto se ignora. */
+    public synchronized void put(String id, Map<String, Object> metadata) {
+        remove(id);
+        Object type = metadata.get("type");
+        if ("EMPLOYEE".equals(type)) {
+            List<String> keys = new ArrayList<>();
+            if (metadata.get("projects") instanceof Collection<?> nested) {
+                for (Object p : nested) {
+                    Project project = p instanceof ProjectRagDto dto
+                            ? project(dto.name(), dto.code(), dto.client(), dto.ubication())
+                            : p instanceof Map<?, ?> map
+                            ? project(map.get("name"), map.get("code"), map.get("client"), map.get("ubication"))
+                            : null;
+                    if (project != null) {
+                        link(employeesByProject, project.key(), id);
+                        keys.add(project.key());
+                    }
+                }
+            }
+            List<String> skills = new ArrayList<>();
+            if (metadata.get("skills") instanceof Collection<?> nested) {
+                for (Object s : nested) {
+                    String skill = AssistantChatUtils.normalizeText(String.valueOf(s));
+                    link(employeesBySkill, skill, id);
+                    skills.add(skill);
+                }
+            }
+            projectsOfEmployee.put(id, keys);
+            skillsOfEmployee.put(id, skills);
+        } else if ("PROJECT".equals(type)) {
+            Project project = project(metadata.get("projectName"), metadata.get("code"),
+                    metadata.get("client"), metadata.get("ubication"));
+            if (project != null) {
+                projectDocIds.put(project.key(), id);
+            }
+        }
+    }
+
+    public synchronized void remove(String id) {
+        List<String> released = new ArrayList<>(Optional.ofNullable(projectsOfEmployee.remove(id)).orElse(List.of()));
+        released.forEach(key -> unlink(employeesByProject, key, id));
+        Optional.ofNullable(skillsOfEmployee.remove(id)).orElse(List.of())
+                .forEach(skill -> unlink(employeesBySkill, skill, id));
+        projectDocIds.entrySet().removeIf(e -> e.getValue().equals(id) && released.add(e.getKey()));
+        released.forEach(this::release);
+    }
+
+    /** Claves de los proyectos que cumplen todos los filtros de proyecto; {@code null} si no hay filtros. */
+    public synchronized Set<String> projectKeys(Criteria criteria) {
+        Set<String> result = null;
+        if (criteria.projectName() != null) {
+            result = intersect(result, projectsNamed(AssistantChatUtils.normalizeText(criteria.projectName())));
+        }
+        if (criteria.projectCode() != null) {
+            String key = projectByCode.get(AssistantChatUtils.normalizeText(criteria.projectCode()));
+            result = intersect(result, key == null ? Set.of() : Set.of(key));
+        }
+        if (criteria.client() != null) {
+            result = intersect(result, projectsByClient.getOrDefault(AssistantChatUtils.normalizeText(criteria.client()), Set.of()));
+        }
+        if (criteria.location() != null) {
+            result = intersect(result, projectsByLocation.getOrDefault(AssistantChatUtils.normalizeText(criteria.location()), Set.of()));
+        }
+        return result;
+    }
+
+    /** IDs de los documentos de proyecto que cumplen los filtros, en orden estable. */
+    public synchronized List<String> projectDocumentIds(Criteria criteria) {
+        Set<String> keys = projectKeys(criteria);
+        if (keys == null) {
+            return List.of();
+        }
+        return keys.stream().sorted().map(projectDocIds::get).filter(Objects::nonNull).toList();
+    }
+
+    /** IDs de los empleados de esos proyectos que además tienen la skill, si se pide. */
+    public synchronized List<String> employeeIds(Criteria criteria) {
+        Set<String> result = null;
+        Set<String> keys = projectKeys(criteria);
+        if (keys != null) {
+            Set<String> employees = new HashSet<>();
+            keys.forEach(key -> employees.addAll(employeesByProject.getOrDefault(key, Set.of())));
+            result = employees;
+        }
+        if (criteria.skill() != null) {
+            result = intersect(result, employeesBySkill.getOrDefault(AssistantChatUtils.normalizeText(criteria.skill()), Set.of()));
+        }
+        return result == null ? List.of() : result.stream().sorted().toList();
+    }
+
+    /**
+     * Nombre exacto o, si no, los proyectos cuyo nombre lo contiene como palabras completas
+     * ("portal web" → "portal web corporativo").
+     */
+    private Set<String> projectsNamed(String name) {
+        if (projects.containsKey(name)) {
+            return Set.of(name);
+        }
+        String padded = " " + name + " ";
+        Set<String> keys = new HashSet<>();
+        projects.keySet().forEach(key -> {
+            if ((" " + key + " ").contains(padded)) {
+                keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    /** Registra el proyecto (o completa sus datos) y devuelve su entrada; sin nombre no se indexa. */
+    private Project project(Object name, Object code, Object client, Object location) {
+        String key = AssistantChatUtils.normalizeText(name == null ? null : name.toString());
+        if (key.isEmpty()) {
+            return null;
+        }
+        Function<Object, String> norm = v -> v == null ? null : AssistantChatUtils.normalizeText(v.toString());
+        Project old = projects.get(key);
+        Project merged = new Project(key,
+                orElse(norm.apply(code), old == null ? null : old.code()),
+                orElse(norm.apply(client), old == null ? null : old.client()),
+                orElse(norm.apply(location), old == null ? null : old.location()));
+        if (old != null) {
+            unlinkProject(old);
+        }
+        projects.put(key, merged);
+        if (merged.code() != null) projectByCode.put(merged.code(), key);
+        if (merged.client() != null) link(projectsByClient, merged.client(), key);
+        if (merged.location() != null) link(projectsByLocation, merged.location(), key);
+        return merged;
+    }
+
+    /** Olvida el proyecto cuando ya no lo citan ni empleados ni su propio documento. */
+    private void release(String key) {
+        if (!employeesByProject.containsKey(key) && !projectDocIds.containsKey(key)) {
+            Optional.ofNullable(projects.remove(key)).ifPresent(this::unlinkProject);
+        }
+    }
+
+    private void unlinkProject(Project project) {
+        if (project.code() != null) projectByCode.remove(project.code(), project.key());
+        if (project.client() != null) unlink(projectsByClient, project.client(), project.key());
+        if (project.location() != null) unlink(projectsByLocation, project.location(), project.key());
+    }
+
+    private static void link(Map<String, Set<String>> map, String key, String value) {
+        map.computeIfAbsent(key, k -> new HashSet<>()).add(value);
+    }
+
+    private static void unlink(Map<String, Set<String>> map, String key, String value) {
+        map.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    private static String orElse(String value, String previous) {
+        return value != null ? value : previous;
+    }
+
+    private static Set<String> intersect(Set<String> current, Set<String> next) {
+        if (current == null) {
+            return new HashSet<>(next);
+        }
+        current.retainAll(next);
+        return current;
+    }
+}
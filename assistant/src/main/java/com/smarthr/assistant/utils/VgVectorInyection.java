@@ -1,21 +1,40 @@
 package com.smarthr.assistant.utils;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smarthr.assistant.dto.*;
 import lombok.extern.java.Log;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 import java.text.Normalizer;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class VgVectorInyection {
 
+    private static final TypeReference<Map<String, Object>> METADATA = new TypeReference<>() {
+    };
+
+    /** Tope de documentos por relación: el mismo que tenía la búsqueda vectorial (topK 100). */
+    private static final int MAX_RELATED_DOCUMENTS = 100;
+
+    private final DocumentIdIndex documentIndex = new DocumentIdIndex();
+    private final RelationshipIndex relationships = new RelationshipIndex();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${spring.ai.vectorstore.pgvector.table-name:vector_store}")
+    private String tableName = "vector_store";
+
     public void upsertDocuments(List<Document> documents, VectorStore vectorStore) {
         for (Document doc : documents) {
             try {
@@ -23,19 +42,21 @@ public class VgVectorInyection {
             } catch (Exception ignored) {
             }
             vectorStore.add(List.of(doc));
+            index(doc);
         }
     }
 
 
     public Document employeeToDoc(EmployeeCompleteDto emp) {
 
-        String id = "employee:" + emp.name().toLowerCase().replace(" ", "-")
-                + ":" + emp.email();
+        String id = employeeDocId(emp.name(), emp.email());
 
         Map<String,Object> metadata = new HashMap<>();
         metadata.put("source", "smarthr");
         metadata.put("type", "EMPLOYEE");
         metadata.put("entityId", id);
+        metadata.put("name", emp.name());
+        metadata.put("skills", emp.skills() != null ? emp.skills() : List.of());
         metadata.put("jobPosition", emp.jobPosition());
         metadata.put("location", emp.location());
         metadata.put("department", emp.department());
@@ -110,6 +131,7 @@ public class VgVectorInyection {
         metadata.put("source", "smarthr");
         metadata.put("type", "PROJECT");
         metadata.put("entityId", "project:" + p.code());
+        metadata.put("code", p.code());
         metadata.put("projectName", p.name());   // 🔥 CLAVE
         metadata.put("client", p.client());
         metadata.put("ubication", p.ubication());
@@ -128,7 +150,8 @@ public class VgVectorInyection {
                         p.endDate() != null ? "Fecha de finalización: " + p.endDate() : "Actualmente activo"
                 );
 
-        return new Document(content, metadata);
+        // Id estable: al resincronizar reemplaza al documento anterior en lugar de duplicarlo
+        return new Document("project:" + p.code(), content, metadata);
     }
 
     public Document skillToDoc(SkillRagDto s) {
@@ -192,6 +215,7 @@ public class VgVectorInyection {
                         "source", "smarthr",
                         "status", l.status(),
                         "entityId", id,
+                        "employeeName", l.employeeName(),
                         "leaveType", l.type()
                 )
         );
@@ -199,48 +223,28 @@ public class VgVectorInyection {
 
     public void upsertLeaveRequest(LeaveRequestRagDto dto, VectorStore vectorStore) {
 
-        String entityId = "leave:" + Normalizer.normalize(dto.employeeName(), Normalizer.Form.NFD)
-                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
-                .replace(" ", "-")
-                .toLowerCase()
-                + ":" + dto.startDate();
-
-        String content = """
-            Solicitud de ausencia.
-            Empleado: %s
-            Estado de la solicitud: %s
-            Tipo: %s
-            Periodo: %s → %s
-            Comentarios: %s
-            """.formatted(
-                dto.employeeName(),
-                dto.status(),
-                dto.type(),
-                dto.startDate(),
-                dto.endDate(),
-                dto.comments() != null ? dto.comments() : "-"
-        );
-
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("type", "LEAVE_REQUEST");
-        metadata.put("source", "smarthr");
-        metadata.put("status", dto.status());
-        metadata.put("leaveType", dto.type());
-        metadata.put("entityId", entityId);
-
-        Document document = new Document(entityId, content, metadata);
+        Document document = leaveRequestRagToDoc(dto);
 
         try {
-            vectorStore.delete(List.of(entityId)); // <-- usar entityId directamente
+            vectorStore.delete(List.of(document.getId())); // <-- usar entityId directamente
         } catch (Exception ignored) {
         }
 
         vectorStore.add(List.of(document));
+        index(document);
 
     }
 
     public void insertLeaveRequest(LeaveRequestRagDto dto, VectorStore vectorStore) {
 
+        Document document = leaveRequestRagToDoc(dto);
+        vectorStore.add(List.of(document));
+        index(document);
+
+    }
+
+    public Document leaveRequestRagToDoc(LeaveRequestRagDto dto) {
+
         String entityId = "leave:" + Normalizer.normalize(dto.employeeName(), Normalizer.Form.NFD)
                 .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
                 .replace(" ", "-")
@@ -269,34 +273,177 @@ public class VgVectorInyection {
         metadata.put("status", dto.status());
         metadata.put("leaveType", dto.type());
         metadata.put("entityId", entityId);
+        metadata.put("employeeName", dto.employeeName());
 
-        Document document = new Document(entityId, content, metadata);
-
-        vectorStore.add(List.of(document));
-
+        return new Document(entityId, content, metadata);
     }
 
-    public void deleteEmployee(EmployeeRagDto dto, VectorStore vectorStore) {
+    /** Borra los documentos del empleado y devuelve sus ids. */
+    public List<String> deleteEmployee(EmployeeRagDto dto, VectorStore vectorStore) {
 
-        String entityId = "employee:" + Normalizer.normalize(dto.name(), Normalizer.Form.NFD)
-                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
-                .replace(" ", "-")
-                .toLowerCase()
-                + ":" + dto.email();
+        List<String> ids = employeeDocIds(dto);
 
 //        String entityId = "employee:" + dto.id();
 
-        log.info("entityId {}", entityId);
+        log.info("entityId {}", ids);
 
         try {
 
-            vectorStore.delete(List.of(entityId));
+            vectorStore.delete(ids);
         } catch (Exception ignored) {
         }
+        ids.forEach(this::unindex);
+        return ids;
+    }
+
+    public String employeeDocId(EmployeeRagDto dto) {
+        return employeeDocId(dto.name(), dto.email());
+    }
+
+    /**
+     * IDs que hay que borrar al dar de baja al empleado: el suyo y los que el índice tenga de ese nombre y
+     * email, que pueden venir de documentos guardados con un formato de id anterior.
+     */
+    public List<String> employeeDocIds(EmployeeRagDto dto) {
+        Set<String> ids = new LinkedHashSet<>(documentIndex.employeeIds(dto.name()));
+        ids.removeIf(id -> !id.endsWith(":" + dto.email()));
+        ids.add(employeeDocId(dto));
+        return new ArrayList<>(ids);
+    }
+
+    /** ID del documento de un empleado; alta y baja lo construyen aquí para que siempre coincidan. */
+    private static String employeeDocId(String name, String email) {
+        return "employee:" + name.toLowerCase().replace(" ", "-") + ":" + email;
+    }
+
+    /**
+     * Aplica un lote de cambios con una sola llamada por tipo de operación: un delete con todos
+     * los ids afectados (borrados y documentos que se reemplazan) y un add con todos los documentos,
+     * que el VectorStore embebe por lotes. Si un id aparece varias veces gana el último documento.
+     */
+    public void applyBatch(List<Document> upserts, List<String> deleteIds, VectorStore vectorStore) {
+
+        Map<String, Document> byId = new LinkedHashMap<>();
+        upserts.forEach(doc -> byId.put(doc.getId(), doc));
+
+        Set<String> toDelete = new LinkedHashSet<>(deleteIds);
+        toDelete.addAll(byId.keySet());
+
+        if (!toDelete.isEmpty()) {
+            try {
+                vectorStore.delete(new ArrayList<>(toDelete));
+            } catch (Exception e) {
+                log.warn("No se pudieron borrar {} documentos del lote: {}", toDelete.size(), e.getMessage());
+            }
+        }
+
+        if (!byId.isEmpty()) {
+            vectorStore.add(new ArrayList<>(byId.values()));
+        }
+        deleteIds.forEach(this::unindex);
+        byId.values().forEach(this::index);
+    }
+
+    /** Documentos de los proyectos que cumplen los criterios, leídos por ID; vacío si el índice no los resuelve. */
+    public Optional<List<Document>> findProjectDocuments(RelationshipIndex.Criteria criteria, VectorStore vectorStore) {
+        return findByIds(limit(relationships.projectDocumentIds(criteria)), vectorStore);
+    }
+
+    /**
+     * Empleados de los proyectos (y con la skill) que piden los criterios, leídos por ID. Una skill o un
+     * cliente muy comunes casan con media plantilla, así que solo se cargan los primeros en orden de ID.
+     */
+    public Optional<List<Document>> findRelatedEmployees(RelationshipIndex.Criteria criteria, VectorStore vectorStore) {
+        return findByIds(limit(relationships.employeeIds(criteria)), vectorStore);
+    }
+
+    private static List<String> limit(List<String> ids) {
+        return ids.size() > MAX_RELATED_DOCUMENTS ? ids.subList(0, MAX_RELATED_DOCUMENTS) : ids;
+    }
+
+    /**
+     * Documentos del empleado leídos por clave primaria, sin embeddings ni búsqueda vectorial.
+     * Vacío si el nombre no está indexado o el store no expone su JdbcTemplate: el llamador
+     * vuelve entonces a la búsqueda por similitud.
+     */
+    public Optional<List<Document>> findEmployeeDocuments(String name, VectorStore vectorStore) {
+        return findByIds(documentIndex.employeeIds(name), vectorStore);
+    }
+
+    public Optional<List<Document>> findLeaveRequestDocuments(String name, VectorStore vectorStore) {
+        return findByIds(documentIndex.leaveRequestIds(name), vectorStore);
+    }
+
+    /** Carga en el índice los documentos que ya estaban en el store antes de arrancar. */
+    public int indexExisting(VectorStore vectorStore) {
+        return indexExisting(vectorStore, (id, metadata) -> {
+        });
+    }
+
+    /** Igual, y entrega además cada id con sus metadatos a {@code stored} (p. ej. para el diccionario de entidades). */
+    public int indexExisting(VectorStore vectorStore, BiConsumer<String, Map<String, Object>> stored) {
+        Optional<JdbcTemplate> jdbc = vectorStore.getNativeClient();
+        if (jdbc.isEmpty()) {
+            return 0;
+        }
+        jdbc.get().query("SELECT id, CAST(metadata AS VARCHAR) FROM " + tableName, rs -> {
+            Map<String, Object> metadata = parseMetadata(rs.getString(2));
+            documentIndex.put(rs.getString(1), metadata);
+            relationships.put(rs.getString(1), metadata);
+            stored.accept(rs.getString(1), metadata);
+        });
+        return documentIndex.size();
+    }
 
+    public DocumentIdIndex documentIndex() {
+        return documentIndex;
+    }
 
+    public RelationshipIndex relationships() {
+        return relationships;
     }
 
+    private void index(Document document) {
+        documentIndex.put(document.getId(), document.getMetadata());
+        relationships.put(document.getId(), document.getMetadata());
+    }
 
+    private void unindex(String id) {
+        documentIndex.remove(id);
+        relationships.remove(id);
+    }
 
+    private Optional<List<Document>> findByIds(List<String> ids, VectorStore vectorStore) {
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<JdbcTemplate> jdbc = vectorStore.getNativeClient();
+        if (jdbc.isEmpty()) {
+            return Optional.empty();
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Map<String, Document> byId = new HashMap<>();
+        jdbc.get().query("SELECT id, content, CAST(metadata AS VARCHAR) FROM " + tableName + " WHERE id IN (" + placeholders + ")",
+                rs -> {
+                    String id = rs.getString(1);
+                    byId.put(id, new Document(id, rs.getString(2), parseMetadata(rs.getString(3))));
+                }, ids.toArray());
+
+        // Un id indexado que ya no está en la tabla se borró por otra vía
+        ids.stream().filter(id -> !byId.containsKey(id)).forEach(this::unindex);
+        List<Document> documents = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return documents.isEmpty() ? Optional.empty() : Optional.of(documents);
+    }
+
+    private Map<String, Object> parseMetadata(String json) {
+        if (json == null || json.isBlank()) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(json, METADATA);
+        } catch (JsonProcessingException e) {
+            log.warn("Metadatos no legibles en el vector store: {}", e.getMessage());
+            return new HashMap<>();
+        }
+    }
 }
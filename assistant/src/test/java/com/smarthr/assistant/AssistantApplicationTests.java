@@ -1,30 +1,60 @@
 package com.smarthr.assistant;
 
+import com.smarthr.assistant.component.EntityDictionary;
+import com.smarthr.assistant.component.QueryAnalysis;
+import com.smarthr.assistant.component.QueryAnalyzer;
 import com.smarthr.assistant.component.QueryType;
 import com.smarthr.assistant.component.SmartHRQueryRouter;
+import com.smarthr.assistant.security.JwtUtil;
 import com.smarthr.assistant.dto.*;
 import com.smarthr.assistant.service.AggregationService;
 import com.smarthr.assistant.service.RagService;
 import com.smarthr.assistant.service.SmartHRAssistantService;
 import com.smarthr.assistant.utils.AssistantChatUtils;
 import com.smarthr.assistant.utils.VgVectorInyection;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
 
 /**
  * Tests unitarios del microservicio IA Assistant
@@ -44,6 +74,8 @@ class AssistantApplicationTests {
 
     private SmartHRQueryRouter router;
     private AggregationService aggregationService;
+    private MockRestServiceServer backend;
+    private final QueryAnalyzer analyzer = new QueryAnalyzer(new EntityDictionary());
     private AssistantChatUtils assistantChatUtils;
     private VgVectorInyection vgVectorInyection;
 
@@ -65,13 +97,16 @@ class AssistantApplicationTests {
     @BeforeEach
     void setUp() {
         // Instancias reales (no tienen dependencias externas)
-        router = new SmartHRQueryRouter();
-        aggregationService = new AggregationService();
+        router = new SmartHRQueryRouter(new QueryAnalyzer(new EntityDictionary()));
+        RestTemplate restTemplate = new RestTemplate();
+        backend = MockRestServiceServer.bindTo(restTemplate).build();
+        aggregationService = new AggregationService(restTemplate);
         assistantChatUtils = new AssistantChatUtils();
         vgVectorInyection = new VgVectorInyection();
 
         // Servicio con mocks
         assistantService = new SmartHRAssistantService(
+                new QueryAnalyzer(new EntityDictionary()),
                 mockRouter,
                 mockRagService,
                 mockAggregationService
@@ -151,39 +186,75 @@ class AssistantApplicationTests {
     // ============================================
 
     @Test
-    @DisplayName("Aggregation: Debe responder consulta de cantidad de empleados")
-    void aggregation_whenAskingForEmployeeCount_thenReturnMessage() {
-        String result = aggregationService.handle("¿Cuántos empleados tenemos?");
+    @DisplayName("Aggregation: Debe sumar la plantilla por departamento del backend")
+    void aggregation_whenAskingForEmployeeCount_thenReturnHeadcount() {
+        backend.expect(requestTo("http://backend:8080/api/analytics/headcount?by=department"))
+                .andRespond(withSuccess("[{\"id\":1,\"name\":\"Desarrollo\",\"employees\":5},"
+                        + "{\"id\":2,\"name\":\"Data\",\"employees\":3}]", MediaType.APPLICATION_JSON));
 
-        assertNotNull(result);
-        assertTrue(result.contains("No dispongo de información agregada"));
-        assertTrue(result.contains("panel de RRHH"));
+        String result = aggregationService.handle(analyzer.analyze("¿Cuántos empleados tenemos?"));
+
+        assertEquals("En SmartHR hay 8 empleado(s): Desarrollo 5, Data 3.", result);
+        backend.verify();
     }
 
     @Test
-    @DisplayName("Aggregation: Debe responder con mayúsculas")
-    void aggregation_whenUpperCase_thenReturnMessage() {
-        String result = aggregationService.handle("CUÁNTOS EMPLEADOS HAY");
-        assertNotNull(result);
-        assertTrue(result.contains("No dispongo"));
+    @DisplayName("Aggregation: Debe contar por ubicación sin distinguir mayúsculas")
+    void aggregation_whenLocation_thenReturnHeadcountByLocation() {
+        backend.expect(requestTo("http://backend:8080/api/analytics/headcount?by=location"))
+                .andRespond(withSuccess("[{\"id\":null,\"name\":\"madrid\",\"employees\":4}]", MediaType.APPLICATION_JSON));
+
+        String result = aggregationService.handle(analyzer.analyze("CUÁNTOS EMPLEADOS con ubicación en Madrid"));
+
+        assertEquals("En madrid hay 4 empleado(s).", result);
     }
 
     @Test
-    @DisplayName("Aggregation: Consulta no relacionada con empleados")
-    void aggregation_whenNonEmployeeQuery_thenReturnGeneric() {
-        String result = aggregationService.handle("¿Cuántos proyectos?");
+    @DisplayName("Aggregation: Debe consultar proyectos y ausencias en sus endpoints")
+    void aggregation_whenProjectsOrLeave_thenUseTheirEndpoints() {
+        backend.expect(requestTo("http://backend:8080/api/analytics/projects/staffing"))
+                .andRespond(withSuccess("[{\"projectId\":1,\"code\":\"PRJ001\",\"name\":\"Portal Web\",\"client\":\"Nike\",\"employees\":2}]",
+                        MediaType.APPLICATION_JSON));
+        backend.expect(requestTo("http://backend:8080/api/analytics/leave"))
+                .andRespond(withSuccess("[{\"type\":\"VACACIONES\",\"status\":\"PENDING\",\"requests\":2,\"days\":10},"
+                        + "{\"type\":\"ENFERMEDAD\",\"status\":\"APPROVED\",\"requests\":1,\"days\":3}]", MediaType.APPLICATION_JSON));
 
-        assertNotNull(result);
-        assertTrue(result.contains("No dispongo de información agregada"));
-        assertTrue(result.contains("contacte con RRHH"));
+        assertEquals("Hay 1 proyecto(s) activo(s) con 2 asignación(es) en vigor.",
+                aggregationService.handle(analyzer.analyze("¿Cuántos proyectos?")));
+        assertEquals("Este año hay 3 solicitud(es) de ausencia: 2 pendiente(s), 1 aprobada(s) y 0 rechazada(s).",
+                aggregationService.handle(analyzer.analyze("¿Cuál es el total de ausencias?")));
+        backend.verify();
     }
 
     @Test
-    @DisplayName("Aggregation: Debe manejar cadenas vacías")
-    void aggregation_whenEmpty_thenReturnGeneric() {
-        String result = aggregationService.handle("");
-        assertNotNull(result);
-        assertTrue(result.contains("No dispongo"));
+    @DisplayName("Aggregation: Debe reenviar el token del usuario y avisar si no es RRHH")
+    void aggregation_whenForbidden_thenExplain() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token-empleado");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            backend.expect(requestTo("http://backend:8080/api/analytics/headcount?by=department"))
+                    .andExpect(header(HttpHeaders.AUTHORIZATION, "Bearer token-empleado"))
+                    .andRespond(withStatus(HttpStatus.FORBIDDEN));
+
+            String result = aggregationService.handle(analyzer.analyze("¿Cuántos empleados?"));
+
+            assertTrue(result.contains("Solo el personal de RRHH"));
+            backend.verify();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    @DisplayName("Aggregation: Debe responder genérico si el backend falla")
+    void aggregation_whenBackendFails_thenReturnGeneric() {
+        backend.expect(requestTo("http://backend:8080/api/analytics/headcount?by=department"))
+                .andRespond(withServerError());
+
+        String result = aggregationService.handle(analyzer.analyze(""));
+
+        assertTrue(result.contains("No dispongo de información agregada"));
     }
 
     // ============================================
@@ -341,6 +412,52 @@ class AssistantApplicationTests {
         assertTrue(result.contains("Recursos Humanos"));
     }
 
+    // ============================================
+    // TESTS: JwtUtil
+    // ============================================
+
+    private static final String JWT_SECRET = "test-secret-key-for-ci-pipeline-32-chars-min";
+
+    private String signedToken(long ttlMillis) {
+        return Jwts.builder()
+                .setSubject("ana")
+                .claim("roles", List.of("ROLE_EMPLOYEE"))
+                .setExpiration(new Date(System.currentTimeMillis() + ttlMillis))
+                .signWith(Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Test
+    @DisplayName("JWT: Debe reutilizar la verificación de un token ya validado")
+    void jwt_whenSameToken_thenReuseVerification() {
+        JwtUtil jwtUtil = new JwtUtil(JWT_SECRET, 100);
+        String token = signedToken(60_000);
+
+        Claims first = jwtUtil.validateToken(token);
+
+        assertSame(first, jwtUtil.validateToken(token));
+        assertEquals("ana", first.getSubject());
+    }
+
+    @Test
+    @DisplayName("JWT: No debe servir desde caché un token caducado")
+    void jwt_whenTokenExpires_thenReject() {
+        Instant issued = Instant.now();
+        AtomicReference<Instant> now = new AtomicReference<>(issued);
+        Clock clock = new Clock() {
+            @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+            @Override public Clock withZone(ZoneId zone) { return this; }
+            @Override public Instant instant() { return now.get(); }
+        };
+        JwtUtil jwtUtil = new JwtUtil(JWT_SECRET, 100, clock);
+        String token = signedToken(2_000);
+        jwtUtil.validateToken(token);
+
+        now.set(issued.plusMillis(5_000));
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.validateToken(token));
+    }
+
     // ============================================
     // TESTS: VgVectorInyection
     // ============================================
@@ -418,6 +535,33 @@ class AssistantApplicationTests {
         assertEquals("Portal Web Corporativo", doc.getMetadata().get("projectName"));
     }
 
+    @Test
+    @DisplayName("Vector: Debe aplicar un lote con un único delete y un único add")
+    @SuppressWarnings("unchecked")
+    void vector_whenBatch_thenSingleDeleteAndSingleAdd() {
+        VectorStore vectorStore = mock(VectorStore.class);
+        LeaveRequestRagDto leave = new LeaveRequestRagDto("Ana García", "APPROVED", "VACACIONES",
+                LocalDate.parse("2025-08-01"), LocalDate.parse("2025-08-15"), null);
+        Document employeeDoc = vgVectorInyection.employeeToDoc(createCompleteEmployee());
+        Document leaveDoc = vgVectorInyection.leaveRequestRagToDoc(leave);
+        EmployeeRagDto deleted = new EmployeeRagDto(9L, "Luis Pérez", "madrid", "luis@smarthr.com",
+                null, null, null, null, null);
+
+        vgVectorInyection.applyBatch(
+                List.of(employeeDoc, leaveDoc, vgVectorInyection.leaveRequestRagToDoc(leave)),
+                List.of(vgVectorInyection.employeeDocId(deleted)),
+                vectorStore);
+
+        ArgumentCaptor<List<String>> deletedIds = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Document>> added = ArgumentCaptor.forClass(List.class);
+        verify(vectorStore, times(1)).delete(deletedIds.capture());
+        verify(vectorStore, times(1)).add(added.capture());
+
+        assertEquals(List.of("employee:luis-pérez:luis@smarthr.com", employeeDoc.getId(), leaveDoc.getId()),
+                deletedIds.getValue());
+        assertEquals(2, added.getValue().size());
+    }
+
     @Test
     @DisplayName("Vector: Debe manejar proyecto finalizado")
     void vector_whenCompletedProject_thenIncludeEndDate() {
@@ -513,14 +657,14 @@ class AssistantApplicationTests {
     @DisplayName("Assistant: Debe responder SMALL_TALK con saludo")
     void assistant_whenSmallTalk_thenReturnGreeting() {
         String message = "Hola";
-        when(mockRouter.classify(message)).thenReturn(QueryType.SMALL_TALK);
+        when(mockRouter.classify(analysisOf(message))).thenReturn(QueryType.SMALL_TALK);
 
         String response = assistantService.chat(message, null);
 
         assertNotNull(response);
         assertTrue(response.contains("Hola"));
         assertTrue(response.contains("SmartHR"));
-        verify(mockRouter).classify(message);
+        verify(mockRouter).classify(analysisOf(message));
         verifyNoInteractions(mockRagService, mockAggregationService);
     }
 
@@ -528,14 +672,14 @@ class AssistantApplicationTests {
     @DisplayName("Assistant: Debe delegar AGGREGATION")
     void assistant_whenAggregation_thenDelegate() {
         String message = "¿Cuántos empleados?";
-        when(mockRouter.classify(message)).thenReturn(QueryType.AGGREGATION);
-        when(mockAggregationService.handle(message)).thenReturn("Respuesta agregación");
+        when(mockRouter.classify(analysisOf(message))).thenReturn(QueryType.AGGREGATION);
+        when(mockAggregationService.handle(analysisOf(message))).thenReturn("Respuesta agregación");
 
         String response = assistantService.chat(message, null);
 
         assertEquals("Respuesta agregación", response);
-        verify(mockRouter).classify(message);
-        verify(mockAggregationService).handle(message);
+        verify(mockRouter).classify(analysisOf(message));
+        verify(mockAggregationService).handle(analysisOf(message));
         verifyNoInteractions(mockRagService);
     }
 
@@ -543,15 +687,15 @@ class AssistantApplicationTests {
     @DisplayName("Assistant: Debe delegar RAG sin employeeId")
     void assistant_whenRAGWithoutEmployee_thenDelegateToGeneral() {
         String message = "Empleados en Madrid";
-        when(mockRouter.classify(message)).thenReturn(QueryType.RAG);
-        when(mockRagService.chatWithRag(message)).thenReturn("Respuesta RAG");
+        when(mockRouter.classify(analysisOf(message))).thenReturn(QueryType.RAG);
+        when(mockRagService.chatWithRag(analysisOf(message))).thenReturn("Respuesta RAG");
 
         String response = assistantService.chat(message, null);
 
         assertEquals("Respuesta RAG", response);
-        verify(mockRouter).classify(message);
-        verify(mockRagService).chatWithRag(message);
-        verify(mockRagService, never()).chatForEmployee(anyString(), anyString());
+        verify(mockRouter).classify(analysisOf(message));
+        verify(mockRagService).chatWithRag(analysisOf(message));
+        verify(mockRagService, never()).chatForEmployee(anyString(), any(QueryAnalysis.class));
     }
 
     @Test
@@ -559,34 +703,39 @@ class AssistantApplicationTests {
     void assistant_whenRAGWithEmployee_thenDelegateToEmployee() {
         String message = "¿Cuánto gano?";
         String employeeId = "ana.garcia";
-        when(mockRouter.classify(message)).thenReturn(QueryType.RAG);
-        when(mockRagService.chatForEmployee(employeeId, message))
+        when(mockRouter.classify(analysisOf(message))).thenReturn(QueryType.RAG);
+        when(mockRagService.chatForEmployee(eq(employeeId), analysisOf(message)))
                 .thenReturn("Tu salario es...");
 
         String response = assistantService.chat(message, employeeId);
 
         assertEquals("Tu salario es...", response);
-        verify(mockRouter).classify(message);
-        verify(mockRagService).chatForEmployee(employeeId, message);
-        verify(mockRagService, never()).chatWithRag(anyString());
+        verify(mockRouter).classify(analysisOf(message));
+        verify(mockRagService).chatForEmployee(eq(employeeId), analysisOf(message));
+        verify(mockRagService, never()).chatWithRag(any(QueryAnalysis.class));
     }
 
     @Test
     @DisplayName("Assistant: Debe manejar mensajes vacíos")
     void assistant_whenEmpty_thenHandle() {
-        when(mockRouter.classify("")).thenReturn(QueryType.RAG);
-        when(mockRagService.chatWithRag("")).thenReturn("Respuesta vacía");
+        when(mockRouter.classify(analysisOf(""))).thenReturn(QueryType.RAG);
+        when(mockRagService.chatWithRag(analysisOf(""))).thenReturn("Respuesta vacía");
 
         String response = assistantService.chat("", null);
 
         assertNotNull(response);
-        verify(mockRouter).classify("");
+        verify(mockRouter).classify(analysisOf(""));
     }
 
     // ============================================
     // MÉTODOS AUXILIARES
     // ============================================
 
+    /** El orquestador analiza el mensaje una vez y pasa el análisis al router y a RagService. */
+    private static QueryAnalysis analysisOf(String message) {
+        return argThat(query -> query != null && query.message().equals(message));
+    }
+
     private EmployeeCompleteDto createCompleteEmployee() {
         ProjectRagDto project = new ProjectRagDto(
                 "PRJ001",
@@ -0,0 +1,157 @@
+package com.smarthr.assistant;
+
+import com.smarthr.assistant.component.CachingEmbeddingModel;
+import com.smarthr.assistant.config.AiConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Comprueba la caché de embeddings de consultas: LRU en memoria, nivel en disco que sobrevive a un
+ * reinicio, métricas de aciertos y fallos, su informe periódico y que solo envuelve al EmbeddingModel si está activada.
+ */
+class CachingEmbeddingModelTest {
+
+    private static final String LEAVE_QUERY = "solicitud ausencia vacaciones enfermedad baja excedencia leave request";
+
+    @TempDir
+    Path dir;
+
+    private EmbeddingModel ollama;
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        ollama = mock(EmbeddingModel.class);
+        when(ollama.embed(anyString())).thenAnswer(i -> new float[]{i.<String>getArgument(0).length(), 1f, 2f});
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Memoria: la misma consulta (salvo espacios) se embebe una vez y la LRU expulsa la menos usada")
+    void memory_cachesAndEvicts() {
+        CachingEmbeddingModel cache = new CachingEmbeddingModel(ollama, "mxbai-embed-large", 2, null, 10, registry);
+
+        float[] first = cache.embed(LEAVE_QUERY);
+        first[0] = -1f; // el llamador no puede modificar lo que hay en caché
+        assertArrayEquals(new float[]{LEAVE_QUERY.length(), 1f, 2f}, cache.embed("  " + LEAVE_QUERY.replace(" ", "   ")));
+        verify(ollama, times(1)).embed(anyString());
+
+        cache.embed("empleados en Madrid");
+        cache.embed(LEAVE_QUERY);
+        cache.embed("proyectos de IBM");
+        assertEquals(2, cache.size());
+        cache.embed("empleados en Madrid");
+        verify(ollama, times(2)).embed("empleados en Madrid");
+
+        assertEquals(2.0, count("hit", "memory"));
+        assertEquals(4.0, count("miss", "none"));
+        assertEquals(2.0, registry.get("assistant.embedding.cache.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Informe: resume los aciertos desde el anterior y no dice nada si no hubo consultas")
+    void report_summarizesSinceLastCall() {
+        CachingEmbeddingModel cache = new CachingEmbeddingModel(ollama, "mxbai-embed-large", 10, null, 10, registry);
+        assertNull(cache.reportSinceLast());
+
+        cache.embed(LEAVE_QUERY);
+        cache.embed(LEAVE_QUERY);
+        cache.embed(LEAVE_QUERY);
+        cache.embed("proyectos de IBM");
+
+        assertEquals("mxbai-embed-large: 4 consultas, 50.0% aciertos (memoria 2, disco 0), 2 en memoria",
+                cache.reportSinceLast());
+        assertNull(cache.reportSinceLast());
+
+        cache.embed("proyectos de IBM");
+        assertEquals("mxbai-embed-large: 1 consultas, 100.0% aciertos (memoria 1, disco 0), 2 en memoria",
+                cache.reportSinceLast());
+    }
+
+    @Test
+    @DisplayName("Disco: tras reiniciar, la consulta sale del fichero sin llamar al modelo; un final cortado se descarta")
+    void disk_survivesRestart() throws Exception {
+        new CachingEmbeddingModel(ollama, "mxbai-embed-large", 10, dir, 100, registry).embed(LEAVE_QUERY);
+        new CachingEmbeddingModel(ollama, "mxbai-embed-large", 10, dir, 100, registry).embed("proyectos de IBM");
+        Path file = dir.resolve("query-embeddings.bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        EmbeddingModel restarted = mock(EmbeddingModel.class);
+        when(restarted.embed(anyString())).thenReturn(new float[]{9f});
+        CachingEmbeddingModel cache = new CachingEmbeddingModel(restarted, "mxbai-embed-large", 10, dir, 100, registry);
+
+        assertArrayEquals(new float[]{LEAVE_QUERY.length(), 1f, 2f}, cache.embed(LEAVE_QUERY));
+        assertArrayEquals(new float[]{9f}, cache.embed("proyectos de IBM"));
+        verify(restarted, never()).embed(LEAVE_QUERY);
+        assertEquals(1.0, count("hit", "disk"));
+
+        // Otro modelo no reutiliza los vectores
+        new CachingEmbeddingModel(restarted, "nomic-embed-text", 10, dir, 100, registry).embed(LEAVE_QUERY);
+        verify(restarted).embed(LEAVE_QUERY);
+    }
+
+    @Test
+    @DisplayName("Disco: al superar el máximo se compacta y conserva las entradas más recientes")
+    void disk_compacts() throws Exception {
+        CachingEmbeddingModel cache = new CachingEmbeddingModel(ollama, "mxbai-embed-large", 1, dir, 4, registry);
+        for (int i = 0; i < 5; i++) {
+            cache.embed("consulta " + i);
+        }
+
+        EmbeddingModel restarted = mock(EmbeddingModel.class);
+        when(restarted.embed(anyString())).thenReturn(new float[]{9f});
+        CachingEmbeddingModel reopened = new CachingEmbeddingModel(restarted, "mxbai-embed-large", 1, dir, 4, registry);
+        reopened.embed("consulta 4");
+        reopened.embed("consulta 3");
+        reopened.embed("consulta 0");
+
+        verify(restarted, never()).embed("consulta 4");
+        verify(restarted, never()).embed("consulta 3");
+        verify(restarted).embed("consulta 0");
+    }
+
+    @Test
+    @DisplayName("Documentos y configuración: los documentos no se cachean; el post-procesador envuelve solo si está activada")
+    void documents_bypassCache_andConfigWraps() {
+        CachingEmbeddingModel cache = new CachingEmbeddingModel(ollama, "mxbai-embed-large", 10, null, 10, registry);
+        Document doc = new Document("Empleado llamado Ana García");
+        cache.embed(doc);
+        cache.embed(doc);
+        verify(ollama, times(2)).embed(doc);
+
+        BeanPostProcessor enabled = AiConfig.cachingEmbeddingModel(
+                new MockEnvironment().withProperty("spring.ai.ollama.embedding.options.model", "mxbai-embed-large"),
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        Object wrapped = enabled.postProcessAfterInitialization(ollama, "ollamaEmbeddingModel");
+        assertInstanceOf(CachingEmbeddingModel.class, wrapped);
+        assertSame(wrapped, enabled.postProcessAfterInitialization(wrapped, "ollamaEmbeddingModel"));
+
+        BeanPostProcessor disabled = AiConfig.cachingEmbeddingModel(
+                new MockEnvironment().withProperty("embedding.cache.enabled", "false"),
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        assertSame(ollama, disabled.postProcessAfterInitialization(ollama, "ollamaEmbeddingModel"));
+    }
+
+    private double count(String result, String tier) {
+        return registry.get("assistant.embedding.cache.requests").tag("result", result).tag("tier", tier)
+                .counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+}
@@ -0,0 +1,193 @@
+package com.smarthr.assistant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthr.assistant.dto.EmployeeCompleteDto;
+import com.smarthr.assistant.dto.EmployeeRagDto;
+import com.smarthr.assistant.dto.LeaveRequestRagDto;
+import com.smarthr.assistant.dto.SkillRagDto;
+import com.smarthr.assistant.utils.RelationshipIndex;
+import com.smarthr.assistant.utils.VgVectorInyection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Comprueba el índice de IDs de empleados y ausencias: se mantiene con cada alta y baja y permite leer
+ * los documentos por clave primaria sin búsqueda vectorial. H2 hace de tabla vector_store.
+ */
+class DocumentIdIndexTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JdbcTemplate jdbc;
+    private VectorStore vectorStore;
+    private VgVectorInyection injection;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:vectors;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("CREATE TABLE vector_store (id VARCHAR(255) PRIMARY KEY, content VARCHAR(4000), metadata VARCHAR(4000))");
+
+        vectorStore = mock(VectorStore.class);
+        doReturn(Optional.of(jdbc)).when(vectorStore).getNativeClient();
+        doAnswer(inv -> {
+            for (Document doc : inv.<List<Document>>getArgument(0)) {
+                jdbc.update("INSERT INTO vector_store VALUES (?, ?, ?)", doc.getId(), doc.getText(),
+                        objectMapper.writeValueAsString(doc.getMetadata()));
+            }
+            return null;
+        }).when(vectorStore).add(anyList());
+        doAnswer(inv -> {
+            inv.<List<String>>getArgument(0).forEach(id -> jdbc.update("DELETE FROM vector_store WHERE id = ?", id));
+            return null;
+        }).when(vectorStore).delete(anyList());
+
+        injection = new VgVectorInyection();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP TABLE vector_store");
+    }
+
+    @Test
+    @DisplayName("Por nombre: documentos exactos por ID, con o sin tildes y por nombre de pila, sin similaritySearch")
+    void findEmployeeDocuments_readsById() {
+        injection.upsertDocuments(List.of(
+                injection.employeeToDoc(employee("Ana García", "ana@smarthr.dev")),
+                injection.employeeToDoc(employee("Luis Pérez", "luis@smarthr.dev"))), vectorStore);
+
+        List<Document> docs = injection.findEmployeeDocuments("ana garcia", vectorStore).orElseThrow();
+
+        assertEquals(List.of("employee:ana-garcía:ana@smarthr.dev"), docs.stream().map(Document::getId).toList());
+        assertTrue(docs.get(0).getText().contains("llamado Ana García"));
+        assertEquals("Desarrollo", docs.get(0).getMetadata().get("department"));
+        assertEquals(docs, injection.findEmployeeDocuments("Ana", vectorStore).orElseThrow());
+        assertTrue(injection.findEmployeeDocuments("Marta", vectorStore).isEmpty());
+        assertTrue(injection.findEmployeeDocuments("Garc", vectorStore).isEmpty());
+        verify(vectorStore, never()).similaritySearch(any(SearchRequest.class));
+    }
+
+    @Test
+    @DisplayName("Bajas: borrar al empleado lo quita del store y del índice aunque su id conserve tildes")
+    void deleteEmployee_updatesIndex() {
+        injection.upsertDocuments(List.of(injection.employeeToDoc(employee("Ana García", "ana@smarthr.dev"))), vectorStore);
+
+        injection.deleteEmployee(new EmployeeRagDto(1L, "Ana García", "Madrid", "ana@smarthr.dev",
+                LocalDate.of(2022, 1, 1), 1L, "Desarrollo", 1L, "Backend Developer"), vectorStore);
+
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM vector_store", Integer.class));
+        assertTrue(injection.findEmployeeDocuments("Ana García", vectorStore).isEmpty());
+        assertEquals(0, injection.documentIndex().size());
+    }
+
+    @Test
+    @DisplayName("Bajas en lote: el id que se borra es el mismo que guardó el alta, con tildes incluidas")
+    void batchOffboarding_deletesAccentedId() {
+        injection.upsertDocuments(List.of(injection.employeeToDoc(employee("Ana García", "ana@smarthr.dev"))), vectorStore);
+        EmployeeRagDto ana = new EmployeeRagDto(1L, "Ana García", "Madrid", "ana@smarthr.dev",
+                LocalDate.of(2022, 1, 1), 1L, "Desarrollo", 1L, "Backend Developer");
+
+        injection.applyBatch(List.of(), List.of(injection.employeeDocId(ana)), vectorStore);
+
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM vector_store", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Bajas en lote: los ids indexados de ese email, aunque tengan otro formato, salen del store y de los índices")
+    void batchOffboarding_resolvesIndexedIds() {
+        Document current = injection.employeeToDoc(employee("Ana García", "ana@smarthr.dev"));
+        injection.upsertDocuments(List.of(new Document("employee:ana-garcia:ana@smarthr.dev", current.getText(),
+                current.getMetadata())), vectorStore);
+        EmployeeRagDto ana = new EmployeeRagDto(1L, "Ana García", "Madrid", "ana@smarthr.dev",
+                LocalDate.of(2022, 1, 1), 1L, "Desarrollo", 1L, "Backend Developer");
+
+        injection.applyBatch(List.of(), injection.employeeDocIds(ana), vectorStore);
+
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM vector_store", Integer.class));
+        assertTrue(injection.findEmployeeDocuments("Ana García", vectorStore).isEmpty());
+        assertTrue(injection.findRelatedEmployees(new RelationshipIndex.Criteria(null, null, null, null, "java"),
+                vectorStore).isEmpty());
+        assertEquals(0, injection.documentIndex().size());
+    }
+
+    @Test
+    @DisplayName("Ausencias: lote y altas sueltas indexan por empleado; los borrados del lote salen del índice")
+    void leaveRequests_areIndexedByEmployee() {
+        LeaveRequestRagDto july = new LeaveRequestRagDto("Ana García", "PENDING", "VACACIONES",
+                LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 5), null);
+        LeaveRequestRagDto august = new LeaveRequestRagDto("Ana García", "APPROVED", "VACACIONES",
+                LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 5), null);
+        injection.insertLeaveRequest(july, vectorStore);
+        injection.applyBatch(List.of(injection.leaveRequestRagToDoc(august)), List.of(), vectorStore);
+
+        assertEquals(2, injection.findLeaveRequestDocuments("Ana García", vectorStore).orElseThrow().size());
+
+        injection.applyBatch(List.of(), List.of("leave:ana-garcia:2025-07-01"), vectorStore);
+
+        assertEquals(List.of("leave:ana-garcia:2025-08-01"), injection.findLeaveRequestDocuments("ana garcia", vectorStore)
+                .orElseThrow().stream().map(Document::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Arranque: el índice se carga con lo que ya había en la tabla; sin JdbcTemplate no hay atajo")
+    void indexExisting_loadsStoredDocuments() {
+        new VgVectorInyection().upsertDocuments(List.of(
+                injection.employeeToDoc(employee("Ana García", "ana@smarthr.dev")),
+                injection.skillToDoc(new SkillRagDto("Java", "Lenguaje"))), vectorStore);
+
+        assertEquals(1, injection.indexExisting(vectorStore));
+        assertEquals(1, injection.findEmployeeDocuments("Ana García", vectorStore).orElseThrow().size());
+
+        VectorStore remote = mock(VectorStore.class);
+        assertEquals(0, new VgVectorInyection().indexExisting(remote));
+        assertTrue(injection.findEmployeeDocuments("Ana García", remote).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Relaciones: una skill que casa con toda la plantilla carga como mucho 100 empleados")
+    void findRelatedEmployees_isCapped() {
+        injection.applyBatch(IntStream.range(0, 130)
+                .mapToObj(i -> injection.employeeToDoc(employee("Empleado " + i, "e" + i + "@smarthr.dev")))
+                .toList(), List.of(), vectorStore);
+
+        List<Document> docs = injection.findRelatedEmployees(
+                new RelationshipIndex.Criteria(null, null, null, null, "java"), vectorStore).orElseThrow();
+
+        assertEquals(100, docs.size());
+        assertEquals(130, injection.relationships().employeeIds(
+                new RelationshipIndex.Criteria(null, null, null, null, "java")).size());
+    }
+
+    private static EmployeeCompleteDto employee(String name, String email) {
+        return EmployeeCompleteDto.builder()
+                .name(name)
+                .email(email)
+                .location("Madrid")
+                .hireDate(LocalDate.of(2022, 1, 1))
+                .department("Desarrollo")
+                .jobPosition("Backend Developer")
+                .skills(List.of("Java"))
+                .projectsInfo(List.of())
+                .contractType("INDEFINIDO")
+                .weeklyHours(40)
+                .baseSalary(new BigDecimal("35000.00"))
+                .build();
+    }
+}
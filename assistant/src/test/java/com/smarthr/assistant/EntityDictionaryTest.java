@@ -0,0 +1,155 @@
+package com.smarthr.assistant;
+
+import com.smarthr.assistant.component.EntityDictionary;
+import com.smarthr.assistant.component.EntityDictionary.Mention;
+import com.smarthr.assistant.component.EntityDictionary.Type;
+import com.smarthr.assistant.component.QueryAnalysis;
+import com.smarthr.assistant.component.QueryAnalyzer;
+import com.smarthr.assistant.dto.*;
+import com.smarthr.assistant.utils.AssistantChatUtils;
+import com.smarthr.assistant.utils.VgVectorInyection;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba el diccionario de entidades: menciones en una pasada, palabras completas, reconstrucción con los
+ * metadatos de los documentos y altas y bajas por id de documento.
+ */
+class EntityDictionaryTest {
+
+    private final EntityDictionary dictionary = new EntityDictionary();
+    private final VgVectorInyection injection = new VgVectorInyection();
+
+    @Test
+    @DisplayName("Escaneo: todas las menciones, también solapadas y de tipos distintos")
+    void scan_findsOverlappingMentions() {
+        List<Mention> mentions = dictionary.scan(AssistantChatUtils.normalizeText(
+                "Empleados del proyecto Desarrollo APIs de IBM en remoto")).all();
+
+        assertEquals(List.of(
+                new Mention(Type.DEPARTMENT, "Desarrollo", 23, 33),
+                new Mention(Type.PROJECT_NAME, "desarrollo apis", 23, 38),
+                new Mention(Type.CLIENT, "ibm", 42, 45),
+                new Mention(Type.LOCATION, "remote", 49, 55)), mentions);
+    }
+
+    @Test
+    @DisplayName("Escaneo: solo palabras completas y gana la primera mención, la más larga si empiezan igual")
+    void scan_matchesWholeWordsLeftmostLongest() {
+        EntityDictionary.Mentions mentions = dictionary.scan("javascript y sistema rrhh para nike o ibm");
+
+        assertFalse(mentions.has(Type.SKILL));
+        assertEquals("sistema rrhh", mentions.first(Type.PROJECT_NAME));
+        assertEquals("nike", mentions.first(Type.CLIENT));
+        assertEquals("Recursos Humanos", mentions.first(Type.DEPARTMENT));
+        assertNull(dictionary.scan("portalweb").first(Type.PROJECT_NAME));
+    }
+
+    @Test
+    @DisplayName("Reconstrucción: los proyectos, clientes y empleados de los documentos se reconocen sin tocar código")
+    void rebuild_usesSnapshotData() {
+        QueryAnalyzer analyzer = new QueryAnalyzer(dictionary);
+        String message = "¿Quiénes trabajan en el Gestor de Nóminas de Zara? pregunta lucía pérez";
+        assertNull(analyzer.analyze(message).client());
+
+        dictionary.rebuild(snapshot());
+
+        QueryAnalysis query = analyzer.analyze(message);
+        assertEquals("gestor de nominas", query.projectName());
+        assertEquals("zara", query.client());
+        assertEquals("Lucía Pérez", query.employeeName());
+        assertEquals("PRJ042", analyzer.analyze("estado del prj042").projectCode());
+        assertEquals("Finanzas", analyzer.analyze("gente de finanzas").department());
+        assertTrue(analyzer.analyze("quién sabe Terraform").mentionsSkill());
+        // los alias del diccionario inicial siguen valiendo
+        assertEquals("remote", analyzer.analyze("proyectos en remoto").projectLocation());
+    }
+
+    @Test
+    @DisplayName("Cambios incrementales: alta y baja de empleados sin perder el resto del diccionario")
+    void addAndRemoveEmployees() {
+        dictionary.rebuild(snapshot());
+        Document ivan = injection.employeeToDoc(employee("Iván Ruiz", "Bilbao"));
+        dictionary.addDocuments(List.of(ivan));
+
+        assertEquals("Iván Ruiz", dictionary.scan("ausencias de ivan ruiz").first(Type.EMPLOYEE));
+        assertEquals("bilbao", dictionary.scan("oficina de bilbao").first(Type.LOCATION));
+
+        dictionary.removeDocuments(List.of(ivan.getId()));
+
+        assertNull(dictionary.scan("ausencias de ivan ruiz").first(Type.EMPLOYEE));
+        assertEquals("Lucía Pérez", dictionary.scan("ausencias de lucia perez").first(Type.EMPLOYEE));
+        assertEquals("zara", dictionary.scan("cliente zara").first(Type.CLIENT));
+    }
+
+    @Test
+    @DisplayName("Homónimos: el nombre sigue reconocido mientras quede algún documento de empleado que lo use")
+    void removeDocuments_keepsNameOfNamesake() {
+        Document first = injection.employeeToDoc(employee("Iván Ruiz", "Bilbao", "ivan@smarthr.dev"));
+        Document second = injection.employeeToDoc(employee("Iván Ruiz", "Madrid", "ivan.ruiz@smarthr.dev"));
+        dictionary.addDocuments(List.of(first, second));
+
+        dictionary.removeDocuments(List.of(first.getId()));
+        assertEquals("Iván Ruiz", dictionary.scan("ausencias de ivan ruiz").first(Type.EMPLOYEE));
+
+        dictionary.removeDocuments(List.of(second.getId()));
+        assertNull(dictionary.scan("ausencias de ivan ruiz").first(Type.EMPLOYEE));
+    }
+
+    @Test
+    @DisplayName("Metadatos leídos del store: los proyectos anidados llegan como mapas")
+    void rebuild_readsStoredMetadata() {
+        dictionary.rebuild(Map.of("employee:eva-gil:eva@smarthr.dev", Map.of("type", "EMPLOYEE", "name", "Eva Gil",
+                "location", "Bilbao", "skills", List.of("Terraform"),
+                "projects", List.of(Map.of("name", "Gestor de Nóminas", "code", "PRJ042", "client", "Zara")))));
+
+        EntityDictionary.Mentions mentions = dictionary.scan("eva gil en el gestor de nominas prj042 de zara sabe terraform");
+        assertEquals("Eva Gil", mentions.first(Type.EMPLOYEE));
+        assertEquals("gestor de nominas", mentions.first(Type.PROJECT_NAME));
+        assertEquals("PRJ042", mentions.first(Type.PROJECT_CODE));
+        assertEquals("zara", mentions.first(Type.CLIENT));
+        assertEquals("Terraform", mentions.first(Type.SKILL));
+        assertEquals("bilbao", dictionary.scan("oficina de bilbao").first(Type.LOCATION));
+    }
+
+    /** Documentos de una sincronización completa, como los arma RagService. */
+    private Map<String, Map<String, Object>> snapshot() {
+        ProjectRagDto payroll = new ProjectRagDto("PRJ042", "Gestor de Nóminas", "Zara", "Valencia",
+                LocalDate.of(2025, 1, 1), null);
+        Map<String, Map<String, Object>> documents = new HashMap<>();
+        for (Document doc : List.of(
+                injection.employeeToDoc(employee("Lucía Pérez", "Valencia")),
+                injection.projectToDoc(payroll),
+                injection.departmentToDoc(new DepartmentRagDto("Finanzas", "Contabilidad y nóminas")),
+                injection.skillToDoc(new SkillRagDto("Terraform", "Infraestructura como código")))) {
+            documents.put(doc.getId(), doc.getMetadata());
+        }
+        return documents;
+    }
+
+    private static EmployeeCompleteDto employee(String name, String location) {
+        return employee(name, location, name.toLowerCase().replace(' ', '.') + "@smarthr.dev");
+    }
+
+    private static EmployeeCompleteDto employee(String name, String location, String email) {
+        return EmployeeCompleteDto.builder()
+                .name(name)
+                .email(email)
+                .location(location)
+                .department("Finanzas")
+                .jobPosition("Analista")
+                .skills(List.of("Excel"))
+                .baseSalary(new BigDecimal("30000"))
+                .projectsInfo(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.smarthr.assistant;
+
+import com.smarthr.assistant.security.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Coste de validar el JWT que el frontend manda en cada mensaje del chat: parser nuevo por llamada (lo
+ * que se hacía antes), parser reutilizado y {@link JwtUtil#validateToken} con su LRU de tokens verificados.
+ * El asistente no emite tokens, así que se firman aquí con la misma clave que usaría el backend.
+ * No lo ejecuta Surefire; se lanza con {@code main} desde {@code assistant/}:
+ * <pre>
+ * mvn -o -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.smarthr.assistant.JwtUtilBenchmark
+ * </pre>
+ */
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-with-at-least-32-chars";
+    private static final int USERS = 500;
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int ITERATIONS = 50;
+
+    public static void main(String[] args) {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 10_000);
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Date expiration = new Date(System.currentTimeMillis() + 3_600_000);
+        String[] tokens = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            tokens[i] = Jwts.builder()
+                    .setSubject("user" + i + "@smarthr.dev")
+                    .claim("roles", List.of("ROLE_EMPLOYEE"))
+                    .setExpiration(expiration)
+                    .signWith(key, SignatureAlgorithm.HS256)
+                    .compact();
+        }
+
+        var reusedParser = Jwts.parserBuilder().setSigningKey(key).build();
+
+        Runnable cold = () -> {
+            for (String token : tokens) {
+                sink(Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody());
+            }
+        };
+        Runnable reused = () -> {
+            for (String token : tokens) {
+                sink(reusedParser.parseClaimsJws(token).getBody());
+            }
+        };
+        Runnable cached = () -> {
+            for (String token : tokens) {
+                sink(jwtUtil.validateToken(token));
+            }
+        };
+
+        System.out.printf("parser nuevo     %8.0f ns/token%n", measure(cold));
+        System.out.printf("parser reusado   %8.0f ns/token%n", measure(reused));
+        System.out.printf("caché verificada %8.0f ns/token%n", measure(cached));
+    }
+
+    /** Mediana de {@link #ROUNDS} rondas tras calentar el JIT. */
+    private static double measure(Runnable batch) {
+        for (int i = 0; i < WARMUP_ROUNDS * ITERATIONS; i++) {
+            batch.run();
+        }
+        double[] rounds = new double[ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                batch.run();
+            }
+            rounds[r] = (System.nanoTime() - start) / (double) ITERATIONS / USERS;
+        }
+        Arrays.sort(rounds);
+        return rounds[ROUNDS / 2];
+    }
+
+    private static int blackhole;
+
+    private static void sink(Object value) {
+        blackhole ^= System.identityHashCode(value);
+    }
+}
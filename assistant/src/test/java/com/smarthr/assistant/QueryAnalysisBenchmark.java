@@ -0,0 +1,136 @@
+package com.smarthr.assistant;
+
+import com.smarthr.assistant.component.EntityDictionary;
+import com.smarthr.assistant.component.QueryAnalysis;
+import com.smarthr.assistant.component.QueryAnalyzer;
+import com.smarthr.assistant.component.SmartHRQueryRouter;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Coste previo al LLM por mensaje: el análisis de una pasada frente a la cadena anterior (router con
+ * {@code String.matches}, detectIntent, rewriteQuery y los extractores de cada handler, que normalizaban
+ * y compilaban patrones en cada llamada). No lo ejecuta Surefire; se lanza con {@code main} desde {@code assistant/}:
+ * <pre>
+ * mvn -o -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.smarthr.assistant.QueryAnalysisBenchmark
+ * </pre>
+ */
+public class QueryAnalysisBenchmark {
+
+    private static final List<String> MESSAGES = List.of(
+            "¿Quiénes trabajan en el Portal Web de Nike en Madrid?",
+            "Ausencias pendientes de Ana García",
+            "Empleados de desarrollo con ubicación en Barcelona",
+            "Empleado con Java y Docker en remoto",
+            "Proyecto PRJ003 de Salesforce: migración cloud",
+            "Hola, ¿cuántos empleados hay en el departamento de Data?");
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int ITERATIONS = 50_000;
+
+    public static void main(String[] args) {
+        QueryAnalyzer analyzer = new QueryAnalyzer(new EntityDictionary());
+        SmartHRQueryRouter router = new SmartHRQueryRouter(analyzer);
+
+        Runnable singlePass = () -> {
+            for (String message : MESSAGES) {
+                QueryAnalysis query = analyzer.analyze(message);
+                sink(router.classify(query));
+                sink(query);
+            }
+        };
+        Runnable legacy = () -> {
+            for (String message : MESSAGES) {
+                Legacy.run(message);
+            }
+        };
+
+        System.out.printf("legacy      %8.0f ns/mensaje%n", measure(legacy));
+        System.out.printf("single-pass %8.0f ns/mensaje%n", measure(singlePass));
+    }
+
+    /** Mediana de {@link #ROUNDS} rondas tras calentar el JIT. */
+    private static double measure(Runnable batch) {
+        for (int i = 0; i < WARMUP_ROUNDS * ITERATIONS; i++) {
+            batch.run();
+        }
+        double[] rounds = new double[ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                batch.run();
+            }
+            rounds[r] = (System.nanoTime() - start) / (double) ITERATIONS / MESSAGES.size();
+        }
+        java.util.Arrays.sort(rounds);
+        return rounds[ROUNDS / 2];
+    }
+
+    private static int blackhole;
+
+    private static void sink(Object value) {
+        blackhole ^= System.identityHashCode(value);
+    }
+
+    /** Copia de la cadena anterior, para comparar. */
+    private static final class Legacy {
+
+        static void run(String message) {
+            String m = message.toLowerCase();
+            sink(m.matches(".*\\b(hola|buenos días|buenas|hello|gracias)\\b.*"));
+            sink(m.matches(".*\\b(cuántos|cuantos|número de|total de)\\b.*"));
+
+            String lower = normalize(message);
+            sink(employeeName(message) != null && lower.contains("proyecto"));
+            sink(rewrite(message));
+
+            // handlers: handleProjects / handleEmployeesByProject y la rama de empleados de chatWithRag
+            sink(projectName(message));
+            sink(normalize(message).contains("madrid"));
+            sink(normalize(message).contains("nike"));
+            sink(normalize(message).contains("prj003"));
+            sink(normalize(message).contains("empleado") || normalize(message).contains("trabajan")
+                    || normalize(message).contains("participan"));
+            sink(employeeName(message));
+            sink(employeeLocation(message));
+            sink(normalize(message).contains("java"));
+            sink(normalize(message).contains("desarrollo"));
+            sink(employeeLocation(message));
+        }
+
+        static String normalize(String text) {
+            return Normalizer.normalize(text, Normalizer.Form.NFD)
+                    .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
+                    .toLowerCase()
+                    .trim();
+        }
+
+        static String rewrite(String original) {
+            String lower = original.toLowerCase().trim();
+            if (lower.contains("ausencia") || lower.contains("ausencias")) return original + " solicitud ausencia";
+            if (lower.contains("empleado") || lower.contains("empleados")) return original + " empleado nombre";
+            return original;
+        }
+
+        static String employeeName(String message) {
+            Matcher m = Pattern.compile("([A-ZÁÉÍÓÚÑ][a-záéíóúñ]+\\s+[A-ZÁÉÍÓÚÑ][a-záéíóúñ]+)").matcher(message);
+            return m.find() ? m.group(1) : null;
+        }
+
+        static String employeeLocation(String message) {
+            Matcher m = Pattern.compile("ubicaci[oó]n\\s+en\\s+([A-Za-zÁÉÍÓÚÑáéíóúñ ]+)", Pattern.CASE_INSENSITIVE)
+                    .matcher(message);
+            return m.find() ? m.group(1).trim() : null;
+        }
+
+        static String projectName(String message) {
+            String n = normalize(message);
+            return n.contains("portal web") ? "portal web corporativo" : null;
+        }
+    }
+}
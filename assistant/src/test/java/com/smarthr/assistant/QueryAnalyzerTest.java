@@ -0,0 +1,94 @@
+package com.smarthr.assistant;
+
+import com.smarthr.assistant.component.EntityDictionary;
+import com.smarthr.assistant.component.QueryAnalysis;
+import com.smarthr.assistant.component.QueryAnalyzer;
+import com.smarthr.assistant.component.QueryType;
+import com.smarthr.assistant.component.SmartHRQueryRouter;
+import com.smarthr.assistant.utils.AssistantChatUtils;
+import com.smarthr.assistant.utils.RagIntent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba que el análisis de una sola pasada da lo mismo que los extractores de {@link AssistantChatUtils}.
+ */
+class QueryAnalyzerTest {
+
+    private final EntityDictionary dictionary = new EntityDictionary();
+    private final QueryAnalyzer analyzer = new QueryAnalyzer(dictionary);
+    private final AssistantChatUtils utils = new AssistantChatUtils(dictionary);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "¿Quiénes trabajan en el Portal Web de Nike en Madrid?",
+            "Ausencias pendientes de Ana García",
+            "Empleados de desarrollo con ubicación en Barcelona",
+            "Empleado con Java y Docker en remoto",
+            "Proyecto PRJ003 de Salesforce: migración cloud",
+            "¿Cuál es el salario de Luis Pérez?",
+            "   ",
+            ""
+    })
+    @DisplayName("Entidades: coinciden con los extractores de AssistantChatUtils")
+    void analyze_matchesUtils(String message) {
+        QueryAnalysis query = analyzer.analyze(message);
+
+        assertEquals(utils.normalize(message), query.normalized());
+        assertEquals(utils.rewriteQuery(message), query.rewrittenQuery());
+        assertEquals(utils.extractEmployeeName(message), query.employeeName());
+        assertEquals(utils.extractEmployeeLocation(message), query.employeeLocation());
+        assertEquals(utils.extractDepartment(message), query.department());
+        assertEquals(utils.extractProjectNameFromMessage(message), query.projectName());
+        assertEquals(utils.extractProjectLocation(message), query.projectLocation());
+        assertEquals(utils.extractClientFromMessage(message), query.client());
+        assertEquals(utils.extractProjectCode(message), query.projectCode());
+        assertEquals(utils.containsSkill(message), query.mentionsSkill());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'¿En qué proyectos está Ana García?', EMPLOYEE",
+            "'Empleados del proyecto de Nike', EMPLOYEE_BY_PROJECT",
+            "'¿Quién trabaja en Madrid?', EMPLOYEE",
+            "'Proyectos de Nike', PROJECT",
+            "'Departamento de Marketing', DEPARTMENT",
+            "'Mis vacaciones', LEAVE_REQUEST",
+            "'Qué tal', GENERIC"
+    })
+    @DisplayName("Intención: se resuelve en el mismo análisis")
+    void analyze_detectsIntent(String message, RagIntent expected) {
+        assertEquals(expected, analyzer.analyze(message).intent());
+    }
+
+    @Test
+    @DisplayName("Palabras: normalizadas, sin signos y con frases en orden")
+    void analyze_splitsWords() {
+        QueryAnalysis query = analyzer.analyze("¿Número de EMPLEADOS, en Málaga?");
+
+        assertEquals(List.of("numero", "de", "empleados", "en", "malaga"), query.words());
+        assertTrue(query.hasWord("malaga"));
+        assertFalse(query.hasWord("mala"));
+        assertTrue(query.hasPhrase("numero", "de"));
+        assertFalse(query.hasPhrase("de", "numero"));
+        assertTrue(query.wantsEmployees());
+    }
+
+    @Test
+    @DisplayName("Router: trabaja sobre el análisis y no sobre subcadenas")
+    void router_usesWholeWords() {
+        SmartHRQueryRouter router = new SmartHRQueryRouter(analyzer);
+
+        assertEquals(QueryType.SMALL_TALK, router.classify(analyzer.analyze("¡Buenos dias!")));
+        assertEquals(QueryType.AGGREGATION, router.classify(analyzer.analyze("cuántos proyectos")));
+        assertEquals(QueryType.RAG, router.classify(analyzer.analyze("Empleados de Holanda")));
+        assertEquals(QueryType.RAG, router.classify(analyzer.analyze("subtotal del departamento")));
+    }
+}
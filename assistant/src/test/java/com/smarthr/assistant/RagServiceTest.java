@@ -1,10 +1,14 @@
 package com.smarthr.assistant;
 
+import com.smarthr.assistant.component.EntityDictionary;
+import com.smarthr.assistant.component.QueryAnalysis;
+import com.smarthr.assistant.component.QueryAnalyzer;
 import com.smarthr.assistant.dto.EmployeeCompleteDto;
 import com.smarthr.assistant.dto.CompanyRagSnapshotDto;
 import com.smarthr.assistant.service.RagService;
 import com.smarthr.assistant.utils.AssistantChatUtils;
 import com.smarthr.assistant.utils.RagIntent;
+import com.smarthr.assistant.utils.RelationshipIndex;
 import com.smarthr.assistant.utils.VgVectorInyection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +21,7 @@ import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.web.client.RestTemplate;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -39,6 +44,13 @@ class RagServiceTest {
     @Mock
     private AssistantChatUtils assistantChatUtils;
 
+    // El análisis del mensaje es real: intención y entidades salen del texto de cada test
+    @Spy
+    private EntityDictionary entityDictionary = new EntityDictionary();
+
+    @Spy
+    private QueryAnalyzer queryAnalyzer = new QueryAnalyzer(entityDictionary);
+
     @InjectMocks
     private RagService ragService;
 
@@ -62,29 +74,25 @@ class RagServiceTest {
 
     @Test
     void chatWithRag_employeeNotFound_returnsNoData() {
-        String message = "Empleado que no existe";
+        String message = "Información de Nadie Existe";
 
         when(assistantChatUtils.normalize(anyString())).thenReturn(message.toLowerCase());
-        when(assistantChatUtils.extractEmployeeName(message)).thenReturn("NoExiste");
-        when(assistantChatUtils.rewriteQuery(message)).thenReturn(message); // no null
         when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of()); // vectorStore sí se usa
 
         String response = ragService.chatWithRag(message);
 
         assertEquals(
-                "Lo siento, pero no tengo información sobre un empleado llamado NoExiste en la empresa SmartHR.",
+                "Lo siento, pero no tengo información sobre un empleado llamado Nadie Existe en la empresa SmartHR.",
                 response.trim()
         );
     }
 
     @Test
     void chatWithRag_employeeFound_returnsAnswer() {
-        String message = "Info Ana";
-        Document doc = new Document("Ana", Map.of("type", "EMPLOYEE", "entityId", "ana"));
+        String message = "Info Ana García";
+        Document doc = new Document("Ana García", Map.of("type", "EMPLOYEE", "entityId", "ana-garcia"));
 
-        when(assistantChatUtils.normalize(anyString())).thenReturn("ana");
-        when(assistantChatUtils.extractEmployeeName(message)).thenReturn("Ana");
-        when(assistantChatUtils.rewriteQuery(message)).thenReturn(message);
+        when(assistantChatUtils.normalize(anyString())).thenReturn("ana garcia");
         when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of(doc));
         when(assistantChatUtils.buildContextWithMetadata(List.of(doc))).thenReturn("contexto");
 
@@ -100,9 +108,7 @@ class RagServiceTest {
         String message = "Info Ana";
         String employeeName = "Ana";
 
-        // Mockear normalize tanto para el nombre como para el mensaje
         when(assistantChatUtils.normalize(employeeName)).thenReturn("ana");
-        when(assistantChatUtils.normalize(message)).thenReturn("info ana"); // <-- clave
         when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of());
 
         String response = ragService.chatForEmployee(employeeName, message);
@@ -115,9 +121,8 @@ class RagServiceTest {
         String employeeName = "Ana";
         Document doc = new Document("Ana", Map.of("type", "EMPLOYEE"));
 
-        // Normalizar empleado y mensaje
+        // Normalizar empleado (el mensaje lo analiza QueryAnalyzer)
         when(assistantChatUtils.normalize(employeeName)).thenReturn("ana");
-        when(assistantChatUtils.normalize(message)).thenReturn("info ana");
 
         // Mockear vectorStore con un doc
         when(vectorStore.similaritySearch(any(SearchRequest.class)))
@@ -139,18 +144,34 @@ class RagServiceTest {
         assertEquals("respuesta", response);
     }
 
+    @Test
+    @DisplayName("Empleado indexado: se responde con sus documentos por ID, sin búsqueda vectorial")
+    void chatForEmployee_indexedEmployee_skipsVectorSearch() {
+        String employeeName = "Ana García";
+        Document doc = new Document("employee:ana-garcía:ana@smarthr.dev", "Empleado llamado Ana García", Map.of("type", "EMPLOYEE"));
+
+        when(vgVectorInyection.findEmployeeDocuments(employeeName, vectorStore)).thenReturn(Optional.of(List.of(doc)));
+        when(assistantChatUtils.buildContextWithMetadata(List.of(doc))).thenReturn("contexto");
+        when(chatClient.prompt()
+                .system(anyString())
+                .user(anyString())
+                .call()
+                .content())
+                .thenReturn("respuesta");
+
+        assertEquals("respuesta", ragService.chatForEmployee(employeeName, "¿En qué departamento trabajo?"));
+        verify(vectorStore, never()).similaritySearch(any(SearchRequest.class));
+    }
+
     @Test
     void handleAbsenceQuery_noLeaves_returnsNoData() {
         String message = "Consulta ausencia";
 
-        // El método extrae el nombre del empleado
-        when(assistantChatUtils.extractEmployeeName(message)).thenReturn(null);
-
         // La búsqueda en vectorStore devuelve vacío
         when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of());
 
         // Ejecutar
-        String response = ragService.handleAbsenceQuery(message);
+        String response = ragService.handleAbsenceQuery(queryAnalyzer.analyze(message));
 
         // Verificar que devuelva el mensaje esperado
         assertTrue(response.contains("No hay solicitudes"));
@@ -164,7 +185,7 @@ class RagServiceTest {
         when(assistantChatUtils.normalize(employeeName)).thenReturn("ana");
         when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of());
 
-        String response = ragService.handleAbsenceQueryForEmployee(employeeName, message);
+        String response = ragService.handleAbsenceQueryForEmployee(employeeName, queryAnalyzer.analyze(message));
         assertTrue(response.contains("No tienes solicitudes"));
     }
 
@@ -182,6 +203,25 @@ class RagServiceTest {
         ragService.syncSmartHRData();
 
         verify(vgVectorInyection).upsertDocuments(anyList(), eq(vectorStore));
+        verify(entityDictionary).rebuild(anyMap());
+    }
+
+    @Test
+    @DisplayName("Arranque: el diccionario de entidades se reconstruye con los metadatos ya guardados en el store")
+    void indexVectorStore_rebuildsDictionaryFromStoredMetadata() {
+        when(vgVectorInyection.indexExisting(eq(vectorStore), any())).thenAnswer(inv -> {
+            BiConsumer<String, Map<String, Object>> stored = inv.getArgument(1);
+            stored.accept("employee:lucía-pérez:lucia@smarthr.dev", Map.of("type", "EMPLOYEE", "name", "Lucía Pérez",
+                    "projects", List.of(Map.of("name", "Gestor de Nóminas", "code", "PRJ042", "client", "Zara"))));
+            return 1;
+        });
+
+        ragService.indexVectorStore();
+
+        EntityDictionary.Mentions mentions = entityDictionary.scan("lucia perez del gestor de nominas de zara");
+        assertEquals("Lucía Pérez", mentions.first(EntityDictionary.Type.EMPLOYEE));
+        assertEquals("gestor de nominas", mentions.first(EntityDictionary.Type.PROJECT_NAME));
+        assertEquals("zara", mentions.first(EntityDictionary.Type.CLIENT));
     }
 
     @Test
@@ -191,16 +231,13 @@ class RagServiceTest {
         // Creamos un spy del servicio para poder stubear métodos internos
         RagService spyService = spy(ragService);
 
-        // Stubear detectIntent para forzar la rama LEAVE_REQUEST
-        doReturn(RagIntent.LEAVE_REQUEST).when(spyService).detectIntent(message);
-
-        // Stubear handleAbsenceQuery para no ejecutar la lógica real
-        doReturn("No hay datos").when(spyService).handleAbsenceQuery(message);
+        // "ausencia" lleva a la rama LEAVE_REQUEST; handleAbsenceQuery no ejecuta la lógica real
+        doReturn("No hay datos").when(spyService).handleAbsenceQuery(any(QueryAnalysis.class));
 
         String response = spyService.chatWithRag(message);
 
         assertEquals("No hay datos", response);
-        verify(spyService).handleAbsenceQuery(message);
+        verify(spyService).handleAbsenceQuery(argThat(query -> query.message().equals(message)));
     }
 
 
@@ -210,15 +247,12 @@ class RagServiceTest {
 
         RagService spyService = spy(ragService);
 
-        when(assistantChatUtils.rewriteQuery(message)).thenReturn(message);
-
-        doReturn(RagIntent.EMPLOYEE_BY_PROJECT).when(spyService).detectIntent(message);
-        doReturn("resultado proyecto").when(spyService).handleEmployeesByProject(message, message);
+        doReturn("resultado proyecto").when(spyService).handleEmployeesByProject(any(QueryAnalysis.class));
 
         String response = spyService.chatWithRag(message);
 
         assertEquals("resultado proyecto", response);
-        verify(spyService).handleEmployeesByProject(message, message);
+        verify(spyService).handleEmployeesByProject(argThat(query -> query.message().equals(message)));
     }
 
 
@@ -226,31 +260,21 @@ class RagServiceTest {
     void chatWithRag_projectIntent_callsHandleProjects() {
         String message = "Info de proyectos";
 
-        lenient().when(assistantChatUtils.normalize(message)).thenReturn(message.toLowerCase());
-        when(assistantChatUtils.rewriteQuery(message)).thenReturn(message);
-        lenient().when(assistantChatUtils.extractEmployeeName(message)).thenReturn(null);
-        lenient().when(assistantChatUtils.rewriteQuery(message)).thenReturn(message); // enhancedQuery no puede ser null
-
         RagService spyService = spy(ragService);
 
-        doReturn(RagIntent.PROJECT).when(spyService).detectIntent(message);
-
-        doReturn("resultado proyectos").when(spyService).handleProjects(message, message);
+        doReturn("resultado proyectos").when(spyService).handleProjects(any(QueryAnalysis.class));
 
         String response = spyService.chatWithRag(message);
 
         assertEquals("resultado proyectos", response);
-        verify(spyService).handleProjects(message, message);
+        verify(spyService).handleProjects(argThat(query -> query.message().equals(message)));
     }
 
     @Test
     void chatWithRag_locationFilters_callsAnswerWithContext() {
-        String message = "Buscar empleados en Madrid";
+        String message = "Buscar empleados con ubicación en Madrid";
         String location = "Madrid";
 
-        when(assistantChatUtils.normalize(anyString())).thenReturn(message.toLowerCase());
-        when(assistantChatUtils.extractEmployeeName(message)).thenReturn(null);
-        when(assistantChatUtils.extractEmployeeLocation(message)).thenReturn(location);
         when(assistantChatUtils.capitalize(location)).thenReturn(location);
 
         Document doc = new Document("Empleado1", Map.of("type", "EMPLOYEE"));
@@ -269,13 +293,6 @@ class RagServiceTest {
     void chatWithRag_containsSkill_callsAnswerWithContext() {
         String message = "Empleado con Java";
 
-        // Lenient stubs para evitar UnnecessaryStubbingException
-        lenient().when(assistantChatUtils.normalize(anyString())).thenReturn(message.toLowerCase());
-        lenient().when(assistantChatUtils.extractEmployeeName(message)).thenReturn(null);
-        lenient().when(assistantChatUtils.extractEmployeeLocation(message)).thenReturn(null);
-        lenient().when(assistantChatUtils.containsSkill(message)).thenReturn(true);
-        lenient().when(assistantChatUtils.rewriteQuery(message)).thenReturn(message); // clave
-
         Document doc = new Document("Empleado2", Map.of("type", "EMPLOYEE"));
         when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of(doc));
 
@@ -290,14 +307,8 @@ class RagServiceTest {
 
     @Test
     void chatWithRag_departmentAndLocationFilters_callsAnswerWithContext() {
-        String message = "Empleado de IT en Barcelona";
+        String message = "Empleado de desarrollo con ubicación en Barcelona";
 
-        lenient().when(assistantChatUtils.extractDepartment(message)).thenReturn("IT");
-
-        lenient().when(assistantChatUtils.normalize(anyString())).thenReturn(message.toLowerCase());
-        lenient().when(assistantChatUtils.extractEmployeeName(message)).thenReturn(null);
-        lenient().when(assistantChatUtils.extractEmployeeLocation(message)).thenReturn("Barcelona");
-        lenient().when(assistantChatUtils.extractDepartment(message)).thenReturn("IT");
         lenient().when(assistantChatUtils.capitalize("Barcelona")).thenReturn("Barcelona");
         Document doc = new Document("Empleado3", Map.of("type", "EMPLOYEE"));
         when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of(doc));
@@ -314,25 +325,12 @@ class RagServiceTest {
 
     @Test
     void chatWithRag_departmentAndLocationFallback_returnsAnswerWithContext() {
-        String message = "Buscar empleados de IT en Madrid";
-        String department = "IT";
+        String message = "Buscar empleados de desarrollo con ubicación en Madrid";
+        String department = "Desarrollo";
         String locationFallback = "Madrid";
-        String enhancedQuery = message;
 
         RagService spyService = spy(ragService);
 
-        doReturn(message.toLowerCase()).when(assistantChatUtils).normalize(anyString());
-
-        doReturn(null).when(assistantChatUtils).extractEmployeeName(message);
-
-        doReturn(locationFallback).when(assistantChatUtils).extractEmployeeLocation(message);
-
-        doReturn(false).when(assistantChatUtils).containsSkill(message);
-
-        doReturn(department).when(assistantChatUtils).extractDepartment(message);
-
-        doReturn(enhancedQuery).when(assistantChatUtils).rewriteQuery(message);
-
         doReturn(locationFallback).when(assistantChatUtils).capitalize(locationFallback);
 
         Map<String, Object> metadata = new HashMap<>();
@@ -390,12 +388,8 @@ class RagServiceTest {
     @DisplayName("handleProjects: Búsqueda simple sin filtros - devuelve todos los proyectos")
     void handleProjects_noFilters_returnsAllProjects() {
         String message = "Muéstrame los proyectos";
-        String enhancedQuery = message;
 
         // NO extraer filtros
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn(null);
-        when(assistantChatUtils.extractProjectLocation(message)).thenReturn(null);
-        when(assistantChatUtils.extractClientFromMessage(message)).thenReturn(null);
 
         // Crear proyectos mock
         Map<String, Object> meta1 = new HashMap<>();
@@ -416,7 +410,7 @@ class RagServiceTest {
         RagService spyService = spy(ragService);
         doReturn("Lista de proyectos").when(spyService).answerWithContext(eq(message), anyList());
 
-        String response = spyService.handleProjects(message, enhancedQuery);
+        String response = spyService.handleProjects(queryAnalyzer.analyze(message));
 
         assertEquals("Lista de proyectos", response);
         verify(spyService).answerWithContext(eq(message), argThat(list -> list.size() == 2));
@@ -426,12 +420,6 @@ class RagServiceTest {
     @DisplayName("handleProjects: Filtrar por nombre de proyecto")
     void handleProjects_filterByProjectName_returnsMatchedProjects() {
         String message = "Proyectos del Portal Web";
-        String enhancedQuery = message;
-        String targetProject = "portal web";
-
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn(targetProject);
-        when(assistantChatUtils.extractProjectLocation(message)).thenReturn(null);
-        when(assistantChatUtils.extractClientFromMessage(message)).thenReturn(null);
 
         // ✅ CORRECCIÓN: Usar anyString() con un Answer que normalice cualquier entrada
         when(assistantChatUtils.normalize(anyString())).thenAnswer(i ->
@@ -454,7 +442,7 @@ class RagServiceTest {
         RagService spyService = spy(ragService);
         doReturn("Proyecto Portal Web").when(spyService).answerWithContext(eq(message), anyList());
 
-        String response = spyService.handleProjects(message, enhancedQuery);
+        String response = spyService.handleProjects(queryAnalyzer.analyze(message));
 
         assertEquals("Proyecto Portal Web", response);
         verify(spyService).answerWithContext(eq(message), argThat(list ->
@@ -463,16 +451,27 @@ class RagServiceTest {
         ));
     }
 
+    @Test
+    @DisplayName("handleEmployeesByProject: con el índice de relaciones no hay búsqueda vectorial")
+    void handleEmployeesByProject_indexedProject_skipsVectorSearch() {
+        String message = "Empleados del proyecto Desarrollo APIs de IBM";
+        Document ana = new Document("employee:ana-garcía:ana@smarthr.dev", "Empleado llamado Ana García", Map.of("type", "EMPLOYEE"));
+
+        when(vgVectorInyection.findRelatedEmployees(
+                new RelationshipIndex.Criteria("desarrollo apis", null, "ibm", null, null), vectorStore))
+                .thenReturn(Optional.of(List.of(ana)));
+
+        RagService spyService = spy(ragService);
+        doReturn("Ana García").when(spyService).answerWithContext(message, List.of(ana));
+
+        assertEquals("Ana García", spyService.handleEmployeesByProject(queryAnalyzer.analyze(message)));
+        verify(vectorStore, never()).similaritySearch(any(SearchRequest.class));
+    }
+
     @Test
     @DisplayName("handleProjects: Filtrar por cliente")
     void handleProjects_filterByClient_returnsMatchedProjects() {
         String message = "Proyectos del cliente Nike";
-        String enhancedQuery = message;
-        String targetClient = "nike";
-
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn(null);
-        when(assistantChatUtils.extractProjectLocation(message)).thenReturn(null);
-        when(assistantChatUtils.extractClientFromMessage(message)).thenReturn(targetClient);
 
         // ✅ CORRECCIÓN: Usar anyString() en lugar de mockear valores específicos
         when(assistantChatUtils.normalize(anyString())).thenAnswer(i ->
@@ -497,7 +496,7 @@ class RagServiceTest {
         RagService spyService = spy(ragService);
         doReturn("Proyectos Nike").when(spyService).answerWithContext(eq(message), anyList());
 
-        String response = spyService.handleProjects(message, enhancedQuery);
+        String response = spyService.handleProjects(queryAnalyzer.analyze(message));
 
         assertEquals("Proyectos Nike", response);
         verify(spyService).answerWithContext(eq(message), argThat(list ->
@@ -510,12 +509,6 @@ class RagServiceTest {
     @DisplayName("handleProjects: Filtrar por ubicación")
     void handleProjects_filterByLocation_returnsMatchedProjects() {
         String message = "Proyectos en Madrid";
-        String enhancedQuery = message;
-        String targetLocation = "madrid";
-
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn(null);
-        when(assistantChatUtils.extractProjectLocation(message)).thenReturn(targetLocation);
-        when(assistantChatUtils.extractClientFromMessage(message)).thenReturn(null);
 
         // ✅ CORRECCIÓN: Usar lenient() para evitar UnnecessaryStubbingException
         lenient().when(assistantChatUtils.normalize(anyString())).thenAnswer(i ->
@@ -540,7 +533,7 @@ class RagServiceTest {
         RagService spyService = spy(ragService);
         doReturn("Proyectos Madrid").when(spyService).answerWithContext(eq(message), anyList());
 
-        String response = spyService.handleProjects(message, enhancedQuery);
+        String response = spyService.handleProjects(queryAnalyzer.analyze(message));
 
         assertEquals("Proyectos Madrid", response);
         verify(spyService).answerWithContext(eq(message), argThat(list ->
@@ -550,17 +543,32 @@ class RagServiceTest {
     }
 
     @Test
-    @DisplayName("handleProjects: Sin proyectos encontrados - devuelve noDataResponse")
-    void handleProjects_noProjectsFound_returnsNoData() {
-        String message = "Proyectos de cliente inexistente";
-        String enhancedQuery = message;
+    @DisplayName("handleProjects: sin índice, cliente y ubicación se combinan con AND como en el índice")
+    void handleProjects_fallbackCombinesFiltersWithAnd() {
+        String message = "Proyectos de Nike en Madrid";
+        when(assistantChatUtils.normalize(anyString())).thenAnswer(i -> ((String) i.getArgument(0)).toLowerCase());
 
-        // ✅ CAMBIO: Proporcionar al menos UN filtro para que el código busque
-        String targetClient = "clienteinexistente";
+        when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of(
+                new Document("Portal", new HashMap<>(Map.of("projectName", "Portal Web", "client", "Nike", "ubication", "Madrid"))),
+                new Document("App", new HashMap<>(Map.of("projectName", "App Mobile", "client", "Nike", "ubication", "Barcelona"))),
+                new Document("Intranet", new HashMap<>(Map.of("projectName", "Intranet", "client", "IBM", "ubication", "Madrid")))));
 
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn(null);
-        when(assistantChatUtils.extractProjectLocation(message)).thenReturn(null);
-        when(assistantChatUtils.extractClientFromMessage(message)).thenReturn(targetClient); // ✅ Proporcionar filtro
+        RagService spyService = spy(ragService);
+        doReturn("Portal Web").when(spyService).answerWithContext(eq(message), anyList());
+
+        QueryAnalysis query = new QueryAnalysis(message, "proyectos de nike en madrid", List.of(), RagIntent.PROJECT,
+                message, null, null, null, null, "madrid", "nike", null, null, false);
+        spyService.handleProjects(query);
+
+        verify(spyService).answerWithContext(eq(message), argThat(list ->
+                list.size() == 1 && list.get(0).getMetadata().get("projectName").equals("Portal Web")));
+    }
+
+    @Test
+    @DisplayName("handleProjects: Sin proyectos encontrados - devuelve noDataResponse")
+    void handleProjects_noProjectsFound_returnsNoData() {
+        // El cliente es un filtro, así que el código busca aunque no haya proyectos
+        String message = "Proyectos del cliente Accenture";
 
         lenient().when(assistantChatUtils.normalize(anyString())).thenAnswer(i ->
                 ((String) i.getArgument(0)).toLowerCase()
@@ -572,7 +580,7 @@ class RagServiceTest {
 
         when(assistantChatUtils.noDataResponse()).thenReturn("No hay datos");
 
-        String response = ragService.handleProjects(message, enhancedQuery);
+        String response = ragService.handleProjects(queryAnalyzer.analyze(message));
 
         assertEquals("No hay datos", response);
         verify(assistantChatUtils).noDataResponse();
@@ -582,12 +590,6 @@ class RagServiceTest {
     @DisplayName("handleProjects: Pregunta pide empleados - busca empleados del proyecto")
     void handleProjects_questionAsksForEmployees_searchesEmployees() {
         String message = "¿Quiénes trabajan en el Portal Web?";
-        String enhancedQuery = message;
-        String targetProject = "portal web";
-
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn(targetProject);
-        when(assistantChatUtils.extractProjectLocation(message)).thenReturn(null);
-        when(assistantChatUtils.extractClientFromMessage(message)).thenReturn(null);
         when(assistantChatUtils.normalize(anyString())).thenAnswer(i ->
                 ((String) i.getArgument(0)).toLowerCase()
         );
@@ -615,7 +617,7 @@ class RagServiceTest {
         RagService spyService = spy(ragService);
         doReturn("Empleados del proyecto").when(spyService).answerWithContext(eq(message), anyList());
 
-        String response = spyService.handleProjects(message, enhancedQuery);
+        String response = spyService.handleProjects(queryAnalyzer.analyze(message));
 
         assertEquals("Empleados del proyecto", response);
 
@@ -626,20 +628,14 @@ class RagServiceTest {
     @Test
     @DisplayName("handleProjects: Pide empleados pero no hay empleados - devuelve noData")
     void handleProjects_asksEmployeesButNoneFound_returnsNoData() {
-        String message = "¿Quiénes trabajan en proyecto inexistente?";
-        String enhancedQuery = message;
-        String targetProject = "proyecto inexistente";
-
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn(targetProject);
-        when(assistantChatUtils.extractProjectLocation(message)).thenReturn(null);
-        when(assistantChatUtils.extractClientFromMessage(message)).thenReturn(null);
+        String message = "¿Quiénes trabajan en Sistema RRHH?";
         when(assistantChatUtils.normalize(anyString())).thenAnswer(i ->
                 ((String) i.getArgument(0)).toLowerCase()
         );
 
         // Proyecto encontrado
         Map<String, Object> projectMeta = new HashMap<>();
-        projectMeta.put("projectName", "Proyecto Test");
+        projectMeta.put("projectName", "Sistema RRHH");
         Document project = new Document("Proyecto", projectMeta);
 
         // Mock de búsquedas: proyecto encontrado, pero sin empleados
@@ -649,7 +645,7 @@ class RagServiceTest {
 
         when(assistantChatUtils.noDataResponse()).thenReturn("No hay empleados");
 
-        String response = ragService.handleProjects(message, enhancedQuery);
+        String response = ragService.handleProjects(queryAnalyzer.analyze(message));
 
         assertEquals("No hay empleados", response);
         verify(assistantChatUtils).noDataResponse();
@@ -659,12 +655,6 @@ class RagServiceTest {
     @DisplayName("handleEmployeesByProject: Búsqueda básica por nombre de proyecto")
     void handleEmployeesByProject_byProjectName_returnsEmployees() {
         String message = "Empleados del Portal Web";
-        String enhancedQuery = message;
-        String targetProject = "portal web";
-
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn(targetProject);
-        when(assistantChatUtils.extractProjectLocation(message)).thenReturn("");
-        when(assistantChatUtils.extractProjectCode(message)).thenReturn("");
 
         lenient().when(assistantChatUtils.normalize(any())).thenAnswer(i -> {
             Object arg = i.getArgument(0);
@@ -716,7 +706,7 @@ class RagServiceTest {
         RagService spyService = spy(ragService);
         doReturn("Empleados encontrados").when(spyService).answerWithContext(eq(message), anyList());
 
-        String response = spyService.handleEmployeesByProject(message, enhancedQuery);
+        String response = spyService.handleEmployeesByProject(queryAnalyzer.analyze(message));
 
         assertEquals("Empleados encontrados", response);
 
@@ -727,12 +717,6 @@ class RagServiceTest {
     @DisplayName("handleEmployeesByProject: Filtrar por cliente del proyecto")
     void handleEmployeesByProject_byClient_returnsEmployees() {
         String message = "Empleados de proyectos de Nike";
-        String enhancedQuery = message;
-        String targetClient = "nike";
-
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn(null);
-        when(assistantChatUtils.extractProjectLocation(message)).thenReturn(null);
-        when(assistantChatUtils.extractProjectCode(message)).thenReturn(null);
         when(assistantChatUtils.normalize(anyString())).thenAnswer(i ->
                 ((String) i.getArgument(0)).toLowerCase()
         );
@@ -766,7 +750,7 @@ class RagServiceTest {
         RagService spyService = spy(ragService);
         doReturn("Empleados Nike").when(spyService).answerWithContext(eq(message), anyList());
 
-        String response = spyService.handleEmployeesByProject(message, enhancedQuery);
+        String response = spyService.handleEmployeesByProject(queryAnalyzer.analyze(message));
 
         assertEquals("Empleados Nike", response);
         verify(spyService).answerWithContext(eq(message), anyList());
@@ -776,12 +760,6 @@ class RagServiceTest {
     @DisplayName("handleEmployeesByProject: Filtrar por ubicación del proyecto")
     void handleEmployeesByProject_byLocation_returnsEmployees() {
         String message = "Empleados en proyectos de Madrid";
-        String enhancedQuery = message;
-        String targetLocation = "madrid";
-
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn("");
-        when(assistantChatUtils.extractProjectLocation(message)).thenReturn(targetLocation);
-        when(assistantChatUtils.extractProjectCode(message)).thenReturn("");
 
         lenient().when(assistantChatUtils.normalize(any())).thenAnswer(i -> {
             Object arg = i.getArgument(0);
@@ -825,7 +803,7 @@ class RagServiceTest {
         RagService spyService = spy(ragService);
         doReturn("Empleados Madrid").when(spyService).answerWithContext(eq(message), anyList());
 
-        String response = spyService.handleEmployeesByProject(message, enhancedQuery);
+        String response = spyService.handleEmployeesByProject(queryAnalyzer.analyze(message));
 
         assertEquals("Empleados Madrid", response);
         verify(spyService).answerWithContext(eq(message), anyList());
@@ -835,11 +813,6 @@ class RagServiceTest {
     @DisplayName("handleEmployeesByProject: Sin filtros - devuelve noData")
     void handleEmployeesByProject_noFilters_returnsNoData() {
         String message = "Empleados de proyectos";
-        String enhancedQuery = message;
-
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn("");
-        lenient().when(assistantChatUtils.extractProjectLocation(message)).thenReturn("");
-        lenient().when(assistantChatUtils.extractProjectCode(message)).thenReturn("");
 
         lenient().when(assistantChatUtils.normalize(any())).thenAnswer(i -> {
             Object arg = i.getArgument(0);
@@ -857,7 +830,7 @@ class RagServiceTest {
 
         when(assistantChatUtils.noDataResponse()).thenReturn("Faltan filtros");
 
-        String response = ragService.handleEmployeesByProject(message, enhancedQuery);
+        String response = ragService.handleEmployeesByProject(queryAnalyzer.analyze(message));
 
         assertEquals("Faltan filtros", response);
         verify(assistantChatUtils).noDataResponse();
@@ -867,12 +840,6 @@ class RagServiceTest {
     @DisplayName("handleEmployeesByProject: Empleado con metadata.projects null - no falla")
     void handleEmployeesByProject_employeeWithNullProjects_doesNotFail() {
         String message = "Empleados del Portal Web";
-        String enhancedQuery = message;
-        String targetProject = "portal web";
-
-        when(assistantChatUtils.extractProjectNameFromMessage(message)).thenReturn(targetProject);
-        when(assistantChatUtils.extractProjectLocation(message)).thenReturn("");
-        when(assistantChatUtils.extractProjectCode(message)).thenReturn("");
 
         lenient().when(assistantChatUtils.normalize(any())).thenAnswer(i -> {
             Object arg = i.getArgument(0);
@@ -903,7 +870,7 @@ class RagServiceTest {
 
         when(assistantChatUtils.noDataResponse()).thenReturn("Sin coincidencias");
 
-        String response = ragService.handleEmployeesByProject(message, enhancedQuery);
+        String response = ragService.handleEmployeesByProject(queryAnalyzer.analyze(message));
 
         assertEquals("Sin coincidencias", response);
     }
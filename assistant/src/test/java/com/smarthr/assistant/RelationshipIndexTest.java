@@ -0,0 +1,129 @@
+package com.smarthr.assistant;
+
+import com.smarthr.assistant.dto.EmployeeCompleteDto;
+import com.smarthr.assistant.dto.ProjectRagDto;
+import com.smarthr.assistant.utils.RelationshipIndex;
+import com.smarthr.assistant.utils.RelationshipIndex.Criteria;
+import com.smarthr.assistant.utils.VgVectorInyection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba el índice de relaciones empleado ↔ proyecto ↔ skill: búsquedas por proyecto, cliente,
+ * ubicación y skill, su intersección y que se deshace al reemplazar o borrar documentos, proyectos incluidos.
+ */
+class RelationshipIndexTest {
+
+    private static final ProjectRagDto PORTAL = new ProjectRagDto("PRJ001", "Portal Web Corporativo", "Nike", "Madrid",
+            LocalDate.of(2024, 1, 15), null);
+    private static final ProjectRagDto MIGRACION = new ProjectRagDto("PRJ002", "Migración Cloud", "IBM", "Remote",
+            LocalDate.of(2023, 1, 1), null);
+    private static final ProjectRagDto APIS = new ProjectRagDto("PRJ003", "Desarrollo APIs", "IBM", "Madrid",
+            LocalDate.of(2024, 3, 1), null);
+
+    private final VgVectorInyection injection = new VgVectorInyection();
+    private RelationshipIndex index;
+    private Document ana;
+    private Document luis;
+
+    @BeforeEach
+    void setUp() {
+        index = new RelationshipIndex();
+        ana = injection.employeeToDoc(employee("Ana García", List.of("Java", "Docker"), List.of(PORTAL, APIS)));
+        luis = injection.employeeToDoc(employee("Luis Pérez", List.of("Python"), List.of(MIGRACION, APIS)));
+        for (Document doc : List.of(ana, luis, injection.projectToDoc(PORTAL), injection.projectToDoc(MIGRACION),
+                injection.projectToDoc(APIS))) {
+            index.put(doc.getId(), doc.getMetadata());
+        }
+    }
+
+    @Test
+    @DisplayName("Proyecto, código, cliente y ubicación resuelven proyectos y sus empleados")
+    void lookups_resolveProjectsAndEmployees() {
+        assertEquals(Set.of("portal web corporativo"), index.projectKeys(criteria("portal web", null, null, null, null)));
+        assertEquals(Set.of("migracion cloud"), index.projectKeys(criteria(null, "PRJ002", null, null, null)));
+        assertEquals(Set.of("migracion cloud", "desarrollo apis"), index.projectKeys(criteria(null, null, "ibm", null, null)));
+        assertEquals(List.of("project:PRJ003", "project:PRJ001"), index.projectDocumentIds(criteria(null, null, null, "madrid", null)));
+
+        assertEquals(List.of(ana.getId(), luis.getId()), index.employeeIds(criteria("Desarrollo APIs", null, null, null, null)));
+        assertEquals(List.of(ana.getId()), index.employeeIds(criteria(null, null, null, null, "java")));
+        assertNull(index.projectKeys(criteria(null, null, null, null, "java")));
+    }
+
+    @Test
+    @DisplayName("Varios criterios se intersecan: cliente y ubicación, proyecto y skill")
+    void criteria_areIntersected() {
+        assertEquals(Set.of("desarrollo apis"), index.projectKeys(criteria(null, null, "ibm", "madrid", null)));
+        assertEquals(List.of(luis.getId()), index.employeeIds(criteria(null, null, "ibm", null, "python")));
+        assertTrue(index.employeeIds(criteria("portal web", null, null, null, "python")).isEmpty());
+        assertTrue(index.projectKeys(criteria(null, null, "nike", "remote", null)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Reemplazar o borrar un empleado deshace sus relaciones; los metadatos leídos del store también valen")
+    void replaceAndRemove_updateRelations() {
+        Document moved = injection.employeeToDoc(employee("Ana García", List.of("Kubernetes"), List.of(MIGRACION)));
+        index.put(moved.getId(), moved.getMetadata());
+
+        assertTrue(index.employeeIds(criteria("portal web corporativo", null, null, null, null)).isEmpty());
+        assertTrue(index.employeeIds(criteria(null, null, null, null, "java")).isEmpty());
+        assertEquals(List.of(ana.getId(), luis.getId()), index.employeeIds(criteria("migracion cloud", null, null, null, null)));
+
+        index.remove(luis.getId());
+        assertEquals(List.of(ana.getId()), index.employeeIds(criteria(null, "prj002", null, null, null)));
+
+        // Tras leerlos de la tabla, los proyectos anidados llegan como mapas
+        index.put("employee:eva:eva@smarthr.dev", Map.of("type", "EMPLOYEE", "skills", List.of("Python"),
+                "projects", List.of(Map.of("code", "PRJ004", "name", "Sistema RRHH", "client", "SmartHR", "ubication", "Sevilla"))));
+        assertEquals(List.of("employee:eva:eva@smarthr.dev"), index.employeeIds(criteria(null, null, "smarthr", "sevilla", "python")));
+    }
+
+    @Test
+    @DisplayName("Un proyecto sin empleados ni documento propio desaparece de nombre, código, cliente y ubicación")
+    void unreferencedProject_isForgotten() {
+        index.remove(ana.getId());
+        index.remove("project:PRJ001");
+
+        assertTrue(index.projectKeys(criteria("portal web", null, null, null, null)).isEmpty());
+        assertTrue(index.projectKeys(criteria(null, "PRJ001", null, null, null)).isEmpty());
+        assertTrue(index.projectKeys(criteria(null, null, "nike", null, null)).isEmpty());
+        assertEquals(Set.of("desarrollo apis"), index.projectKeys(criteria(null, null, null, "madrid", null)));
+
+        // Desarrollo APIs sigue citado por su documento hasta que también se borra
+        index.remove(luis.getId());
+        assertEquals(Set.of("desarrollo apis"), index.projectKeys(criteria(null, null, null, "madrid", null)));
+        index.remove("project:PRJ003");
+        assertTrue(index.projectKeys(criteria(null, null, null, "madrid", null)).isEmpty());
+        assertEquals(Set.of("migracion cloud"), index.projectKeys(criteria(null, null, "ibm", null, null)));
+    }
+
+    private static Criteria criteria(String project, String code, String client, String location, String skill) {
+        return new Criteria(project, code, client, location, skill);
+    }
+
+    private static EmployeeCompleteDto employee(String name, List<String> skills, List<ProjectRagDto> projects) {
+        return EmployeeCompleteDto.builder()
+                .name(name)
+                .email(name.split(" ")[0].toLowerCase() + "@smarthr.dev")
+                .location("Madrid")
+                .hireDate(LocalDate.of(2022, 1, 1))
+                .department("Desarrollo")
+                .jobPosition("Backend Developer")
+                .skills(skills)
+                .projectsInfo(projects)
+                .contractType("INDEFINIDO")
+                .weeklyHours(40)
+                .baseSalary(new BigDecimal("35000.00"))
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.smarthr.backend.domain;
+
+import com.smarthr.backend.service.AggregateVersionService;
+import com.smarthr.backend.service.ReferenceDataCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Apunta en {@link AggregateVersionService} los agregados cuyos listados cachea el cliente por ETag,
+ * sea cual sea el camino de escritura (servicio o repositorio desde el controlador).
+ * Los cambios de catálogo vacían además {@link ReferenceDataCache}. Ausencias y empleados suben también la
+ * versión del equipo de su departamento, la que usa el calendario de equipo.
+ */
+@RequiredArgsConstructor
+public class AggregateVersionListener {
+
+    private final ObjectProvider<AggregateVersionService> versions;
+    private final ObjectProvider<ReferenceDataCache> referenceData;
+
+    @PostPersist
+    @PostRemove
+    public void onChange(Object entity) {
+        onWrite(entity);
+        if (entity instanceof Employee employee) {
+            markTeam(employee.getDepartment());
+        }
+    }
+
+    /** Al editar un empleado no se sabe de qué departamento venía: se renuevan todos los equipos. */
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        onWrite(entity);
+        if (entity instanceof Employee) {
+            versions.getObject().markChanged(AggregateVersionService.TEAMS);
+        }
+    }
+
+    private void onWrite(Object entity) {
+        if (entity instanceof Department) {
+            versions.getObject().markChanged(AggregateVersionService.DEPARTMENTS);
+            referenceData.getObject().evict(ReferenceDataCache.DEPARTMENTS);
+        } else if (entity instanceof Skill) {
+            versions.getObject().markChanged(AggregateVersionService.SKILLS);
+            referenceData.getObject().evict(ReferenceDataCache.SKILLS);
+        } else if (entity instanceof JobPosition) {
+            versions.getObject().markChanged(AggregateVersionService.JOB_POSITIONS);
+            referenceData.getObject().evict(ReferenceDataCache.JOB_POSITIONS);
+        } else if (entity instanceof Project) {
+            versions.getObject().markChanged(AggregateVersionService.PROJECTS);
+            referenceData.getObject().evict(ReferenceDataCache.PROJECTS);
+        } else if (entity instanceof LeaveRequest leave) {
+            versions.getObject().markChanged(AggregateVersionService.LEAVE_REQUESTS);
+            // Sin cargar al empleado no se conoce su departamento, y aquí no se lanzan consultas
+            if (Hibernate.isInitialized(leave.getEmployee())) {
+                markTeam(leave.getEmployee().getDepartment());
+            } else {
+                versions.getObject().markChanged(AggregateVersionService.TEAMS);
+            }
+        } else if (entity instanceof Employee) {
+            versions.getObject().markChanged(AggregateVersionService.EMPLOYEES);
+        }
+    }
+
+    private void markTeam(Department department) {
+        if (department != null) {
+            versions.getObject().markChanged(AggregateVersionService.team(department.getId()));
+        }
+    }
+}
@@ -3,10 +3,13 @@ package com.smarthr.backend.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
+@EntityListeners({RagChangeListener.class, EmployeeProfileListener.class})
 @Table(
         name = "assignments",
         uniqueConstraints = {
@@ -41,4 +44,7 @@ public class Assignment {
 
     @Column(name = "end_date")
     private LocalDate endDate;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
@@ -6,14 +6,17 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners({RagChangeListener.class, EmployeeProfileListener.class})
 @Table(name = "compensations")
 public class Compensation {
 
@@ -30,4 +33,6 @@ public class Compensation {
     private BigDecimal bonus;
     private LocalDate effectiveFrom;
 
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
@@ -6,13 +6,16 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners({RagChangeListener.class, EmployeeProfileListener.class})
 @Table(name = "contracts")
 public class Contract {
 
@@ -32,4 +35,6 @@ public class Contract {
     private LocalDate endDate;
     private Integer weeklyHours;
 
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
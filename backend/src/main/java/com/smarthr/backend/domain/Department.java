@@ -6,11 +6,15 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners({RagChangeListener.class, EmployeeProfileListener.class, AggregateVersionListener.class})
 @Table(name = "departments", uniqueConstraints = @UniqueConstraint(columnNames = "name"))
 public class Department {
 
@@ -23,4 +27,6 @@ public class Department {
     @Size(max = 255)
     private String description;
 
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
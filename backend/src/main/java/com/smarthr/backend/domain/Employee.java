@@ -7,13 +7,16 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners({RagChangeListener.class, EmployeeProfileListener.class, AggregateVersionListener.class})
 @Table(name = "employees")
 public class Employee {
 
@@ -39,5 +42,7 @@ public class Employee {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "job_position_id")
     private JobPosition jobPosition;
-}
 
+    @UpdateTimestamp
+    private Instant updatedAt;
+}
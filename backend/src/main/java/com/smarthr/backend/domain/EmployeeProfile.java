@@ -0,0 +1,46 @@
+package com.smarthr.backend.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Perfil completo de un empleado ya calculado (empleado, skills, contratos, salarios, asignaciones,
+ * evaluaciones y ausencias) serializado a JSON. Lo mantiene {@link EmployeeProfileListener}
+ * y se sirve con una sola lectura por clave primaria.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "employee_profiles")
+public class EmployeeProfile {
+
+    @Id
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    /** Usuario asociado al empleado, para resolver /api/employees/user sin pasar por users. */
+    @Column(unique = true, length = 100)
+    private String username;
+
+    /**
+     * Se incrementa en cada recálculo, con la fila bloqueada; sirve para detectar copias obsoletas.
+     * Nunca retrocede: al invalidar un perfil se marca {@link #stale} en vez de borrarlo.
+     */
+    @Column(nullable = false)
+    private long version;
+
+    /** El payload ya no vale (cambió un catálogo o falló el recálculo); se recalcula en la próxima lectura. */
+    @Column(nullable = false)
+    private boolean stale;
+
+    @Column(columnDefinition = "text", nullable = false)
+    private String payload;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
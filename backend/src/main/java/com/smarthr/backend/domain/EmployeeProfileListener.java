@@ -0,0 +1,59 @@
+package com.smarthr.backend.domain;
+
+import com.smarthr.backend.service.EmployeeProfileService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Marca como obsoleto el {@link EmployeeProfile} del empleado afectado por cualquier escritura
+ * en sus datos; el recálculo se hace tras el commit. Cambiar o borrar un catálogo (departamento,
+ * puesto, proyecto, skill) invalida todos los perfiles, que se recalculan al leerse.
+ */
+@RequiredArgsConstructor
+public class EmployeeProfileListener {
+
+    private final ObjectProvider<EmployeeProfileService> profiles;
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        markEmployee(entity);
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Department || entity instanceof JobPosition
+                || entity instanceof Project || entity instanceof Skill) {
+            profiles.getObject().markAllDirty();
+        } else {
+            markEmployee(entity);
+        }
+    }
+
+    private void markEmployee(Object entity) {
+        Employee employee = null;
+        if (entity instanceof Employee e) {
+            employee = e;
+        } else if (entity instanceof User u) {
+            employee = u.getEmployee();
+        } else if (entity instanceof EmployeeSkill es) {
+            employee = es.getEmployee();
+        } else if (entity instanceof Contract c) {
+            employee = c.getEmployee();
+        } else if (entity instanceof Compensation c) {
+            employee = c.getEmployee();
+        } else if (entity instanceof Assignment a) {
+            employee = a.getEmployee();
+        } else if (entity instanceof PerformanceReview pr) {
+            employee = pr.getEmployee();
+        } else if (entity instanceof LeaveRequest lr) {
+            employee = lr.getEmployee();
+        }
+        if (employee != null) {
+            profiles.getObject().markDirty(employee.getId());
+        }
+    }
+}
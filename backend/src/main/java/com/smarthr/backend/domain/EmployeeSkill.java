@@ -7,11 +7,15 @@ import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners({RagChangeListener.class, EmployeeProfileListener.class})
 @Table(name = "employee_skills",
         uniqueConstraints = @UniqueConstraint(columnNames = {"employee_id","skill_id"}))
 public class EmployeeSkill {
@@ -30,4 +34,6 @@ public class EmployeeSkill {
     @Min(1) @Max(5)
     private int level; // 1-5
 
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
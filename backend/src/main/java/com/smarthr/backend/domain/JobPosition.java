@@ -6,11 +6,15 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners({EmployeeProfileListener.class, AggregateVersionListener.class})
 @Table(name = "job_positions", uniqueConstraints = @UniqueConstraint(columnNames = "title"))
 public class JobPosition {
 
@@ -23,4 +27,6 @@ public class JobPosition {
     @Size(max = 255)
     private String description;
 
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
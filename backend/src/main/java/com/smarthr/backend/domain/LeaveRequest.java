@@ -6,13 +6,16 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners({RagChangeListener.class, EmployeeProfileListener.class, AggregateVersionListener.class})
 @Table(name = "leave_requests")
 public class LeaveRequest {
 
@@ -38,4 +41,6 @@ public class LeaveRequest {
     @Column(length = 255)
     private String comments;
 
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
@@ -14,6 +14,7 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners(EmployeeProfileListener.class)
 @Table(name = "performance_reviews")
 public class PerformanceReview {
 
@@ -7,13 +7,16 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners({RagChangeListener.class, EmployeeProfileListener.class, AggregateVersionListener.class})
 @Table(name = "projects", uniqueConstraints = @UniqueConstraint(columnNames = "code"))
 public class Project {
 
@@ -35,4 +38,6 @@ public class Project {
     @Size(max = 255)
     private String ubication;
 
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
@@ -0,0 +1,53 @@
+package com.smarthr.backend.domain;
+
+import jakarta.persistence.PreRemove;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Escribe un {@link RagTombstone} por cada entidad del snapshot RAG que se borra.
+ * <p>
+ * Los callbacks JPA no pueden usar el EntityManager, así que la inserción va por JDBC;
+ * el JdbcTemplate comparte la conexión de la transacción JPA en curso, de modo que
+ * el tombstone se confirma o se deshace junto con el borrado. Se resuelve de forma perezosa
+ * porque el listener se instancia mientras se construye el EntityManagerFactory.
+ */
+@RequiredArgsConstructor
+public class RagChangeListener {
+
+    private static final String INSERT_TOMBSTONE =
+            "insert into rag_tombstones (entity_type, entity_id, employee_id, natural_key, deleted_at) values (?, ?, ?, ?, ?)";
+
+    private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+
+    @PreRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Employee e) {
+            record("employee", e.getId(), e.getId(), e.getEmail());
+        } else if (entity instanceof Project p) {
+            record("project", p.getId(), null, p.getCode());
+        } else if (entity instanceof Skill s) {
+            record("skill", s.getId(), null, s.getName());
+        } else if (entity instanceof Department d) {
+            record("department", d.getId(), null, d.getName());
+        } else if (entity instanceof LeaveRequest lr) {
+            record("leave", lr.getId(), lr.getEmployee().getId(), null);
+        } else if (entity instanceof Assignment a) {
+            record("assignment", a.getId(), a.getEmployee().getId(), null);
+        } else if (entity instanceof Compensation c) {
+            record("compensation", c.getId(), c.getEmployee().getId(), null);
+        } else if (entity instanceof Contract c) {
+            record("contract", c.getId(), c.getEmployee().getId(), null);
+        } else if (entity instanceof EmployeeSkill es) {
+            record("employee-skill", es.getId(), es.getEmployee().getId(), null);
+        }
+    }
+
+    private void record(String type, Long id, Long employeeId, String naturalKey) {
+        jdbcTemplate.getObject().update(INSERT_TOMBSTONE, type, id, employeeId, naturalKey, Timestamp.from(Instant.now()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.smarthr.backend.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Evento pendiente de propagar al asistente (RAG). Se escribe en la misma transacción
+ * que el cambio de negocio y lo entrega {@code RagOutboxDispatcher} en segundo plano.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "rag_outbox")
+public class RagOutboxEvent {
+
+    public enum EventType { UPSERT_EMPLOYEE, DELETE_EMPLOYEE, INSERT_LEAVE_REQUEST, UPSERT_LEAVE_REQUEST }
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", length = 30, nullable = false)
+    private EventType eventType;
+
+    /** Entidad afectada (p. ej. "employee:12"); como mucho hay un evento pendiente por clave. */
+    @Column(name = "aggregate_key", length = 120, nullable = false)
+    private String aggregateKey;
+
+    /** DTO RAG serializado a JSON en el momento del cambio. */
+    @Column(columnDefinition = "text", nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /** Momento en que agotó los reintentos; a partir de ahí no se entrega hasta que llegue otro cambio de la entidad. */
+    @Column(name = "dead_at")
+    private Instant deadAt;
+}
@@ -0,0 +1,40 @@
+package com.smarthr.backend.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Registro de un borrado relevante para el RAG. Lo escribe {@link RagChangeListener}
+ * en la misma transacción que el borrado, para que el delta del snapshot pueda informar de él.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "rag_tombstones")
+public class RagTombstone {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_type", length = 30, nullable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    /** Empleado cuya vista RAG cambia con el borrado (null en catálogos). */
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    /** Clave natural con la que el asistente identifica el documento (email, código, nombre...). */
+    @Column(name = "natural_key", length = 180)
+    private String naturalKey;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+}
@@ -9,6 +9,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(EmployeeProfileListener.class)
 @Table(name = "users")
 @Data
 @NoArgsConstructor
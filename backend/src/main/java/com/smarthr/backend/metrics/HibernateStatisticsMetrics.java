@@ -0,0 +1,70 @@
+package com.smarthr.backend.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publica las estadísticas de Hibernate ({@code hibernate.generate_statistics}) como contadores:
+ * sentencias, consultas, cargas perezosas y aciertos de la caché de segundo nivel y de consultas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            log.info("Estadísticas de Hibernate desactivadas; no se publican sus métricas");
+            return;
+        }
+        counter(registry, statistics, "hibernate.statements", "Sentencias JDBC preparadas",
+                Statistics::getPrepareStatementCount);
+        counter(registry, statistics, "hibernate.query.executions", "Consultas HQL/SQL ejecutadas",
+                Statistics::getQueryExecutionCount);
+        counter(registry, statistics, "hibernate.entities.loads", "Entidades cargadas",
+                Statistics::getEntityLoadCount);
+        counter(registry, statistics, "hibernate.entities.fetches", "Entidades cargadas de forma perezosa",
+                Statistics::getEntityFetchCount);
+        counter(registry, statistics, "hibernate.collections.fetches", "Colecciones cargadas de forma perezosa",
+                Statistics::getCollectionFetchCount);
+        counter(registry, statistics, "hibernate.flushes", "Flushes de sesión",
+                Statistics::getFlushCount);
+
+        counter(registry, statistics, "hibernate.second.level.cache.requests", "Accesos a la caché de segundo nivel",
+                Statistics::getSecondLevelCacheHitCount, "result", "hit");
+        counter(registry, statistics, "hibernate.second.level.cache.requests", "Accesos a la caché de segundo nivel",
+                Statistics::getSecondLevelCacheMissCount, "result", "miss");
+        counter(registry, statistics, "hibernate.second.level.cache.puts", "Entradas guardadas en la caché de segundo nivel",
+                Statistics::getSecondLevelCachePutCount);
+        counter(registry, statistics, "hibernate.query.cache.requests", "Accesos a la caché de consultas",
+                Statistics::getQueryCacheHitCount, "result", "hit");
+        counter(registry, statistics, "hibernate.query.cache.requests", "Accesos a la caché de consultas",
+                Statistics::getQueryCacheMissCount, "result", "miss");
+
+        counter(registry, statistics, "hibernate.transactions", "Transacciones terminadas",
+                Statistics::getSuccessfulTransactionCount, "result", "success");
+        counter(registry, statistics, "hibernate.transactions", "Transacciones terminadas",
+                s -> s.getTransactionCount() - s.getSuccessfulTransactionCount(), "result", "failure");
+    }
+
+    private static void counter(MeterRegistry registry, Statistics statistics, String name, String description,
+                                ToDoubleFunction<Statistics> value, String... tags) {
+        FunctionCounter.builder(name, statistics, value)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.smarthr.backend.metrics;
+
+import io.micrometer.core.instrument.Clock;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registro de métricas de la aplicación y enganche del contador de sentencias en Hibernate.
+ * Al existir este registro, Spring Boot no crea el {@code SimpleMeterRegistry} por defecto.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public PrometheusTextMeterRegistry prometheusTextMeterRegistry(Clock clock) {
+        return new PrometheusTextMeterRegistry(clock);
+    }
+
+    @Bean
+    public QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer(QueryCounter queryCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+    }
+}
@@ -0,0 +1,22 @@
+package com.smarthr.backend.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/prometheus}: lo que lee Prometheus en cada scrape.
+ */
+@Component
+@WebEndpoint(id = "prometheus")
+@RequiredArgsConstructor
+public class PrometheusScrapeEndpoint {
+
+    private final PrometheusTextMeterRegistry registry;
+
+    @ReadOperation(produces = PrometheusTextMeterRegistry.CONTENT_TYPE)
+    public String scrape() {
+        return registry.scrape();
+    }
+}
@@ -0,0 +1,269 @@
+package com.smarthr.backend.metrics;
+
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.config.NamingConvention;
+import io.micrometer.core.instrument.cumulative.*;
+import io.micrometer.core.instrument.distribution.*;
+import io.micrometer.core.instrument.distribution.pause.PauseDetector;
+import io.micrometer.core.instrument.internal.DefaultGauge;
+import io.micrometer.core.instrument.internal.DefaultLongTaskTimer;
+import io.micrometer.core.instrument.internal.DefaultMeter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Registro de métricas acumulativo que se exporta en el formato de texto de Prometheus (0.0.4).
+ * <p>
+ * Cubre lo que haría micrometer-registry-prometheus: contadores y buckets de histograma que solo
+ * crecen y tiempos en segundos, para que Prometheus calcule tasas y cuantiles agregables entre
+ * instancias con {@code rate()} e {@code histogram_quantile()}. Los histogramas de los registros de
+ * Micrometer incluidos en el build usan ventanas temporales y no sirven para eso.
+ */
+public class PrometheusTextMeterRegistry extends MeterRegistry {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    public PrometheusTextMeterRegistry(Clock clock) {
+        super(clock);
+        config().namingConvention(NamingConvention.snakeCase);
+    }
+
+    @Override
+    protected <T> Gauge newGauge(Meter.Id id, T obj, ToDoubleFunction<T> valueFunction) {
+        return new DefaultGauge<>(id, obj, valueFunction);
+    }
+
+    @Override
+    protected Counter newCounter(Meter.Id id) {
+        return new CumulativeCounter(id);
+    }
+
+    @Override
+    protected Timer newTimer(Meter.Id id, DistributionStatisticConfig config, PauseDetector pauseDetector) {
+        return new CumulativeTimer(id, clock, config, pauseDetector, getBaseTimeUnit(), new CumulativeHistogram(config)) {
+        };
+    }
+
+    @Override
+    protected DistributionSummary newDistributionSummary(Meter.Id id, DistributionStatisticConfig config, double scale) {
+        return new CumulativeDistributionSummary(id, clock, config, scale, new CumulativeHistogram(config)) {
+        };
+    }
+
+    @Override
+    protected LongTaskTimer newLongTaskTimer(Meter.Id id, DistributionStatisticConfig config) {
+        return new DefaultLongTaskTimer(id, clock, getBaseTimeUnit(), config, false);
+    }
+
+    @Override
+    protected <T> FunctionTimer newFunctionTimer(Meter.Id id, T obj, ToLongFunction<T> countFunction,
+                                                 ToDoubleFunction<T> totalTimeFunction, TimeUnit totalTimeFunctionUnit) {
+        return new CumulativeFunctionTimer<>(id, obj, countFunction, totalTimeFunction, totalTimeFunctionUnit, getBaseTimeUnit());
+    }
+
+    @Override
+    protected <T> FunctionCounter newFunctionCounter(Meter.Id id, T obj, ToDoubleFunction<T> countFunction) {
+        return new CumulativeFunctionCounter<>(id, obj, countFunction);
+    }
+
+    @Override
+    protected Meter newMeter(Meter.Id id, Meter.Type type, Iterable<Measurement> measurements) {
+        return new DefaultMeter(id, type, measurements);
+    }
+
+    @Override
+    protected TimeUnit getBaseTimeUnit() {
+        return TimeUnit.SECONDS;
+    }
+
+    @Override
+    protected DistributionStatisticConfig defaultHistogramConfig() {
+        return DistributionStatisticConfig.builder()
+                .expiry(Duration.ofMinutes(1))
+                .build()
+                .merge(DistributionStatisticConfig.DEFAULT);
+    }
+
+    /** Todas las métricas en formato de texto de Prometheus, agrupadas por familia. */
+    public String scrape() {
+        Map<String, Family> families = new TreeMap<>();
+        for (Meter meter : getMeters()) {
+            collect(meter, families);
+        }
+        StringBuilder out = new StringBuilder();
+        families.forEach((name, family) -> {
+            if (family.help != null) {
+                out.append("# HELP ").append(name).append(' ').append(escapeHelp(family.help)).append('\n');
+            }
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            family.samples.forEach(sample -> out.append(sample).append('\n'));
+        });
+        return out.toString();
+    }
+
+    private void collect(Meter meter, Map<String, Family> families) {
+        Meter.Id id = meter.getId();
+        String name = sanitize(id.getConventionName(config().namingConvention()));
+        List<Tag> tags = id.getConventionTags(config().namingConvention());
+        String help = id.getDescription();
+
+        if (meter instanceof Counter counter) {
+            String total = withSuffix(withUnit(name, id.getBaseUnit()), "_total");
+            family(families, total, "counter", help).add(sample(total, tags, counter.count()));
+        } else if (meter instanceof FunctionCounter counter) {
+            String total = withSuffix(withUnit(name, id.getBaseUnit()), "_total");
+            family(families, total, "counter", help).add(sample(total, tags, counter.count()));
+        } else if (meter instanceof Gauge gauge) {
+            String gaugeName = withUnit(name, id.getBaseUnit());
+            family(families, gaugeName, "gauge", help).add(sample(gaugeName, tags, gauge.value()));
+        } else if (meter instanceof Timer timer) {
+            distribution(families, withUnit(name, "seconds"), tags, help, timer.takeSnapshot(), TimeUnit.SECONDS);
+        } else if (meter instanceof DistributionSummary summary) {
+            distribution(families, withUnit(name, id.getBaseUnit()), tags, help, summary.takeSnapshot(), null);
+        } else if (meter instanceof FunctionTimer timer) {
+            String base = withUnit(name, "seconds");
+            List<String> samples = family(families, base, "summary", help);
+            samples.add(sample(base + "_count", tags, timer.count()));
+            samples.add(sample(base + "_sum", tags, timer.totalTime(TimeUnit.SECONDS)));
+        } else if (meter instanceof LongTaskTimer timer) {
+            String base = withUnit(name, "seconds");
+            family(families, base + "_active_count", "gauge", help).add(sample(base + "_active_count", tags, timer.activeTasks()));
+            family(families, base + "_duration_sum", "gauge", help).add(sample(base + "_duration_sum", tags, timer.duration(TimeUnit.SECONDS)));
+            family(families, base + "_max", "gauge", help).add(sample(base + "_max", tags, timer.max(TimeUnit.SECONDS)));
+        } else {
+            for (Measurement measurement : meter.measure()) {
+                String measured = name + "_" + measurement.getStatistic().getTagValueRepresentation();
+                family(families, measured, "untyped", help).add(sample(measured, tags, measurement.getValue()));
+            }
+        }
+    }
+
+    /** Histograma si el medidor tiene buckets (SLO o percentiles-histogram); si no, resumen con cuenta y suma. */
+    private void distribution(Map<String, Family> families, String base, List<Tag> tags, String help,
+                              HistogramSnapshot snapshot, TimeUnit unit) {
+        CountAtBucket[] buckets = snapshot.histogramCounts();
+        List<String> samples = family(families, base, buckets.length > 0 ? "histogram" : "summary", help);
+        for (CountAtBucket bucket : buckets) {
+            double le = unit == null ? bucket.bucket() : bucket.bucket(unit);
+            samples.add(sample(base + "_bucket", withLe(tags, format(le)), bucket.count()));
+        }
+        if (buckets.length > 0) {
+            samples.add(sample(base + "_bucket", withLe(tags, "+Inf"), snapshot.count()));
+        }
+        samples.add(sample(base + "_count", tags, snapshot.count()));
+        samples.add(sample(base + "_sum", tags, unit == null ? snapshot.total() : snapshot.total(unit)));
+        family(families, base + "_max", "gauge", help)
+                .add(sample(base + "_max", tags, unit == null ? snapshot.max() : snapshot.max(unit)));
+    }
+
+    private static List<String> family(Map<String, Family> families, String name, String type, String help) {
+        return families.computeIfAbsent(name, n -> new Family(type, help, new ArrayList<>())).samples;
+    }
+
+    private static String sample(String name, List<Tag> tags, double value) {
+        StringBuilder line = new StringBuilder(name);
+        if (!tags.isEmpty()) {
+            line.append('{');
+            for (int i = 0; i < tags.size(); i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                line.append(sanitize(tags.get(i).getKey())).append("=\"").append(escapeLabel(tags.get(i).getValue())).append('"');
+            }
+            line.append('}');
+        }
+        return line.append(' ').append(format(value)).toString();
+    }
+
+    private static List<Tag> withLe(List<Tag> tags, String le) {
+        List<Tag> result = new ArrayList<>(tags);
+        result.add(Tag.of("le", le));
+        return result;
+    }
+
+    private static String withUnit(String name, String unit) {
+        if (unit == null || unit.isBlank()) {
+            return name;
+        }
+        return withSuffix(name, "_" + sanitize(unit.toLowerCase(Locale.ROOT)));
+    }
+
+    private static String withSuffix(String name, String suffix) {
+        return name.endsWith(suffix) ? name : name + suffix;
+    }
+
+    private static String sanitize(String name) {
+        String clean = name.replaceAll("[^a-zA-Z0-9_:]", "_");
+        return Character.isDigit(clean.charAt(0)) ? "_" + clean : clean;
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return Double.toString(value);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String value) {
+        return value.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private record Family(String type, String help, List<String> samples) {
+    }
+
+    /** Buckets fijos que nunca se reinician, a diferencia de los de ventana temporal de Micrometer. */
+    static final class CumulativeHistogram implements Histogram {
+
+        private final double[] buckets;
+        private final AtomicLongArray counts;
+
+        CumulativeHistogram(DistributionStatisticConfig config) {
+            this.buckets = config.getHistogramBuckets(true).stream().mapToDouble(Double::doubleValue).toArray();
+            this.counts = new AtomicLongArray(buckets.length);
+        }
+
+        @Override
+        public void recordLong(long value) {
+            recordDouble(value);
+        }
+
+        @Override
+        public void recordDouble(double value) {
+            int index = Arrays.binarySearch(buckets, value);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index < buckets.length) {
+                counts.incrementAndGet(index);
+            }
+        }
+
+        @Override
+        public HistogramSnapshot takeSnapshot(long count, double total, double max) {
+            CountAtBucket[] snapshot = new CountAtBucket[buckets.length];
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += counts.get(i);
+                snapshot[i] = new CountAtBucket(buckets[i], cumulative);
+            }
+            return new HistogramSnapshot(count, total, max, null, snapshot, null);
+        }
+    }
+}
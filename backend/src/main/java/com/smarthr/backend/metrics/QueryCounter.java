@@ -0,0 +1,33 @@
+package com.smarthr.backend.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual mientras hay una medición abierta.
+ * Las escrituras por JDBC directo (importaciones, bajas masivas) no pasan por aquí.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    /** Empieza a contar en el hilo actual. */
+    public void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /** Deja de contar y devuelve cuántas sentencias se han preparado desde {@link #start()}. */
+    public int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
@@ -1,14 +1,40 @@
 package com.smarthr.backend.repository;
 import com.smarthr.backend.domain.Assignment;
 import com.smarthr.backend.domain.Employee;
+import com.smarthr.backend.web.dto.AssignmentExportDto;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
     List<Assignment> findByEmployeeId(Long employeeId);
 
+    @Query("select a from Assignment a join fetch a.employee join fetch a.project join fetch a.jobPosition order by a.id")
+    List<Assignment> findAllWithEmployeeAndProject();
+
+    @Query("select a from Assignment a join fetch a.employee join fetch a.project join fetch a.jobPosition " +
+            "where a.employee.id in :employeeIds order by a.id")
+    List<Assignment> findWithEmployeeAndProjectByEmployeeIdIn(Collection<Long> employeeIds);
+
     void deleteByEmployee(Employee employee);
 
     void deleteByEmployeeId(Long employeeId);
+
+    @Query("select distinct a.employee.id from Assignment a left join a.project p left join a.jobPosition jp" +
+            " where a.updatedAt > :since or p.updatedAt > :since or jp.updatedAt > :since")
+    List<Long> findEmployeeIdsChangedSince(Instant since);
+
+    /** Asignaciones con empleado, proyecto y puesto para exportar, leídas con cursor. */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.smarthr.backend.web.dto.AssignmentExportDto(a.id, e.id, e.name, p.code, p.name, jp.title, " +
+            "a.startDate, a.endDate) from Assignment a join a.employee e join a.project p join a.jobPosition jp order by a.id")
+    Stream<AssignmentExportDto> streamExport();
 }
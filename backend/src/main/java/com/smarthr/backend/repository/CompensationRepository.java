@@ -1,10 +1,22 @@
 package com.smarthr.backend.repository;
 import com.smarthr.backend.domain.Compensation;
 import com.smarthr.backend.domain.Employee;
+import com.smarthr.backend.web.dto.CompensationExportDto;
+import com.smarthr.backend.web.dto.SalaryBandDto;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 
 public interface CompensationRepository extends JpaRepository<Compensation, Long> {
@@ -14,7 +26,50 @@ public interface CompensationRepository extends JpaRepository<Compensation, Long
 
     Optional<Compensation> findFirstByEmployeeIdOrderByEffectiveFromDesc(Long employeeId);
 
+    /** Compensación vigente (última effectiveFrom) de cada empleado. */
+    @Query("select c from Compensation c where c.effectiveFrom = " +
+            "(select max(c2.effectiveFrom) from Compensation c2 where c2.employee = c.employee) order by c.id")
+    List<Compensation> findLatestPerEmployee();
+
+    @Query("select c from Compensation c where c.employee.id in :employeeIds and c.effectiveFrom = " +
+            "(select max(c2.effectiveFrom) from Compensation c2 where c2.employee = c.employee) order by c.id")
+    List<Compensation> findLatestByEmployeeIdIn(Collection<Long> employeeIds);
+
+    /** Histórico completo para exportar, leído con cursor y sin entidades gestionadas. */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.smarthr.backend.web.dto.CompensationExportDto(c.id, e.id, e.name, c.baseSalary, c.bonus, c.effectiveFrom) " +
+            "from Compensation c join c.employee e order by c.id")
+    Stream<CompensationExportDto> streamExport();
+
+    /** Página por clave (id) con filtros opcionales de empleado y fechas; el coste no depende de la profundidad. */
+    @Query("select x from Compensation x join fetch x.employee e" +
+            " where (:employeeId is null or e.id = :employeeId)" +
+            " and (:from is null or x.effectiveFrom >= :from)" +
+            " and (:to is null or x.effectiveFrom <= :to)" +
+            " and (:afterId is null or x.id > :afterId)" +
+            " order by x.id")
+    List<Compensation> findPageAfter(Long employeeId, LocalDate from, LocalDate to, Long afterId, Limit limit);
+
+    /**
+     * Percentiles del salario base vigente a fecha {@code at} (última effectiveFrom hasta esa fecha y,
+     * si empatan, el id mayor) agrupados por departamento.
+     */
+    @Query("select new com.smarthr.backend.web.dto.SalaryBandDto(d.id, d.name, count(c), min(c.baseSalary), " +
+            "percentile_cont(0.25) within group (order by c.baseSalary), " +
+            "percentile_cont(0.5) within group (order by c.baseSalary), " +
+            "percentile_cont(0.75) within group (order by c.baseSalary), " +
+            "percentile_cont(0.9) within group (order by c.baseSalary), " +
+            "max(c.baseSalary), avg(c.baseSalary)) " +
+            "from Compensation c join c.employee e left join e.department d " +
+            "where c.id = (select max(c2.id) from Compensation c2 where c2.employee = e and c2.effectiveFrom = " +
+            "(select max(c3.effectiveFrom) from Compensation c3 where c3.employee = e and c3.effectiveFrom <= :at)) " +
+            "group by d.id, d.name order by d.name")
+    List<SalaryBandDto> salaryBandsByDepartment(LocalDate at);
+
     void deleteByEmployee(Employee employee);
 
     void deleteByEmployeeId(Long employeeId);
+
+    @Query("select distinct c.employee.id from Compensation c where c.updatedAt > :since")
+    List<Long> findEmployeeIdsChangedSince(Instant since);
 }
@@ -1,8 +1,14 @@
 package com.smarthr.backend.repository;
 import com.smarthr.backend.domain.Contract;
 import com.smarthr.backend.domain.Employee;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ContractRepository extends JpaRepository<Contract, Long> {
@@ -10,8 +16,28 @@ public interface ContractRepository extends JpaRepository<Contract, Long> {
 
     Optional<Contract> findFirstByEmployeeIdOrderByStartDateDesc(Long empId);
 
+    /** Contrato más reciente (por startDate) de cada empleado. */
+    @Query("select c from Contract c where c.startDate = " +
+            "(select max(c2.startDate) from Contract c2 where c2.employee = c.employee) order by c.id")
+    java.util.List<Contract> findLatestPerEmployee();
+
+    @Query("select c from Contract c where c.employee.id in :employeeIds and c.startDate = " +
+            "(select max(c2.startDate) from Contract c2 where c2.employee = c.employee) order by c.id")
+    java.util.List<Contract> findLatestByEmployeeIdIn(Collection<Long> employeeIds);
+
     void deleteByEmployee(Employee employee);
 
     void deleteByEmployeeId(Long employeeId);
-}
 
+    @Query("select distinct c.employee.id from Contract c where c.updatedAt > :since")
+    java.util.List<Long> findEmployeeIdsChangedSince(Instant since);
+
+    /** Página por clave (id) con filtros opcionales de empleado y fechas; el coste no depende de la profundidad. */
+    @Query("select x from Contract x join fetch x.employee e" +
+            " where (:employeeId is null or e.id = :employeeId)" +
+            " and (:from is null or x.startDate >= :from)" +
+            " and (:to is null or x.startDate <= :to)" +
+            " and (:afterId is null or x.id > :afterId)" +
+            " order by x.id")
+    List<Contract> findPageAfter(Long employeeId, LocalDate from, LocalDate to, Long afterId, Limit limit);
+}
@@ -1,5 +1,22 @@
 package com.smarthr.backend.repository;
 import com.smarthr.backend.domain.Department;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface DepartmentRepository extends JpaRepository<Department, Long> {}
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface DepartmentRepository extends JpaRepository<Department, Long> {
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "200"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select x from Department x order by x.id")
+    Stream<Department> streamAll();
+
+    List<Department> findByUpdatedAtAfterOrderById(Instant since);
+}
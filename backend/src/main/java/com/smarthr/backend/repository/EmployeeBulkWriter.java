@@ -0,0 +1,223 @@
+package com.smarthr.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Altas y bajas masivas de empleados (empleado, usuario, rol, contrato, asignación y skills) con sentencias
+ * JDBC por lotes. Las claves IDENTITY se recuperan del propio lote, así que cada tabla es un único round-trip
+ * por lote en lugar de un INSERT por fila; las bajas son un DELETE por tabla para todo el conjunto de ids.
+ * Debe llamarse dentro de una transacción.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmployeeBulkWriter {
+
+    private static final int MAX_IN_PARAMETERS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Fila ya validada y con las referencias resueltas a ids. */
+    public record Row(String name, String location, String email, LocalDate hireDate,
+                      Long departmentId, Long jobPositionId,
+                      String username, String passwordHash, String role,
+                      String contractType, LocalDate contractStartDate, LocalDate contractEndDate, Integer weeklyHours,
+                      Long projectId, Long assignmentJobPositionId,
+                      List<Long> skillIds) {
+    }
+
+    public Set<String> existingUsernames() {
+        return new HashSet<>(jdbcTemplate.queryForList("select username from users", String.class));
+    }
+
+    public Set<String> existingEmails() {
+        return new HashSet<>(jdbcTemplate.queryForList("select email from employees where email is not null", String.class));
+    }
+
+    /** Inserta las filas y devuelve los ids de empleado en el mismo orden. */
+    public List<Long> insert(List<Row> rows) {
+        Timestamp now = Timestamp.from(Instant.now());
+
+        List<Long> employeeIds = insertReturningIds(
+                "insert into employees (name, location, email, hire_date, department_id, job_position_id, updated_at) " +
+                        "values (?, ?, ?, ?, ?, ?, ?)",
+                rows, (ps, row, i) -> {
+                    ps.setString(1, row.name());
+                    ps.setString(2, row.location());
+                    ps.setString(3, row.email());
+                    ps.setDate(4, Date.valueOf(row.hireDate()));
+                    setLong(ps, 5, row.departmentId());
+                    setLong(ps, 6, row.jobPositionId());
+                    ps.setTimestamp(7, now);
+                });
+
+        List<Long> userIds = insertReturningIds(
+                "insert into users (username, password, employee_id) values (?, ?, ?)",
+                rows, (ps, row, i) -> {
+                    ps.setString(1, row.username());
+                    ps.setString(2, row.passwordHash());
+                    ps.setLong(3, employeeIds.get(i));
+                });
+
+        batch("insert into users_roles (user_id, roles) values (?, ?)", rows, (ps, row, i) -> {
+            ps.setLong(1, userIds.get(i));
+            ps.setString(2, row.role());
+        });
+
+        batch("insert into contracts (employee_id, type, start_date, end_date, weekly_hours, updated_at) " +
+                "values (?, ?, ?, ?, ?, ?)", rows, (ps, row, i) -> {
+            ps.setLong(1, employeeIds.get(i));
+            ps.setString(2, row.contractType());
+            ps.setDate(3, Date.valueOf(row.contractStartDate()));
+            ps.setDate(4, row.contractEndDate() == null ? null : Date.valueOf(row.contractEndDate()));
+            if (row.weeklyHours() == null) {
+                ps.setNull(5, Types.INTEGER);
+            } else {
+                ps.setInt(5, row.weeklyHours());
+            }
+            ps.setTimestamp(6, now);
+        });
+
+        List<long[]> assignments = new ArrayList<>();
+        List<long[]> skills = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            if (row.projectId() != null) {
+                assignments.add(new long[]{i, row.projectId(), row.assignmentJobPositionId()});
+            }
+            for (Long skillId : row.skillIds()) {
+                skills.add(new long[]{employeeIds.get(i), skillId});
+            }
+        }
+
+        batch("insert into assignments (employee_id, project_id, job_position_id, start_date, end_date, updated_at) " +
+                "values (?, ?, ?, ?, ?, ?)", assignments, (ps, a, i) -> {
+            Row row = rows.get((int) a[0]);
+            ps.setLong(1, employeeIds.get((int) a[0]));
+            ps.setLong(2, a[1]);
+            ps.setLong(3, a[2]);
+            ps.setDate(4, Date.valueOf(row.contractStartDate()));
+            ps.setDate(5, row.contractEndDate() == null ? null : Date.valueOf(row.contractEndDate()));
+            ps.setTimestamp(6, now);
+        });
+
+        // Nivel por defecto, igual que el alta individual
+        batch("insert into employee_skills (employee_id, skill_id, level, updated_at) values (?, ?, 3, ?)",
+                skills, (ps, s, i) -> {
+                    ps.setLong(1, s[0]);
+                    ps.setLong(2, s[1]);
+                    ps.setTimestamp(3, now);
+                });
+
+        return employeeIds;
+    }
+
+    /**
+     * Borra los empleados y todo lo que cuelga de ellos con un DELETE por tabla. Estas sentencias no pasan por
+     * los listeners JPA, así que aquí mismo se registran los tombstones que habría escrito {@code RagChangeListener}.
+     * Devuelve el número de empleados borrados.
+     */
+    public int delete(Collection<Long> employeeIds) {
+        List<Long> ids = List.copyOf(employeeIds);
+        int deleted = 0;
+        // Troceado para no pasar del límite de parámetros por sentencia del driver
+        for (int from = 0; from < ids.size(); from += MAX_IN_PARAMETERS) {
+            deleted += deleteChunk(ids.subList(from, Math.min(from + MAX_IN_PARAMETERS, ids.size())));
+        }
+        return deleted;
+    }
+
+    private int deleteChunk(List<Long> employeeIds) {
+        String in = "(" + String.join(", ", Collections.nCopies(employeeIds.size(), "?")) + ")";
+        Object[] ids = employeeIds.toArray();
+        Timestamp now = Timestamp.from(Instant.now());
+
+        tombstones("employee", "employees", "id", "email", in, ids, now);
+        tombstones("leave", "leave_requests", "employee_id", null, in, ids, now);
+        tombstones("assignment", "assignments", "employee_id", null, in, ids, now);
+        tombstones("compensation", "compensations", "employee_id", null, in, ids, now);
+        tombstones("contract", "contracts", "employee_id", null, in, ids, now);
+        tombstones("employee-skill", "employee_skills", "employee_id", null, in, ids, now);
+
+        String users = "select id from users where employee_id in " + in;
+        jdbcTemplate.update("delete from refresh_tokens where user_id in (" + users + ")", ids);
+        jdbcTemplate.update("delete from users_roles where user_id in (" + users + ")", ids);
+        for (String table : List.of("users", "assignments", "employee_skills", "contracts", "compensations",
+                "leave_requests", "performance_reviews")) {
+            jdbcTemplate.update("delete from " + table + " where employee_id in " + in, ids);
+        }
+        jdbcTemplate.update("delete from employee_profiles where employee_id in " + in, ids);
+        return jdbcTemplate.update("delete from employees where id in " + in, ids);
+    }
+
+    private void tombstones(String type, String table, String employeeColumn, String naturalKeyColumn,
+                            String in, Object[] ids, Timestamp now) {
+        jdbcTemplate.update("insert into rag_tombstones (entity_type, entity_id, employee_id, natural_key, deleted_at) " +
+                "select '" + type + "', id, " + employeeColumn + ", " + (naturalKeyColumn != null ? naturalKeyColumn : "null") +
+                ", ? from " + table + " where " + employeeColumn + " in " + in, prepend(now, ids));
+    }
+
+    private static Object[] prepend(Object first, Object[] rest) {
+        Object[] args = new Object[rest.length + 1];
+        args[0] = first;
+        System.arraycopy(rest, 0, args, 1, rest.length);
+        return args;
+    }
+
+    private <T> List<Long> insertReturningIds(String sql, List<T> items, Binder<T> binder) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(sql, new String[]{"id"}), setter(items, binder), keys);
+        return keys.getKeyList().stream().map(k -> ((Number) k.get("id")).longValue()).toList();
+    }
+
+    private <T> void batch(String sql, List<T> items, Binder<T> binder) {
+        if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, setter(items, binder));
+        }
+    }
+
+    private static <T> BatchPreparedStatementSetter setter(List<T> items, Binder<T> binder) {
+        return new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                binder.bind(ps, items.get(i), i);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        };
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binder<T> {
+        void bind(PreparedStatement ps, T item, int index) throws SQLException;
+    }
+}
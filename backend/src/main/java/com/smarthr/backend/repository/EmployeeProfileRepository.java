@@ -0,0 +1,28 @@
+package com.smarthr.backend.repository;
+
+import com.smarthr.backend.domain.EmployeeProfile;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface EmployeeProfileRepository extends JpaRepository<EmployeeProfile, Long> {
+    Optional<EmployeeProfile> findByUsername(String username);
+
+    /** Lee el perfil bloqueando la fila hasta el commit, para que dos recálculos no se pisen. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from EmployeeProfile p where p.employeeId = :employeeId")
+    Optional<EmployeeProfile> findForUpdate(@Param("employeeId") Long employeeId);
+
+    @Modifying
+    @Query("update EmployeeProfile p set p.stale = true")
+    int markAllStale();
+
+    @Modifying
+    @Query("update EmployeeProfile p set p.stale = true where p.employeeId = :employeeId")
+    int markStale(@Param("employeeId") Long employeeId);
+}
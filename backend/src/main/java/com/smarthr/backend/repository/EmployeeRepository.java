@@ -2,23 +2,83 @@
 package com.smarthr.backend.repository;
 
 import com.smarthr.backend.domain.Employee;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.smarthr.backend.web.dto.EmployeeExportDto;
+import com.smarthr.backend.web.dto.HeadcountDto;
+import com.smarthr.backend.web.dto.MonthlyHiresDto;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
- * Repositorio JPA con búsqueda filtrada y paginada.
+ * Repositorio JPA con búsqueda filtrada y paginada (ver {@link EmployeeSearchRepository}).
  */
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
-
-    Page<Employee> findByNameContainingIgnoreCaseAndJobPosition_TitleContainingIgnoreCaseAndLocationContainingIgnoreCase(
-            String name, String jobPosition, String location, Pageable pageable);
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeSearchRepository {
 
     Optional<Employee> findByName(String name);
 
+    long countByDepartmentId(Long departmentId);
 
+    /** Todos los empleados con departamento y puesto ya cargados (una sola consulta). */
+    @Query("select e from Employee e left join fetch e.department left join fetch e.jobPosition order by e.id")
+    List<Employee> findAllWithDepartmentAndJobPosition();
 
-}
+    /** Igual que {@link #findAllWithDepartmentAndJobPosition()} pero leído con cursor. */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "200"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select e from Employee e left join fetch e.department left join fetch e.jobPosition order by e.id")
+    Stream<Employee> streamAllWithDepartmentAndJobPosition();
+
+    /** Empleados modificados, o cuyo departamento o puesto se ha modificado, después de {@code since}. */
+    @Query("select e.id from Employee e left join e.department d left join e.jobPosition jp" +
+            " where e.updatedAt > :since or d.updatedAt > :since or jp.updatedAt > :since")
+    List<Long> findIdsChangedSince(Instant since);
+
+    @Query("select e from Employee e left join fetch e.department left join fetch e.jobPosition where e.id in :ids order by e.id")
+    List<Employee> findWithDepartmentAndJobPositionByIdIn(Collection<Long> ids);
+
+    /**
+     * Empleados para exportar con departamento, puesto, contrato más reciente y compensación vigente
+     * en una sola consulta leída con cursor. Devuelve proyecciones, así que el contexto de
+     * persistencia no crece con el número de filas.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.smarthr.backend.web.dto.EmployeeExportDto(e.id, e.name, e.email, e.location, e.hireDate, " +
+            "d.name, jp.title, c.type, c.startDate, c.endDate, c.weeklyHours, comp.baseSalary, comp.bonus, comp.effectiveFrom) " +
+            "from Employee e left join e.department d left join e.jobPosition jp " +
+            "left join Contract c on c.employee = e and c.id = (select max(c2.id) from Contract c2 where c2.employee = e " +
+            "and c2.startDate = (select max(c3.startDate) from Contract c3 where c3.employee = e)) " +
+            "left join Compensation comp on comp.employee = e and comp.id = (select max(p2.id) from Compensation p2 " +
+            "where p2.employee = e and p2.effectiveFrom = (select max(p3.effectiveFrom) from Compensation p3 where p3.employee = e)) " +
+            "order by e.id")
+    Stream<EmployeeExportDto> streamExport();
 
+    // ======= ANALÍTICA (agregados calculados en la base de datos) =======
+
+    @Query("select new com.smarthr.backend.web.dto.HeadcountDto(d.id, d.name, count(e)) from Employee e left join e.department d " +
+            "group by d.id, d.name order by count(e) desc, d.name")
+    List<HeadcountDto> headcountByDepartment();
+
+    @Query("select new com.smarthr.backend.web.dto.HeadcountDto(jp.id, jp.title, count(e)) from Employee e left join e.jobPosition jp " +
+            "group by jp.id, jp.title order by count(e) desc, jp.title")
+    List<HeadcountDto> headcountByJobPosition();
+
+    @Query("select new com.smarthr.backend.web.dto.HeadcountDto(cast(null as Long), e.location, count(e)) from Employee e " +
+            "group by e.location order by count(e) desc, e.location")
+    List<HeadcountDto> headcountByLocation();
+
+    /** Altas por mes natural; {@code from} y {@code to} son opcionales. */
+    @Query("select new com.smarthr.backend.web.dto.MonthlyHiresDto(year(e.hireDate), month(e.hireDate), count(e)) from Employee e " +
+            "where e.hireDate is not null and (:from is null or e.hireDate >= :from) and (:to is null or e.hireDate <= :to) " +
+            "group by year(e.hireDate), month(e.hireDate) order by year(e.hireDate), month(e.hireDate)")
+    List<MonthlyHiresDto> hiresPerMonth(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,29 @@
+package com.smarthr.backend.repository;
+
+import com.smarthr.backend.domain.Employee;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Búsqueda de empleados por texto parcial. Cada patrón llega ya en minúsculas ("%texto%") o null si no se
+ * filtra; los filtros nulos no entran en la consulta.
+ */
+public interface EmployeeSearchRepository {
+
+    Page<Employee> search(String name, String jobPosition, String location, Pageable pageable);
+
+    /** Igual que {@link #search} pero sin el count(*) de la página. */
+    Slice<Employee> searchWithoutCount(String name, String jobPosition, String location, Pageable pageable);
+
+    /**
+     * Paginación por clave (nombre, id): devuelve los empleados posteriores al último visto,
+     * así el coste no depende de la profundidad de la página. Un empleado sin nombre no tiene
+     * posición en ese orden y no aparece.
+     */
+    List<Employee> searchAfter(String name, String jobPosition, String location,
+                               String afterName, Long afterId, Limit limit);
+}
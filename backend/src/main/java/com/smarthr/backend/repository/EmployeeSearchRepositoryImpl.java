@@ -0,0 +1,107 @@
+package com.smarthr.backend.repository;
+
+import com.smarthr.backend.domain.Employee;
+import com.smarthr.backend.domain.JobPosition;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.*;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consultas de {@link EmployeeSearchRepository} con Criteria. Solo se añaden los predicados de los filtros
+ * presentes: con {@code (:x is null or lower(col) like :x)} el planificador de PostgreSQL prepara un plan
+ * genérico que no puede usar los índices trigram de la migración V3 (db/migration/postgresql).
+ */
+@RequiredArgsConstructor
+class EmployeeSearchRepositoryImpl implements EmployeeSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<Employee> search(String name, String jobPosition, String location, Pageable pageable) {
+        List<Employee> content = select(name, jobPosition, location, null, null, pageable.getSort(),
+                pageable.isPaged() ? pageable.getOffset() : 0,
+                pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE);
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(name, jobPosition, location));
+    }
+
+    @Override
+    public Slice<Employee> searchWithoutCount(String name, String jobPosition, String location, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(select(name, jobPosition, location, null, null, pageable.getSort(), 0, Integer.MAX_VALUE));
+        }
+        // Uno de más para saber si hay página siguiente
+        List<Employee> found = select(name, jobPosition, location, null, null, pageable.getSort(),
+                pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = found.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? found.subList(0, pageable.getPageSize()) : found, pageable, hasNext);
+    }
+
+    @Override
+    public List<Employee> searchAfter(String name, String jobPosition, String location,
+                                      String afterName, Long afterId, Limit limit) {
+        return select(name, jobPosition, location, afterName, afterId, null, 0,
+                limit.isLimited() ? limit.max() : Integer.MAX_VALUE);
+    }
+
+    /** Con {@code sort} null ordena por (nombre, id) y aplica el cursor; si no, pagina por offset. */
+    private List<Employee> select(String name, String jobPosition, String location, String afterName, Long afterId,
+                                  Sort sort, long offset, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Employee> query = cb.createQuery(Employee.class);
+        Root<Employee> e = query.from(Employee.class);
+        e.fetch("department", JoinType.LEFT);
+        @SuppressWarnings("unchecked")
+        Join<Employee, JobPosition> j = (Join<Employee, JobPosition>) e.<Employee, JobPosition>fetch("jobPosition", JoinType.LEFT);
+
+        List<Predicate> predicates = filters(cb, e, j, name, jobPosition, location);
+        if (sort == null) {
+            Path<String> employeeName = e.get("name");
+            predicates.add(cb.isNotNull(employeeName));
+            if (afterName != null) {
+                predicates.add(cb.or(cb.greaterThan(employeeName, afterName),
+                        cb.and(cb.equal(employeeName, afterName), cb.greaterThan(e.get("id"), afterId))));
+            }
+            query.orderBy(cb.asc(employeeName), cb.asc(e.get("id")));
+        } else {
+            query.orderBy(QueryUtils.toOrders(sort, e, cb));
+        }
+        query.select(e).where(predicates.toArray(Predicate[]::new));
+
+        TypedQuery<Employee> typed = entityManager.createQuery(query);
+        typed.setFirstResult(Math.toIntExact(offset));
+        typed.setMaxResults(maxResults);
+        return typed.getResultList();
+    }
+
+    private long count(String name, String jobPosition, String location) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Employee> e = query.from(Employee.class);
+        // El join con el puesto solo hace falta si se filtra por él
+        Join<Employee, JobPosition> j = jobPosition != null ? e.join("jobPosition", JoinType.LEFT) : null;
+        query.select(cb.count(e)).where(filters(cb, e, j, name, jobPosition, location).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static List<Predicate> filters(CriteriaBuilder cb, Root<Employee> e, Join<Employee, JobPosition> j,
+                                           String name, String jobPosition, String location) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (name != null) {
+            predicates.add(cb.like(cb.lower(e.get("name")), name));
+        }
+        if (jobPosition != null) {
+            predicates.add(cb.like(cb.lower(j.get("title")), jobPosition));
+        }
+        if (location != null) {
+            predicates.add(cb.like(cb.lower(e.get("location")), location));
+        }
+        return predicates;
+    }
+}
@@ -2,13 +2,25 @@ package com.smarthr.backend.repository;
 import com.smarthr.backend.domain.Employee;
 import com.smarthr.backend.domain.EmployeeSkill;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface EmployeeSkillRepository extends JpaRepository<EmployeeSkill, Long> {
     List<EmployeeSkill> findByEmployeeId(Long employeeId);
 
+    @Query("select es from EmployeeSkill es join fetch es.skill order by es.id")
+    List<EmployeeSkill> findAllWithSkill();
+
+    @Query("select es from EmployeeSkill es join fetch es.skill where es.employee.id in :employeeIds order by es.id")
+    List<EmployeeSkill> findWithSkillByEmployeeIdIn(Collection<Long> employeeIds);
+
     void deleteByEmployee(Employee employee);
 
     void deleteByEmployeeId(Long employeeId);
+
+    @Query("select distinct es.employee.id from EmployeeSkill es where es.updatedAt > :since or es.skill.updatedAt > :since")
+    List<Long> findEmployeeIdsChangedSince(Instant since);
 }
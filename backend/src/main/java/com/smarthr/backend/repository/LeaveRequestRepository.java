@@ -1,16 +1,56 @@
 package com.smarthr.backend.repository;
 import com.smarthr.backend.domain.Employee;
 import com.smarthr.backend.domain.LeaveRequest;
+import com.smarthr.backend.web.dto.LeaveSummaryDto;
+import com.smarthr.backend.web.dto.TeamAbsenceDto;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long> {
     List<LeaveRequest> findByEmployeeId(Long employeeId);
 
     List<LeaveRequest> findByStatus(LeaveRequest.LeaveStatus status);
 
+    @Query("select lr from LeaveRequest lr join fetch lr.employee order by lr.id")
+    List<LeaveRequest> findAllWithEmployee();
+
+    @Query("select lr from LeaveRequest lr join fetch lr.employee where lr.employee.id in :employeeIds order by lr.id")
+    List<LeaveRequest> findWithEmployeeByEmployeeIdIn(Collection<Long> employeeIds);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "200"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select lr from LeaveRequest lr join fetch lr.employee order by lr.id")
+    Stream<LeaveRequest> streamAllWithEmployee();
+
+    /** Solicitudes que empiezan entre {@code from} y {@code to}, con sus días naturales, por tipo y estado. */
+    @Query("select new com.smarthr.backend.web.dto.LeaveSummaryDto(lr.type, lr.status, count(lr), " +
+            "sum((lr.endDate - lr.startDate) by day + 1)) from LeaveRequest lr " +
+            "where lr.startDate between :from and :to group by lr.type, lr.status order by lr.type, lr.status")
+    List<LeaveSummaryDto> summaryByTypeAndStatus(LocalDate from, LocalDate to);
+
+    /** Ausencias con alguno de los estados dados de los empleados de un departamento. */
+    @Query("select new com.smarthr.backend.web.dto.TeamAbsenceDto(lr.id, e.id, e.name, lr.type, lr.status, lr.startDate, lr.endDate) " +
+            "from LeaveRequest lr join lr.employee e where e.department.id = :departmentId and lr.status in :statuses")
+    List<TeamAbsenceDto> findTeamAbsences(Long departmentId, Collection<LeaveRequest.LeaveStatus> statuses);
+
     void deleteByEmployee(Employee employee);
 
     void deleteByEmployeeId(Long employeeId);
+
+    @Query("select distinct lr.employee.id from LeaveRequest lr where lr.updatedAt > :since")
+    List<Long> findEmployeeIdsChangedSince(Instant since);
+
+    /** Ausencias modificadas, o cuyo empleado se ha modificado (el RAG muestra su nombre), después de {@code since}. */
+    @Query("select lr from LeaveRequest lr join fetch lr.employee e where lr.updatedAt > :since or e.updatedAt > :since order by lr.id")
+    List<LeaveRequest> findWithEmployeeChangedSince(Instant since);
 }
@@ -1,8 +1,11 @@
 package com.smarthr.backend.repository;
 import com.smarthr.backend.domain.Employee;
 import com.smarthr.backend.domain.PerformanceReview;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
 import java.util.List;
 
 
@@ -10,6 +13,15 @@ public interface PerformanceReviewRepository extends JpaRepository<PerformanceRe
     boolean existsByEmployee_IdAndReviewDate(Long employeeId, java.time.LocalDate reviewDate);
     List<PerformanceReview> findByEmployeeId(Long employeeId);
 
+    /** Página por clave (id) con filtros opcionales de empleado y fechas; el coste no depende de la profundidad. */
+    @Query("select x from PerformanceReview x join fetch x.employee e" +
+            " where (:employeeId is null or e.id = :employeeId)" +
+            " and (:from is null or x.reviewDate >= :from)" +
+            " and (:to is null or x.reviewDate <= :to)" +
+            " and (:afterId is null or x.id > :afterId)" +
+            " order by x.id")
+    List<PerformanceReview> findPageAfter(Long employeeId, LocalDate from, LocalDate to, Long afterId, Limit limit);
+
     void deleteByEmployee(Employee employee);
 
     void deleteByEmployeeId(Long employeeId);
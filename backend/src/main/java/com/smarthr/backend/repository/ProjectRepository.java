@@ -1,5 +1,32 @@
 package com.smarthr.backend.repository;
 import com.smarthr.backend.domain.Project;
+import com.smarthr.backend.web.dto.ProjectStaffingDto;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface ProjectRepository extends JpaRepository<Project, Long> {}
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface ProjectRepository extends JpaRepository<Project, Long> {
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "200"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select x from Project x order by x.id")
+    Stream<Project> streamAll();
+
+    List<Project> findByUpdatedAtAfterOrderById(Instant since);
+
+    /** Proyectos activos en {@code at} con el número de empleados asignados en esa fecha. */
+    @Query("select new com.smarthr.backend.web.dto.ProjectStaffingDto(p.id, p.code, p.name, p.client, count(distinct a.employee.id)) " +
+            "from Project p left join Assignment a on a.project = p and a.startDate <= :at " +
+            "and (a.endDate is null or a.endDate >= :at) " +
+            "where (p.startDate is null or p.startDate <= :at) and (p.endDate is null or p.endDate >= :at) " +
+            "group by p.id, p.code, p.name, p.client order by count(distinct a.employee.id) desc, p.code")
+    List<ProjectStaffingDto> activeStaffing(LocalDate at);
+}
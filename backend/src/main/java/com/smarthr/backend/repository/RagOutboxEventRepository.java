@@ -0,0 +1,27 @@
+package com.smarthr.backend.repository;
+
+import com.smarthr.backend.domain.RagOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RagOutboxEventRepository extends JpaRepository<RagOutboxEvent, Long> {
+
+    @Query("select e from RagOutboxEvent e where e.deadAt is null and e.nextAttemptAt <= :now order by e.id")
+    List<RagOutboxEvent> findDue(Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("delete from RagOutboxEvent e where e.aggregateKey = :aggregateKey")
+    int deleteByAggregateKey(String aggregateKey);
+
+    @Query("select min(e.createdAt) from RagOutboxEvent e where e.deadAt is null")
+    Instant findOldestCreatedAt();
+
+    long countByDeadAtIsNull();
+
+    long countByDeadAtIsNotNull();
+}
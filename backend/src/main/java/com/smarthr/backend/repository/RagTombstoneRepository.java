@@ -0,0 +1,12 @@
+package com.smarthr.backend.repository;
+
+import com.smarthr.backend.domain.RagTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RagTombstoneRepository extends JpaRepository<RagTombstone, Long> {
+
+    List<RagTombstone> findByDeletedAtAfterOrderById(Instant since);
+}
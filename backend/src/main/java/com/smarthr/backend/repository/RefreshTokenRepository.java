@@ -0,0 +1,30 @@
+package com.smarthr.backend.repository;
+
+import com.smarthr.backend.domain.RefreshToken;
+import com.smarthr.backend.domain.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    @Query("select t from RefreshToken t join fetch t.user where t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findWithUserByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /** Borra el token solo si sigue vigente; de dos consumos simultáneos solo uno obtiene 1. */
+    @Modifying
+    @Query("delete from RefreshToken t where t.tokenHash = :tokenHash and t.expiresAt > :now")
+    int deleteValid(@Param("tokenHash") String tokenHash, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.user = :user")
+    int deleteByUser(@Param("user") User user);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
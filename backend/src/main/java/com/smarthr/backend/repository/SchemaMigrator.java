@@ -0,0 +1,219 @@
+package com.smarthr.backend.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Migraciones versionadas del esquema. El esquema es de estos scripts, no de Hibernate (que solo valida).
+ * <p>
+ * Los scripts siguen la convención de Flyway: {@code db/migration/V<n>__<descripción>.sql} para todas las
+ * bases de datos y {@code db/migration/<vendor>/} (postgresql, h2) para lo específico de una. Cada versión
+ * se aplica una sola vez, en su propia transacción, y queda anotada en {@code schema_history} con su
+ * checksum; si un script ya aplicado cambia, el arranque falla en lugar de dejar el esquema a medias.
+ */
+@Slf4j
+@Component
+public class SchemaMigrator implements InitializingBean {
+
+    static final String HISTORY_TABLE = "schema_history";
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    /** Clave del advisory lock de PostgreSQL: dos instancias arrancando a la vez no migran en paralelo. */
+    private static final long LOCK_KEY = 0x5348_5253_4348L;
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+
+    public SchemaMigrator(DataSource dataSource, @Value("${schema.migrations.enabled:true}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+    }
+
+    /** Script de migración ya leído. */
+    public record Migration(int version, String description, String script, long checksum) {
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    /** Aplica las migraciones pendientes y devuelve sus versiones. */
+    public List<Integer> migrate() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            String vendor = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+            boolean postgres = vendor.equals("postgresql");
+            if (postgres) {
+                execute(connection, "select pg_advisory_lock(" + LOCK_KEY + ")");
+            }
+            try {
+                return migrate(connection, load(vendor));
+            } finally {
+                if (postgres) {
+                    execute(connection, "select pg_advisory_unlock(" + LOCK_KEY + ")");
+                }
+            }
+        }
+    }
+
+    private List<Integer> migrate(Connection connection, List<Migration> migrations) throws SQLException {
+        execute(connection, "create table if not exists " + HISTORY_TABLE + " (" +
+                "version integer not null primary key, " +
+                "description varchar(200) not null, " +
+                "checksum bigint not null, " +
+                "installed_at timestamp(6) with time zone not null)");
+
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("select version, checksum from " + HISTORY_TABLE)) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+
+        List<Integer> done = new ArrayList<>();
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.version());
+            if (checksum != null) {
+                if (checksum != migration.checksum()) {
+                    throw new IllegalStateException("La migración V" + migration.version() + " (" + migration.description()
+                            + ") ha cambiado después de aplicarse; crea una versión nueva en lugar de editarla");
+                }
+                continue;
+            }
+            apply(connection, migration);
+            done.add(migration.version());
+        }
+        if (!done.isEmpty()) {
+            log.info("Esquema migrado: versiones {}", done);
+        }
+        return done;
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (String statement : statements(migration.script())) {
+                execute(connection, statement);
+            }
+            try (PreparedStatement ps = connection.prepareStatement("insert into " + HISTORY_TABLE +
+                    " (version, description, checksum, installed_at) values (?, ?, ?, ?)")) {
+                ps.setInt(1, migration.version());
+                ps.setString(2, migration.description());
+                ps.setLong(3, migration.checksum());
+                ps.setTimestamp(4, Timestamp.from(Instant.now()));
+                ps.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw new IllegalStateException("Falló la migración V" + migration.version() + " (" + migration.description()
+                    + "): " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /** Scripts comunes y los del fabricante, ordenados por versión. */
+    static List<Migration> load(String vendor) {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        TreeMap<Integer, Migration> byVersion = new TreeMap<>();
+        try {
+            List<Resource> resources = new ArrayList<>(List.of(resolver.getResources("classpath*:db/migration/*.sql")));
+            resources.addAll(List.of(resolver.getResources("classpath*:db/migration/" + vendor + "/*.sql")));
+            for (Resource resource : resources) {
+                Matcher m = FILE_NAME.matcher(Objects.requireNonNull(resource.getFilename()));
+                if (!m.matches()) {
+                    throw new IllegalStateException("Nombre de migración no válido: " + resource.getFilename());
+                }
+                String script = resource.getContentAsString(StandardCharsets.UTF_8);
+                CRC32 crc = new CRC32();
+                crc.update(script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+                Migration migration = new Migration(Integer.parseInt(m.group(1)), m.group(2).replace('_', ' '),
+                        script, crc.getValue());
+                if (byVersion.put(migration.version(), migration) != null) {
+                    throw new IllegalStateException("Versión de migración duplicada: V" + migration.version());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron leer las migraciones", e);
+        }
+        return List.copyOf(byVersion.values());
+    }
+
+    /** Separa un script en sentencias por ';', respetando literales, comentarios y bloques {@code $$ ... $$}. */
+    public static List<String> statements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean dollar = false;
+        int i = 0;
+        while (i < script.length()) {
+            char c = script.charAt(i);
+            if (!quoted && !dollar && c == '-' && script.startsWith("--", i)) {
+                int end = script.indexOf('\n', i);
+                i = end < 0 ? script.length() : end;
+                continue;
+            }
+            if (!quoted && script.startsWith("$$", i)) {
+                dollar = !dollar;
+                current.append("$$");
+                i += 2;
+                continue;
+            }
+            if (!dollar && c == '\'') {
+                quoted = !quoted;
+            }
+            if (!quoted && !dollar && c == ';') {
+                addIfNotBlank(statements, current);
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+            i++;
+        }
+        addIfNotBlank(statements, current);
+        return statements;
+    }
+
+    private static void addIfNotBlank(List<String> statements, StringBuilder statement) {
+        String sql = statement.toString().strip();
+        if (!sql.isEmpty()) {
+            statements.add(sql);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    /** Hibernate valida el esquema al crear el EntityManagerFactory, así que tiene que esperar a las migraciones. */
+    @Component
+    static class JpaDependsOnSchemaMigrator extends EntityManagerFactoryDependsOnPostProcessor {
+
+        JpaDependsOnSchemaMigrator() {
+            super(SchemaMigrator.class);
+        }
+    }
+}
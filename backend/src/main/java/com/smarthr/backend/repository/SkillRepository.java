@@ -1,6 +1,23 @@
 
 package com.smarthr.backend.repository;
 import com.smarthr.backend.domain.Skill;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface SkillRepository extends JpaRepository<Skill, Long> {}
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface SkillRepository extends JpaRepository<Skill, Long> {
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "200"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select x from Skill x order by x.id")
+    Stream<Skill> streamAll();
+
+    List<Skill> findByUpdatedAtAfterOrderById(Instant since);
+}
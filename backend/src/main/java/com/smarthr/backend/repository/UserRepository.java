@@ -9,6 +9,8 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    Optional<User> findByEmployeeId(Long employeeId);
+
     void deleteByEmployee(Employee employee);
 
     void deleteByEmployeeId(Long employeeId);
@@ -0,0 +1,23 @@
+package com.smarthr.backend.security;
+
+import java.security.Principal;
+import java.util.Set;
+
+/**
+ * Usuario autenticado de la petición: nombre, roles y empleado asociado (puede ser null).
+ */
+public record CurrentUser(
+        String username,
+        Set<String> roles,
+        Long employeeId
+) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+}
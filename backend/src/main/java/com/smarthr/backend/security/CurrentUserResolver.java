@@ -0,0 +1,98 @@
+package com.smarthr.backend.security;
+
+import com.smarthr.backend.domain.User;
+import com.smarthr.backend.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resuelve el usuario autenticado de la petición sin ir a base de datos en el caso normal.
+ * <p>
+ * Los tokens emitidos por {@link JwtUtil} llevan roles y employeeId firmados, y {@link JwtFilter}
+ * los deja como principal. Para tokens sin esos claims se consulta una caché acotada con TTL
+ * y, si falla, la tabla de usuarios. {@code AuthService} invalida la caché al registrar o borrar usuarios.
+ */
+@Component
+public class CurrentUserResolver {
+
+    private final UserRepository userRepository;
+    private final ExpiringLruCache<String, CurrentUser> cache;
+    private final LongAdder fromClaims = new LongAdder();
+    private final LongAdder fromDatabase = new LongAdder();
+
+    public CurrentUserResolver(UserRepository userRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${auth.principal-cache.max-size:1000}") int maxSize,
+                               @Value("${auth.principal-cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = new ExpiringLruCache<>(maxSize, ttl);
+
+        FunctionCounter.builder("auth.principal.lookups", fromClaims, LongAdder::sum)
+                .tag("source", "claims").register(meterRegistry);
+        FunctionCounter.builder("auth.principal.lookups", cache, ExpiringLruCache::hits)
+                .tag("source", "cache").register(meterRegistry);
+        FunctionCounter.builder("auth.principal.lookups", fromDatabase, LongAdder::sum)
+                .tag("source", "database").register(meterRegistry);
+        Gauge.builder("auth.principal.hit.ratio", this, CurrentUserResolver::hitRate)
+                .description("Fracción de resoluciones de usuario que no consultan la base de datos")
+                .register(meterRegistry);
+    }
+
+    /** Usuario de la petición en curso; lanza excepción si ya no existe. */
+    public CurrentUser current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth.getPrincipal() instanceof CurrentUser user) {
+            fromClaims.increment();
+            return user;
+        }
+
+        String username = auth.getName();
+        CurrentUser cached = cache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        fromDatabase.increment();
+
+        CurrentUser resolved = new CurrentUser(
+                user.getUsername(),
+                Set.copyOf(user.getRoles()),
+                user.getEmployee() != null ? user.getEmployee().getId() : null
+        );
+        cache.put(username, resolved);
+        return resolved;
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    public void invalidateEmployee(Long employeeId) {
+        cache.invalidateIf(u -> employeeId.equals(u.employeeId()));
+    }
+
+    /** Una sola pasada por la caché para todos los empleados dados de baja. */
+    public void invalidateEmployees(Collection<Long> employeeIds) {
+        Set<Long> ids = Set.copyOf(employeeIds);
+        cache.invalidateIf(u -> u.employeeId() != null && ids.contains(u.employeeId()));
+    }
+
+    /** Fracción de resoluciones servidas desde claims o caché. */
+    public double hitRate() {
+        long hits = fromClaims.sum() + cache.hits();
+        long total = hits + fromDatabase.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
@@ -38,8 +39,14 @@ public class JwtFilter extends OncePerRequestFilter {
                     .map(SimpleGrantedAuthority::new)
                     .collect(Collectors.toList());
 
+            // Con employeeId firmado en el token el principal ya es completo (ver CurrentUserResolver)
+            Long employeeId = claims.get("employeeId", Long.class);
+            Object principal = employeeId != null
+                    ? new CurrentUser(username, Set.copyOf((List<String>) claims.get("roles")), employeeId)
+                    : username;
+
             UsernamePasswordAuthenticationToken auth =
-                    new UsernamePasswordAuthenticationToken(username, null, authorities);
+                    new UsernamePasswordAuthenticationToken(principal, null, authorities);
             SecurityContextHolder.getContext().setAuthentication(auth);
         }
         filterChain.doFilter(request, response);
@@ -2,6 +2,7 @@ package com.smarthr.backend.security;
 
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -10,6 +11,10 @@ import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Set;
 
@@ -18,21 +23,39 @@ public class JwtUtil {
 
     private final Key secretKey;
     private final long expiration;
+    private final JwtParser parser;
+
+    /** Tokens ya verificados, por digest; cada entrada caduca como muy tarde con el exp del token. */
+    private final ExpiringLruCache<String, Claims> verifiedTokens;
 
     public JwtUtil(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration}") long expiration
+            @Value("${jwt.expiration}") long expiration,
+            @Value("${jwt.verified-cache.max-size:10000}") int verifiedCacheSize
     ) {
         this.secretKey = Keys.hmacShaKeyFor(
                 secret.getBytes(StandardCharsets.UTF_8)
         );
         this.expiration = expiration;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.verifiedTokens = new ExpiringLruCache<>(verifiedCacheSize, Duration.ofMillis(expiration));
     }
 
     public String generateToken(String username, Set<String> roles) {
+        return generateToken(username, roles, null);
+    }
+
+    /**
+     * Genera el token con roles y, si lo hay, el id del empleado; {@link CurrentUserResolver}
+     * los lee de aquí para no consultar la base de datos en cada petición.
+     */
+    public String generateToken(String username, Set<String> roles, Long employeeId) {
         return Jwts.builder()
                 .setSubject(username)
                 .claim("roles", roles)
+                .claim("employeeId", employeeId)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(secretKey, SignatureAlgorithm.HS256)
@@ -40,11 +63,29 @@ public class JwtUtil {
     }
 
     public Claims validateToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String digest = digest(token);
+        Claims cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Date exp = claims.getExpiration();
+        verifiedTokens.put(digest, claims, exp != null ? exp.toInstant() : null);
+        return claims;
+    }
+
+    public double verifiedCacheHitRate() {
+        return verifiedTokens.hitRate();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
     }
 }
 
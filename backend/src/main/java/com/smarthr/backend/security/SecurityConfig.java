@@ -1,7 +1,9 @@
 package com.smarthr.backend.security;
 
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -18,14 +20,24 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
     private final JwtFilter jwtFilter;
 
+    /** Puerto interno de actuator (sin publicar fuera de la red de Docker); -1 si comparte el de la aplicación. */
+    @Value("${management.server.port:-1}")
+    private int managementPort = -1;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> {})
                 .authorizeHttpRequests(auth -> auth
 
-                        .requestMatchers("/auth/login", "/auth/register", "/public/completeRag").permitAll()
+                        // Las respuestas en streaming terminan en un dispatch ASYNC de la petición ya autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                        .requestMatchers("/auth/login", "/auth/refresh", "/auth/register", "/public/completeRag", "/public/completeRag/stream", "/public/completeRag/delta").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
+                        // Prometheus rasca por el puerto interno; en el público las métricas exigen ADMIN
+                        .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort).permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("ROLE_ADMIN")
 
                         .requestMatchers("/api/employees/me/**").hasAnyAuthority("ROLE_EMPLOYEE", "ROLE_RRHH")
                         .requestMatchers("/api/leave-requests").hasAnyAuthority("ROLE_EMPLOYEE", "ROLE_RRHH")
@@ -0,0 +1,102 @@
+package com.smarthr.backend.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de versión en memoria por agregado (departamentos, skills, perfil de un empleado...)
+ * de los que salen los ETag de los GET más consultados.
+ * <p>
+ * Los cambios se apuntan durante la transacción y el contador sube tras el commit, así un ETag nuevo
+ * nunca se asocia a datos sin confirmar. El ETag incluye el arranque del proceso para que un reinicio
+ * no reutilice etiquetas antiguas.
+ */
+@Service
+public class AggregateVersionService {
+
+    public static final String DEPARTMENTS = "departments";
+    public static final String SKILLS = "skills";
+    public static final String JOB_POSITIONS = "job-positions";
+    public static final String PROJECTS = "projects";
+    public static final String LEAVE_REQUESTS = "leave-requests";
+    public static final String EMPLOYEES = "employees";
+    /** Sube cuando se invalidan todos los perfiles de empleado (cambio de catálogo). */
+    public static final String PROFILES = "profiles";
+    /** Sube cuando cambia la plantilla o una ausencia sin que se sepa de qué departamento. */
+    public static final String TEAMS = "teams";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public static String profile(Long employeeId) {
+        return "profile:" + employeeId;
+    }
+
+    /** Ausencias y plantilla de un departamento, para el calendario de equipo. */
+    public static String team(Long departmentId) {
+        return "team:" + departmentId;
+    }
+
+    public long current(String aggregate) {
+        AtomicLong version = versions.get(aggregate);
+        return version != null ? version.get() : 0L;
+    }
+
+    /** Sube la versión ya; para datos que se acaban de confirmar. */
+    public void increment(String aggregate) {
+        versions.computeIfAbsent(aggregate, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /** Sube la versión tras el commit de la transacción en curso (o ya, si no hay transacción). */
+    public void markChanged(String aggregate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(aggregate);
+            return;
+        }
+        PendingVersions pending = (PendingVersions) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingVersions();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.aggregates.add(aggregate);
+    }
+
+    /** ETag fuerte para la combinación de agregados indicada. */
+    public String etag(String... aggregates) {
+        return variantEtag(null, aggregates);
+    }
+
+    /** Igual que {@link #etag(String...)} pero distinguiendo variantes de la misma respuesta (página, filtros). */
+    public String variantEtag(String variant, String... aggregates) {
+        StringBuilder tag = new StringBuilder("\"").append(epoch);
+        for (String aggregate : aggregates) {
+            tag.append('-').append(current(aggregate));
+        }
+        if (variant != null) {
+            tag.append('-').append(Integer.toHexString(variant.hashCode()));
+        }
+        return tag.append('"').toString();
+    }
+
+    private final class PendingVersions implements TransactionSynchronization {
+
+        private final Set<String> aggregates = new LinkedHashSet<>();
+
+        @Override
+        public void afterCommit() {
+            aggregates.forEach(AggregateVersionService.this::increment);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AggregateVersionService.this);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.smarthr.backend.service;
+
+import com.smarthr.backend.repository.CompensationRepository;
+import com.smarthr.backend.repository.EmployeeRepository;
+import com.smarthr.backend.repository.LeaveRequestRepository;
+import com.smarthr.backend.repository.ProjectRepository;
+import com.smarthr.backend.web.dto.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Indicadores de RRHH calculados en la base de datos con GROUP BY: solo viajan las filas agregadas,
+ * nunca los listados completos.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AnalyticsService {
+
+    private final EmployeeRepository employeeRepository;
+    private final CompensationRepository compensationRepository;
+    private final ProjectRepository projectRepository;
+    private final LeaveRequestRepository leaveRequestRepository;
+
+    /** Plantilla agrupada por {@code department}, {@code job-position} o {@code location}. */
+    public List<HeadcountDto> headcount(String by) {
+        return switch (by.toLowerCase()) {
+            case "department" -> employeeRepository.headcountByDepartment();
+            case "job-position" -> employeeRepository.headcountByJobPosition();
+            case "location" -> employeeRepository.headcountByLocation();
+            default -> throw new IllegalArgumentException("Agrupación no soportada: " + by
+                    + " (department, job-position o location)");
+        };
+    }
+
+    public List<SalaryBandDto> salaryBands(LocalDate at) {
+        return compensationRepository.salaryBandsByDepartment(at != null ? at : LocalDate.now());
+    }
+
+    public List<MonthlyHiresDto> hiresPerMonth(LocalDate from, LocalDate to) {
+        return employeeRepository.hiresPerMonth(from, to);
+    }
+
+    public List<ProjectStaffingDto> projectStaffing(LocalDate at) {
+        return projectRepository.activeStaffing(at != null ? at : LocalDate.now());
+    }
+
+    /** Ausencias del periodo; por defecto, el año en curso. */
+    public List<LeaveSummaryDto> leaveSummary(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        LocalDate start = from != null ? from : today.withDayOfYear(1);
+        LocalDate end = to != null ? to : start.withDayOfYear(start.lengthOfYear());
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("La fecha final es anterior a la inicial");
+        }
+        return leaveRequestRepository.summaryByTypeAndStatus(start, end);
+    }
+}
@@ -5,15 +5,20 @@ import com.smarthr.backend.domain.Employee;
 import com.smarthr.backend.domain.User;
 import com.smarthr.backend.repository.EmployeeRepository;
 import com.smarthr.backend.repository.UserRepository;
+import com.smarthr.backend.security.CurrentUserResolver;
 import com.smarthr.backend.security.JwtUtil;
+import com.smarthr.backend.security.PasswordVerifier;
 import com.smarthr.backend.web.dto.LoginRequest;
+import com.smarthr.backend.web.dto.LoginResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Set;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -21,16 +26,31 @@ public class AuthService {
     private final EmployeeRepository employeeRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final CurrentUserResolver currentUserResolver;
+    private final PasswordVerifier passwordVerifier;
+    private final RefreshTokenService refreshTokenService;
 
-    public String login(LoginRequest request) {
-        System.out.println("Llamando a login para el usuario: " + request.getUsername());
+    public LoginResponse login(LoginRequest request) {
+        log.debug("Login del usuario {}", request.getUsername());
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        if (!new BCryptPasswordEncoder().matches(request.getPassword(), user.getPassword())) {
+        if (!passwordVerifier.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Credenciales inválidas");
         }
-        return jwtUtil.generateToken(user.getUsername(), user.getRoles());
+        return issueTokens(user);
+    }
+
+    /** Renueva el access token con un refresh token de un solo uso, sin volver a comprobar la contraseña. */
+    @Transactional
+    public LoginResponse refresh(String refreshToken) {
+        return issueTokens(refreshTokenService.consume(refreshToken));
+    }
+
+    private LoginResponse issueTokens(User user) {
+        String token = jwtUtil.generateToken(user.getUsername(), user.getRoles(),
+                user.getEmployee() != null ? user.getEmployee().getId() : null);
+        return new LoginResponse(token, refreshTokenService.issue(user));
     }
 
 
@@ -48,14 +68,18 @@ public class AuthService {
         user.setRoles(Set.of(role)); // Asigna el rol indicado
         user.setEmployee(employee);
         userRepository.save(user);
+        currentUserResolver.invalidate(username);
     }
 
 
+    @Transactional
     public void deleteUser(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
+        refreshTokenService.revokeAll(user);
         userRepository.delete(user);
+        currentUserResolver.invalidate(username);
     }
 
 
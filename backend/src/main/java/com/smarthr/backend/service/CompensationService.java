@@ -7,14 +7,15 @@ import com.smarthr.backend.repository.CompensationRepository;
 import com.smarthr.backend.repository.EmployeeRepository;
 import com.smarthr.backend.web.exceptions.ConflictException;
 import com.smarthr.backend.web.exceptions.ResourceNotFoundException;
+import com.smarthr.backend.web.dto.CursorPageDto;
 import com.smarthr.backend.web.dto.CompensationDto;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,9 +28,11 @@ public class CompensationService {
     private final EmployeeRepository employeeRepo;
     private final CompensationMapper mapper;
 
+    /** Listado por clave (id ascendente), sin count; {@code afterId} es el último id de la página anterior. */
     @Transactional(readOnly = true)
-    public Page<CompensationDto> list(Pageable pageable) {
-        return repo.findAll(pageable).map(mapper::toDto);
+    public CursorPageDto<CompensationDto> list(Long employeeId, LocalDate from, LocalDate to, Long afterId, int size) {
+        return CursorPageDto.of(repo.findPageAfter(employeeId, from, to, afterId, Limit.of(size + 1)),
+                size, Compensation::getId, mapper::toDto);
     }
 
     @Transactional(readOnly = true)
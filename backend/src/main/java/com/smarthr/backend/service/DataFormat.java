@@ -0,0 +1,39 @@
+package com.smarthr.backend.service;
+
+import org.springframework.http.MediaType;
+
+/** Formatos de fichero de las importaciones y exportaciones masivas. */
+public enum DataFormat {
+
+    CSV(new MediaType("text", "csv")),
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    DataFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return name().toLowerCase();
+    }
+
+    /** Formato por nombre, sin distinguir mayúsculas ("csv", "ndjson"). */
+    public static DataFormat parse(String name) {
+        for (DataFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name.trim())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Formato no soportado: " + name);
+    }
+
+    /** CSV para text/csv; cualquier otro tipo admitido se trata como NDJSON. */
+    public static DataFormat of(MediaType contentType) {
+        return CSV.mediaType.includes(contentType) ? CSV : NDJSON;
+    }
+}
@@ -0,0 +1,376 @@
+package com.smarthr.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthr.backend.domain.JobPosition;
+import com.smarthr.backend.domain.Project;
+import com.smarthr.backend.domain.RagOutboxEvent;
+import com.smarthr.backend.repository.EmployeeBulkWriter;
+import com.smarthr.backend.repository.EmployeeRepository;
+import com.smarthr.backend.repository.JobPositionRepository;
+import com.smarthr.backend.repository.ProjectRepository;
+import com.smarthr.backend.web.dto.DepartmentDto;
+import com.smarthr.backend.web.dto.EmployeeCompleteDto;
+import com.smarthr.backend.web.dto.EmployeeImportResultDto;
+import com.smarthr.backend.web.dto.JobPositionDto;
+import com.smarthr.backend.web.dto.NewEmployeeCompleteDto;
+import com.smarthr.backend.web.dto.SkillDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Alta masiva de empleados desde CSV o NDJSON.
+ * <p>
+ * El fichero se lee en streaming y cada fila se valida como un alta completa
+ * ({@link NewEmployeeCompleteDto}) contra catálogos y usuarios cargados una sola vez al empezar.
+ * Las filas válidas se guardan en lotes, cada uno en su transacción, con {@link EmployeeBulkWriter};
+ * las inválidas se devuelven con su número de línea sin detener la importación. Si la base de datos
+ * rechaza un lote, se reintenta fila a fila y solo se rechazan las filas que fallan.
+ */
+@Slf4j
+@Service
+public class EmployeeImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final EmployeeBulkWriter writer;
+    private final EmployeeRepository employeeRepository;
+    private final JobPositionRepository jobPositionRepository;
+    private final ProjectRepository projectRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final EmployeeRagDtoService employeeRagDtoService;
+    private final RagOutboxService ragOutboxService;
+    private final AggregateVersionService aggregateVersionService;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public EmployeeImportService(EmployeeBulkWriter writer,
+                                 EmployeeRepository employeeRepository,
+                                 JobPositionRepository jobPositionRepository,
+                                 ProjectRepository projectRepository,
+                                 ReferenceDataCache referenceDataCache,
+                                 EmployeeRagDtoService employeeRagDtoService,
+                                 RagOutboxService ragOutboxService,
+                                 AggregateVersionService aggregateVersionService,
+                                 PasswordEncoder passwordEncoder,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${employees.import.batch-size:500}") int batchSize) {
+        this.writer = writer;
+        this.employeeRepository = employeeRepository;
+        this.jobPositionRepository = jobPositionRepository;
+        this.projectRepository = projectRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.employeeRagDtoService = employeeRagDtoService;
+        this.ragOutboxService = ragOutboxService;
+        this.aggregateVersionService = aggregateVersionService;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public EmployeeImportResultDto importEmployees(DataFormat format, InputStream body) {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            if (format == DataFormat.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el fichero de importación", e);
+        }
+        run.flush();
+        log.info("Importación de empleados: {} alta(s), {} fila(s) rechazada(s)", run.imported, run.rejected);
+        return new EmployeeImportResultDto(run.imported, run.rejected, run.errors);
+    }
+
+    // ====== Lectura ======
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                run.accept(lineNumber, objectMapper.readValue(line, NewEmployeeCompleteDto.class));
+            } catch (JsonProcessingException e) {
+                run.reject(lineNumber, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * CSV con cabecera (nombres de campo de {@link NewEmployeeCompleteDto}); los ids de skill van
+     * separados por ';'. Admite campos entre comillas, también con saltos de línea.
+     */
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        List<String> header = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            long firstLine = lineNumber;
+            StringBuilder record = new StringBuilder(line);
+            while (hasOpenQuote(record) && (line = reader.readLine()) != null) {
+                lineNumber++;
+                record.append('\n').append(line);
+            }
+            if (record.toString().isBlank()) {
+                continue;
+            }
+
+            List<String> cells = splitCsv(record);
+            if (header == null) {
+                header = cells.stream().map(String::trim).toList();
+                continue;
+            }
+            if (cells.size() != header.size()) {
+                run.reject(firstLine, "Se esperaban " + header.size() + " columnas y hay " + cells.size());
+                continue;
+            }
+
+            Map<String, Object> values = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String cell = cells.get(i).trim();
+                if (cell.isEmpty()) {
+                    continue;
+                }
+                values.put(header.get(i), "skillIds".equals(header.get(i))
+                        ? Arrays.stream(cell.split(";")).map(String::trim).filter(s -> !s.isEmpty()).toList()
+                        : cell);
+            }
+            try {
+                run.accept(firstLine, objectMapper.convertValue(values, NewEmployeeCompleteDto.class));
+            } catch (IllegalArgumentException e) {
+                run.reject(firstLine, "Valor inválido: " + e.getMessage());
+            }
+        }
+    }
+
+    private static boolean hasOpenQuote(CharSequence record) {
+        int quotes = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+    private static List<String> splitCsv(CharSequence record) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    // ====== Validación y escritura ======
+
+    private record PendingRow(long line, NewEmployeeCompleteDto dto) {
+    }
+
+    /** Estado de una importación: catálogos precargados, claves ya vistas, lote en curso y resultado. */
+    private final class ImportRun {
+
+        private final Set<Long> departmentIds = referenceDataCache.departments().stream()
+                .map(DepartmentDto::getId).collect(Collectors.toSet());
+        private final Set<Long> skillIds = referenceDataCache.skills().stream()
+                .map(SkillDto::getId).collect(Collectors.toSet());
+        private final Set<Long> projectIds = projectRepository.findAll().stream()
+                .map(Project::getId).collect(Collectors.toSet());
+        private final Map<String, Long> jobPositionIds = referenceDataCache.jobPositions().stream()
+                .collect(Collectors.toMap(JobPositionDto::getTitle, JobPositionDto::getId, (a, b) -> a, HashMap::new));
+        private final Set<String> usernames = writer.existingUsernames();
+        private final Set<String> emails = writer.existingEmails();
+
+        private final List<PendingRow> batch = new ArrayList<>();
+        private final List<String> createdJobPositions = new ArrayList<>();
+        private final List<EmployeeImportResultDto.RowError> errors = new ArrayList<>();
+        private int imported;
+        private int rejected;
+
+        void accept(long line, NewEmployeeCompleteDto dto) {
+            Set<ConstraintViolation<NewEmployeeCompleteDto>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                reject(line, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            String problem = checkReferences(dto);
+            if (problem != null) {
+                reject(line, problem);
+                return;
+            }
+
+            usernames.add(dto.getUsername());
+            emails.add(dto.getEmail());
+            batch.add(new PendingRow(line, dto));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private String checkReferences(NewEmployeeCompleteDto dto) {
+            if (usernames.contains(dto.getUsername())) {
+                return "El username ya existe: " + dto.getUsername();
+            }
+            if (emails.contains(dto.getEmail())) {
+                return "El email ya existe: " + dto.getEmail();
+            }
+            if (!departmentIds.contains(dto.getDepartmentId())) {
+                return "Departamento no encontrado: " + dto.getDepartmentId();
+            }
+            if (dto.getProjectId() != null && !projectIds.contains(dto.getProjectId())) {
+                return "Proyecto no encontrado: " + dto.getProjectId();
+            }
+            if (dto.getSkillIds() != null) {
+                for (Long skillId : dto.getSkillIds()) {
+                    if (!skillIds.contains(skillId)) {
+                        return "Skill no encontrada: " + skillId;
+                    }
+                }
+            }
+            if (dto.getContractEndDate() != null && dto.getContractEndDate().isBefore(dto.getContractStartDate())) {
+                return "La fecha de fin del contrato es anterior a la de inicio";
+            }
+            return null;
+        }
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new EmployeeImportResultDto.RowError(line, message));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<PendingRow> rows = List.copyOf(batch);
+            batch.clear();
+
+            // BCrypt es lo más caro de cada fila; se reparte entre los núcleos disponibles
+            Map<String, String> hashes = rows.parallelStream()
+                    .map(r -> r.dto().getPassword())
+                    .distinct()
+                    .collect(Collectors.toConcurrentMap(Function.identity(), passwordEncoder::encode));
+
+            DataAccessException failure = save(rows, hashes);
+            if (failure == null) {
+                return;
+            }
+            // Un fallo deshace el lote entero; se repite fila a fila para rechazar solo las que fallan
+            log.warn("Lote de importación rechazado ({} filas), se reintenta fila a fila: {}", rows.size(), failure.getMessage());
+            for (PendingRow row : rows) {
+                DataAccessException rowFailure = rows.size() == 1 ? failure : save(List.of(row), hashes);
+                if (rowFailure != null) {
+                    reject(row.line(), "No se pudo guardar la fila: " + rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        /** Guarda las filas en una transacción; devuelve el error si se ha deshecho. */
+        private DataAccessException save(List<PendingRow> rows, Map<String, String> hashes) {
+            createdJobPositions.clear();
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(rows, hashes));
+                imported += rows.size();
+                return null;
+            } catch (DataAccessException e) {
+                // Los puestos creados en la transacción se han deshecho con el rollback
+                createdJobPositions.forEach(jobPositionIds::remove);
+                return e;
+            }
+        }
+
+        private void write(List<PendingRow> rows, Map<String, String> hashes) {
+            List<EmployeeBulkWriter.Row> writes = new ArrayList<>(rows.size());
+            for (PendingRow pending : rows) {
+                NewEmployeeCompleteDto dto = pending.dto();
+                Long jobPositionId = jobPositionId(dto.getJobPositionTitle());
+                writes.add(new EmployeeBulkWriter.Row(
+                        dto.getName(), dto.getLocation().toLowerCase(), dto.getEmail(), dto.getHireDate(),
+                        dto.getDepartmentId(), jobPositionId,
+                        dto.getUsername(), hashes.get(dto.getPassword()), dto.getRole(),
+                        dto.getContractType().name(), dto.getContractStartDate(), dto.getContractEndDate(), dto.getWeeklyHours(),
+                        dto.getProjectId(),
+                        dto.getAssignmentJobPosition() != null ? jobPositionId(dto.getAssignmentJobPosition()) : jobPositionId,
+                        dto.getSkillIds() != null ? List.copyOf(new LinkedHashSet<>(dto.getSkillIds())) : List.of()));
+            }
+
+            List<Long> employeeIds = writer.insert(writes);
+
+            // Propagación al RAG con un número fijo de consultas por lote
+            Map<String, EmployeeCompleteDto> ragEmployees = new LinkedHashMap<>();
+            for (EmployeeCompleteDto rag : employeeRagDtoService.buildEmployeesRag(
+                    employeeRepository.findWithDepartmentAndJobPositionByIdIn(employeeIds))) {
+                ragEmployees.put("employee:" + rag.id(), rag);
+            }
+            ragOutboxService.enqueueNew(RagOutboxEvent.EventType.UPSERT_EMPLOYEE, ragEmployees);
+            aggregateVersionService.markChanged(AggregateVersionService.EMPLOYEES);
+            writes.stream().map(EmployeeBulkWriter.Row::departmentId).filter(Objects::nonNull).distinct()
+                    .forEach(id -> aggregateVersionService.markChanged(AggregateVersionService.team(id)));
+        }
+
+        /** Igual que el alta individual: un puesto que no existe se crea. */
+        private Long jobPositionId(String title) {
+            return jobPositionIds.computeIfAbsent(title, t -> {
+                JobPosition jp = new JobPosition();
+                jp.setTitle(t);
+                createdJobPositions.add(t);
+                return jobPositionRepository.save(jp).getId();
+            });
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.smarthr.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthr.backend.domain.Employee;
+import com.smarthr.backend.domain.EmployeeProfile;
+import com.smarthr.backend.domain.User;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.web.dto.EmployeeProfileDto;
+import com.smarthr.backend.web.exceptions.ResourceNotFoundException;
+import com.smarthr.backend.web.mapper.AssignmentMapper;
+import com.smarthr.backend.web.mapper.EmployeeMapper;
+import com.smarthr.backend.web.mapper.EmployeeSkillMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Modelo de lectura del perfil de empleado.
+ * <p>
+ * Las escrituras marcan el empleado afectado ({@link #markDirty}) y, tras el commit, su perfil se
+ * recalcula una sola vez por transacción en una transacción nueva. Las lecturas son un acceso por
+ * clave primaria; si el perfil no existe (primer acceso) o está marcado como obsoleto (catálogo
+ * modificado) se calcula en ese momento.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmployeeProfileService {
+
+    private final EmployeeProfileRepository profileRepository;
+    private final EmployeeRepository employeeRepository;
+    private final UserRepository userRepository;
+    private final EmployeeSkillRepository employeeSkillRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final ContractService contractService;
+    private final CompensationService compensationService;
+    private final PerformanceReviewService performanceReviewService;
+    private final LeaveRequestService leaveRequestService;
+    private final EmployeeMapper employeeMapper;
+    private final EmployeeSkillMapper employeeSkillMapper;
+    private final AssignmentMapper assignmentMapper;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final AggregateVersionService aggregateVersionService;
+
+    public EmployeeProfileDto get(Long employeeId) {
+        return profileRepository.findById(employeeId)
+                .filter(profile -> !profile.isStale())
+                .map(this::read)
+                .orElseGet(() -> refresh(employeeId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Employee not found: " + employeeId)));
+    }
+
+    /** Perfil del empleado asociado a un usuario. */
+    public EmployeeProfileDto getByUsername(String username) {
+        Optional<EmployeeProfile> stored = profileRepository.findByUsername(username);
+        if (stored.isPresent()) {
+            return stored.get().isStale() ? get(stored.get().getEmployeeId()) : read(stored.get());
+        }
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado: " + username));
+        if (user.getEmployee() == null) {
+            throw new ResourceNotFoundException("No existe un empleado asociado al usuario: " + username);
+        }
+        return get(user.getEmployee().getId());
+    }
+
+    public void markDirty(Long employeeId) {
+        PendingRefresh pending = pending();
+        if (pending != null && employeeId != null) {
+            pending.employeeIds.add(employeeId);
+        }
+    }
+
+    public void markAllDirty() {
+        PendingRefresh pending = pending();
+        if (pending != null) {
+            pending.all = true;
+        }
+    }
+
+    /** Recalcula y guarda el perfil; si el empleado ya no existe lo elimina. */
+    public Optional<EmployeeProfileDto> refresh(Long employeeId) {
+        try {
+            return Optional.ofNullable(newTransaction().execute(status -> rebuild(employeeId)));
+        } catch (DataIntegrityViolationException e) {
+            // Otro hilo ha insertado el perfil a la vez; el suyo es igual de reciente
+            log.debug("Perfil {} recalculado en paralelo: {}", employeeId, e.getMessage());
+            return profileRepository.findById(employeeId).map(this::read);
+        }
+    }
+
+    private EmployeeProfileDto rebuild(Long employeeId) {
+        // Con la fila bloqueada, un recálculo concurrente espera y parte de la versión que deje este
+        EmployeeProfile profile = profileRepository.findForUpdate(employeeId).orElse(null);
+        Employee employee = employeeRepository.findById(employeeId).orElse(null);
+        if (employee == null) {
+            if (profile != null) {
+                profileRepository.delete(profile);
+            }
+            return null;
+        }
+
+        if (profile == null) {
+            profile = new EmployeeProfile();
+            profile.setEmployeeId(employeeId);
+        }
+        profile.setVersion(profile.getVersion() + 1);
+
+        EmployeeProfileDto dto = new EmployeeProfileDto(
+                employeeId,
+                profile.getVersion(),
+                employeeMapper.toDto(employee),
+                employeeSkillRepository.findByEmployeeId(employeeId).stream().map(employeeSkillMapper::toDto).toList(),
+                contractService.listByEmployee(employeeId),
+                compensationService.listByEmployee(employeeId),
+                assignmentRepository.findByEmployeeId(employeeId).stream().map(assignmentMapper::toDto).toList(),
+                performanceReviewService.listByEmployee(employeeId),
+                leaveRequestService.listByEmployee(employeeId)
+        );
+
+        profile.setUsername(userRepository.findByEmployeeId(employeeId).map(User::getUsername).orElse(null));
+        profile.setPayload(write(dto));
+        profile.setStale(false);
+        profile.setUpdatedAt(Instant.now());
+        profileRepository.save(profile);
+        return dto;
+    }
+
+    private EmployeeProfileDto read(EmployeeProfile profile) {
+        try {
+            return objectMapper.readValue(profile.getPayload(), EmployeeProfileDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Perfil de empleado ilegible: " + profile.getEmployeeId(), e);
+        }
+    }
+
+    private String write(EmployeeProfileDto dto) {
+        try {
+            return objectMapper.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el perfil del empleado " + dto.employeeId(), e);
+        }
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    /** Cambios pendientes de la transacción en curso; null si no hay transacción. */
+    private PendingRefresh pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingRefresh pending = (PendingRefresh) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingRefresh();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private final class PendingRefresh implements TransactionSynchronization {
+
+        private final Set<Long> employeeIds = new LinkedHashSet<>();
+        private boolean all;
+
+        @Override
+        public void afterCommit() {
+            if (all) {
+                newTransaction().executeWithoutResult(status -> profileRepository.markAllStale());
+                aggregateVersionService.increment(AggregateVersionService.PROFILES);
+            }
+            for (Long employeeId : employeeIds) {
+                try {
+                    refresh(employeeId);
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo recalcular el perfil del empleado {}: {}", employeeId, e.getMessage());
+                    newTransaction().executeWithoutResult(status -> profileRepository.markStale(employeeId));
+                }
+                aggregateVersionService.increment(AggregateVersionService.profile(employeeId));
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeProfileService.this);
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.smarthr.backend.service;
 
+import com.smarthr.backend.domain.Assignment;
 import com.smarthr.backend.domain.Compensation;
 import com.smarthr.backend.domain.Contract;
 import com.smarthr.backend.domain.Employee;
+import com.smarthr.backend.domain.EmployeeSkill;
+import com.smarthr.backend.domain.LeaveRequest;
+import com.smarthr.backend.domain.Project;
 import com.smarthr.backend.repository.AssignmentRepository;
+import com.smarthr.backend.repository.CompensationRepository;
 import com.smarthr.backend.repository.ContractRepository;
 import com.smarthr.backend.repository.EmployeeRepository;
 import com.smarthr.backend.repository.EmployeeSkillRepository;
+import com.smarthr.backend.repository.LeaveRequestRepository;
 import com.smarthr.backend.web.dto.EmployeeCompleteDto;
 import com.smarthr.backend.web.dto.EmployeeDto;
 import com.smarthr.backend.web.dto.ProjectRagDto;
@@ -17,6 +23,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,14 +38,14 @@ public class EmployeeRagDtoService {
     private final ContractRepository contractRepository;
     private final CompensationService compensationService;
     private final LeaveRequestService leaveRequestService;
+    private final CompensationRepository compensationRepository;
+    private final LeaveRequestRepository leaveRequestRepository;
 
     public EmployeeCompleteDto buildEmployeeRag(Long employeeId) {
 
         Employee employee = employeeRepository.findById(employeeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Employee not found: " + employeeId));
 
-        EmployeeDto empDto = mapper.toDto(employee);
-
         List<String> skills = employeeSkillRepository.findByEmployeeId(employeeId)
                 .stream()
                 .map(es -> es.getSkill().getName())
@@ -45,16 +53,9 @@ public class EmployeeRagDtoService {
 
         List<ProjectRagDto> projects = assignmentRepository.findByEmployeeId(employeeId)
                 .stream()
-                .map(a -> a.getProject())
+                .map(Assignment::getProject)
                 .distinct()
-                .map(p -> new ProjectRagDto(
-                        p.getCode(),
-                        p.getName(),
-                        p.getClient(),
-                        p.getUbication(),
-                        p.getStartDate(),
-                        p.getEndDate()
-                ))
+                .map(this::toProjectRag)
                 .toList();
 
         Contract contract = contractRepository
@@ -70,6 +71,119 @@ public class EmployeeRagDtoService {
                 .map(lr -> lr.getType() + " (" + lr.getStartDate() + " - " + lr.getEndDate() + ")")
                 .toList();
 
+        return toCompleteDto(employee, skills, projects, contract, compensation, leaveRequests);
+    }
+
+    /**
+     * Construye el DTO RAG de todos los empleados con un número fijo de consultas
+     * (una por tabla), agrupando en memoria por employeeId.
+     */
+    public List<EmployeeCompleteDto> buildAllEmployeesRag() {
+        return assemble(
+                employeeRepository.findAllWithDepartmentAndJobPosition(),
+                employeeSkillRepository.findAllWithSkill(),
+                assignmentRepository.findAllWithEmployeeAndProject(),
+                contractRepository.findLatestPerEmployee(),
+                compensationRepository.findLatestPerEmployee(),
+                leaveRequestRepository.findAllWithEmployee()
+        );
+    }
+
+    /**
+     * Igual que {@link #buildAllEmployeesRag()} pero limitado a un lote de empleados ya cargados
+     * (con departamento y puesto), para el snapshot en streaming.
+     */
+    public List<EmployeeCompleteDto> buildEmployeesRag(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = employees.stream().map(Employee::getId).toList();
+        return assemble(
+                employees,
+                employeeSkillRepository.findWithSkillByEmployeeIdIn(ids),
+                assignmentRepository.findWithEmployeeAndProjectByEmployeeIdIn(ids),
+                contractRepository.findLatestByEmployeeIdIn(ids),
+                compensationRepository.findLatestByEmployeeIdIn(ids),
+                leaveRequestRepository.findWithEmployeeByEmployeeIdIn(ids)
+        );
+    }
+
+    public ProjectRagDto toProjectRag(Project p) {
+        return new ProjectRagDto(
+                p.getCode(),
+                p.getName(),
+                p.getClient(),
+                p.getUbication(),
+                p.getStartDate(),
+                p.getEndDate()
+        );
+    }
+
+    private List<EmployeeCompleteDto> assemble(List<Employee> employees,
+                                               List<EmployeeSkill> employeeSkills,
+                                               List<Assignment> assignments,
+                                               List<Contract> contracts,
+                                               List<Compensation> compensations,
+                                               List<LeaveRequest> leaveRequests) {
+
+        Map<Long, List<String>> skillsByEmployee = employeeSkills
+                .stream()
+                .collect(Collectors.groupingBy(
+                        es -> es.getEmployee().getId(),
+                        Collectors.mapping(es -> es.getSkill().getName(), Collectors.toList())
+                ));
+
+        Map<Long, List<ProjectRagDto>> projectsByEmployee = assignments
+                .stream()
+                .collect(Collectors.groupingBy(
+                        a -> a.getEmployee().getId(),
+                        Collectors.mapping(Assignment::getProject, Collectors.toList())
+                ))
+                .entrySet()
+                .stream()
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        e -> e.getValue().stream().distinct().map(this::toProjectRag).toList()
+                ));
+
+        Map<Long, Contract> contractByEmployee = contracts
+                .stream()
+                .collect(Collectors.toMap(c -> c.getEmployee().getId(), c -> c, (first, ignored) -> first));
+
+        Map<Long, Compensation> compensationByEmployee = compensations
+                .stream()
+                .collect(Collectors.toMap(c -> c.getEmployee().getId(), c -> c, (first, ignored) -> first));
+
+        Map<Long, List<String>> leavesByEmployee = leaveRequests
+                .stream()
+                .collect(Collectors.groupingBy(
+                        lr -> lr.getEmployee().getId(),
+                        Collectors.mapping(
+                                lr -> lr.getType() + " (" + lr.getStartDate() + " - " + lr.getEndDate() + ")",
+                                Collectors.toList())
+                ));
+
+        return employees.stream()
+                .map(e -> toCompleteDto(
+                        e,
+                        skillsByEmployee.getOrDefault(e.getId(), List.of()),
+                        projectsByEmployee.getOrDefault(e.getId(), List.of()),
+                        contractByEmployee.get(e.getId()),
+                        compensationByEmployee.get(e.getId()),
+                        leavesByEmployee.getOrDefault(e.getId(), List.of())
+                ))
+                .toList();
+    }
+
+    private EmployeeCompleteDto toCompleteDto(Employee employee,
+                                              List<String> skills,
+                                              List<ProjectRagDto> projects,
+                                              Contract contract,
+                                              Compensation compensation,
+                                              List<String> leaveRequests) {
+
+        EmployeeDto empDto = mapper.toDto(employee);
+
         return new EmployeeCompleteDto(
                 empDto.getId(),
                 empDto.getName(),
@@ -90,4 +204,3 @@ public class EmployeeRagDtoService {
         );
     }
 }
-
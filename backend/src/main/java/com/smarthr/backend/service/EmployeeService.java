@@ -3,6 +3,8 @@ package com.smarthr.backend.service;
 
 import com.smarthr.backend.domain.*;
 import com.smarthr.backend.repository.*;
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
 import com.smarthr.backend.web.dto.*;
 import com.smarthr.backend.web.mapper.AssignmentMapper;
 import com.smarthr.backend.web.mapper.EmployeeMapper;
@@ -10,18 +12,19 @@ import com.smarthr.backend.web.exceptions.ResourceNotFoundException;
 import com.smarthr.backend.web.mapper.EmployeeSkillMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Servicio de negocio para Employee.
@@ -52,27 +55,72 @@ public class EmployeeService {
     private final LeaveRequestService leaveRequestService;
     private final UserRepository userRepository;
 
-    private final DepartmentRepository departmentRepository;
     private final JobPositionRepository jobPositionRepository;
-    private final ContractRepository contractRepository;
+    private final DepartmentRepository departmentRepository;
     private final ProjectRepository projectRepository;
     private final SkillRepository skillRepository;
-    private final CompensationRepository compensationRepository;
-    private final LeaveRequestRepository leaveRequestRepository;
-    private final PerformanceReviewRepository performanceReviewRepository;
+    private final ContractRepository contractRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final RagOutboxService ragOutboxService;
+    private final EmployeeBulkWriter employeeBulkWriter;
+    private final AggregateVersionService aggregateVersionService;
+    private final CurrentUserResolver currentUserResolver;
+    private final EmployeeProfileService employeeProfileService;
 
     private final PasswordEncoder passwordEncoder;
 
     @Transactional(readOnly = true)
     public Page<EmployeeDto> list(String name, String jobPosition, String location, Pageable pageable) {
-        Page<Employee> page = repository
-                .findByNameContainingIgnoreCaseAndJobPosition_TitleContainingIgnoreCaseAndLocationContainingIgnoreCase(
-                        name == null ? "" : name,
-                        jobPosition == null ? "" : jobPosition,
-                        location == null ? "" : location,
-                        pageable
-                );
-        return page.map(mapper::toDto);
+        return repository.search(pattern(name), pattern(jobPosition), pattern(location), pageable)
+                .map(mapper::toDto);
+    }
+
+    /** Como {@link #list} pero sin contar el total: evita el count(*) sobre toda la tabla. */
+    @Transactional(readOnly = true)
+    public Slice<EmployeeDto> listWithoutCount(String name, String jobPosition, String location, Pageable pageable) {
+        return repository.searchWithoutCount(pattern(name), pattern(jobPosition), pattern(location), pageable)
+                .map(mapper::toDto);
+    }
+
+    /**
+     * Búsqueda paginada por clave (nombre, id). {@code after} es el cursor devuelto por la página anterior.
+     */
+    @Transactional(readOnly = true)
+    public EmployeeSearchPageDto search(String name, String jobPosition, String location, String after, int size) {
+        String afterName = null;
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            String decoded;
+            try {
+                decoded = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Cursor de búsqueda inválido");
+            }
+            int separator = decoded.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor de búsqueda inválido");
+            }
+            afterId = Long.valueOf(decoded.substring(0, separator));
+            afterName = decoded.substring(separator + 1);
+        }
+
+        // Se pide uno de más para saber si hay página siguiente sin contar
+        List<Employee> found = repository.searchAfter(pattern(name), pattern(jobPosition), pattern(location),
+                afterName, afterId, Limit.of(size + 1));
+        boolean hasMore = found.size() > size;
+        List<Employee> items = hasMore ? found.subList(0, size) : found;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Employee last = items.get(items.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((last.getId() + ":" + last.getName()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new EmployeeSearchPageDto(items.stream().map(mapper::toDto).toList(), nextCursor);
+    }
+
+    private static String pattern(String value) {
+        return value == null || value.isBlank() ? null : "%" + value.trim().toLowerCase() + "%";
     }
 
 
@@ -82,66 +130,19 @@ public class EmployeeService {
         return mapper.toDto(e);
     }
 
-    @Transactional(readOnly = true)
-    public Map<String, Object> getFullEmployeeByUsername(String usernameParam, User currentUser) {
-
-        // Buscar el usuario por username
-        User user = userRepository.findByUsername(usernameParam)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado: " + usernameParam));
+    // El perfil ya está precalculado; si falta se calcula en su propia transacción
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public EmployeeProfileDto getFullEmployeeByUsername(String usernameParam, CurrentUser currentUser) {
 
-        // Obtener el employee asociado
-        Employee employee = user.getEmployee();
-        if (employee == null) {
-            throw new ResourceNotFoundException("No existe un empleado asociado al usuario: " + usernameParam);
-        }
+        EmployeeProfileDto profile = employeeProfileService.getByUsername(usernameParam);
 
         // 🔐 Control de permisos
-        if (!currentUser.getRoles().contains("ROLE_RRHH")
-                && !employee.getId().equals(currentUser.getEmployee().getId())) {
+        if (!currentUser.hasRole("ROLE_RRHH")
+                && !profile.employeeId().equals(currentUser.employeeId())) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
 
-        Long employeeId = employee.getId();
-        Map<String, Object> response = new HashMap<>();
-        response.put("employee", mapper.toDto(employee));
-
-        // Skills
-        response.put(
-                "skills",
-                employeeSkillRepository.findByEmployeeId(employeeId)
-                        .stream()
-                        .map(employeeSkillMapper::toDto)
-                        .toList()
-        );
-
-        // Contracts
-        response.put("contracts", contractService.listByEmployee(employeeId));
-
-        // Compensations
-        response.put("compensations", compensationService.listByEmployee(employeeId));
-
-        // Assignments
-        response.put(
-                "assignments",
-                assignmentRepository.findByEmployeeId(employeeId)
-                        .stream()
-                        .map(assignmentMapper::toDto)
-                        .toList()
-        );
-
-        // Performance Reviews
-        response.put(
-                "performanceReviews",
-                performanceReviewService.listByEmployee(employeeId)
-        );
-
-        // Leave Requests
-        response.put(
-                "leaveRequests",
-                leaveRequestService.listByEmployee(employeeId)
-        );
-
-        return response;
+        return profile;
     }
 
 
@@ -196,17 +197,13 @@ public class EmployeeService {
         employee.setHireDate(dto.getHireDate());
 
         // Department
-        Department dept = departmentRepository.findById(dto.getDepartmentId())
+        // La caché solo confirma que existe; la entidad es una referencia de este contexto de persistencia
+        DepartmentDto dept = referenceDataCache.department(dto.getDepartmentId())
                 .orElseThrow(() -> new RuntimeException("Departamento no encontrado"));
-        employee.setDepartment(dept);
+        employee.setDepartment(departmentRepository.getReferenceById(dept.getId()));
 
         // JobPosition
-        JobPosition jobPos = jobPositionRepository.findByTitle(dto.getJobPositionTitle())
-                .orElseGet(() -> {
-                    JobPosition jp = new JobPosition();
-                    jp.setTitle(dto.getJobPositionTitle());
-                    return jobPositionRepository.save(jp);
-                });
+        JobPosition jobPos = jobPositionByTitle(dto.getJobPositionTitle());
         employee.setJobPosition(jobPos);
 
         employee = repository.save(employee);
@@ -230,18 +227,13 @@ public class EmployeeService {
 
         // 4. Crear Assignment (si hay proyecto)
         if (dto.getProjectId() != null) {
-            Project project = projectRepository.findById(dto.getProjectId())
+            Project project = referenceDataCache.project(dto.getProjectId())
+                    .map(p -> projectRepository.getReferenceById(p.getId()))
                     .orElseThrow(() -> new RuntimeException("Proyecto no encontrado"));
 
-            JobPosition assignmentJobPos = jobPositionRepository.findByTitle(
+            JobPosition assignmentJobPos = jobPositionByTitle(
                     dto.getAssignmentJobPosition() != null ?
-                            dto.getAssignmentJobPosition() : dto.getJobPositionTitle()
-            ).orElseGet(() -> {
-                JobPosition jp = new JobPosition();
-                jp.setTitle(dto.getAssignmentJobPosition() != null ?
-                        dto.getAssignmentJobPosition() : dto.getJobPositionTitle());
-                return jobPositionRepository.save(jp);
-            });
+                            dto.getAssignmentJobPosition() : dto.getJobPositionTitle());
 
             Assignment assignment = new Assignment();
             assignment.setEmployee(employee);
@@ -256,7 +248,8 @@ public class EmployeeService {
         // 5. Crear EmployeeSkills
         if (dto.getSkillIds() != null && !dto.getSkillIds().isEmpty()) {
             for (Long skillId : dto.getSkillIds()) {
-                Skill skill = skillRepository.findById(skillId)
+                Skill skill = referenceDataCache.skill(skillId)
+                        .map(s -> skillRepository.getReferenceById(s.getId()))
                         .orElseThrow(() -> new RuntimeException("Skill no encontrada"));
 
                 EmployeeSkill empSkill = new EmployeeSkill();
@@ -267,63 +260,50 @@ public class EmployeeService {
             }
         }
 
-        log.info(" LLAMADA HTTP AL ASSISTANT ");
+        // 6. Propagación al RAG (outbox, se entrega tras el commit)
         EmployeeCompleteDto ragEmployee = employeeRagDtoService.buildEmployeeRag(employee.getId());
-        // --- LLAMADA HTTP AL ASSISTANT ---
-        try {
-            RestTemplate restTemplate = new RestTemplate();
-            String assistantUrl = "http://assistant:9090/internal/rag/upsert-employee";
-
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    assistantUrl,
-                    ragEmployee,
-                    String.class
-            );
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                log.warn("No se pudo insertar el empleado en RAG. Respuesta: {}", response.getBody());
-            }
-
-        } catch (Exception e) {
-            log.warn("Error llamando a assistant para insertar empleado en RAG: {}", e.getMessage());
-        }
+        ragOutboxService.enqueue(RagOutboxEvent.EventType.UPSERT_EMPLOYEE, "employee:" + employee.getId(), ragEmployee);
 
 
         return employee;
     }
 
+    /** Puesto por título desde la caché de catálogos; si no existe se crea. */
+    private JobPosition jobPositionByTitle(String title) {
+        return referenceDataCache.jobPositionByTitle(title)
+                .map(jp -> jobPositionRepository.getReferenceById(jp.getId()))
+                .orElseGet(() -> {
+            JobPosition jp = new JobPosition();
+            jp.setTitle(title);
+            return jobPositionRepository.save(jp);
+        });
+    }
+
     @Transactional
     public void deleteCompleteEmployee(Long employeeId) {
+        offboard(List.of(employeeId));
+    }
 
-        Employee employee = repository.findById(employeeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Employee not found: " + employeeId));
-
-        // 1. USER (muy importante que vaya primero)
-        userRepository.deleteByEmployeeId(employeeId);
-
-        // 2. ASSIGNMENTS
-        assignmentRepository.deleteByEmployeeId(employeeId);
-
-        // 3. EMPLOYEE SKILLS
-        employeeSkillRepository.deleteByEmployeeId(employeeId);
-
-        // 4. CONTRACTS
-        contractRepository.deleteByEmployeeId(employeeId);
-
-        // 5. COMPENSATIONS
-        compensationRepository.deleteByEmployeeId(employeeId);
-
-        // 6. LEAVE REQUESTS
-        leaveRequestRepository.deleteByEmployeeId(employeeId);
-
-        // 7. PERFORMANCE REVIEWS
-        performanceReviewRepository.deleteByEmployeeId(employeeId);
-
-        // 8. EMPLOYEE
-        repository.deleteById(employeeId);
+    /**
+     * Baja de uno o varios empleados en una única transacción. Los datos dependientes se borran con un
+     * DELETE por tabla para todo el conjunto y el borrado en el RAG se encola en un solo batch, que el
+     * dispatcher entrega agrupado. Si algún id no existe no se borra nada.
+     */
+    @Transactional
+    public int offboard(Collection<Long> employeeIds) {
+        Set<Long> ids = new LinkedHashSet<>(employeeIds);
+        List<Employee> employees = repository.findWithDepartmentAndJobPositionByIdIn(ids);
+        if (employees.size() < ids.size()) {
+            Set<Long> missing = new LinkedHashSet<>(ids);
+            employees.forEach(e -> missing.remove(e.getId()));
+            throw new ResourceNotFoundException("Employee not found: " + missing.stream()
+                    .map(String::valueOf).collect(Collectors.joining(", ")));
+        }
 
-        try {
-            EmployeeRagDto dto = new EmployeeRagDto(
+        // Los payloads se construyen antes de borrar: el RAG los necesita para localizar los documentos
+        Map<String, EmployeeRagDto> deletions = new LinkedHashMap<>();
+        for (Employee employee : employees) {
+            deletions.put("employee:" + employee.getId(), new EmployeeRagDto(
                     employee.getId(),
                     employee.getName(),
                     employee.getLocation(),
@@ -333,130 +313,34 @@ public class EmployeeService {
                     employee.getDepartment() != null ? employee.getDepartment().getName() : null,
                     employee.getJobPosition() != null ? employee.getJobPosition().getId() : null,
                     employee.getJobPosition() != null ? employee.getJobPosition().getTitle() : null
-            );
-
-            log.info("Borrando Employee en RAG: {}", employee.getName());
+            ));
+        }
 
-            RestTemplate restTemplate = new RestTemplate();
-            restTemplate.postForEntity(
-                    "http://assistant:9090/internal/rag/delete-employee",
-                    dto,
-                    Void.class
-            );
+        int deleted = employeeBulkWriter.delete(ids);
 
-        } catch (Exception e) {
-            log.warn("⚠️ No se pudo eliminar el employee en RAG: {}", e.getMessage());
-        }
+        // Lo que harían los listeners JPA, que las sentencias masivas se saltan
+        currentUserResolver.invalidateEmployees(ids);
+        aggregateVersionService.markChanged(AggregateVersionService.EMPLOYEES);
+        aggregateVersionService.markChanged(AggregateVersionService.LEAVE_REQUESTS);
+        ids.forEach(id -> aggregateVersionService.markChanged(AggregateVersionService.profile(id)));
+        employees.stream().filter(e -> e.getDepartment() != null).forEach(e ->
+                aggregateVersionService.markChanged(AggregateVersionService.team(e.getDepartment().getId())));
 
-        log.info("Empleado eliminado correctamente");
+        ragOutboxService.enqueueAll(RagOutboxEvent.EventType.DELETE_EMPLOYEE, deletions);
 
+        log.info("{} empleado(s) dado(s) de baja", deleted);
+        return deleted;
     }
 
 
     @Transactional(readOnly = true)
     public List<EmployeeCompleteDto> getEmployeesCompleteRag() {
-
-        List<Employee> employees = repository.findAll();
-
-        return employees.stream()
-                .map(this::buildEmployeeCompleteDto)
-                .toList();
+        return employeeRagDtoService.buildAllEmployeesRag();
     }
 
     @Transactional(readOnly = true)
     public EmployeeCompleteDto getEmployeeCompleteRag(Long id) {
-
-        Optional<Employee> employee = repository.findById(id);
-
-        return employee.map(this::buildEmployeeCompleteDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Employee not found: " + id));
-    }
-
-    private EmployeeCompleteDto buildEmployeeCompleteDto(Employee employee) {
-
-        Long employeeId = employee.getId();
-
-        EmployeeDto empDto = mapper.toDto(employee);
-
-        // Skills → nombres
-        List<String> skills = employeeSkillRepository.findByEmployeeId(employeeId)
-                .stream()
-                .map(es -> es.getSkill().getName())
-                .toList();
-
-        // Proyectos
-        List<ProjectRagDto> projects = assignmentRepository.findByEmployeeId(employeeId)
-                .stream()
-                .map(a -> a.getProject())
-                .distinct()
-                .map(p -> new ProjectRagDto(
-                        p.getCode(),
-                        p.getName(),
-                        p.getClient(),
-                        p.getUbication(),
-                        p.getStartDate(),
-                        p.getEndDate()
-                ))
-                .toList();
-
-        Contract contract = contractRepository
-                .findFirstByEmployeeIdOrderByStartDateDesc(employeeId)
-                .orElse(null);
-
-        String contractType = null;
-        Integer weeklyHours = null;
-        LocalDate startDate = null;
-        LocalDate endDate = null;
-
-        if (contract != null) {
-            contractType = contract.getType().name();
-            weeklyHours = contract.getWeeklyHours();
-            startDate = contract.getStartDate();
-            endDate = contract.getEndDate();
-        }
-
-        // Salario (última compensación)
-        Compensation compensation = compensationService
-                .findLatestByEmployee(employeeId)
-                .orElse(null);
-
-        BigDecimal baseSalary = null;
-        BigDecimal bonus = null;
-
-        if (compensation != null) {
-            baseSalary = compensation.getBaseSalary();
-            bonus = compensation.getBonus();
-        }
-
-        // Ausencias
-        List<String> leaveRequests = leaveRequestService.listByEmployee(employeeId)
-                .stream()
-                .map(lr -> lr.getType() + " (" + lr.getStartDate() + " - " + lr.getEndDate() + ")")
-                .toList();
-
-        return new EmployeeCompleteDto(
-                empDto.getId(),
-                empDto.getName(),
-                empDto.getEmail(),
-                empDto.getLocation(),
-                empDto.getHireDate(),
-                empDto.getDepartmentName(),
-                empDto.getJobPositionTitle(),
-                skills,
-                projects,
-                contractType,
-                weeklyHours,
-                startDate,
-                endDate,
-                baseSalary,
-                bonus,
-                leaveRequests
-        );
-
+        return employeeRagDtoService.buildEmployeeRag(id);
     }
 
-
-
 }
-
-
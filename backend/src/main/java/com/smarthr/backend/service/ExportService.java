@@ -0,0 +1,122 @@
+package com.smarthr.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthr.backend.repository.AssignmentRepository;
+import com.smarthr.backend.repository.CompensationRepository;
+import com.smarthr.backend.repository.EmployeeRepository;
+import com.smarthr.backend.web.dto.AssignmentExportDto;
+import com.smarthr.backend.web.dto.CompensationExportDto;
+import com.smarthr.backend.web.dto.EmployeeExportDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Exportaciones masivas en CSV o NDJSON.
+ * <p>
+ * Cada exportación es una única consulta leída con cursor que devuelve proyecciones (records), y cada
+ * fila se escribe en la salida según llega, así que la memoria no depende del número de filas.
+ * La cabecera CSV y los campos NDJSON son los componentes del record.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ExportService {
+
+    /** Filas entre vaciados explícitos de la salida, para que el cliente reciba datos desde el principio. */
+    private static final int FLUSH_EVERY = 500;
+
+    private final EmployeeRepository employeeRepository;
+    private final CompensationRepository compensationRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final ObjectMapper objectMapper;
+
+    public void exportEmployees(DataFormat format, OutputStream out) {
+        try (Stream<EmployeeExportDto> rows = employeeRepository.streamExport()) {
+            write(format, EmployeeExportDto.class, rows, out);
+        }
+    }
+
+    public void exportCompensations(DataFormat format, OutputStream out) {
+        try (Stream<CompensationExportDto> rows = compensationRepository.streamExport()) {
+            write(format, CompensationExportDto.class, rows, out);
+        }
+    }
+
+    public void exportAssignments(DataFormat format, OutputStream out) {
+        try (Stream<AssignmentExportDto> rows = assignmentRepository.streamExport()) {
+            write(format, AssignmentExportDto.class, rows, out);
+        }
+    }
+
+    private <T extends Record> void write(DataFormat format, Class<T> type, Stream<T> rows, OutputStream out) {
+        RecordComponent[] columns = type.getRecordComponents();
+        int[] written = {0};
+        try {
+            if (format == DataFormat.CSV) {
+                writeLine(out, Arrays.stream(columns).map(RecordComponent::getName).collect(Collectors.joining(",")));
+            }
+            rows.forEach(row -> {
+                try {
+                    if (format == DataFormat.CSV) {
+                        writeLine(out, csvLine(columns, row));
+                    } else {
+                        out.write(objectMapper.writeValueAsBytes(row));
+                        out.write('\n');
+                    }
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Exportación {} ({}): {} filas", type.getSimpleName(), format, written[0]);
+    }
+
+    private static String csvLine(RecordComponent[] columns, Record row) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value;
+            try {
+                value = columns[i].getAccessor().invoke(row);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("No se pudo leer " + columns[i].getName(), e);
+            }
+            if (value != null) {
+                line.append(csvCell(value.toString()));
+            }
+        }
+        return line.toString();
+    }
+
+    private static String csvCell(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+}
@@ -0,0 +1,121 @@
+package com.smarthr.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Árbol de intervalos estático e inmutable sobre intervalos cerrados {@code [start, end]}.
+ * <p>
+ * Los intervalos se ordenan por inicio y el árbol es implícito: el nodo de un rango es su punto medio
+ * y guarda el mayor fin de su subárbol. Una consulta de solape descarta subárboles enteros, así que
+ * cuesta O(log n + k) para k resultados. Para cambiar el contenido se construye uno nuevo.
+ */
+@Slf4j
+public final class IntervalIndex<T> {
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnd;
+    private final List<T> values;
+
+    private IntervalIndex(List<T> sorted, ToLongFunction<T> start, ToLongFunction<T> end) {
+        int n = sorted.size();
+        this.values = sorted;
+        this.starts = new long[n];
+        this.ends = new long[n];
+        this.maxEnd = new long[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = start.applyAsLong(sorted.get(i));
+            ends[i] = end.applyAsLong(sorted.get(i));
+        }
+        build(0, n - 1);
+    }
+
+    /**
+     * Construye el índice. Un elemento con fin anterior al inicio no puede solapar con nada: se descarta
+     * con un aviso en lugar de hacer fallar todas las consultas por un dato corrupto.
+     */
+    public static <T> IntervalIndex<T> of(Collection<T> items, ToLongFunction<T> start, ToLongFunction<T> end) {
+        List<T> sorted = new ArrayList<>(items.size());
+        for (T item : items) {
+            if (end.applyAsLong(item) < start.applyAsLong(item)) {
+                log.warn("Intervalo con fin anterior al inicio, se ignora: {}", item);
+            } else {
+                sorted.add(item);
+            }
+        }
+        sorted.sort(Comparator.comparingLong(start));
+        return new IntervalIndex<>(List.copyOf(sorted), start, end);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /** Elementos que solapan con {@code [from, to]}, en orden de inicio. */
+    public List<T> overlapping(long from, long to) {
+        List<T> out = new ArrayList<>();
+        collect(0, values.size() - 1, from, to, out);
+        return out;
+    }
+
+    /** Si algún elemento que cumple {@code filter} solapa con {@code [from, to]}; para en el primero. */
+    public boolean anyOverlap(long from, long to, Predicate<T> filter) {
+        return find(0, values.size() - 1, from, to, filter);
+    }
+
+    private long build(int lo, int hi) {
+        if (lo > hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(build(lo, mid - 1), build(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    private void collect(int lo, int hi, long from, long to, List<T> out) {
+        if (lo > hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] < from) {
+            return;
+        }
+        collect(lo, mid - 1, from, to, out);
+        // Ordenados por inicio: si este empieza después de 'to', también todo lo que queda a su derecha
+        if (starts[mid] > to) {
+            return;
+        }
+        if (ends[mid] >= from) {
+            out.add(values.get(mid));
+        }
+        collect(mid + 1, hi, from, to, out);
+    }
+
+    private boolean find(int lo, int hi, long from, long to, Predicate<T> filter) {
+        if (lo > hi) {
+            return false;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] < from) {
+            return false;
+        }
+        if (find(lo, mid - 1, from, to, filter)) {
+            return true;
+        }
+        if (starts[mid] > to) {
+            return false;
+        }
+        if (ends[mid] >= from && filter.test(values.get(mid))) {
+            return true;
+        }
+        return find(mid + 1, hi, from, to, filter);
+    }
+}
@@ -2,6 +2,7 @@ package com.smarthr.backend.service;
 
 
 import com.smarthr.backend.domain.LeaveRequest;
+import com.smarthr.backend.domain.RagOutboxEvent;
 import com.smarthr.backend.web.dto.LeaveRequestRagDto;
 import com.smarthr.backend.web.mapper.LeaveRequestMapper;
 import com.smarthr.backend.repository.EmployeeRepository;
@@ -12,7 +13,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,6 +27,7 @@ public class LeaveRequestService {
     private final EmployeeRepository employeeRepo;
     private final LeaveRequestMapper mapper;
     private final LeaveRequestRagDtoService responseRagDtoService;
+    private final RagOutboxService ragOutboxService;
 
     public LeaveRequestDto create(LeaveRequestDto dto) {
         var emp = employeeRepo.findById(dto.getEmployeeId()).orElseThrow(() -> new ResourceNotFoundException("Empleado no existe"));
@@ -35,24 +36,10 @@ public class LeaveRequestService {
         if (lr.getEndDate().isBefore(lr.getStartDate())) throw new IllegalArgumentException("Fecha fin no puede ser anterior a inicio");
         LeaveRequest saved = repo.save(lr);
 
-        try {
-            log.info("Actualizando LeaveRequest en RAG: {}", dto);
-
-            LeaveRequestRagDto ragDto =
-                    responseRagDtoService.buildLeaveRequestRag(saved.getId());
-
-            log.info("LeaveRequestRagDto: {}", ragDto);
+        LeaveRequestRagDto ragDto = responseRagDtoService.buildLeaveRequestRag(saved.getId());
+        log.info("LeaveRequestRagDto: {}", ragDto);
+        ragOutboxService.enqueue(RagOutboxEvent.EventType.INSERT_LEAVE_REQUEST, "leave:" + saved.getId(), ragDto);
 
-            RestTemplate restTemplate = new RestTemplate();
-            restTemplate.postForEntity(
-                    "http://assistant:9090/internal/rag/insert-leave-request",
-                    ragDto,
-                    Void.class
-            );
-
-        } catch (Exception e) {
-            log.warn("⚠️ No se pudo actualizar LeaveRequest en RAG: {}", e.getMessage());
-        }
         return mapper.toDto(saved);
 
     }
@@ -73,25 +60,10 @@ public class LeaveRequestService {
 
         LeaveRequest saved = repo.save(leaveRequest);
 
+        log.info("Actualizando LeaveRequest en RAG: {}, new status {}", leaveRequest, status);
+        LeaveRequestRagDto ragDto = responseRagDtoService.buildLeaveRequestRag(saved.getId());
+        ragOutboxService.enqueue(RagOutboxEvent.EventType.UPSERT_LEAVE_REQUEST, "leave:" + saved.getId(), ragDto);
 
-        try {
-            log.info("Actualizando LeaveRequest en RAG: {}, new status {}", leaveRequest, status);
-
-            LeaveRequestRagDto ragDto =
-                    responseRagDtoService.buildLeaveRequestRag(saved.getId());
-
-            log.info("LeaveRequestRagDto: {}", ragDto);
-
-            RestTemplate restTemplate = new RestTemplate();
-            restTemplate.postForEntity(
-                    "http://assistant:9090/internal/rag/upsert-leave-request",
-                    ragDto,
-                    Void.class
-            );
-
-        } catch (Exception e) {
-            log.warn("⚠️ No se pudo actualizar LeaveRequest en RAG: {}", e.getMessage());
-        }
         return mapper.toDto(saved);
     }
 
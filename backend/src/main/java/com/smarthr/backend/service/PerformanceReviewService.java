@@ -7,10 +7,10 @@ import com.smarthr.backend.repository.EmployeeRepository;
 import com.smarthr.backend.repository.PerformanceReviewRepository;
 import com.smarthr.backend.web.exceptions.ConflictException;
 import com.smarthr.backend.web.exceptions.ResourceNotFoundException;
+import com.smarthr.backend.web.dto.CursorPageDto;
 import com.smarthr.backend.web.dto.PerformanceReviewDto;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,9 +26,11 @@ public class PerformanceReviewService {
     private final EmployeeRepository employeeRepo;
     private final PerformanceReviewMapper mapper;
 
+    /** Listado por clave (id ascendente), sin count; {@code afterId} es el último id de la página anterior. */
     @Transactional(readOnly = true)
-    public Page<PerformanceReviewDto> list(Pageable pageable) {
-        return repo.findAll(pageable).map(mapper::toDto);
+    public CursorPageDto<PerformanceReviewDto> list(Long employeeId, LocalDate from, LocalDate to, Long afterId, int size) {
+        return CursorPageDto.of(repo.findPageAfter(employeeId, from, to, afterId, Limit.of(size + 1)),
+                size, PerformanceReview::getId, mapper::toDto);
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,67 @@
+package com.smarthr.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.smarthr.backend.domain.RagOutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cliente HTTP de los endpoints internos de sincronización RAG del asistente.
+ */
+@Service
+public class RagAssistantClient {
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final String assistantUrl;
+
+    public RagAssistantClient(RestTemplateBuilder builder,
+                              ObjectMapper objectMapper,
+                              @Value("${rag.assistant.url:http://assistant:9090}") String assistantUrl) {
+        this.restTemplate = builder
+                .setConnectTimeout(Duration.ofSeconds(5))
+                .setReadTimeout(Duration.ofSeconds(60))
+                .build();
+        this.objectMapper = objectMapper;
+        this.assistantUrl = assistantUrl;
+    }
+
+    /**
+     * Envía varios eventos del outbox en una sola llamada a {@code /internal/rag/batch};
+     * lanza excepción si el asistente no responde 2xx.
+     */
+    public void sendBatch(List<RagOutboxEvent> events) {
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode employees = body.putArray("employees");
+        ArrayNode leaveRequests = body.putArray("leaveRequests");
+        ArrayNode deletedEmployees = body.putArray("deletedEmployees");
+
+        for (RagOutboxEvent event : events) {
+            ArrayNode target = switch (event.getEventType()) {
+                case UPSERT_EMPLOYEE -> employees;
+                case DELETE_EMPLOYEE -> deletedEmployees;
+                case INSERT_LEAVE_REQUEST, UPSERT_LEAVE_REQUEST -> leaveRequests;
+            };
+            try {
+                target.add(objectMapper.readTree(event.getPayload()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Payload inválido en el evento " + event.getId(), e);
+            }
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity(assistantUrl + "/internal/rag/batch", new HttpEntity<>(body, headers), String.class);
+    }
+}
@@ -0,0 +1,143 @@
+package com.smarthr.backend.service;
+
+import com.smarthr.backend.domain.RagOutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Entrega en segundo plano los eventos del outbox RAG al asistente, por lotes (una llamada a
+ * {@code /internal/rag/batch} por lote) y con reintentos. Un evento que agota los reintentos pasa a
+ * dead letter y deja de bloquear a los demás.
+ * Las peticiones HTTP se hacen fuera de cualquier transacción, así que un asistente lento
+ * no retiene conexiones a la base de datos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RagOutboxDispatcher {
+
+    private final RagOutboxService outboxService;
+    private final RagAssistantClient assistantClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${rag.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rag.outbox.batch-size:50}")
+    private int batchSize;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("rag.outbox.lag", lagSeconds, AtomicLong::get)
+                .description("Antigüedad del evento pendiente más viejo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("rag.outbox.pending", pending, AtomicLong::get)
+                .description("Eventos pendientes de entregar al asistente")
+                .register(meterRegistry);
+        Gauge.builder("rag.outbox.dead", dead, AtomicLong::get)
+                .description("Eventos que agotaron los reintentos")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${rag.outbox.poll-interval-ms:2000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Vaciamos lotes completos seguidos; uno incompleto indica que no queda nada vencido
+            while (dispatchBatch() == batchSize) {
+                log.debug("Outbox RAG: lote completo entregado, continuando");
+            }
+        } catch (Exception e) {
+            log.warn("Outbox RAG: error procesando el lote: {}", e.getMessage());
+        } finally {
+            refreshMetrics();
+        }
+    }
+
+    /**
+     * Entrega un lote de eventos vencidos. Devuelve cuántos se han procesado (entregados o fallidos).
+     */
+    public int dispatchBatch() {
+        List<RagOutboxEvent> due = outboxService.findDue(batchSize);
+        if (due.isEmpty()) {
+            return 0;
+        }
+        deliver(due);
+        return due.size();
+    }
+
+    /**
+     * Envía los eventos en una llamada. Si el asistente rechaza el lote, se parte en dos mitades y se
+     * reintenta cada una, de modo que solo se marcan como fallidos los eventos que fallan por sí mismos.
+     * Si el asistente no responde (conexión o timeout) partir no sirve de nada y se reprograma el lote entero.
+     */
+    private void deliver(List<RagOutboxEvent> events) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            assistantClient.sendBatch(events);
+            sample.stop(sendTimer("success"));
+            outboxService.markDelivered(events.stream().map(RagOutboxEvent::getId).toList());
+            countEvents("rag.outbox.delivered", events);
+        } catch (Exception e) {
+            sample.stop(sendTimer("failure"));
+            if (events.size() > 1 && !(e instanceof ResourceAccessException)) {
+                log.debug("Outbox RAG: lote de {} eventos rechazado, se parte en dos: {}", events.size(), e.getMessage());
+                int half = events.size() / 2;
+                deliver(events.subList(0, half));
+                deliver(events.subList(half, events.size()));
+                return;
+            }
+            log.warn("Outbox RAG: fallo entregando {} evento(s): {}", events.size(), e.getMessage());
+            events.forEach(event -> outboxService.markFailed(event.getId(), e.getMessage()));
+            countEvents("rag.outbox.failed", events);
+        }
+    }
+
+    private Timer sendTimer(String outcome) {
+        return Timer.builder("rag.outbox.send")
+                .description("Duración de cada envío de lote al asistente")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /** Eventos entregados o fallidos, por tipo de evento. */
+    private void countEvents(String name, List<RagOutboxEvent> events) {
+        Map<RagOutboxEvent.EventType, Long> byType = events.stream()
+                .collect(Collectors.groupingBy(RagOutboxEvent::getEventType, Collectors.counting()));
+        byType.forEach((type, count) -> Counter.builder(name)
+                .tag("type", type.name())
+                .register(meterRegistry)
+                .increment(count));
+    }
+
+    private void refreshMetrics() {
+        try {
+            lagSeconds.set(outboxService.lag().toSeconds());
+            pending.set(outboxService.countPending());
+            dead.set(outboxService.countDead());
+        } catch (Exception e) {
+            log.debug("Outbox RAG: no se pudieron refrescar las métricas: {}", e.getMessage());
+        }
+    }
+}
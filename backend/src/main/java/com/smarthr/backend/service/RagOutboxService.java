@@ -0,0 +1,162 @@
+package com.smarthr.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthr.backend.domain.RagOutboxEvent;
+import com.smarthr.backend.repository.RagOutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outbox transaccional de cambios hacia el RAG del asistente.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class RagOutboxService {
+
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(2);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+    private static final int MAX_IN_PARAMETERS = 1000;
+
+    private final RagOutboxEventRepository repo;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${rag.outbox.max-attempts:15}")
+    private int maxAttempts = 15;
+
+    /**
+     * Registra el cambio dentro de la transacción de negocio en curso. Un evento pendiente
+     * de la misma entidad queda sustituido por este, que lleva el estado más reciente.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(RagOutboxEvent.EventType type, String aggregateKey, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudo serializar el evento RAG " + type, e);
+        }
+
+        int replaced = repo.deleteByAggregateKey(aggregateKey);
+        if (replaced > 0) {
+            log.debug("Outbox RAG: {} evento(s) pendiente(s) de {} sustituido(s)", replaced, aggregateKey);
+        }
+
+        Instant now = Instant.now();
+        repo.save(new RagOutboxEvent(null, type, aggregateKey, json, now, 0, now, null, null));
+    }
+
+    /**
+     * Variante por lotes para altas masivas: las claves son de entidades recién creadas, así que no hay
+     * eventos pendientes que sustituir y se insertan todos en un único batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueNew(RagOutboxEvent.EventType type, Map<String, ?> payloadsByKey) {
+        if (payloadsByKey.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(payloadsByKey.size());
+        for (Map.Entry<String, ?> entry : payloadsByKey.entrySet()) {
+            try {
+                rows.add(new Object[]{type.name(), entry.getKey(), objectMapper.writeValueAsString(entry.getValue()), now, now});
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("No se pudo serializar el evento RAG " + type, e);
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into rag_outbox (event_type, aggregate_key, payload, created_at, attempts, next_attempt_at) " +
+                "values (?, ?, ?, ?, 0, ?)", rows);
+    }
+
+    /**
+     * Como {@link #enqueue} pero para muchas entidades a la vez: los eventos pendientes de esas claves se
+     * sustituyen con un DELETE por cada {@value #MAX_IN_PARAMETERS} claves y los nuevos se insertan en un batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(RagOutboxEvent.EventType type, Map<String, ?> payloadsByKey) {
+        if (payloadsByKey.isEmpty()) {
+            return;
+        }
+        List<String> keys = List.copyOf(payloadsByKey.keySet());
+        int replaced = 0;
+        // Troceado para no pasar del límite de parámetros por sentencia del driver
+        for (int from = 0; from < keys.size(); from += MAX_IN_PARAMETERS) {
+            List<String> chunk = keys.subList(from, Math.min(from + MAX_IN_PARAMETERS, keys.size()));
+            String in = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            replaced += jdbcTemplate.update("delete from rag_outbox where aggregate_key in (" + in + ")",
+                    chunk.toArray());
+        }
+        if (replaced > 0) {
+            log.debug("Outbox RAG: {} evento(s) pendiente(s) sustituido(s) por {}", replaced, type);
+        }
+        enqueueNew(type, payloadsByKey);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RagOutboxEvent> findDue(int limit) {
+        return repo.findDue(Instant.now(), PageRequest.of(0, limit));
+    }
+
+    public void markDelivered(Collection<Long> ids) {
+        repo.deleteAllByIdInBatch(ids);
+    }
+
+    /**
+     * Reprograma el evento con backoff exponencial (2s, 4s, 8s... hasta 5 min). Al llegar a
+     * {@code rag.outbox.max-attempts} queda como dead letter: deja de entregarse y de contar como pendiente,
+     * y solo lo sustituye un cambio posterior de la misma entidad.
+     */
+    public void markFailed(Long id, String error) {
+        repo.findById(id).ifPresent(e -> {
+            int attempts = e.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                e.setDeadAt(Instant.now());
+                log.error("Outbox RAG: el evento {} de {} agota {} intentos y pasa a dead letter: {}",
+                        id, e.getAggregateKey(), attempts, error);
+            }
+            long factor = 1L << Math.min(attempts - 1, 20);
+            Duration backoff = BASE_BACKOFF.multipliedBy(factor);
+            if (backoff.compareTo(MAX_BACKOFF) > 0) {
+                backoff = MAX_BACKOFF;
+            }
+            e.setAttempts(attempts);
+            e.setNextAttemptAt(Instant.now().plus(backoff));
+            e.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public long countPending() {
+        return repo.countByDeadAtIsNull();
+    }
+
+    @Transactional(readOnly = true)
+    public long countDead() {
+        return repo.countByDeadAtIsNotNull();
+    }
+
+    /** Antigüedad del evento pendiente más viejo, o cero si no hay ninguno. */
+    @Transactional(readOnly = true)
+    public Duration lag() {
+        Instant oldest = repo.findOldestCreatedAt();
+        return oldest == null ? Duration.ZERO : Duration.between(oldest, Instant.now());
+    }
+}
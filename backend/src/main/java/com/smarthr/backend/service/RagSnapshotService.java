@@ -1,107 +1,215 @@
 package com.smarthr.backend.service;
 
+import com.smarthr.backend.domain.Department;
+import com.smarthr.backend.domain.Employee;
+import com.smarthr.backend.domain.LeaveRequest;
 import com.smarthr.backend.domain.Project;
+import com.smarthr.backend.domain.RagTombstone;
+import com.smarthr.backend.domain.Skill;
 import com.smarthr.backend.repository.*;
 import com.smarthr.backend.web.dto.*;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class RagSnapshotService {
 
+    /** Empleados que se resuelven por lote en el modo streaming y en los deltas. */
+    private static final int EMPLOYEE_BATCH_SIZE = 200;
+
+    /** Tipos de tombstone que corresponden a documentos propios en el RAG. */
+    private static final Set<String> DOCUMENT_TYPES = Set.of("employee", "project", "skill", "department", "leave");
+
     private final ProjectRepository projectRepository;
     private final DepartmentRepository departmentRepository;
     private final LeaveRequestRepository leaveRequestRepository;
-    private final EmployeeService employeeService;
+    private final EmployeeRagDtoService employeeRagDtoService;
     private final SkillRepository skillRepository;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeSkillRepository employeeSkillRepository;
     private final AssignmentRepository assignmentRepository;
+    private final ContractRepository contractRepository;
+    private final CompensationRepository compensationRepository;
+    private final RagTombstoneRepository ragTombstoneRepository;
+    private final EntityManager entityManager;
+
+    @Value("${rag.snapshot.batch-size:" + EMPLOYEE_BATCH_SIZE + "}")
+    private int batchSize = EMPLOYEE_BATCH_SIZE;
+
+    /** Margen que se resta a la marca de agua para cubrir transacciones aún sin confirmar al leer. */
+    @Value("${rag.delta.safety-lag:PT30S}")
+    private Duration safetyLag = Duration.ofSeconds(30);
 
+    /**
+     * Snapshot completo de la empresa para el RAG.
+     * Se construye con un número fijo de consultas, independiente del número de empleados.
+     */
     public CompanyRagSnapshotDto getCompanyRagSnapshot() {
 
-        // 1️⃣ Traemos todos los proyectos del repositorio
-        List<ProjectRagDto> allProjects = projectRepository.findAll()
-                .stream()
-                .map(this::toProjectRag)
-                .toList();
+        // 1️⃣ Empleados con skills, proyectos, contrato, salario y ausencias (consultas por conjunto)
+        List<EmployeeCompleteDto> employees = employeeRagDtoService.buildAllEmployeesRag();
 
-        // 2️⃣ Traemos todos los empleados y asociamos sus proyectos completos
-        List<EmployeeCompleteDto> employees = employeeService.getEmployeesCompleteRag()
+        // 2️⃣ Catálogos
+        List<ProjectRagDto> projects = projectRepository.findAll()
                 .stream()
-                .map(emp -> {
-                    // Recuperamos los proyectos completos del empleado
-                    List<ProjectRagDto> employeeProjects = assignmentRepository.findByEmployeeId(emp.id())
-                            .stream()
-                            .map(a -> toProjectRag(a.getProject())) // convierte Project -> ProjectRagDto
-                            .distinct()
-                            .toList();
-
-                    // Creamos un nuevo EmployeeCompleteDto con los proyectos completos
-                    return new EmployeeCompleteDto(
-                            emp.id(),
-                            emp.name(),
-                            emp.email(),
-                            emp.location(),
-                            emp.hireDate(),
-                            emp.department(),
-                            emp.jobPosition(),
-                            emp.skills(),
-                            employeeProjects,
-                            emp.contractType(),
-                            emp.weeklyHours(),
-                            emp.contractStartDate(),
-                            emp.contractEndDate(),
-                            emp.baseSalary(),
-                            emp.bonus(),
-                            emp.leaveRequests()
-                    );
-                })
+                .map(employeeRagDtoService::toProjectRag)
                 .toList();
 
-        // 3️⃣ El resto de la info (proyectos, departamentos, skills, ausencias) igual
-        List<ProjectRagDto> projects = allProjects;
-
         List<DepartmentRagDto> departments = departmentRepository.findAll()
                 .stream()
                 .map(d -> new DepartmentRagDto(d.getName(), d.getDescription()))
                 .toList();
 
-        List<PendingLeaveRequestRagDto> pending = leaveRequestRepository.findAll()
+        List<PendingLeaveRequestRagDto> pending = leaveRequestRepository.findAllWithEmployee()
                 .stream()
-                .map(lr -> new PendingLeaveRequestRagDto(
-                        lr.getEmployee().getName().toLowerCase(),
-                        lr.getStatus().toString(),
-                        lr.getType().toString(),
-                        lr.getStartDate(),
-                        lr.getEndDate(),
-                        lr.getComments()
-                ))
+                .map(this::toLeaveRag)
                 .toList();
 
         List<SkillRagDto> skills = skillRepository.findAll()
                 .stream()
-                .map(s -> new SkillRagDto(
-                        s.getName(),
-                        s.getDescription()
-                ))
+                .map(s -> new SkillRagDto(s.getName(), s.getDescription()))
                 .toList();
 
-        // 4️⃣ Retornamos snapshot
+        // 3️⃣ Retornamos snapshot
         return new CompanyRagSnapshotDto(employees, projects, departments, skills, pending);
     }
 
-    private ProjectRagDto toProjectRag(Project p) {
-        return new ProjectRagDto(
-                p.getCode(),
-                p.getName(),
-                p.getClient(),
-                p.getUbication(),
-                p.getStartDate(),
-                p.getEndDate()
+    /**
+     * Mismo contenido que {@link #getCompanyRagSnapshot()} pero emitido registro a registro.
+     * Las tablas se leen con cursor y los empleados se completan por lotes, vaciando el contexto
+     * de persistencia tras cada lote para que la memoria no crezca con el tamaño de la empresa.
+     */
+    public void streamCompanyRagSnapshot(Consumer<RagSnapshotRecordDto> sink) {
+
+        // 1️⃣ Empleados por lotes
+        try (Stream<Employee> employees = employeeRepository.streamAllWithDepartmentAndJobPosition()) {
+            List<Employee> batch = new ArrayList<>(batchSize);
+            employees.forEach(e -> {
+                batch.add(e);
+                if (batch.size() == batchSize) {
+                    emitEmployees(batch, sink);
+                }
+            });
+            emitEmployees(batch, sink);
+        }
+
+        // 2️⃣ Catálogos
+        try (Stream<Project> projects = projectRepository.streamAll()) {
+            forEachClearing(projects, p -> emit(sink, "project", employeeRagDtoService.toProjectRag(p)));
+        }
+        try (Stream<Skill> skills = skillRepository.streamAll()) {
+            forEachClearing(skills, s -> emit(sink, "skill", new SkillRagDto(s.getName(), s.getDescription())));
+        }
+        try (Stream<Department> departments = departmentRepository.streamAll()) {
+            forEachClearing(departments, d -> emit(sink, "department", new DepartmentRagDto(d.getName(), d.getDescription())));
+        }
+
+        // 3️⃣ Ausencias
+        try (Stream<LeaveRequest> leaves = leaveRequestRepository.streamAllWithEmployee()) {
+            forEachClearing(leaves, lr -> emit(sink, "leave", toLeaveRag(lr)));
+        }
+    }
+
+    /**
+     * Cambios del snapshot RAG posteriores a {@code since}: entidades modificadas (con su payload)
+     * y entidades borradas (con su clave natural). Un empleado se reenvía completo si cambia él,
+     * su departamento, su puesto o cualquiera de sus filas hijas (skills, asignaciones con su proyecto y puesto,
+     * contratos, salarios, ausencias).
+     * <p>
+     * {@code updatedAt} lo pone la aplicación antes de confirmar, así que una fila puede hacerse visible
+     * después de esta lectura con una fecha anterior a ella. Por eso la marca de agua devuelta es
+     * {@code ahora - rag.delta.safety-lag} y no {@code ahora}: la siguiente llamada vuelve a leer ese
+     * solape, y el cliente debe aplicar los cambios de forma idempotente (upsert/borrado por clave).
+     */
+    public RagDeltaDto getCompanyRagDelta(Instant since) {
+
+        Instant watermark = Instant.now().minus(safetyLag);
+        List<RagChangeDto> upserted = new ArrayList<>();
+        List<RagDeletionDto> deleted = new ArrayList<>();
+
+        List<RagTombstone> tombstones = ragTombstoneRepository.findByDeletedAtAfterOrderById(since);
+
+        // 1️⃣ Empleados afectados
+        Set<Long> employeeIds = new TreeSet<>(employeeRepository.findIdsChangedSince(since));
+        employeeIds.addAll(employeeSkillRepository.findEmployeeIdsChangedSince(since));
+        employeeIds.addAll(assignmentRepository.findEmployeeIdsChangedSince(since));
+        employeeIds.addAll(contractRepository.findEmployeeIdsChangedSince(since));
+        employeeIds.addAll(compensationRepository.findEmployeeIdsChangedSince(since));
+        employeeIds.addAll(leaveRequestRepository.findEmployeeIdsChangedSince(since));
+        tombstones.stream()
+                .filter(t -> t.getEmployeeId() != null)
+                .forEach(t -> employeeIds.add(t.getEmployeeId()));
+
+        List<Long> pendingIds = new ArrayList<>(employeeIds);
+        for (int from = 0; from < pendingIds.size(); from += batchSize) {
+            List<Long> ids = pendingIds.subList(from, Math.min(from + batchSize, pendingIds.size()));
+            employeeRagDtoService.buildEmployeesRag(employeeRepository.findWithDepartmentAndJobPositionByIdIn(ids))
+                    .forEach(dto -> upserted.add(new RagChangeDto("employee", dto.id(), dto)));
+        }
+
+        // 2️⃣ Catálogos y ausencias modificados
+        projectRepository.findByUpdatedAtAfterOrderById(since)
+                .forEach(p -> upserted.add(new RagChangeDto("project", p.getId(), employeeRagDtoService.toProjectRag(p))));
+        skillRepository.findByUpdatedAtAfterOrderById(since)
+                .forEach(s -> upserted.add(new RagChangeDto("skill", s.getId(), new SkillRagDto(s.getName(), s.getDescription()))));
+        departmentRepository.findByUpdatedAtAfterOrderById(since)
+                .forEach(d -> upserted.add(new RagChangeDto("department", d.getId(), new DepartmentRagDto(d.getName(), d.getDescription()))));
+        leaveRequestRepository.findWithEmployeeChangedSince(since)
+                .forEach(lr -> upserted.add(new RagChangeDto("leave", lr.getId(), toLeaveRag(lr))));
+
+        // 3️⃣ Borrados
+        tombstones.stream()
+                .filter(t -> DOCUMENT_TYPES.contains(t.getEntityType()))
+                .forEach(t -> deleted.add(new RagDeletionDto(t.getEntityType(), t.getEntityId(), t.getNaturalKey())));
+
+        return new RagDeltaDto(since, watermark, upserted, deleted);
+    }
+
+    private void emitEmployees(List<Employee> batch, Consumer<RagSnapshotRecordDto> sink) {
+        employeeRagDtoService.buildEmployeesRag(batch)
+                .forEach(dto -> emit(sink, "employee", dto));
+        batch.clear();
+        entityManager.clear();
+    }
+
+    /** Recorre el cursor vaciando el contexto de persistencia cada {@code batchSize} filas. */
+    private <T> void forEachClearing(Stream<T> rows, Consumer<T> action) {
+        int[] count = {0};
+        rows.forEach(row -> {
+            action.accept(row);
+            if (++count[0] % batchSize == 0) {
+                entityManager.clear();
+            }
+        });
+        entityManager.clear();
+    }
+
+    private void emit(Consumer<RagSnapshotRecordDto> sink, String type, Object data) {
+        sink.accept(new RagSnapshotRecordDto(type, data));
+    }
+
+    private PendingLeaveRequestRagDto toLeaveRag(LeaveRequest lr) {
+        return new PendingLeaveRequestRagDto(
+                lr.getEmployee().getName().toLowerCase(),
+                lr.getStatus().toString(),
+                lr.getType().toString(),
+                lr.getStartDate(),
+                lr.getEndDate(),
+                lr.getComments()
         );
     }
 }
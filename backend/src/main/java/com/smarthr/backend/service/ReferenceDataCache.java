@@ -0,0 +1,175 @@
+package com.smarthr.backend.service;
+
+import com.smarthr.backend.domain.Department;
+import com.smarthr.backend.domain.JobPosition;
+import com.smarthr.backend.domain.Project;
+import com.smarthr.backend.domain.Skill;
+import com.smarthr.backend.repository.DepartmentRepository;
+import com.smarthr.backend.repository.JobPositionRepository;
+import com.smarthr.backend.repository.ProjectRepository;
+import com.smarthr.backend.repository.SkillRepository;
+import com.smarthr.backend.security.ExpiringLruCache;
+import com.smarthr.backend.web.dto.DepartmentDto;
+import com.smarthr.backend.web.dto.JobPositionDto;
+import com.smarthr.backend.web.dto.ProjectDto;
+import com.smarthr.backend.web.dto.SkillDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Caché de lectura de los catálogos (departamentos, puestos, skills y proyectos).
+ * <p>
+ * Cambian muy poco y se consultan en cada alta de empleado y en cada listado, así que se guardan en
+ * memoria con tamaño máximo y TTL. {@code AggregateVersionListener} llama a {@link #evict} al
+ * guardar o borrar cualquiera de estas entidades; el TTL solo acota escrituras hechas fuera de JPA.
+ * <p>
+ * Se guardan DTOs y nunca entidades: una entidad compartida entre hilos y contextos de persistencia
+ * podría modificarse, fallar al cargar una relación perezosa o entrar desligada en otra entidad. Quien
+ * necesite la entidad usa {@code getReferenceById} con el id.
+ */
+@Service
+public class ReferenceDataCache {
+
+    public static final String DEPARTMENTS = "departments";
+    public static final String JOB_POSITIONS = "job-positions";
+    public static final String SKILLS = "skills";
+    public static final String PROJECTS = "projects";
+
+    private static final String ALL = "all";
+
+    private final DepartmentRepository departmentRepository;
+    private final JobPositionRepository jobPositionRepository;
+    private final SkillRepository skillRepository;
+    private final ProjectRepository projectRepository;
+    private final Map<String, ExpiringLruCache<Object, Object>> caches = new LinkedHashMap<>();
+
+    public ReferenceDataCache(DepartmentRepository departmentRepository,
+                              JobPositionRepository jobPositionRepository,
+                              SkillRepository skillRepository,
+                              ProjectRepository projectRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${reference-cache.max-size:1000}") int maxSize,
+                              @Value("${reference-cache.ttl:1h}") Duration ttl) {
+        this.departmentRepository = departmentRepository;
+        this.jobPositionRepository = jobPositionRepository;
+        this.skillRepository = skillRepository;
+        this.projectRepository = projectRepository;
+
+        for (String name : List.of(DEPARTMENTS, JOB_POSITIONS, SKILLS, PROJECTS)) {
+            ExpiringLruCache<Object, Object> cache = new ExpiringLruCache<>(maxSize, ttl);
+            caches.put(name, cache);
+            FunctionCounter.builder("reference.cache.requests", cache, ExpiringLruCache::hits)
+                    .tags("cache", name, "result", "hit").register(meterRegistry);
+            FunctionCounter.builder("reference.cache.requests", cache, ExpiringLruCache::misses)
+                    .tags("cache", name, "result", "miss").register(meterRegistry);
+            Gauge.builder("reference.cache.size", cache, ExpiringLruCache::size)
+                    .tag("cache", name).register(meterRegistry);
+        }
+    }
+
+    public List<DepartmentDto> departments() {
+        return load(DEPARTMENTS, ALL, () -> departmentRepository.findAll().stream()
+                .map(ReferenceDataCache::toDto)
+                .toList());
+    }
+
+    public Optional<DepartmentDto> department(Long id) {
+        return Optional.ofNullable(load(DEPARTMENTS, id, () -> departmentRepository.findById(id)
+                .map(ReferenceDataCache::toDto).orElse(null)));
+    }
+
+    public List<JobPositionDto> jobPositions() {
+        return load(JOB_POSITIONS, ALL, () -> jobPositionRepository.findAll().stream()
+                .map(ReferenceDataCache::toDto)
+                .toList());
+    }
+
+    public Optional<JobPositionDto> jobPosition(Long id) {
+        return Optional.ofNullable(load(JOB_POSITIONS, id, () -> jobPositionRepository.findById(id)
+                .map(ReferenceDataCache::toDto).orElse(null)));
+    }
+
+    public Optional<JobPositionDto> jobPositionByTitle(String title) {
+        return Optional.ofNullable(load(JOB_POSITIONS, "title:" + title,
+                () -> jobPositionRepository.findByTitle(title).map(ReferenceDataCache::toDto).orElse(null)));
+    }
+
+    public List<SkillDto> skills() {
+        return load(SKILLS, ALL, () -> skillRepository.findAll().stream()
+                .map(ReferenceDataCache::toDto)
+                .toList());
+    }
+
+    public Optional<SkillDto> skill(Long id) {
+        return Optional.ofNullable(load(SKILLS, id, () -> skillRepository.findById(id)
+                .map(ReferenceDataCache::toDto).orElse(null)));
+    }
+
+    public Optional<ProjectDto> project(Long id) {
+        return Optional.ofNullable(load(PROJECTS, id, () -> projectRepository.findById(id)
+                .map(ReferenceDataCache::toDto).orElse(null)));
+    }
+
+    /**
+     * Vacía un catálogo. Dentro de una transacción se vacía también tras el commit, para no
+     * quedarse con lo que otra petición haya leído antes de que el cambio fuera visible.
+     */
+    public void evict(String name) {
+        ExpiringLruCache<Object, Object> cache = caches.get(name);
+        if (cache == null) {
+            throw new IllegalArgumentException("Catálogo desconocido: " + name);
+        }
+        cache.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.clear();
+                }
+            });
+        }
+    }
+
+    /** Los ausentes no se guardan: el alta siguiente los crea y no debe encontrar un hueco cacheado. */
+    @SuppressWarnings("unchecked")
+    private <T> T load(String name, Object key, Supplier<T> loader) {
+        ExpiringLruCache<Object, Object> cache = caches.get(name);
+        T value = (T) cache.get(key);
+        if (value == null) {
+            value = loader.get();
+            if (value != null) {
+                cache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    private static DepartmentDto toDto(Department d) {
+        return new DepartmentDto(d.getId(), d.getName(), d.getDescription());
+    }
+
+    private static JobPositionDto toDto(JobPosition j) {
+        return new JobPositionDto(j.getId(), j.getTitle(), j.getDescription());
+    }
+
+    private static SkillDto toDto(Skill s) {
+        return new SkillDto(s.getId(), s.getName(), s.getDescription());
+    }
+
+    private static ProjectDto toDto(Project p) {
+        return new ProjectDto(p.getId(), p.getCode(), p.getName(), p.getStartDate(), p.getEndDate(),
+                p.getClient(), p.getUbication());
+    }
+}
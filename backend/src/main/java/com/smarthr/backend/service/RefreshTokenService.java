@@ -0,0 +1,88 @@
+package com.smarthr.backend.service;
+
+import com.smarthr.backend.domain.RefreshToken;
+import com.smarthr.backend.domain.User;
+import com.smarthr.backend.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Emite y rota refresh tokens. Son valores aleatorios de 256 bits, así que basta un SHA-256
+ * para guardarlos: renovar el access token no vuelve a pasar por BCrypt.
+ */
+@Slf4j
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.refresh-expiration:14d}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+    }
+
+    public String issue(User user) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(new RefreshToken(null, hash(token), user, Instant.now().plus(ttl)));
+        return token;
+    }
+
+    /** Consume el token (un solo uso) y devuelve su usuario; lanza si no existe o ha caducado. */
+    public User consume(String token) {
+        if (token == null || token.isBlank()) {
+            throw new BadCredentialsException("Refresh token inválido");
+        }
+
+        String tokenHash = hash(token);
+        RefreshToken stored = refreshTokenRepository.findWithUserByTokenHash(tokenHash)
+                .orElseThrow(() -> new BadCredentialsException("Refresh token inválido"));
+
+        // El uso único lo decide el DELETE condicional: si otra renovación lo ha borrado antes, o ha caducado,
+        // no afecta a ninguna fila y se responde igual que a un token inválido
+        if (refreshTokenRepository.deleteValid(tokenHash, Instant.now()) != 1) {
+            throw new BadCredentialsException("Refresh token inválido");
+        }
+        return stored.getUser();
+    }
+
+    public void revokeAll(User user) {
+        refreshTokenRepository.deleteByUser(user);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        int removed = refreshTokenRepository.deleteExpired(Instant.now());
+        if (removed > 0) {
+            log.debug("Refresh tokens caducados eliminados: {}", removed);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.smarthr.backend.service;
+
+import com.smarthr.backend.domain.Department;
+import com.smarthr.backend.domain.LeaveRequest;
+import com.smarthr.backend.repository.EmployeeRepository;
+import com.smarthr.backend.repository.LeaveRequestRepository;
+import com.smarthr.backend.security.ExpiringLruCache;
+import com.smarthr.backend.web.dto.TeamAbsenceDto;
+import com.smarthr.backend.web.dto.TeamAvailabilityDto;
+import com.smarthr.backend.web.exceptions.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Calendario de ausencias por departamento.
+ * <p>
+ * Cada departamento tiene un {@link IntervalIndex} en memoria con sus ausencias no rechazadas, así que
+ * las consultas de solape y de cobertura no recorren todas las solicitudes. El índice guarda la versión
+ * del equipo ({@link AggregateVersionService#team}) con la que se construyó: una ausencia o un alta o baja
+ * confirmada en el departamento la sube y el siguiente acceso lo reconstruye, sin tocar los demás equipos.
+ * Lo que no se puede atribuir a un departamento (edición de un empleado, operaciones masivas) sube
+ * {@link AggregateVersionService#TEAMS} y renueva todos.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TeamCalendarService {
+
+    /** Ventana máxima de la disponibilidad día a día. */
+    private static final int MAX_DAYS = 366;
+
+    private static final Set<LeaveRequest.LeaveStatus> INDEXED_STATUSES =
+            EnumSet.of(LeaveRequest.LeaveStatus.APPROVED, LeaveRequest.LeaveStatus.PENDING);
+
+    private final LeaveRequestRepository leaveRequestRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final AggregateVersionService aggregateVersionService;
+    private final ExpiringLruCache<Long, TeamIndex> indexes;
+
+    public TeamCalendarService(LeaveRequestRepository leaveRequestRepository,
+                               EmployeeRepository employeeRepository,
+                               ReferenceDataCache referenceDataCache,
+                               AggregateVersionService aggregateVersionService,
+                               @Value("${team-calendar.max-size:200}") int maxSize,
+                               @Value("${team-calendar.ttl:1h}") Duration ttl) {
+        this.leaveRequestRepository = leaveRequestRepository;
+        this.employeeRepository = employeeRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.aggregateVersionService = aggregateVersionService;
+        this.indexes = new ExpiringLruCache<>(maxSize, ttl);
+    }
+
+    /** Ausencias del departamento que solapan con {@code [from, to]}. */
+    public List<TeamAbsenceDto> absences(Long departmentId, LocalDate from, LocalDate to, boolean includePending) {
+        checkRange(from, to);
+        return overlapping(index(departmentId), from, to, includePending);
+    }
+
+    /** Disponibilidad día a día del departamento entre {@code from} y {@code to}, ambos incluidos. */
+    public TeamAvailabilityDto availability(Long departmentId, LocalDate from, LocalDate to, boolean includePending) {
+        checkRange(from, to);
+        int days = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        if (days > MAX_DAYS) {
+            throw new IllegalArgumentException("La ventana no puede superar " + MAX_DAYS + " días");
+        }
+
+        TeamIndex index = index(departmentId);
+        List<TeamAbsenceDto> absences = overlapping(index, from, to, includePending);
+
+        List<Set<Long>> absentByDay = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            absentByDay.add(new TreeSet<>());
+        }
+        long base = from.toEpochDay();
+        for (TeamAbsenceDto absence : absences) {
+            int first = (int) Math.max(0, absence.startDate().toEpochDay() - base);
+            int last = (int) Math.min(days - 1, absence.endDate().toEpochDay() - base);
+            for (int i = first; i <= last; i++) {
+                absentByDay.get(i).add(absence.employeeId());
+            }
+        }
+
+        List<TeamAvailabilityDto.Day> calendar = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            Set<Long> absent = absentByDay.get(i);
+            calendar.add(new TeamAvailabilityDto.Day(from.plusDays(i), Math.max(0, index.headcount() - absent.size()),
+                    absent.size(), List.copyOf(absent)));
+        }
+        return new TeamAvailabilityDto(departmentId, index.headcount(), absences, calendar);
+    }
+
+    /** Ausencias aprobadas de otros miembros del equipo que coinciden con la solicitud indicada. */
+    public List<TeamAbsenceDto> conflicts(Long leaveRequestId) {
+        LeaveRequest request = leaveRequestRepository.findById(leaveRequestId)
+                .orElseThrow(() -> new ResourceNotFoundException("Solicitud no encontrada con id " + leaveRequestId));
+        Department department = request.getEmployee().getDepartment();
+        if (department == null) {
+            return List.of();
+        }
+        Long employeeId = request.getEmployee().getId();
+        return absences(department.getId(), request.getStartDate(), request.getEndDate(), false).stream()
+                .filter(a -> !a.employeeId().equals(employeeId))
+                .toList();
+    }
+
+    private TeamIndex index(Long departmentId) {
+        if (referenceDataCache.department(departmentId).isEmpty()) {
+            throw new ResourceNotFoundException("Departamento no encontrado: " + departmentId);
+        }
+        // Versiones leídas antes de consultar: un commit concurrente deja el índice marcado como viejo
+        long teamVersion = aggregateVersionService.current(AggregateVersionService.team(departmentId));
+        long allTeamsVersion = aggregateVersionService.current(AggregateVersionService.TEAMS);
+
+        TeamIndex index = indexes.get(departmentId);
+        if (index != null && index.teamVersion() == teamVersion && index.allTeamsVersion() == allTeamsVersion) {
+            return index;
+        }
+        index = new TeamIndex(teamVersion, allTeamsVersion,
+                (int) employeeRepository.countByDepartmentId(departmentId),
+                IntervalIndex.of(leaveRequestRepository.findTeamAbsences(departmentId, INDEXED_STATUSES),
+                        a -> a.startDate().toEpochDay(), a -> a.endDate().toEpochDay()));
+        indexes.put(departmentId, index);
+        return index;
+    }
+
+    private static List<TeamAbsenceDto> overlapping(TeamIndex index, LocalDate from, LocalDate to, boolean includePending) {
+        return index.absences().overlapping(from.toEpochDay(), to.toEpochDay()).stream()
+                .filter(a -> includePending || a.status() == LeaveRequest.LeaveStatus.APPROVED)
+                .toList();
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Las fechas desde y hasta son obligatorias");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("La fecha final es anterior a la inicial");
+        }
+    }
+
+    private record TeamIndex(long teamVersion, long allTeamsVersion, int headcount,
+                             IntervalIndex<TeamAbsenceDto> absences) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.smarthr.backend.web.controllers;
+
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
+import com.smarthr.backend.service.AnalyticsService;
+import com.smarthr.backend.web.dto.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Tag(name = "Analytics", description = "Indicadores agregados de RRHH")
+@SecurityRequirement(name = "bearerAuth")
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+    private final CurrentUserResolver currentUserResolver;
+
+    @Operation(summary = "Número de empleados por departamento, puesto o ubicación")
+    @GetMapping("/headcount")
+    public ResponseEntity<List<HeadcountDto>> headcount(
+            @Parameter(description = "department, job-position o location") @RequestParam(defaultValue = "department") String by) {
+        requireRrhh();
+        return ResponseEntity.ok(analyticsService.headcount(by));
+    }
+
+    @Operation(summary = "Percentiles del salario base vigente por departamento")
+    @GetMapping("/salaries")
+    public ResponseEntity<List<SalaryBandDto>> salaries(
+            @Parameter(description = "Fecha de referencia (hoy por defecto)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate at) {
+        requireRrhh();
+        return ResponseEntity.ok(analyticsService.salaryBands(at));
+    }
+
+    @Operation(summary = "Altas de empleados por mes")
+    @GetMapping("/hires")
+    public ResponseEntity<List<MonthlyHiresDto>> hires(
+            @Parameter(description = "Fecha desde (incluida)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Fecha hasta (incluida)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        requireRrhh();
+        return ResponseEntity.ok(analyticsService.hiresPerMonth(from, to));
+    }
+
+    @Operation(summary = "Empleados asignados a cada proyecto activo")
+    @GetMapping("/projects/staffing")
+    public ResponseEntity<List<ProjectStaffingDto>> projectStaffing(
+            @Parameter(description = "Fecha de referencia (hoy por defecto)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate at) {
+        requireRrhh();
+        return ResponseEntity.ok(analyticsService.projectStaffing(at));
+    }
+
+    @Operation(summary = "Ausencias solicitadas por tipo y estado (año en curso por defecto)")
+    @GetMapping("/leave")
+    public ResponseEntity<List<LeaveSummaryDto>> leave(
+            @Parameter(description = "Fecha desde (incluida)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Fecha hasta (incluida)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        requireRrhh();
+        return ResponseEntity.ok(analyticsService.leaveSummary(from, to));
+    }
+
+    private void requireRrhh() {
+        CurrentUser user = currentUserResolver.current();
+        if (!user.hasRole("ROLE_RRHH")) {
+            throw new AccessDeniedException("No tienes permiso para ver indicadores de RRHH");
+        }
+    }
+}
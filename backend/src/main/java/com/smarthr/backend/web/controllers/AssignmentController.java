@@ -1,14 +1,14 @@
 
 package com.smarthr.backend.web.controllers;
 
-import com.smarthr.backend.domain.User;
 import com.smarthr.backend.web.mapper.AssignmentMapper;
 import com.smarthr.backend.domain.Assignment;
 import com.smarthr.backend.repository.AssignmentRepository;
 import com.smarthr.backend.repository.EmployeeRepository;
 import com.smarthr.backend.repository.ProjectRepository;
-import com.smarthr.backend.repository.UserRepository;
 import com.smarthr.backend.web.dto.AssignmentDto;
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,7 +19,6 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
@@ -34,7 +33,7 @@ public class AssignmentController {
 
     private final AssignmentRepository repo;
     private final EmployeeRepository employeeRepo;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final ProjectRepository projectRepo;
     private final AssignmentMapper mapper;
 
@@ -56,11 +55,9 @@ public class AssignmentController {
         var prj = projectRepo.findById(dto.getProject().getId()).orElse(null);
         if (emp == null || prj == null) return ResponseEntity.badRequest().build();
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
 
@@ -86,12 +83,10 @@ public class AssignmentController {
     })
     @GetMapping
     public ResponseEntity<List<AssignmentDto>> list() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         var list = repo.findAll().stream().map(mapper::toDto).toList();
@@ -107,15 +102,13 @@ public class AssignmentController {
     @GetMapping("/{id}")
     public ResponseEntity<AssignmentDto> get(
             @Parameter(description = "ID de la asignación") @PathVariable Long id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
 
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             var entity = repo.findById(id).orElseThrow(() -> new RuntimeException("No encontrado"));
-            if (!entity.getEmployee().getId().equals(user.getEmployee().getId())) {
+            if (!entity.getEmployee().getId().equals(user.employeeId())) {
                 throw new AccessDeniedException("No tienes permiso para ver otros empleados");
             }
         }
@@ -139,12 +132,10 @@ public class AssignmentController {
             @Parameter(description = "ID de la asignación") @PathVariable Long id,
             @Valid @RequestBody AssignmentDto dto) {
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Validación de permisos
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para modificar asignaciones");
         }
 
@@ -185,12 +176,10 @@ public class AssignmentController {
     public ResponseEntity<Void> delete(
             @Parameter(description = "ID de la asignación") @PathVariable Long id) {
         if (!repo.existsById(id)) return ResponseEntity.notFound().build();
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         repo.deleteById(id);
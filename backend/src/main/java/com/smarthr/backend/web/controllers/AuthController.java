@@ -3,10 +3,14 @@ package com.smarthr.backend.web.controllers;
 import com.smarthr.backend.service.AuthService;
 import com.smarthr.backend.web.dto.LoginRequest;
 import com.smarthr.backend.web.dto.LoginResponse;
+import com.smarthr.backend.web.dto.RefreshRequest;
 import com.smarthr.backend.web.dto.RegisterRequest;
+import com.smarthr.backend.web.exceptions.TooManyRequestsException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
 
@@ -21,15 +25,27 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
         try {
-            String token = authService.login(request);
-            System.out.println("token: " + token);
-            return ResponseEntity.ok(new LoginResponse(token));
+            LoginResponse response = authService.login(request);
+            return ResponseEntity.ok(response);
 
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
         } catch (RuntimeException e) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error inesperado: " + e.getMessage());
             }
         }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest request) {
+        try {
+            return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        }
+    }
+
     @PostMapping("/register")
     public ResponseEntity<Void> register(@RequestBody RegisterRequest request) {
         authService.register(request.getUsername(), request.getPassword(), request.getRole(), request.getEmployeeId());
@@ -1,11 +1,12 @@
 
 package com.smarthr.backend.web.controllers;
 
-import com.smarthr.backend.domain.User;
 import com.smarthr.backend.repository.ContractRepository;
-import com.smarthr.backend.repository.UserRepository;
 import com.smarthr.backend.service.ContractService;
+import com.smarthr.backend.web.dto.CursorPageDto;
 import com.smarthr.backend.web.dto.ContractDto;
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -14,15 +15,13 @@ import io.swagger.v3.oas.annotations.responses.*;
 import io.swagger.v3.oas.annotations.media.*;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
+import java.time.LocalDate;
 
 
 @Tag(name = "Contracts", description = "Gestión de contratos de empleados")
@@ -33,25 +32,31 @@ import java.net.URI;
 public class ContractController {
 
     private final ContractService service;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final ContractRepository repo;
 
-    @Operation(summary = "Lista contratos (paginado)")
+    @Operation(summary = "Lista contratos (por cursor, sin total)")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Listado devuelto",
                     content = @Content(array = @ArraySchema(schema = @Schema(implementation = ContractDto.class))))
     })
     @GetMapping
-    public ResponseEntity<Page<ContractDto>> list(@PageableDefault(size = 20) Pageable pageable) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    public ResponseEntity<CursorPageDto<ContractDto>> list(
+            @Parameter(description = "Filtro por empleado") @RequestParam(required = false) Long employeeId,
+            @Parameter(description = "Fecha desde (incluida)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Fecha hasta (incluida)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Último id de la página anterior") @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Tamaño de página (máx. 100)") @RequestParam(defaultValue = "20") int size) {
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
-        return ResponseEntity.ok(service.list(pageable));
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y 100");
+        }
+        return ResponseEntity.ok(service.list(employeeId, from, to, afterId, size));
     }
 
     @Operation(summary = "Obtiene contrato por ID")
@@ -62,15 +67,13 @@ public class ContractController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<ContractDto> get(@PathVariable Long id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
 
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             var entity = repo.findById(id).orElseThrow(() -> new RuntimeException("No encontrado"));
-            if (!entity.getEmployee().getId().equals(user.getEmployee().getId())) {
+            if (!entity.getEmployee().getId().equals(user.employeeId())) {
                 throw new AccessDeniedException("No tienes permiso para ver otros empleados");
             }
         }
@@ -86,12 +89,10 @@ public class ContractController {
     })
     @PostMapping
     public ResponseEntity<ContractDto> create(@Valid @RequestBody ContractDto dto) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         ContractDto created = service.create(dto);
@@ -101,12 +102,10 @@ public class ContractController {
     @Operation(summary = "Actualiza contrato (PUT)")
     @PutMapping("/{id}")
     public ResponseEntity<ContractDto> update(@PathVariable Long id, @Valid @RequestBody ContractDto dto) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return ResponseEntity.ok(service.update(id, dto));
@@ -115,12 +114,10 @@ public class ContractController {
     @Operation(summary = "Elimina contrato")
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         service.delete(id);
@@ -1,20 +1,23 @@
 
 package com.smarthr.backend.web.controllers;
 
+import com.smarthr.backend.service.AggregateVersionService;
+import com.smarthr.backend.service.ReferenceDataCache;
 import com.smarthr.backend.domain.Department;
-import com.smarthr.backend.domain.User;
 import com.smarthr.backend.repository.DepartmentRepository;
-import com.smarthr.backend.repository.UserRepository;
 import com.smarthr.backend.web.dto.DepartmentDto;
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.util.List;
@@ -27,38 +30,36 @@ import java.util.List;
 public class DepartmentController {
 
     private final DepartmentRepository repo;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final AggregateVersionService aggregateVersionService;
+    private final ReferenceDataCache referenceDataCache;
 
     @Operation(summary = "Lista departamentos")
     @GetMapping
-    public ResponseEntity<List<DepartmentDto>> list() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    public ResponseEntity<List<DepartmentDto>> list(WebRequest request) {
+        CurrentUser user = currentUserResolver.current();
 
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
 
-        // Convertimos Department a DepartmentDto
-        List<DepartmentDto> dtos = repo.findAll()
-                .stream()
-                .map(d -> new DepartmentDto(d.getId(), d.getName(), d.getDescription()))
-                .toList();
+        // Sin cambios desde la última vez: 304 sin consultar la base de datos
+        if (request.checkNotModified(aggregateVersionService.etag(AggregateVersionService.DEPARTMENTS))) {
+            return null;
+        }
 
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate())
+                .body(referenceDataCache.departments());
     }
 
 
     @Operation(summary = "Obtiene un departamento por ID")
     @GetMapping("/{id}")
     public ResponseEntity<Department> get(@PathVariable Long id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return repo.findById(id)
@@ -69,12 +70,10 @@ public class DepartmentController {
     @Operation(summary = "Crea un departamento")
     @PostMapping
     public ResponseEntity<Department> create(@Valid @RequestBody Department d) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         Department saved = repo.save(d);
@@ -84,12 +83,10 @@ public class DepartmentController {
     @Operation(summary = "Actualiza un departamento")
     @PutMapping("/{id}")
     public ResponseEntity<Department> update(@PathVariable Long id, @Valid @RequestBody Department d) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return repo.findById(id)
@@ -106,12 +103,10 @@ public class DepartmentController {
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         if (!repo.existsById(id)) return ResponseEntity.notFound().build();
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         repo.deleteById(id);
@@ -2,15 +2,11 @@
 package com.smarthr.backend.web.controllers;
 
 import com.smarthr.backend.domain.Employee;
-import com.smarthr.backend.domain.User;
-import com.smarthr.backend.web.mapper.AssignmentMapper;
 import com.smarthr.backend.web.mapper.EmployeeMapper;
-import com.smarthr.backend.web.mapper.EmployeeSkillMapper;
-import com.smarthr.backend.repository.AssignmentRepository;
-import com.smarthr.backend.repository.EmployeeSkillRepository;
-import com.smarthr.backend.repository.UserRepository;
 import com.smarthr.backend.service.*;
 import com.smarthr.backend.web.dto.*;
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -22,18 +18,19 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.io.InputStream;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 
 @Tag(name = "Employees", description = "Gestión de empleados con filtros y paginación")
@@ -44,51 +41,62 @@ import java.util.Map;
 public class EmployeeController {
 
     private final EmployeeService service;
-    private final ContractService contractService;
-    private final CompensationService compensationService;
-    private final EmployeeSkillMapper employeeSkillMapper;
-    private final AssignmentMapper assignmentMapper;
-    private final PerformanceReviewService performanceReviewService;
-    private final LeaveRequestService leaveRequestService;
-    private final UserRepository userRepository;
-    private final EmployeeSkillRepository employeeSkillRepository;
-    private final AssignmentRepository assignmentRepository;
+    private final EmployeeProfileService employeeProfileService;
+    private final EmployeeImportService employeeImportService;
+    private final CurrentUserResolver currentUserResolver;
+    private final AggregateVersionService aggregateVersionService;
     private final EmployeeMapper mapper;
 
-    @Operation(summary = "Lista empleados", description = "Filtra por nombre, rol y ubicación. Resultados paginados.")
+    @Operation(summary = "Lista empleados", description = "Filtra por nombre, rol y ubicación. Resultados paginados; " +
+            "con count=false no se calcula el total.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Listado devuelto",
                     content = @Content(mediaType = "application/json",
                             array = @ArraySchema(schema = @Schema(implementation = EmployeeDto.class))))
     })
     @GetMapping
-    public ResponseEntity<Page<EmployeeDto>> list(
+    public ResponseEntity<Slice<EmployeeDto>> list(
             @Parameter(description = "Filtro por nombre") @RequestParam(required = false) String name,
             @Parameter(description = "Filtro por rol") @RequestParam(required = false) String role,
             @Parameter(description = "Filtro por ubicación") @RequestParam(required = false) String location,
+            @Parameter(description = "Calcular el total de resultados") @RequestParam(defaultValue = "true") boolean count,
             @PageableDefault(size = 20) Pageable pageable) {
-        System.out.println("LLamando a list: ");
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        System.out.println("Username: " + username);
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH denegar acceso
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
-        return ResponseEntity.ok(service.list(name, role, location, pageable));
+        return ResponseEntity.ok(count
+                ? service.list(name, role, location, pageable)
+                : service.listWithoutCount(name, role, location, pageable));
+    }
+
+    @Operation(summary = "Busca empleados con paginación por cursor",
+            description = "Ordena por nombre; el nextCursor de la respuesta se envía como 'after' para la siguiente página.")
+    @GetMapping("/search")
+    public ResponseEntity<EmployeeSearchPageDto> search(
+            @Parameter(description = "Filtro por nombre") @RequestParam(required = false) String name,
+            @Parameter(description = "Filtro por rol") @RequestParam(required = false) String role,
+            @Parameter(description = "Filtro por ubicación") @RequestParam(required = false) String location,
+            @Parameter(description = "Cursor de la página anterior") @RequestParam(required = false) String after,
+            @Parameter(description = "Tamaño de página (máx. 100)") @RequestParam(defaultValue = "20") int size) {
+        CurrentUser user = currentUserResolver.current();
+
+        if (!user.hasRole("ROLE_RRHH")) {
+            throw new AccessDeniedException("No tienes permiso para ver otros empleados");
+        }
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y 100");
+        }
+        return ResponseEntity.ok(service.search(name, role, location, after, size));
     }
 
 
     @Operation(summary = "Recupera la información completa de un empleado por nombre (RRHH o el propio empleado)")
     @GetMapping("/user")
-    public ResponseEntity<Map<String, Object>> getFullByUsername(@RequestParam String username) {
-        System.out.println("LLamando a getFullByUsername: " + username);
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(currentUsername)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        System.out.println("Username logueado: " + currentUsername);
+    public ResponseEntity<EmployeeProfileDto> getFullByUsername(@RequestParam String username) {
+        CurrentUser currentUser = currentUserResolver.current();
 
         return ResponseEntity.ok(
                 service.getFullEmployeeByUsername(username, currentUser)
@@ -104,12 +112,10 @@ public class EmployeeController {
     })
     @PostMapping
     public ResponseEntity<EmployeeDto> create(@Valid @RequestBody EmployeeDto dto) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         EmployeeDto created = service.create(dto);
@@ -119,12 +125,10 @@ public class EmployeeController {
     @Operation(summary = "Actualiza completamente un empleado (PUT)")
     @PutMapping("/{id}")
     public ResponseEntity<EmployeeDto> update(@PathVariable Long id, @Valid @RequestBody EmployeeDto dto) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return ResponseEntity.ok(service.update(id, dto));
@@ -133,12 +137,10 @@ public class EmployeeController {
     @Operation(summary = "Actualiza parcialmente un empleado (PATCH)")
     @PatchMapping("/{id}")
     public ResponseEntity<EmployeeDto> patch(@PathVariable Long id, @RequestBody EmployeeDto dto) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return ResponseEntity.ok(service.patch(id, dto));
@@ -147,12 +149,10 @@ public class EmployeeController {
     @Operation(summary = "Elimina un empleado")
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
 
@@ -160,52 +160,37 @@ public class EmployeeController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Recupera la informacion de un empelado cuando se mete en su cuenta")
-    @GetMapping("/me/full")
-    public ResponseEntity<Map<String, Object>> getMyFullData() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        System.out.println("username: " + username);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    @Operation(summary = "Da de baja varios empleados a la vez, con todos sus datos asociados")
+    @PostMapping("/offboarding")
+    public ResponseEntity<Void> offboard(@Valid @RequestBody OffboardingRequest request) {
+        CurrentUser user = currentUserResolver.current();
 
-        if (user.getEmployee() == null) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        if (!user.hasRole("ROLE_RRHH")) {
+            throw new AccessDeniedException("No tienes permiso para dar de baja empleados");
         }
 
-        Long employeeId = user.getEmployee().getId();
-        System.out.println("employeeId: " + employeeId);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("employee", mapper.toDto(user.getEmployee()));
-
-        // Skills
-        List<EmployeeSkillDto> skills = employeeSkillRepository.findByEmployeeId(employeeId)
-                .stream().map(employeeSkillMapper::toDto).toList();
-        response.put("skills", skills);
-
-        // Contracts
-        List<ContractDto> contracts = contractService.listByEmployee(employeeId);
-        response.put("contracts", contracts);
-
-        // Compensations
-        List<CompensationDto> compensations = compensationService.listByEmployee(employeeId);
-        response.put("compensations", compensations);
-
-        // Assignments (proyectos)
-        List<AssignmentDto> assignments = assignmentRepository.findByEmployeeId(employeeId)
-                .stream().map(assignmentMapper::toDto).toList();
-        response.put("assignments", assignments);
+        service.offboard(request.employeeIds());
+        return ResponseEntity.noContent().build();
+    }
 
+    @Operation(summary = "Recupera la informacion de un empelado cuando se mete en su cuenta")
+    @GetMapping("/me/full")
+    public ResponseEntity<EmployeeProfileDto> getMyFullData(WebRequest request) {
+        CurrentUser user = currentUserResolver.current();
 
-        // Performance Reviews
-        List<PerformanceReviewDto> reviews = performanceReviewService.listByEmployee(employeeId);
-        response.put("performanceReviews", reviews);
+        if (user.employeeId() == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
 
-        // Leave Requests
-        List<LeaveRequestDto> leaves = leaveRequestService.listByEmployee(employeeId);
-        response.put("leaveRequests", leaves);
+        String etag = aggregateVersionService.etag(AggregateVersionService.PROFILES,
+                AggregateVersionService.profile(user.employeeId()));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(employeeProfileService.get(user.employeeId()));
     }
 
 
@@ -219,11 +204,9 @@ public class EmployeeController {
     public ResponseEntity<EmployeeDto> createCompleteEmployee(
             @Valid @RequestBody NewEmployeeCompleteDto dto) {
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser currentUser = currentUserResolver.current();
 
-        if (!currentUser.getRoles().contains("ROLE_RRHH")) {
+        if (!currentUser.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para crear empleados");
         }
 
@@ -234,6 +217,25 @@ public class EmployeeController {
                 .body(result);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Alta masiva de empleados desde CSV o NDJSON",
+            description = "Cada fila tiene los campos del alta completa (en CSV, con cabecera y skillIds separados por ';'). " +
+                    "Las filas válidas se guardan por lotes; las inválidas se devuelven con su número de línea.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Importación procesada",
+                    content = @Content(schema = @Schema(implementation = EmployeeImportResultDto.class))),
+            @ApiResponse(responseCode = "415", description = "Formato no soportado")
+    })
+    public ResponseEntity<EmployeeImportResultDto> importEmployees(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) {
+        CurrentUser currentUser = currentUserResolver.current();
+
+        if (!currentUser.hasRole("ROLE_RRHH")) {
+            throw new AccessDeniedException("No tienes permiso para crear empleados");
+        }
+
+        return ResponseEntity.ok(employeeImportService.importEmployees(DataFormat.of(contentType), body));
+    }
 
 }
 
@@ -0,0 +1,88 @@
+package com.smarthr.backend.web.controllers;
+
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
+import com.smarthr.backend.service.DataFormat;
+import com.smarthr.backend.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPOutputStream;
+
+@Tag(name = "Exports", description = "Exportaciones masivas en streaming (CSV o NDJSON)")
+@SecurityRequirement(name = "bearerAuth")
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+    private final CurrentUserResolver currentUserResolver;
+
+    @Operation(summary = "Exporta empleados con departamento, puesto, contrato más reciente y compensación vigente")
+    @GetMapping("/employees")
+    public ResponseEntity<StreamingResponseBody> employees(
+            @Parameter(description = "csv o ndjson") @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export("employees", format, acceptEncoding, exportService::exportEmployees);
+    }
+
+    @Operation(summary = "Exporta el histórico de compensaciones")
+    @GetMapping("/compensations")
+    public ResponseEntity<StreamingResponseBody> compensations(
+            @Parameter(description = "csv o ndjson") @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export("compensations", format, acceptEncoding, exportService::exportCompensations);
+    }
+
+    @Operation(summary = "Exporta las asignaciones a proyectos")
+    @GetMapping("/assignments")
+    public ResponseEntity<StreamingResponseBody> assignments(
+            @Parameter(description = "csv o ndjson") @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export("assignments", format, acceptEncoding, exportService::exportAssignments);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, String formatName, String acceptEncoding,
+                                                         BiConsumer<DataFormat, OutputStream> writer) {
+        CurrentUser user = currentUserResolver.current();
+
+        if (!user.hasRole("ROLE_RRHH")) {
+            throw new AccessDeniedException("No tienes permiso para exportar datos");
+        }
+        DataFormat format = DataFormat.parse(formatName);
+
+        // Comprimimos aquí y no en el contenedor para que el gzip también se aplique al escribir en streaming
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true);
+                writer.accept(format, compressed);
+                compressed.finish();
+            } else {
+                writer.accept(format, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(name + "." + format.extension()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
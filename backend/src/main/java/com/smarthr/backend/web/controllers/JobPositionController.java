@@ -1,10 +1,13 @@
 
 package com.smarthr.backend.web.controllers;
 
+import com.smarthr.backend.service.AggregateVersionService;
+import com.smarthr.backend.service.ReferenceDataCache;
 import com.smarthr.backend.domain.JobPosition;
-import com.smarthr.backend.domain.User;
+import com.smarthr.backend.web.dto.JobPositionDto;
 import com.smarthr.backend.repository.JobPositionRepository;
-import com.smarthr.backend.repository.UserRepository;
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,10 +15,11 @@ import io.swagger.v3.oas.annotations.responses.*;
 import io.swagger.v3.oas.annotations.media.*;
 import io.swagger.v3.oas.annotations.Parameter;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.util.List;
@@ -26,11 +30,17 @@ import java.util.List;
 @RequestMapping("/api/job-positions")
 public class JobPositionController {
 
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final AggregateVersionService aggregateVersionService;
+    private final ReferenceDataCache referenceDataCache;
     private final JobPositionRepository repo;
 
-    public JobPositionController(JobPositionRepository repo, UserRepository user){ this.repo = repo;
-    this.userRepository = user;
+    public JobPositionController(JobPositionRepository repo, CurrentUserResolver currentUserResolver,
+                                 AggregateVersionService aggregateVersionService,
+                                 ReferenceDataCache referenceDataCache){ this.repo = repo;
+    this.currentUserResolver = currentUserResolver;
+    this.aggregateVersionService = aggregateVersionService;
+    this.referenceDataCache = referenceDataCache;
     }
 
     @Operation(summary = "Lista posiciones")
@@ -39,16 +49,17 @@ public class JobPositionController {
                     content = @Content(array = @ArraySchema(schema = @Schema(implementation = JobPosition.class))))
     })
     @GetMapping
-    public List<JobPosition> list(){
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    public ResponseEntity<List<JobPositionDto>> list(WebRequest request){
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
-        return repo.findAll(); }
+        if (request.checkNotModified(aggregateVersionService.etag(AggregateVersionService.JOB_POSITIONS))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(referenceDataCache.jobPositions()); }
 
     @Operation(summary = "Obtiene una posición por id")
     @ApiResponses({
@@ -59,12 +70,10 @@ public class JobPositionController {
     @GetMapping("/{id}")
     public ResponseEntity<JobPosition> get(
             @Parameter(description = "ID de la posición") @PathVariable Long id){
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return repo.findById(id).map(ResponseEntity::ok)
@@ -80,12 +89,10 @@ public class JobPositionController {
     })
     @PostMapping
     public ResponseEntity<JobPosition> create(@Valid @RequestBody JobPosition p){
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         JobPosition saved = repo.save(p);
@@ -102,12 +109,10 @@ public class JobPositionController {
     public ResponseEntity<JobPosition> update(
             @Parameter(description = "ID de la posición") @PathVariable Long id,
             @Valid @RequestBody JobPosition p){
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return repo.findById(id).map(existing -> {
@@ -126,12 +131,10 @@ public class JobPositionController {
     public ResponseEntity<Void> delete(
             @Parameter(description = "ID de la posición") @PathVariable Long id){
         if (!repo.existsById(id)) return ResponseEntity.notFound().build();
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         repo.deleteById(id);
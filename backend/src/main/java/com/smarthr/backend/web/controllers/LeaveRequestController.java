@@ -1,21 +1,29 @@
 
 package com.smarthr.backend.web.controllers;
 
-import com.smarthr.backend.domain.User;
-import com.smarthr.backend.repository.UserRepository;
+import com.smarthr.backend.service.AggregateVersionService;
 import com.smarthr.backend.service.LeaveRequestService;
+import com.smarthr.backend.service.TeamCalendarService;
 import com.smarthr.backend.web.dto.LeaveRequestDto;
+import com.smarthr.backend.web.dto.TeamAbsenceDto;
+import com.smarthr.backend.web.dto.TeamAvailabilityDto;
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 
 
@@ -27,15 +35,14 @@ import java.util.List;
 public class LeaveRequestController {
 
     private final LeaveRequestService service;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final AggregateVersionService aggregateVersionService;
+    private final TeamCalendarService teamCalendarService;
 
     @Operation(summary = "Crea solicitud de ausencia")
     @PostMapping
     public ResponseEntity<LeaveRequestDto> create(@Valid @RequestBody LeaveRequestDto dto) {
-        System.out.println("create: " + dto);
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        currentUserResolver.current();
 
         LeaveRequestDto created = service.create(dto);
         return ResponseEntity.created(URI.create("/api/leave-requests/" + created.getId())).body(created);
@@ -44,13 +51,10 @@ public class LeaveRequestController {
     @Operation(summary = "Aprueba o rechaza una solicitud")
     @PatchMapping("/{id}/status")
     public ResponseEntity<LeaveRequestDto> changeStatus(@PathVariable Long id, @RequestParam String status) {
-        System.out.println("Cambio de estado solicitado: " + status);
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return ResponseEntity.ok(service.changeStatus(id, status));
@@ -58,18 +62,47 @@ public class LeaveRequestController {
 
     @Operation(summary = "Lista todas las solicitudes de leave pendientes")
     @GetMapping("/pending")
-    public ResponseEntity<List<LeaveRequestDto>> getPendingRequests() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+    public ResponseEntity<List<LeaveRequestDto>> getPendingRequests(WebRequest request) {
+        CurrentUser user = currentUserResolver.current();
 
-        var user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver solicitudes pendientes");
         }
 
+        // El listado incluye el nombre del empleado, así que depende también de employees
+        String etag = aggregateVersionService.etag(AggregateVersionService.LEAVE_REQUESTS, AggregateVersionService.EMPLOYEES);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
         List<LeaveRequestDto> pendingRequests = service.getPendingRequests();
-        return ResponseEntity.ok(pendingRequests);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(pendingRequests);
     }
-}
 
+    @Operation(summary = "Disponibilidad día a día de un departamento entre dos fechas")
+    @GetMapping("/availability")
+    public ResponseEntity<TeamAvailabilityDto> availability(
+            @RequestParam Long departmentId,
+            @Parameter(description = "Fecha desde (incluida)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Fecha hasta (incluida)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Cuenta también las solicitudes pendientes") @RequestParam(defaultValue = "false") boolean includePending) {
+        CurrentUser user = currentUserResolver.current();
+
+        if (!user.hasRole("ROLE_RRHH")) {
+            throw new AccessDeniedException("No tienes permiso para ver el calendario del equipo");
+        }
+        return ResponseEntity.ok(teamCalendarService.availability(departmentId, from, to, includePending));
+    }
+
+    @Operation(summary = "Ausencias aprobadas del mismo equipo que coinciden con una solicitud")
+    @GetMapping("/{id}/conflicts")
+    public ResponseEntity<List<TeamAbsenceDto>> conflicts(@PathVariable Long id) {
+        CurrentUser user = currentUserResolver.current();
+
+        if (!user.hasRole("ROLE_RRHH")) {
+            throw new AccessDeniedException("No tienes permiso para ver el calendario del equipo");
+        }
+        return ResponseEntity.ok(teamCalendarService.conflicts(id));
+    }
+}
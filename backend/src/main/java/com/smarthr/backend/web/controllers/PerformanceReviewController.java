@@ -1,25 +1,25 @@
 
 package com.smarthr.backend.web.controllers;
 
-import com.smarthr.backend.domain.User;
 import com.smarthr.backend.repository.CompensationRepository;
-import com.smarthr.backend.repository.UserRepository;
 import com.smarthr.backend.service.PerformanceReviewService;
+import com.smarthr.backend.web.dto.CursorPageDto;
 import com.smarthr.backend.web.dto.PerformanceReviewDto;
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
+import java.time.LocalDate;
 
 
 @Tag(name = "Performance Reviews", description = "Gestión de evaluaciones de desempeño")
@@ -30,34 +30,38 @@ import java.net.URI;
 public class PerformanceReviewController {
 
     private final PerformanceReviewService service;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final CompensationRepository repo;
 
-    @Operation(summary = "Lista evaluaciones (paginado)")
+    @Operation(summary = "Lista evaluaciones (por cursor, sin total)")
     @GetMapping
-    public ResponseEntity<Page<PerformanceReviewDto>> list(@PageableDefault(size = 20) Pageable pageable) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    public ResponseEntity<CursorPageDto<PerformanceReviewDto>> list(
+            @Parameter(description = "Filtro por empleado") @RequestParam(required = false) Long employeeId,
+            @Parameter(description = "Fecha desde (incluida)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Fecha hasta (incluida)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Último id de la página anterior") @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Tamaño de página (máx. 100)") @RequestParam(defaultValue = "20") int size) {
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
-        return ResponseEntity.ok(service.list(pageable));
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y 100");
+        }
+        return ResponseEntity.ok(service.list(employeeId, from, to, afterId, size));
     }
 
     @Operation(summary = "Obtiene evaluación por ID")
     @GetMapping("/{id}")
     public ResponseEntity<PerformanceReviewDto> get(@PathVariable Long id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             var entity = repo.findById(id).orElseThrow(() -> new RuntimeException("No encontrado"));
-            if (!entity.getEmployee().getId().equals(user.getEmployee().getId())) {
+            if (!entity.getEmployee().getId().equals(user.employeeId())) {
                 throw new AccessDeniedException("No tienes permiso para ver otros empleados");
             }
         }
@@ -68,12 +72,10 @@ public class PerformanceReviewController {
     @Operation(summary = "Crea evaluación")
     @PostMapping
     public ResponseEntity<PerformanceReviewDto> create(@Valid @RequestBody PerformanceReviewDto dto) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         PerformanceReviewDto created = service.create(dto);
@@ -83,12 +85,10 @@ public class PerformanceReviewController {
     @Operation(summary = "Actualiza evaluación (PUT)")
     @PutMapping("/{id}")
     public ResponseEntity<PerformanceReviewDto> update(@PathVariable Long id, @Valid @RequestBody PerformanceReviewDto dto) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return ResponseEntity.ok(service.update(id, dto));
@@ -97,12 +97,10 @@ public class PerformanceReviewController {
     @Operation(summary = "Elimina evaluación")
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         service.delete(id);
@@ -1,10 +1,11 @@
 package com.smarthr.backend.web.controllers;
 
 
+import com.smarthr.backend.service.AggregateVersionService;
 import com.smarthr.backend.domain.Project;
-import com.smarthr.backend.domain.User;
 import com.smarthr.backend.repository.ProjectRepository;
-import com.smarthr.backend.repository.UserRepository;
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -15,10 +16,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 
@@ -29,31 +31,32 @@ import java.net.URI;
 @RequiredArgsConstructor
 public class ProjectController {
     private final ProjectRepository repo;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final AggregateVersionService aggregateVersionService;
 
     @Operation(summary = "Lista proyectos")
     @GetMapping
-    public ResponseEntity<Page<Project>> list(@PageableDefault(size=20) Pageable pageable) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    public ResponseEntity<Page<Project>> list(@PageableDefault(size=20) Pageable pageable, WebRequest request) {
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
-        return ResponseEntity.ok(repo.findAll(pageable));
+        // La página y el orden forman parte de la variante del ETag
+        if (request.checkNotModified(aggregateVersionService.variantEtag(pageable.toString(), AggregateVersionService.PROJECTS))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(repo.findAll(pageable));
     }
 
     @Operation(summary = "Obtiene proyecto por id")
     @ApiResponses({ @ApiResponse(responseCode="200"), @ApiResponse(responseCode="404") })
     @GetMapping("/{id}") public ResponseEntity<Project> get(@PathVariable Long id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return repo.findById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
@@ -63,12 +66,10 @@ public class ProjectController {
     @ApiResponses({ @ApiResponse(responseCode="201"), @ApiResponse(responseCode="400"), @ApiResponse(responseCode="409") })
     @PostMapping
     public ResponseEntity<Project> create(@Valid @RequestBody Project p) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         Project saved = repo.save(p);
@@ -78,12 +79,10 @@ public class ProjectController {
     @Operation(summary = "Actualiza proyecto (PUT)")
     @ApiResponses({ @ApiResponse(responseCode="200"), @ApiResponse(responseCode="404") })
     @PutMapping("/{id}") public ResponseEntity<Project> update(@PathVariable Long id, @Valid @RequestBody Project p) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return repo.findById(id).map(existing -> {
@@ -100,12 +99,10 @@ public class ProjectController {
     @ApiResponses({ @ApiResponse(responseCode="204"), @ApiResponse(responseCode="404") })
     @DeleteMapping("/{id}") public ResponseEntity<Void> delete(@PathVariable Long id) {
         if (!repo.existsById(id)) return ResponseEntity.notFound().build();
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         repo.deleteById(id);
@@ -1,8 +1,12 @@
 package com.smarthr.backend.web.controllers;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smarthr.backend.service.RagSnapshotService;
 import com.smarthr.backend.web.dto.CompanyRagSnapshotDto;
 import com.smarthr.backend.web.dto.EmployeeCompleteDto;
+import com.smarthr.backend.web.dto.RagDeltaDto;
+import com.smarthr.backend.web.dto.RagSnapshotRecordDto;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,10 +14,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/public")
@@ -21,7 +33,11 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 public class RagPublicController {
 
+    /** Registros escritos entre cada flush del stream NDJSON. */
+    private static final int FLUSH_EVERY = 100;
+
     private final RagSnapshotService ragService;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "Snapshot completo de empresa para RAG")
     @ApiResponse(
@@ -36,4 +52,66 @@ public class RagPublicController {
     public ResponseEntity<CompanyRagSnapshotDto> completeRag() {
         return ResponseEntity.ok(ragService.getCompanyRagSnapshot());
     }
+
+    @Operation(summary = "Snapshot completo de empresa para RAG en streaming (NDJSON)",
+            description = "Un registro JSON por línea con la forma {\"type\": ..., \"data\": ...}; "
+                    + "type es employee, project, skill, department o leave.")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Snapshot RAG de la empresa, un registro por línea",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = RagSnapshotRecordDto.class)
+            )
+    )
+    @GetMapping(value = "/completeRag/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> completeRagStream() {
+        StreamingResponseBody body = out -> {
+            int[] written = {0};
+            ragService.streamCompanyRagSnapshot(record -> {
+                writeLine(out, record);
+                if (++written[0] % FLUSH_EVERY == 0) {
+                    flush(out);
+                }
+            });
+            out.flush();
+            log.info("Snapshot RAG en streaming enviado: {} registros", written[0]);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(summary = "Cambios del snapshot RAG desde una marca de agua",
+            description = "Devuelve las entidades creadas/modificadas y las borradas después de 'since'. "
+                    + "El 'watermark' de la respuesta se usa como 'since' en la siguiente llamada; va un margen "
+                    + "por detrás de la lectura, así que los cambios recientes se repiten y deben aplicarse de forma idempotente.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Delta del snapshot RAG",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = RagDeltaDto.class))),
+            @ApiResponse(responseCode = "400", description = "Marca de agua inválida")
+    })
+    @GetMapping("/completeRag/delta")
+    public ResponseEntity<RagDeltaDto> completeRagDelta(
+            @Parameter(description = "Instante ISO-8601 de la última sincronización", example = "2025-01-01T00:00:00Z")
+            @RequestParam Instant since) {
+        return ResponseEntity.ok(ragService.getCompanyRagDelta(since));
+    }
+
+    private void writeLine(OutputStream out, RagSnapshotRecordDto record) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(record));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -1,19 +1,23 @@
 package com.smarthr.backend.web.controllers;
 
 
+import com.smarthr.backend.service.AggregateVersionService;
+import com.smarthr.backend.service.ReferenceDataCache;
 import com.smarthr.backend.domain.Skill;
-import com.smarthr.backend.domain.User;
+import com.smarthr.backend.web.dto.SkillDto;
 import com.smarthr.backend.repository.SkillRepository;
-import com.smarthr.backend.repository.UserRepository;
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.util.List;
@@ -26,20 +30,25 @@ import java.util.List;
 public class SkillController {
 
     private final SkillRepository repo;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final AggregateVersionService aggregateVersionService;
+    private final ReferenceDataCache referenceDataCache;
 
     @Operation(summary = "Lista skills")
     @GetMapping
-    public List<Skill> list(){ return repo.findAll(); }
+    public ResponseEntity<List<SkillDto>> list(WebRequest request){
+        if (request.checkNotModified(aggregateVersionService.etag(AggregateVersionService.SKILLS))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(referenceDataCache.skills());
+    }
 
     @Operation(summary = "Obtiene skill por id")
     @GetMapping("/{id}") public ResponseEntity<Skill> get(@PathVariable Long id){
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return repo.findById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
@@ -48,12 +57,10 @@ public class SkillController {
     @Operation(summary = "Crea skill")
     @PostMapping
     public ResponseEntity<Skill> create(@Valid @RequestBody Skill s){
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         Skill saved = repo.save(s);
@@ -62,12 +69,10 @@ public class SkillController {
 
     @Operation(summary = "Actualiza skill (PUT)")
     @PutMapping("/{id}") public ResponseEntity<Skill> update(@PathVariable Long id, @Valid @RequestBody Skill s){
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         return repo.findById(id).map(existing -> {
@@ -80,12 +85,10 @@ public class SkillController {
     @DeleteMapping("/{id}") public ResponseEntity<Void> delete(@PathVariable Long id){
 
         if (!repo.existsById(id)) return ResponseEntity.notFound().build();
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        CurrentUser user = currentUserResolver.current();
 
         // Si no es RRHH y el ID no coincide con su empleado, denegar
-        if (!user.getRoles().contains("ROLE_RRHH")) {
+        if (!user.hasRole("ROLE_RRHH")) {
             throw new AccessDeniedException("No tienes permiso para ver otros empleados");
         }
         repo.deleteById(id);
@@ -0,0 +1,16 @@
+package com.smarthr.backend.web.dto;
+
+import java.time.LocalDate;
+
+/** Fila de la exportación de asignaciones a proyectos. */
+public record AssignmentExportDto(
+        Long id,
+        Long employeeId,
+        String employeeName,
+        String projectCode,
+        String projectName,
+        String jobPosition,
+        LocalDate startDate,
+        LocalDate endDate
+) {
+}
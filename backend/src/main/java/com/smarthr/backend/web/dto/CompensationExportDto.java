@@ -0,0 +1,15 @@
+package com.smarthr.backend.web.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Fila de la exportación de compensaciones (histórico completo). */
+public record CompensationExportDto(
+        Long id,
+        Long employeeId,
+        String employeeName,
+        BigDecimal baseSalary,
+        BigDecimal bonus,
+        LocalDate effectiveFrom
+) {
+}
@@ -0,0 +1,25 @@
+package com.smarthr.backend.web.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de un listado por clave, sin total. {@code nextAfterId} se envía como {@code afterId}
+ * para pedir la siguiente; es null en la última página.
+ */
+public record CursorPageDto<T>(
+        List<T> items,
+        Long nextAfterId
+) {
+
+    /**
+     * Construye la página a partir de una consulta que pidió {@code size + 1} filas ordenadas por id:
+     * la fila sobrante solo indica que hay más.
+     */
+    public static <E, T> CursorPageDto<T> of(List<E> found, int size, Function<E, Long> id, Function<E, T> mapper) {
+        boolean hasMore = found.size() > size;
+        List<E> page = hasMore ? found.subList(0, size) : found;
+        Long next = hasMore ? id.apply(page.get(page.size() - 1)) : null;
+        return new CursorPageDto<>(page.stream().map(mapper).toList(), next);
+    }
+}
@@ -0,0 +1,28 @@
+package com.smarthr.backend.web.dto;
+
+import com.smarthr.backend.domain.Contract;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Fila de la exportación de empleados: datos del empleado con su departamento, puesto,
+ * contrato más reciente y compensación vigente, resueltos en la misma consulta.
+ */
+public record EmployeeExportDto(
+        Long id,
+        String name,
+        String email,
+        String location,
+        LocalDate hireDate,
+        String department,
+        String jobPosition,
+        Contract.ContractType contractType,
+        LocalDate contractStartDate,
+        LocalDate contractEndDate,
+        Integer weeklyHours,
+        BigDecimal baseSalary,
+        BigDecimal bonus,
+        LocalDate salaryEffectiveFrom
+) {
+}
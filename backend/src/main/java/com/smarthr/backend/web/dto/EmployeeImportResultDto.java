@@ -0,0 +1,14 @@
+package com.smarthr.backend.web.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva de empleados. {@code errors} recoge como mucho las primeras
+ * mil filas rechazadas; {@code rejected} es el total.
+ */
+public record EmployeeImportResultDto(int imported, int rejected, List<RowError> errors) {
+
+    /** Fila rechazada: línea del fichero (la primera si el registro ocupa varias) y motivo. */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.smarthr.backend.web.dto;
+
+import java.util.List;
+
+/**
+ * Perfil completo de un empleado, tal como lo devuelven /api/employees/me/full y /api/employees/user.
+ * {@code version} cambia cada vez que se recalcula el perfil.
+ */
+public record EmployeeProfileDto(
+        Long employeeId,
+        long version,
+        EmployeeDto employee,
+        List<EmployeeSkillDto> skills,
+        List<ContractDto> contracts,
+        List<CompensationDto> compensations,
+        List<AssignmentDto> assignments,
+        List<PerformanceReviewDto> performanceReviews,
+        List<LeaveRequestDto> leaveRequests
+) {}
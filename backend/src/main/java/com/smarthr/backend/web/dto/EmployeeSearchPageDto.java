@@ -0,0 +1,12 @@
+package com.smarthr.backend.web.dto;
+
+import java.util.List;
+
+/**
+ * Página de la búsqueda de empleados por clave. {@code nextCursor} se pasa como {@code after}
+ * para pedir la siguiente; es null cuando no hay más resultados.
+ */
+public record EmployeeSearchPageDto(
+        List<EmployeeDto> items,
+        String nextCursor
+) {}
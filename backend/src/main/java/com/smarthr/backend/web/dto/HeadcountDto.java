@@ -0,0 +1,8 @@
+package com.smarthr.backend.web.dto;
+
+/**
+ * Número de empleados de un grupo. {@code id} es el del departamento o puesto (null al agrupar por
+ * ubicación o para los empleados sin asignar); {@code name} es su nombre o la ubicación.
+ */
+public record HeadcountDto(Long id, String name, long employees) {
+}
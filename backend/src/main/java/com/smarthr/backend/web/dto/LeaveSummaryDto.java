@@ -0,0 +1,7 @@
+package com.smarthr.backend.web.dto;
+
+import com.smarthr.backend.domain.LeaveRequest;
+
+/** Solicitudes de ausencia y días naturales solicitados por tipo y estado. */
+public record LeaveSummaryDto(LeaveRequest.LeaveType type, LeaveRequest.LeaveStatus status, long requests, long days) {
+}
@@ -0,0 +1,5 @@
+package com.smarthr.backend.web.dto;
+
+/** Altas de empleados en un mes natural. */
+public record MonthlyHiresDto(int year, int month, long hires) {
+}
@@ -0,0 +1,11 @@
+package com.smarthr.backend.web.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/** Empleados a dar de baja en una sola operación. */
+public record OffboardingRequest(@NotEmpty @Size(max = 5000) List<@NotNull Long> employeeIds) {
+}
@@ -0,0 +1,5 @@
+package com.smarthr.backend.web.dto;
+
+/** Proyecto activo y número de empleados con una asignación en vigor en él. */
+public record ProjectStaffingDto(Long projectId, String code, String name, String client, long employees) {
+}
@@ -0,0 +1,11 @@
+package com.smarthr.backend.web.dto;
+
+/**
+ * Entidad creada o modificada dentro de un delta del snapshot RAG.
+ * {@code data} lleva el mismo payload que el snapshot completo para ese {@code type}.
+ */
+public record RagChangeDto(
+        String type,
+        Long id,
+        Object data
+) {}
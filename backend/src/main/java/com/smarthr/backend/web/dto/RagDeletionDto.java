@@ -0,0 +1,11 @@
+package com.smarthr.backend.web.dto;
+
+/**
+ * Entidad borrada dentro de un delta del snapshot RAG.
+ * {@code naturalKey} es la clave con la que el asistente identifica el documento (email, código o nombre).
+ */
+public record RagDeletionDto(
+        String type,
+        Long id,
+        String naturalKey
+) {}
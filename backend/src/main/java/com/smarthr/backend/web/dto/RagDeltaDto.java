@@ -0,0 +1,16 @@
+package com.smarthr.backend.web.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Cambios del snapshot RAG desde {@code since}. El cliente debe guardar {@code watermark}
+ * y enviarlo como {@code since} en la siguiente sincronización. La marca de agua va un margen por detrás
+ * del momento de la lectura, así que llamadas seguidas repiten cambios: aplicarlos debe ser idempotente.
+ */
+public record RagDeltaDto(
+        Instant since,
+        Instant watermark,
+        List<RagChangeDto> upserted,
+        List<RagDeletionDto> deleted
+) {}
@@ -0,0 +1,10 @@
+package com.smarthr.backend.web.dto;
+
+/**
+ * Línea del snapshot RAG en streaming (NDJSON): {@code type} indica qué contiene {@code data}
+ * (employee, project, skill, department o leave).
+ */
+public record RagSnapshotRecordDto(
+        String type,
+        Object data
+) {}
@@ -0,0 +1,18 @@
+package com.smarthr.backend.web.dto;
+
+import java.math.BigDecimal;
+
+/** Distribución del salario base vigente en un departamento (null si el empleado no tiene departamento). */
+public record SalaryBandDto(
+        Long departmentId,
+        String departmentName,
+        long employees,
+        BigDecimal min,
+        BigDecimal p25,
+        BigDecimal median,
+        BigDecimal p75,
+        BigDecimal p90,
+        BigDecimal max,
+        Double average
+) {
+}
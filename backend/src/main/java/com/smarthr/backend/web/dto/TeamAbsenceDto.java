@@ -0,0 +1,17 @@
+package com.smarthr.backend.web.dto;
+
+import com.smarthr.backend.domain.LeaveRequest;
+
+import java.time.LocalDate;
+
+/** Ausencia (aprobada o pendiente) de un miembro del equipo. */
+public record TeamAbsenceDto(
+        Long leaveRequestId,
+        Long employeeId,
+        String employeeName,
+        LeaveRequest.LeaveType type,
+        LeaveRequest.LeaveStatus status,
+        LocalDate startDate,
+        LocalDate endDate
+) {
+}
@@ -0,0 +1,15 @@
+package com.smarthr.backend.web.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Disponibilidad de un departamento en una ventana de fechas: las ausencias que la tocan y,
+ * día a día, cuántos empleados están disponibles.
+ */
+public record TeamAvailabilityDto(Long departmentId, int headcount, List<TeamAbsenceDto> absences, List<Day> days) {
+
+    /** Un empleado con varias ausencias el mismo día cuenta una sola vez. */
+    public record Day(LocalDate date, int available, int absent, List<Long> absentEmployeeIds) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.smarthr.backend.web.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) { super(message); }
+}
@@ -0,0 +1,29 @@
+package com.smarthr.backend.web.mapper;
+
+import com.smarthr.backend.service.ReferenceDataCache;
+import com.smarthr.backend.web.dto.DepartmentDto;
+import com.smarthr.backend.web.dto.JobPositionDto;
+import lombok.RequiredArgsConstructor;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nombres de catálogo por id para los mappers: leerlos del proxy de la relación obligaría a
+ * cargar el departamento o el puesto de cada empleado.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogNameMapper {
+
+    private final ReferenceDataCache referenceDataCache;
+
+    @Named("departmentName")
+    public String departmentName(Long id) {
+        return id == null ? null : referenceDataCache.department(id).map(DepartmentDto::getName).orElse(null);
+    }
+
+    @Named("jobPositionTitle")
+    public String jobPositionTitle(Long id) {
+        return id == null ? null : referenceDataCache.jobPosition(id).map(JobPositionDto::getTitle).orElse(null);
+    }
+}
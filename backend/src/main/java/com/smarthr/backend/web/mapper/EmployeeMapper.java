@@ -7,15 +7,16 @@ import com.smarthr.backend.domain.JobPosition;
 import com.smarthr.backend.web.dto.EmployeeDto;
 import org.mapstruct.*;
 
-@Mapper(componentModel = "spring", builder = @Builder(disableBuilder = true))
+@Mapper(componentModel = "spring", builder = @Builder(disableBuilder = true), uses = CatalogNameMapper.class)
 public interface EmployeeMapper {
 
     // ====== Lectura ======
+    // Los nombres salen de la caché de catálogos: el id de un proxy no lo inicializa
     @Mappings({
             @Mapping(source = "department.id",      target = "departmentId"),
-            @Mapping(source = "department.name",    target = "departmentName"),
+            @Mapping(source = "department.id",      target = "departmentName",   qualifiedByName = "departmentName"),
             @Mapping(source = "jobPosition.id",     target = "jobPositionId"),
-            @Mapping(source = "jobPosition.title",  target = "jobPositionTitle")
+            @Mapping(source = "jobPosition.id",     target = "jobPositionTitle", qualifiedByName = "jobPositionTitle")
     })
     EmployeeDto toDto(Employee entity);
 
@@ -0,0 +1,198 @@
+-- Esquema inicial: el mismo que generaba Hibernate con ddl-auto=update.
+-- Todo es "if not exists" para que una base de datos ya creada por Hibernate lo acepte sin cambios.
+
+create table if not exists departments (
+    id bigint generated by default as identity,
+    name varchar(100),
+    description varchar(255),
+    updated_at timestamp(6) with time zone,
+    primary key (id),
+    unique (name)
+);
+
+create table if not exists job_positions (
+    id bigint generated by default as identity,
+    title varchar(120),
+    description varchar(255),
+    primary key (id),
+    unique (title)
+);
+
+create table if not exists skills (
+    id bigint generated by default as identity,
+    name varchar(100),
+    description varchar(255),
+    updated_at timestamp(6) with time zone,
+    primary key (id),
+    unique (name)
+);
+
+create table if not exists projects (
+    id bigint generated by default as identity,
+    code varchar(40),
+    name varchar(160),
+    start_date date,
+    end_date date,
+    client varchar(255),
+    ubication varchar(255),
+    updated_at timestamp(6) with time zone,
+    primary key (id),
+    unique (code)
+);
+
+create table if not exists employees (
+    id bigint generated by default as identity,
+    name varchar(120),
+    location varchar(80),
+    email varchar(180) unique,
+    hire_date date,
+    department_id bigint,
+    job_position_id bigint,
+    updated_at timestamp(6) with time zone,
+    primary key (id),
+    constraint fk_employees_department foreign key (department_id) references departments (id),
+    constraint fk_employees_job_position foreign key (job_position_id) references job_positions (id)
+);
+
+create table if not exists users (
+    id bigint generated by default as identity,
+    username varchar(255) not null unique,
+    password varchar(255) not null,
+    employee_id bigint unique,
+    primary key (id),
+    constraint fk_users_employee foreign key (employee_id) references employees (id)
+);
+
+create table if not exists users_roles (
+    user_id bigint not null,
+    roles varchar(255),
+    constraint fk_users_roles_user foreign key (user_id) references users (id)
+);
+
+create table if not exists refresh_tokens (
+    id bigint generated by default as identity,
+    token_hash varchar(64) not null unique,
+    user_id bigint not null,
+    expires_at timestamp(6) with time zone not null,
+    primary key (id),
+    constraint fk_refresh_tokens_user foreign key (user_id) references users (id) on delete cascade
+);
+
+create table if not exists assignments (
+    id bigint generated by default as identity,
+    employee_id bigint not null,
+    project_id bigint not null,
+    job_position_id bigint not null,
+    start_date date not null,
+    end_date date,
+    updated_at timestamp(6) with time zone,
+    primary key (id),
+    unique (employee_id, project_id),
+    constraint fk_assignments_employee foreign key (employee_id) references employees (id),
+    constraint fk_assignments_project foreign key (project_id) references projects (id),
+    constraint fk_assignments_job_position foreign key (job_position_id) references job_positions (id)
+);
+
+create table if not exists compensations (
+    id bigint generated by default as identity,
+    employee_id bigint not null,
+    base_salary numeric(38,2) not null,
+    bonus numeric(38,2),
+    effective_from date,
+    updated_at timestamp(6) with time zone,
+    primary key (id),
+    constraint fk_compensations_employee foreign key (employee_id) references employees (id)
+);
+
+create table if not exists contracts (
+    id bigint generated by default as identity,
+    employee_id bigint not null,
+    type varchar(255) not null check (type in ('PERMANENT','TEMPORARY','INTERN','FREELANCE')),
+    start_date date,
+    end_date date,
+    weekly_hours integer,
+    updated_at timestamp(6) with time zone,
+    primary key (id),
+    constraint fk_contracts_employee foreign key (employee_id) references employees (id)
+);
+
+create table if not exists employee_skills (
+    id bigint generated by default as identity,
+    employee_id bigint not null,
+    skill_id bigint not null,
+    level integer not null check ((level <= 5) and (level >= 1)),
+    updated_at timestamp(6) with time zone,
+    primary key (id),
+    unique (employee_id, skill_id),
+    constraint fk_employee_skills_employee foreign key (employee_id) references employees (id),
+    constraint fk_employee_skills_skill foreign key (skill_id) references skills (id)
+);
+
+create table if not exists leave_requests (
+    id bigint generated by default as identity,
+    employee_id bigint not null,
+    type varchar(255) not null check (type in ('VACACIONES','ENFERMEDAD','CONSULTAMEDICA','ASUNTOSPROPIOS','EXCEDENCIA','OTROS')),
+    status varchar(255) not null check (status in ('PENDING','APPROVED','REJECTED')),
+    start_date date not null,
+    end_date date not null,
+    comments varchar(255),
+    updated_at timestamp(6) with time zone,
+    primary key (id),
+    constraint fk_leave_requests_employee foreign key (employee_id) references employees (id)
+);
+
+create table if not exists performance_reviews (
+    id bigint generated by default as identity,
+    employee_id bigint not null,
+    review_date date,
+    rating varchar(255) not null check (rating in ('POOR','FAIR','GOOD','VERY_GOOD','EXCELLENT')),
+    comments varchar(1000),
+    primary key (id),
+    constraint fk_performance_reviews_employee foreign key (employee_id) references employees (id)
+);
+
+create table if not exists employee_profiles (
+    employee_id bigint not null,
+    username varchar(100) unique,
+    version bigint not null,
+    payload text not null,
+    updated_at timestamp(6) with time zone not null,
+    primary key (employee_id)
+);
+
+create table if not exists rag_outbox (
+    id bigint generated by default as identity,
+    event_type varchar(30) not null check (event_type in ('UPSERT_EMPLOYEE','DELETE_EMPLOYEE','INSERT_LEAVE_REQUEST','UPSERT_LEAVE_REQUEST')),
+    aggregate_key varchar(120) not null,
+    payload text not null,
+    created_at timestamp(6) with time zone not null,
+    attempts integer not null,
+    next_attempt_at timestamp(6) with time zone not null,
+    last_error varchar(500),
+    primary key (id)
+);
+
+create table if not exists rag_tombstones (
+    id bigint generated by default as identity,
+    entity_type varchar(30) not null,
+    entity_id bigint not null,
+    employee_id bigint,
+    natural_key varchar(180),
+    deleted_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+create index if not exists idx_employees_name_id on employees (name, id);
+create index if not exists idx_employees_department_id on employees (department_id);
+create index if not exists idx_employees_job_position_id on employees (job_position_id);
+create index if not exists idx_employees_location on employees (location);
+create index if not exists idx_employees_hire_date on employees (hire_date);
+create index if not exists idx_assignments_project_dates on assignments (project_id, start_date, end_date, employee_id);
+create index if not exists idx_compensations_employee_id on compensations (employee_id, id);
+create index if not exists idx_compensations_employee_effective on compensations (employee_id, effective_from, id);
+create index if not exists idx_contracts_employee_id on contracts (employee_id, id);
+create index if not exists idx_leave_requests_start_type_status on leave_requests (start_date, type, status, end_date);
+create index if not exists idx_performance_reviews_employee_id on performance_reviews (employee_id, id);
+create index if not exists idx_rag_outbox_next_attempt on rag_outbox (next_attempt_at);
+create index if not exists idx_rag_outbox_aggregate_key on rag_outbox (aggregate_key);
+create index if not exists idx_rag_tombstones_deleted_at on rag_tombstones (deleted_at);
@@ -0,0 +1,15 @@
+-- Índices para las claves foráneas y filtros que no cubría el esquema inicial.
+-- employee_skills y assignments ya tienen su employee_id al principio de una restricción unique.
+
+-- findByEmployeeId y los borrados por empleado
+create index if not exists idx_leave_requests_employee_id on leave_requests (employee_id, id);
+-- findByStatus (solicitudes pendientes)
+create index if not exists idx_leave_requests_status on leave_requests (status, id);
+-- findFirstByEmployeeIdOrderByStartDateDesc; el equivalente de compensaciones es idx_compensations_employee_effective
+create index if not exists idx_contracts_employee_start on contracts (employee_id, start_date, id);
+
+-- Claves foráneas hacia catálogos y usuarios: evitan recorrer la tabla al borrar el padre
+create index if not exists idx_employee_skills_skill_id on employee_skills (skill_id);
+create index if not exists idx_assignments_job_position_id on assignments (job_position_id);
+create index if not exists idx_users_roles_user_id on users_roles (user_id);
+create index if not exists idx_refresh_tokens_user_id on refresh_tokens (user_id);
@@ -0,0 +1,2 @@
+-- Eventos del outbox que agotan los reintentos: se apartan (dead_at) en vez de reintentarse para siempre.
+alter table rag_outbox add column if not exists dead_at timestamp(6) with time zone;
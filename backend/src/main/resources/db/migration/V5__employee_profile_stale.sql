@@ -0,0 +1,2 @@
+-- Los perfiles invalidados se marcan en vez de borrarse, para que su versión nunca vuelva a empezar.
+alter table employee_profiles add column if not exists stale boolean default false not null;
@@ -0,0 +1,2 @@
+-- Fecha de modificación del puesto, para que el delta RAG reenvíe a los empleados que lo tienen.
+alter table job_positions add column if not exists updated_at timestamp(6) with time zone;
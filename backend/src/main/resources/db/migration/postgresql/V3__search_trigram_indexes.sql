@@ -0,0 +1,12 @@
+-- Índices trigram (pg_trgm) para la búsqueda de empleados por texto parcial (lower(...) like '%texto%').
+-- Sin permisos para crear la extensión la búsqueda sigue funcionando, solo que sin índice.
+do $$
+begin
+    create extension if not exists pg_trgm;
+    create index if not exists idx_employees_name_trgm on employees using gin (lower(name) gin_trgm_ops);
+    create index if not exists idx_employees_location_trgm on employees using gin (lower(location) gin_trgm_ops);
+    create index if not exists idx_job_positions_title_trgm on job_positions using gin (lower(title) gin_trgm_ops);
+exception when insufficient_privilege or undefined_file then
+    raise warning 'No se pudieron crear los índices de búsqueda: %', sqlerrm;
+end
+$$;
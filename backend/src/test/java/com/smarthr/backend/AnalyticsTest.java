@@ -0,0 +1,184 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.*;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.security.JwtUtil;
+import com.smarthr.backend.service.AnalyticsService;
+import com.smarthr.backend.web.dto.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba los indicadores agregados: plantilla, salarios, altas, proyectos y ausencias.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AnalyticsTest {
+
+    private static final LocalDate AT = LocalDate.of(2025, 6, 1);
+
+    @Autowired private AnalyticsService analyticsService;
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private JobPositionRepository jobPositionRepository;
+    @Autowired private ProjectRepository projectRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private CompensationRepository compensationRepository;
+    @Autowired private AssignmentRepository assignmentRepository;
+    @Autowired private LeaveRequestRepository leaveRequestRepository;
+    @Autowired private EmployeeProfileRepository employeeProfileRepository;
+    @Autowired private RagTombstoneRepository ragTombstoneRepository;
+
+    private Department desarrollo;
+
+    @BeforeEach
+    void setUp() {
+        desarrollo = departmentRepository.save(new Department(null, "Desarrollo", null, null));
+        Department ventas = departmentRepository.save(new Department(null, "Ventas", null, null));
+        JobPosition backend = jobPositionRepository.save(new JobPosition(null, "Backend Developer", null, null));
+
+        Employee ana = employee("Ana", "Madrid", LocalDate.of(2024, 1, 10), desarrollo, backend);
+        Employee luis = employee("Luis", "Madrid", LocalDate.of(2024, 1, 20), desarrollo, backend);
+        Employee eva = employee("Eva", "Sevilla", LocalDate.of(2024, 3, 5), desarrollo, null);
+        Employee marta = employee("Marta", "Sevilla", LocalDate.of(2023, 11, 1), ventas, null);
+
+        salary(ana, "2000.00", LocalDate.of(2024, 1, 10));
+        salary(ana, "3000.00", LocalDate.of(2025, 1, 1));
+        // Subida futura: no cuenta en la fecha de referencia
+        salary(ana, "9000.00", LocalDate.of(2026, 1, 1));
+        salary(luis, "4000.00", LocalDate.of(2024, 1, 20));
+        salary(eva, "5000.00", LocalDate.of(2024, 3, 5));
+        salary(marta, "2500.00", LocalDate.of(2023, 11, 1));
+
+        Project portal = projectRepository.save(new Project(null, "PRJ001", "Portal Web", LocalDate.of(2024, 1, 1),
+                null, "Nike", "Madrid", null));
+        projectRepository.save(new Project(null, "PRJ002", "App", LocalDate.of(2024, 1, 1), null, "Adidas", "Madrid", null));
+        Project closed = projectRepository.save(new Project(null, "PRJ003", "Migración", LocalDate.of(2023, 1, 1),
+                LocalDate.of(2023, 12, 31), "Puma", "Madrid", null));
+        assignmentRepository.save(new Assignment(null, ana, portal, backend, LocalDate.of(2024, 1, 10), null, null));
+        assignmentRepository.save(new Assignment(null, luis, portal, backend, LocalDate.of(2024, 1, 20), null, null));
+        // Asignación ya terminada
+        assignmentRepository.save(new Assignment(null, eva, portal, backend, LocalDate.of(2024, 3, 5), LocalDate.of(2024, 12, 31), null));
+        assignmentRepository.save(new Assignment(null, marta, closed, backend, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31), null));
+
+        leave(ana, LeaveRequest.LeaveType.VACACIONES, LeaveRequest.LeaveStatus.APPROVED, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 10));
+        leave(luis, LeaveRequest.LeaveType.VACACIONES, LeaveRequest.LeaveStatus.APPROVED, LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 5));
+        leave(eva, LeaveRequest.LeaveType.ENFERMEDAD, LeaveRequest.LeaveStatus.PENDING, LocalDate.of(2025, 2, 3), LocalDate.of(2025, 2, 3));
+        leave(eva, LeaveRequest.LeaveType.VACACIONES, LeaveRequest.LeaveStatus.APPROVED, LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 31));
+    }
+
+    @AfterEach
+    void tearDown() {
+        leaveRequestRepository.deleteAll();
+        assignmentRepository.deleteAll();
+        compensationRepository.deleteAll();
+        employeeRepository.deleteAll();
+        projectRepository.deleteAll();
+        jobPositionRepository.deleteAll();
+        departmentRepository.deleteAll();
+        employeeProfileRepository.deleteAll();
+        ragTombstoneRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Plantilla: agrupa por departamento, puesto (incluidos los sin puesto) y ubicación")
+    void headcount_groups() {
+        assertEquals(List.of(new HeadcountDto(desarrollo.getId(), "Desarrollo", 3), new HeadcountDto(
+                departmentRepository.findAll().stream().filter(d -> d.getName().equals("Ventas")).findFirst().orElseThrow().getId(),
+                "Ventas", 1)), analyticsService.headcount("department"));
+
+        List<HeadcountDto> byPosition = analyticsService.headcount("job-position");
+        assertEquals(2, byPosition.size());
+        assertEquals(2, byPosition.get(0).employees());
+
+        assertEquals(List.of(new HeadcountDto(null, "Madrid", 2), new HeadcountDto(null, "Sevilla", 2)),
+                analyticsService.headcount("LOCATION"));
+
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.headcount("skill"));
+    }
+
+    @Test
+    @DisplayName("Salarios: percentiles sobre la compensación vigente en la fecha indicada")
+    void salaryBands_useCurrentCompensation() {
+        SalaryBandDto band = analyticsService.salaryBands(AT).get(0);
+
+        assertEquals("Desarrollo", band.departmentName());
+        assertEquals(3, band.employees());
+        assertEquals(0, new BigDecimal("3000.00").compareTo(band.min()));
+        assertEquals(0, new BigDecimal("5000.00").compareTo(band.max()));
+        assertEquals(4000.0, band.median().doubleValue(), 0.001);
+        assertEquals(3500.0, band.p25().doubleValue(), 0.001);
+        assertEquals(4800.0, band.p90().doubleValue(), 0.001);
+        assertEquals(4000.0, band.average(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Altas por mes y plantilla de proyectos activos")
+    void hiresAndStaffing() {
+        assertEquals(List.of(new MonthlyHiresDto(2024, 1, 2), new MonthlyHiresDto(2024, 3, 1)),
+                analyticsService.hiresPerMonth(LocalDate.of(2024, 1, 1), null));
+
+        List<ProjectStaffingDto> staffing = analyticsService.projectStaffing(AT);
+        assertEquals(List.of("PRJ001", "PRJ002"), staffing.stream().map(ProjectStaffingDto::code).toList());
+        assertEquals(List.of(2L, 0L), staffing.stream().map(ProjectStaffingDto::employees).toList());
+    }
+
+    @Test
+    @DisplayName("Ausencias: solicitudes y días naturales por tipo y estado del periodo")
+    void leaveSummary_countsDays() {
+        List<LeaveSummaryDto> summary = analyticsService.leaveSummary(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31));
+
+        assertEquals(List.of(
+                new LeaveSummaryDto(LeaveRequest.LeaveType.ENFERMEDAD, LeaveRequest.LeaveStatus.PENDING, 1, 1),
+                new LeaveSummaryDto(LeaveRequest.LeaveType.VACACIONES, LeaveRequest.LeaveStatus.APPROVED, 2, 15)
+        ), summary);
+    }
+
+    @Test
+    @DisplayName("API: solo RRHH")
+    void endpoint_requiresRrhh() throws Exception {
+        mockMvc.perform(get("/api/analytics/headcount").param("by", "location")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("ana", Set.of("ROLE_EMPLOYEE"), 1L)))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/api/analytics/headcount").param("by", "location")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("rrhh", Set.of("ROLE_RRHH"), 1L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Madrid"))
+                .andExpect(jsonPath("$[0].employees").value(2));
+    }
+
+    private Employee employee(String name, String location, LocalDate hireDate, Department department, JobPosition jobPosition) {
+        return employeeRepository.save(new Employee(null, name, location, name.toLowerCase() + "@smarthr.dev",
+                hireDate, department, jobPosition, null));
+    }
+
+    private void salary(Employee employee, String amount, LocalDate from) {
+        compensationRepository.save(new Compensation(null, employee, new BigDecimal(amount), null, from, null));
+    }
+
+    private void leave(Employee employee, LeaveRequest.LeaveType type, LeaveRequest.LeaveStatus status,
+                       LocalDate start, LocalDate end) {
+        leaveRequestRepository.save(new LeaveRequest(null, employee, type, status, start, end, null, null));
+    }
+}
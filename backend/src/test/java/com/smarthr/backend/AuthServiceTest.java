@@ -0,0 +1,122 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.Department;
+import com.smarthr.backend.domain.Employee;
+import com.smarthr.backend.domain.JobPosition;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.service.AuthService;
+import com.smarthr.backend.web.dto.LoginRequest;
+import com.smarthr.backend.web.dto.LoginResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba el login con refresh token y su rotación.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTest {
+
+    @Autowired private AuthService authService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RefreshTokenRepository refreshTokenRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private JobPositionRepository jobPositionRepository;
+
+    @BeforeEach
+    void setUp() {
+        Department department = departmentRepository.save(new Department(null, "Desarrollo", "Software", null));
+        JobPosition jobPosition = jobPositionRepository.save(new JobPosition(null, "Backend Developer", null, null));
+        Employee employee = employeeRepository.save(new Employee(null, "Ana Pérez", "Madrid", "ana@smarthr.dev",
+                LocalDate.of(2023, 1, 1), department, jobPosition, null));
+        authService.register("ana", "secreta", "ROLE_EMPLOYEE", employee.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        employeeRepository.deleteAll();
+        jobPositionRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Refresh: emite un nuevo par de tokens y el anterior deja de valer")
+    void refresh_rotatesToken() {
+        LoginResponse login = authService.login(loginRequest("ana", "secreta"));
+        assertNotNull(login.getToken());
+        assertNotNull(login.getRefreshToken());
+
+        LoginResponse refreshed = authService.refresh(login.getRefreshToken());
+
+        assertNotNull(refreshed.getToken());
+        assertNotEquals(login.getRefreshToken(), refreshed.getRefreshToken());
+        assertThrows(BadCredentialsException.class, () -> authService.refresh(login.getRefreshToken()));
+        assertEquals(1, refreshTokenRepository.count());
+    }
+
+    @Test
+    @DisplayName("Refresh: de varias renovaciones simultáneas con el mismo token solo una tiene éxito")
+    void refresh_concurrentUseSucceedsOnce() throws Exception {
+        String refreshToken = authService.login(loginRequest("ana", "secreta")).getRefreshToken();
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<LoginResponse>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return authService.refresh(refreshToken);
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<LoginResponse> result : results) {
+                try {
+                    assertNotNull(result.get(30, TimeUnit.SECONDS).getToken());
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(BadCredentialsException.class, e.getCause());
+                }
+            }
+            assertEquals(1, succeeded);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Refresh: al borrar el usuario se revocan sus refresh tokens")
+    void deleteUser_revokesRefreshTokens() {
+        LoginResponse login = authService.login(loginRequest("ana", "secreta"));
+
+        authService.deleteUser("ana");
+
+        assertEquals(0, refreshTokenRepository.count());
+        assertThrows(BadCredentialsException.class, () -> authService.refresh(login.getRefreshToken()));
+    }
+
+    private static LoginRequest loginRequest(String username, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+}
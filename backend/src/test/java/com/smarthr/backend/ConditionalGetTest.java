@@ -0,0 +1,74 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.Department;
+import com.smarthr.backend.repository.DepartmentRepository;
+import com.smarthr.backend.repository.RagTombstoneRepository;
+import com.smarthr.backend.security.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba que los listados con ETag responden 304 sin consultar la base de datos hasta que cambian.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private RagTombstoneRepository ragTombstoneRepository;
+
+    @AfterEach
+    void tearDown() {
+        departmentRepository.deleteAll();
+        ragTombstoneRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("ETag: If-None-Match vigente devuelve 304 sin consultas y un cambio lo invalida")
+    void departments_conditionalGet() throws Exception {
+        departmentRepository.save(new Department(null, "Desarrollo", "Software", null));
+        String token = "Bearer " + jwtUtil.generateToken("rrhh", Set.of("ROLE_RRHH"), 1L);
+
+        String etag = mockMvc.perform(get("/api/departments").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        mockMvc.perform(get("/api/departments")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals(0, stats.getPrepareStatementCount());
+
+        departmentRepository.save(new Department(null, "Plataforma", "Infraestructura", null));
+
+        String newEtag = mockMvc.perform(get("/api/departments")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+}
@@ -0,0 +1,79 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.Employee;
+import com.smarthr.backend.domain.User;
+import com.smarthr.backend.repository.UserRepository;
+import com.smarthr.backend.security.CurrentUser;
+import com.smarthr.backend.security.CurrentUserResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Comprueba que el usuario actual se resuelve desde los claims o la caché sin consultar la base de datos.
+ */
+class CurrentUserResolverTest {
+
+    private UserRepository userRepository;
+    private CurrentUserResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        resolver = new CurrentUserResolver(userRepository, new SimpleMeterRegistry(), 10, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Resolver: con claims completos no consulta la base de datos")
+    void current_withClaimsPrincipal_doesNotQueryDatabase() {
+        authenticate(new CurrentUser("ana", Set.of("ROLE_EMPLOYEE"), 7L));
+
+        CurrentUser user = resolver.current();
+
+        assertEquals(7L, user.employeeId());
+        assertFalse(user.hasRole("ROLE_RRHH"));
+        verifyNoInteractions(userRepository);
+        assertEquals(1.0, resolver.hitRate());
+    }
+
+    @Test
+    @DisplayName("Resolver: sin claims consulta una vez y después sirve desde caché hasta invalidar")
+    void current_withoutClaims_cachesUntilInvalidated() {
+        Employee employee = new Employee();
+        employee.setId(3L);
+        User dbUser = new User(1L, "rrhh", "hash", Set.of("ROLE_RRHH"), employee);
+        when(userRepository.findByUsername("rrhh")).thenReturn(Optional.of(dbUser));
+        authenticate("rrhh");
+
+        assertTrue(resolver.current().hasRole("ROLE_RRHH"));
+        assertEquals(3L, resolver.current().employeeId());
+        verify(userRepository, times(1)).findByUsername("rrhh");
+        assertEquals(0.5, resolver.hitRate());
+
+        resolver.invalidate("rrhh");
+        resolver.current();
+        verify(userRepository, times(2)).findByUsername("rrhh");
+    }
+
+    private void authenticate(Object principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
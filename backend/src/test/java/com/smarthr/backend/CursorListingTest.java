@@ -0,0 +1,98 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.Compensation;
+import com.smarthr.backend.domain.Employee;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.service.CompensationService;
+import com.smarthr.backend.web.dto.CompensationDto;
+import com.smarthr.backend.web.dto.CursorPageDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba el listado por cursor de compensaciones (mismo esquema que contratos y evaluaciones).
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class CursorListingTest {
+
+    @Autowired private CompensationService compensationService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private CompensationRepository compensationRepository;
+    @Autowired private RagTombstoneRepository ragTombstoneRepository;
+    @Autowired private EmployeeProfileRepository employeeProfileRepository;
+
+    private Employee ana;
+    private Employee luis;
+
+    @BeforeEach
+    void setUp() {
+        ana = employeeRepository.save(new Employee(null, "Ana", "Madrid", "ana@smarthr.dev",
+                LocalDate.of(2020, 1, 1), null, null, null));
+        luis = employeeRepository.save(new Employee(null, "Luis", "Sevilla", "luis@smarthr.dev",
+                LocalDate.of(2020, 1, 1), null, null, null));
+        for (int month = 1; month <= 12; month++) {
+            compensationRepository.save(new Compensation(null, ana, new BigDecimal(2000 + month), null,
+                    LocalDate.of(2024, month, 1), null));
+            compensationRepository.save(new Compensation(null, luis, new BigDecimal(3000 + month), null,
+                    LocalDate.of(2024, month, 1), null));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        compensationRepository.deleteAll();
+        employeeRepository.deleteAll();
+        ragTombstoneRepository.deleteAll();
+        employeeProfileRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Cursor: recorre todas las filas en orden de id, una consulta por página y sin count")
+    void list_walksAllPagesWithoutCount() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        List<Long> ids = new ArrayList<>();
+        Long afterId = null;
+        int pages = 0;
+        do {
+            CursorPageDto<CompensationDto> page = compensationService.list(null, null, null, afterId, 5);
+            page.items().forEach(c -> ids.add(c.getId()));
+            afterId = page.nextAfterId();
+            pages++;
+        } while (afterId != null);
+
+        assertEquals(24, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertEquals(5, pages);
+        assertEquals(pages, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Cursor: filtra por empleado y rango de fechas")
+    void list_filtersByEmployeeAndDates() {
+        CursorPageDto<CompensationDto> page = compensationService.list(luis.getId(),
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 5, 31), null, 20);
+
+        assertEquals(3, page.items().size());
+        assertTrue(page.items().stream().allMatch(c -> c.getEmployeeName().equals("Luis")));
+        assertNull(page.nextAfterId());
+    }
+}
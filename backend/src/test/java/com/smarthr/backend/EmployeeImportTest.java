@@ -0,0 +1,231 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.*;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.security.JwtUtil;
+import com.smarthr.backend.service.DataFormat;
+import com.smarthr.backend.service.EmployeeImportService;
+import com.smarthr.backend.service.EmployeeService;
+import com.smarthr.backend.service.ReferenceDataCache;
+import com.smarthr.backend.web.dto.ContractTypeDto;
+import com.smarthr.backend.web.dto.EmployeeImportResultDto;
+import com.smarthr.backend.web.dto.NewEmployeeCompleteDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba la importación masiva: filas válidas guardadas por lotes y errores por línea.
+ */
+@SpringBootTest(properties = "employees.import.batch-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EmployeeImportTest {
+
+    private static final String CSV_HEADER = "name,surname,email,username,password,location,hireDate,departmentId," +
+            "jobPositionTitle,role,weeklyHours,contractType,contractStartDate,projectId,skillIds\n";
+
+    @Autowired private EmployeeImportService employeeImportService;
+    @Autowired private EmployeeService employeeService;
+    @Autowired private ReferenceDataCache referenceDataCache;
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private JobPositionRepository jobPositionRepository;
+    @Autowired private SkillRepository skillRepository;
+    @Autowired private ProjectRepository projectRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ContractRepository contractRepository;
+    @Autowired private AssignmentRepository assignmentRepository;
+    @Autowired private EmployeeSkillRepository employeeSkillRepository;
+    @Autowired private RagOutboxEventRepository ragOutboxEventRepository;
+    @Autowired private RagTombstoneRepository ragTombstoneRepository;
+
+    private Department department;
+    private Skill java;
+    private Skill sql;
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        department = departmentRepository.save(new Department(null, "Desarrollo", "Software", null));
+        jobPositionRepository.save(new JobPosition(null, "Backend Developer", null, null));
+        java = skillRepository.save(new Skill(null, "Java", null, null));
+        sql = skillRepository.save(new Skill(null, "SQL", null, null));
+        project = projectRepository.save(new Project(null, "PRJ001", "Portal Web", LocalDate.of(2024, 1, 1),
+                null, "Nike", "Madrid", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        employeeSkillRepository.deleteAll();
+        assignmentRepository.deleteAll();
+        contractRepository.deleteAll();
+        employeeRepository.deleteAll();
+        projectRepository.deleteAll();
+        skillRepository.deleteAll();
+        jobPositionRepository.deleteAll();
+        departmentRepository.deleteAll();
+        ragOutboxEventRepository.deleteAll();
+        ragTombstoneRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("CSV: guarda las filas válidas con usuario, contrato, asignación y skills, y rechaza el resto por línea")
+    void csv_importsValidRowsAndReportsErrors() {
+        long dept = department.getId();
+        String csv = CSV_HEADER
+                + row("Ana", "ana@smarthr.dev", "ana", dept, "Backend Developer", project.getId(), java.getId() + ";" + sql.getId())
+                + row("\"Gómez, Luis\"", "luis@smarthr.dev", "luis", dept, "Data Engineer", null, "")
+                + row("Eva", "eva@smarthr.dev", "eva", 999_999L, "Backend Developer", null, "")
+                + row("Ana bis", "ana2@smarthr.dev", "ana", dept, "Backend Developer", null, "")
+                + row("Marta", "marta@smarthr.dev", "marta", dept, "Backend Developer", null, String.valueOf(java.getId()));
+
+        EmployeeImportResultDto result = employeeImportService.importEmployees(DataFormat.CSV, stream(csv));
+
+        assertEquals(3, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals(List.of(4L, 5L), result.errors().stream().map(EmployeeImportResultDto.RowError::line).toList());
+        assertTrue(result.errors().get(0).message().contains("Departamento"));
+        assertTrue(result.errors().get(1).message().contains("username"));
+
+        assertEquals(3, employeeRepository.count());
+        assertEquals(3, contractRepository.count());
+        assertEquals(1, assignmentRepository.count());
+        assertEquals(3, employeeSkillRepository.count());
+        assertEquals(3, ragOutboxEventRepository.count());
+        assertTrue(jobPositionRepository.findByTitle("Data Engineer").isPresent());
+
+        User ana = userRepository.findByUsername("ana").orElseThrow();
+        assertEquals(Set.of("ROLE_EMPLOYEE"), ana.getRoles());
+        assertTrue(passwordEncoder.matches("secreto", ana.getPassword()));
+        assertEquals("madrid", ana.getEmployee().getLocation());
+        assertEquals("Gómez, Luis", userRepository.findByUsername("luis").orElseThrow().getEmployee().getName());
+    }
+
+    @Test
+    @DisplayName("NDJSON: una línea mal formada o inválida no detiene la importación")
+    void ndjson_rejectsBadLines() {
+        String ndjson = json("ana", "ana@smarthr.dev") + "\n"
+                + "{no es json\n"
+                + "\n"
+                + json("luis", "") + "\n";
+
+        EmployeeImportResultDto result = employeeImportService.importEmployees(DataFormat.NDJSON, stream(ndjson));
+
+        assertEquals(1, result.imported());
+        assertEquals(List.of(2L, 4L), result.errors().stream().map(EmployeeImportResultDto.RowError::line).toList());
+        assertTrue(result.errors().get(1).message().contains("email"));
+    }
+
+    @Test
+    @DisplayName("Lotes: si la base de datos rechaza una fila, el resto de su lote se guarda igualmente")
+    void batchFailure_rejectsOnlyFailingRow() {
+        long dept = department.getId();
+        // El username no tiene límite en la validación pero la columna es varchar(255)
+        String csv = CSV_HEADER
+                + row("Ana", "ana@smarthr.dev", "ana", dept, "Backend Developer", null, "")
+                + row("Luis", "luis@smarthr.dev", "l".repeat(300), dept, "Data Engineer", null, "")
+                + row("Marta", "marta@smarthr.dev", "marta", dept, "Backend Developer", null, "");
+
+        EmployeeImportResultDto result = employeeImportService.importEmployees(DataFormat.CSV, stream(csv));
+
+        assertEquals(2, result.imported());
+        assertEquals(1, result.rejected());
+        assertEquals(List.of(3L), result.errors().stream().map(EmployeeImportResultDto.RowError::line).toList());
+        assertEquals(2, employeeRepository.count());
+        assertEquals(2, ragOutboxEventRepository.count());
+        assertTrue(userRepository.findByUsername("ana").isPresent());
+        // El puesto nuevo de la fila fallida se deshizo con ella
+        assertTrue(jobPositionRepository.findByTitle("Data Engineer").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Alta completa: con los catálogos ya en caché, guarda referencias de la transacción actual")
+    void createComplete_usesReferencesFromCachedCatalogs() {
+        // Calienta la caché en otra transacción, como haría una petición anterior
+        referenceDataCache.department(department.getId()).orElseThrow();
+        referenceDataCache.project(project.getId()).orElseThrow();
+        referenceDataCache.skill(java.getId()).orElseThrow();
+        referenceDataCache.jobPositionByTitle("Backend Developer").orElseThrow();
+
+        employeeService.createCompleteEmployee(NewEmployeeCompleteDto.builder()
+                .name("Ana").surname("Pérez").email("ana@smarthr.dev").username("ana").password("secreto")
+                .location("Madrid").hireDate(LocalDate.of(2024, 1, 15)).departmentId(department.getId())
+                .jobPositionTitle("Backend Developer").role("ROLE_EMPLOYEE").weeklyHours(40)
+                .contractType(ContractTypeDto.PERMANENT).contractStartDate(LocalDate.of(2024, 1, 15))
+                .projectId(project.getId()).skillIds(List.of(java.getId()))
+                .build());
+
+        Employee ana = userRepository.findByUsername("ana").orElseThrow().getEmployee();
+        assertEquals(department.getId(), ana.getDepartment().getId());
+        assertEquals(1, assignmentRepository.count());
+        assertEquals(1, employeeSkillRepository.count());
+        assertEquals(1, jobPositionRepository.count());
+        // La caché sigue devolviendo el mismo catálogo tras el alta
+        assertEquals("Desarrollo", referenceDataCache.department(department.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("API: el Content-Type decide el formato")
+    void endpoint_dispatchesOnContentType() throws Exception {
+        String token = "Bearer " + jwtUtil.generateToken("rrhh", Set.of("ROLE_RRHH"), 1L);
+
+        mockMvc.perform(post("/api/employees/import")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType("application/x-ndjson")
+                        .content(json("ana", "ana@smarthr.dev")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+
+        mockMvc.perform(post("/api/employees/import")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType("text/csv")
+                        .content(CSV_HEADER + row("Luis", "luis@smarthr.dev", "luis", department.getId(),
+                                "Backend Developer", null, "")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+
+        assertEquals(2, employeeRepository.count());
+    }
+
+    private static String row(String name, String email, String username, long departmentId, String jobPosition,
+                              Long projectId, String skillIds) {
+        return String.join(",", name, "Pérez", email, username, "secreto", "Madrid", "2024-01-15",
+                String.valueOf(departmentId), jobPosition, "ROLE_EMPLOYEE", "40", "PERMANENT", "2024-01-15",
+                projectId == null ? "" : String.valueOf(projectId), skillIds) + "\n";
+    }
+
+    private String json(String username, String email) {
+        return "{\"name\":\"" + username + "\",\"surname\":\"Pérez\",\"email\":\"" + email + "\",\"username\":\"" + username
+                + "\",\"password\":\"secreto\",\"location\":\"Madrid\",\"hireDate\":\"2024-01-15\",\"departmentId\":"
+                + department.getId() + ",\"jobPositionTitle\":\"Backend Developer\",\"role\":\"ROLE_EMPLOYEE\","
+                + "\"weeklyHours\":40,\"contractType\":\"PERMANENT\",\"contractStartDate\":\"2024-01-15\"}";
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,152 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.*;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.service.EmployeeProfileService;
+import com.smarthr.backend.web.dto.EmployeeProfileDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba que el perfil precalculado se mantiene con las escrituras y se lee con una sola consulta.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class EmployeeProfileServiceTest {
+
+    @Autowired private EmployeeProfileService employeeProfileService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Autowired private EmployeeProfileRepository employeeProfileRepository;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private JobPositionRepository jobPositionRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private ContractRepository contractRepository;
+    @Autowired private CompensationRepository compensationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RagTombstoneRepository ragTombstoneRepository;
+
+    private Department department;
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        department = departmentRepository.save(new Department(null, "Desarrollo", "Software", null));
+        JobPosition jobPosition = jobPositionRepository.save(new JobPosition(null, "Backend Developer", null, null));
+        employee = employeeRepository.save(new Employee(null, "Ana Pérez", "Madrid", "ana@smarthr.dev",
+                LocalDate.of(2023, 1, 1), department, jobPosition, null));
+        contractRepository.save(new Contract(null, employee, Contract.ContractType.PERMANENT,
+                LocalDate.of(2023, 1, 1), null, 40, null));
+
+        User user = new User();
+        user.setUsername("ana");
+        user.setPassword("x");
+        user.setRoles(Set.of("ROLE_EMPLOYEE"));
+        user.setEmployee(employee);
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        compensationRepository.deleteAll();
+        contractRepository.deleteAll();
+        employeeRepository.deleteAll();
+        jobPositionRepository.deleteAll();
+        departmentRepository.deleteAll();
+        ragTombstoneRepository.deleteAll();
+        employeeProfileRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Perfil: se recalcula tras cada escritura y sube de versión")
+    void profile_isMaintainedOnWrites() {
+        EmployeeProfileDto before = employeeProfileService.get(employee.getId());
+        assertEquals(1, before.contracts().size());
+        assertTrue(before.compensations().isEmpty());
+
+        compensationRepository.save(new Compensation(null, employee, new BigDecimal("3000"), null,
+                LocalDate.of(2024, 1, 1), null));
+
+        EmployeeProfileDto after = employeeProfileService.get(employee.getId());
+        assertEquals(1, after.compensations().size());
+        assertTrue(after.version() > before.version());
+        assertEquals(after, employeeProfileService.getByUsername("ana"));
+    }
+
+    @Test
+    @DisplayName("Perfil: la lectura es una única consulta por clave")
+    void profile_isServedWithSingleQuery() {
+        employeeProfileService.get(employee.getId());
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        EmployeeProfileDto profile = employeeProfileService.get(employee.getId());
+
+        assertEquals("Desarrollo", profile.employee().getDepartmentName());
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Perfil: renombrar un catálogo invalida los perfiles y se recalculan al leer")
+    void profile_catalogChange_invalidates() {
+        long before = employeeProfileService.get(employee.getId()).version();
+
+        department.setName("Plataforma");
+        departmentRepository.save(department);
+
+        EmployeeProfile stale = employeeProfileRepository.findById(employee.getId()).orElseThrow();
+        assertTrue(stale.isStale());
+        assertEquals(before, stale.getVersion());
+
+        EmployeeProfileDto after = employeeProfileService.get(employee.getId());
+        assertEquals("Plataforma", after.employee().getDepartmentName());
+        assertEquals(before + 1, after.version());
+        assertEquals(after, employeeProfileService.getByUsername("ana"));
+    }
+
+    @Test
+    @DisplayName("Perfil: recálculos simultáneos se serializan y la versión sube una vez por cada uno")
+    void profile_concurrentRefreshes_areSerialized() throws Exception {
+        long before = employeeProfileService.get(employee.getId()).version();
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return employeeProfileService.refresh(employee.getId());
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        EmployeeProfile stored = employeeProfileRepository.findById(employee.getId()).orElseThrow();
+        assertEquals(before + threads, stored.getVersion());
+        assertEquals(stored.getVersion(), employeeProfileService.get(employee.getId()).version());
+    }
+}
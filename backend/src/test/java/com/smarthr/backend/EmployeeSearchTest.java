@@ -0,0 +1,126 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.Department;
+import com.smarthr.backend.domain.Employee;
+import com.smarthr.backend.domain.JobPosition;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.service.EmployeeService;
+import com.smarthr.backend.web.dto.EmployeeDto;
+import com.smarthr.backend.web.dto.EmployeeSearchPageDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba la búsqueda de empleados por clave y el listado sin count.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EmployeeSearchTest {
+
+    @Autowired private EmployeeService employeeService;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private JobPositionRepository jobPositionRepository;
+    @Autowired private RagTombstoneRepository ragTombstoneRepository;
+    @Autowired private EmployeeProfileRepository employeeProfileRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Department department = departmentRepository.save(new Department(null, "Desarrollo", "Software", null));
+        JobPosition backend = jobPositionRepository.save(new JobPosition(null, "Backend Developer", null, null));
+        JobPosition frontend = jobPositionRepository.save(new JobPosition(null, "Frontend Developer", null, null));
+        for (int i = 0; i < 25; i++) {
+            employeeRepository.save(new Employee(null, String.format("Empleado %02d", i), i % 2 == 0 ? "Madrid" : "Sevilla",
+                    "empleado" + i + "@smarthr.dev", LocalDate.of(2023, 1, 1), department,
+                    i % 5 == 0 ? frontend : backend, null));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeRepository.deleteAll();
+        jobPositionRepository.deleteAll();
+        departmentRepository.deleteAll();
+        ragTombstoneRepository.deleteAll();
+        employeeProfileRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Búsqueda: el cursor recorre todos los resultados en orden y sin repetir")
+    void search_keysetWalksAllResults() {
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            EmployeeSearchPageDto page = employeeService.search(null, null, null, cursor, 10);
+            page.items().stream().map(EmployeeDto::getName).forEach(names::add);
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(25, names.size());
+        assertEquals(names.stream().sorted().toList(), names);
+    }
+
+    @Test
+    @DisplayName("Búsqueda: un empleado sin nombre no corta el recorrido por cursor")
+    void search_keysetSkipsNullNames() {
+        // Escrito fuera de JPA, que exigiría el nombre
+        jdbcTemplate.update("insert into employees (name, location, email) values (null, 'Madrid', 'anonimo@smarthr.dev')");
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            EmployeeSearchPageDto page = employeeService.search(null, null, null, cursor, 10);
+            page.items().stream().map(EmployeeDto::getName).forEach(names::add);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(25, names.size());
+        assertFalse(names.contains(null));
+        assertEquals(26, employeeService.list(null, null, null, PageRequest.of(0, 50)).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Búsqueda: los filtros no distinguen mayúsculas y se combinan")
+    void search_filtersCombine() {
+        EmployeeSearchPageDto page = employeeService.search(null, "FRONTEND", "madrid", null, 50);
+
+        assertEquals(List.of("Empleado 00", "Empleado 10", "Empleado 20"),
+                page.items().stream().map(EmployeeDto::getName).toList());
+        assertEquals("Frontend Developer", page.items().get(0).getJobPositionTitle());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Listado: sin count devuelve un Slice y con count una Page")
+    void list_countModes() {
+        Slice<EmployeeDto> slice = employeeService.listWithoutCount("empleado", null, null, PageRequest.of(0, 10));
+        assertFalse(slice instanceof Page);
+        assertTrue(slice.hasNext());
+
+        Page<EmployeeDto> page = employeeService.list("empleado", null, null, PageRequest.of(0, 10));
+        assertEquals(25, page.getTotalElements());
+
+        // Con filtro por puesto el count también lo aplica
+        assertEquals(5, employeeService.list(null, "frontend", null, PageRequest.of(0, 2, Sort.by("name"))).getTotalElements());
+    }
+}
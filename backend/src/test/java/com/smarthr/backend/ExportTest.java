@@ -0,0 +1,139 @@
+package com.smarthr.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthr.backend.domain.*;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.security.JwtUtil;
+import com.smarthr.backend.service.DataFormat;
+import com.smarthr.backend.service.ExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba las exportaciones en streaming: contenido unido en servidor, formatos y gzip.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportTest {
+
+    @Autowired private ExportService exportService;
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private JobPositionRepository jobPositionRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private ContractRepository contractRepository;
+    @Autowired private CompensationRepository compensationRepository;
+    @Autowired private RagTombstoneRepository ragTombstoneRepository;
+    @Autowired private EmployeeProfileRepository employeeProfileRepository;
+
+    @BeforeEach
+    void setUp() {
+        Department department = departmentRepository.save(new Department(null, "Desarrollo", "Software", null));
+        JobPosition jobPosition = jobPositionRepository.save(new JobPosition(null, "Backend Developer", null, null));
+        Employee ana = employeeRepository.save(new Employee(null, "Ana, Pérez", "madrid", "ana@smarthr.dev",
+                LocalDate.of(2020, 1, 1), department, jobPosition, null));
+        employeeRepository.save(new Employee(null, "Luis", "sevilla", "luis@smarthr.dev",
+                LocalDate.of(2021, 1, 1), null, null, null));
+
+        contractRepository.save(new Contract(null, ana, Contract.ContractType.TEMPORARY,
+                LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31), 40, null));
+        contractRepository.save(new Contract(null, ana, Contract.ContractType.PERMANENT,
+                LocalDate.of(2021, 1, 1), null, 35, null));
+        compensationRepository.save(new Compensation(null, ana, new BigDecimal("2500.00"), null, LocalDate.of(2020, 1, 1), null));
+        compensationRepository.save(new Compensation(null, ana, new BigDecimal("3000.00"), new BigDecimal("500.00"),
+                LocalDate.of(2022, 1, 1), null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        compensationRepository.deleteAll();
+        contractRepository.deleteAll();
+        employeeRepository.deleteAll();
+        jobPositionRepository.deleteAll();
+        departmentRepository.deleteAll();
+        ragTombstoneRepository.deleteAll();
+        employeeProfileRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Empleados CSV: una fila por empleado con el contrato y la compensación más recientes")
+    void employees_csvJoinsLatestContractAndCompensation() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportEmployees(DataFormat.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("id,name,email,location,hireDate,department,jobPosition,contractType"));
+        assertTrue(lines.get(1).contains(",\"Ana, Pérez\",ana@smarthr.dev,madrid,2020-01-01,Desarrollo,Backend Developer," +
+                "PERMANENT,2021-01-01,,35,3000.00,500.00,2022-01-01"), lines.get(1));
+        assertTrue(lines.get(2).endsWith(",Luis,luis@smarthr.dev,sevilla,2021-01-01,,,,,,,,,"), lines.get(2));
+    }
+
+    @Test
+    @DisplayName("Compensaciones NDJSON: el histórico completo, un objeto por línea")
+    void compensations_ndjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportCompensations(DataFormat.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        JsonNode latest = objectMapper.readTree(lines.get(1));
+        assertEquals("Ana, Pérez", latest.get("employeeName").asText());
+        assertEquals("2022-01-01", latest.get("effectiveFrom").asText());
+    }
+
+    @Test
+    @DisplayName("API: con Accept-Encoding gzip la respuesta va comprimida")
+    void endpoint_gzipsWhenAccepted() throws Exception {
+        String token = "Bearer " + jwtUtil.generateToken("rrhh", Set.of("ROLE_RRHH"), 1L);
+
+        MvcResult started = mockMvc.perform(get("/api/exports/employees")
+                        .param("format", "ndjson")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String text;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(2, text.lines().count());
+    }
+}
@@ -0,0 +1,59 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.service.IntervalIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba el árbol de intervalos contra una búsqueda lineal.
+ */
+class IntervalIndexTest {
+
+    private record Span(int id, long start, long end) {
+    }
+
+    @Test
+    @DisplayName("Los solapes coinciden con los de una búsqueda lineal, incluidos los extremos")
+    void overlapping_matchesLinearScan() {
+        Random random = new Random(42);
+        List<Span> spans = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long start = random.nextInt(1000);
+            spans.add(new Span(i, start, start + random.nextInt(30)));
+        }
+        IntervalIndex<Span> index = IntervalIndex.of(spans, Span::start, Span::end);
+
+        for (int q = 0; q < 200; q++) {
+            long from = random.nextInt(1050) - 25;
+            long to = from + random.nextInt(20);
+            List<Integer> expected = spans.stream()
+                    .filter(s -> s.start() <= to && s.end() >= from)
+                    .map(Span::id).sorted().toList();
+            List<Integer> actual = index.overlapping(from, to).stream().map(Span::id).sorted().toList();
+            assertEquals(expected, actual, "[" + from + ", " + to + "]");
+            assertEquals(!expected.isEmpty(), index.anyOverlap(from, to, s -> true));
+        }
+    }
+
+    @Test
+    @DisplayName("Vacío, filtro en anyOverlap e intervalos inválidos")
+    void edgeCases() {
+        assertTrue(IntervalIndex.<Span>of(List.of(), Span::start, Span::end).overlapping(0, 10).isEmpty());
+
+        IntervalIndex<Span> index = IntervalIndex.of(List.of(new Span(1, 5, 5), new Span(2, 3, 8)), Span::start, Span::end);
+        assertEquals(List.of(2, 1), index.overlapping(5, 5).stream().map(Span::id).toList());
+        assertTrue(index.anyOverlap(5, 5, s -> s.id() == 1));
+        assertFalse(index.anyOverlap(6, 9, s -> s.id() == 1));
+
+        // Un intervalo con fin anterior al inicio se ignora sin afectar a los demás
+        IntervalIndex<Span> withInvalid = IntervalIndex.of(List.of(new Span(1, 5, 4), new Span(2, 3, 8)), Span::start, Span::end);
+        assertEquals(1, withInvalid.size());
+        assertEquals(List.of(2), withInvalid.overlapping(0, 10).stream().map(Span::id).toList());
+    }
+}
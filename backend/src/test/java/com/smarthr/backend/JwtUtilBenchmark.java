@@ -0,0 +1,85 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.security.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Coste de validar el JWT de cada petición: parser nuevo por llamada (lo que se hacía antes), parser
+ * reutilizado sin caché y {@link JwtUtil#validateToken} con la caché de tokens verificados. Los tokens
+ * se reparten entre un conjunto de usuarios para que la caché trabaje como en producción.
+ * No lo ejecuta Surefire; se lanza con {@code main} desde {@code backend/}:
+ * <pre>
+ * mvn -o -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.smarthr.backend.JwtUtilBenchmark
+ * </pre>
+ */
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-with-at-least-32-chars";
+    private static final int USERS = 500;
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int ITERATIONS = 50;
+
+    public static void main(String[] args) {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 3_600_000, 10_000);
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        String[] tokens = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            tokens[i] = jwtUtil.generateToken("user" + i + "@smarthr.dev", Set.of("ROLE_EMPLEADO"), (long) i);
+        }
+
+        var reusedParser = Jwts.parserBuilder().setSigningKey(key).build();
+
+        Runnable cold = () -> {
+            for (String token : tokens) {
+                sink(Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody());
+            }
+        };
+        Runnable reused = () -> {
+            for (String token : tokens) {
+                sink(reusedParser.parseClaimsJws(token).getBody());
+            }
+        };
+        Runnable cached = () -> {
+            for (String token : tokens) {
+                sink(jwtUtil.validateToken(token));
+            }
+        };
+
+        System.out.printf("parser nuevo     %8.0f ns/token%n", measure(cold));
+        System.out.printf("parser reusado   %8.0f ns/token%n", measure(reused));
+        System.out.printf("caché verificada %8.0f ns/token (aciertos %.0f%%)%n",
+                measure(cached), jwtUtil.verifiedCacheHitRate() * 100);
+    }
+
+    /** Mediana de {@link #ROUNDS} rondas tras calentar el JIT. */
+    private static double measure(Runnable batch) {
+        for (int i = 0; i < WARMUP_ROUNDS * ITERATIONS; i++) {
+            batch.run();
+        }
+        double[] rounds = new double[ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                batch.run();
+            }
+            rounds[r] = (System.nanoTime() - start) / (double) ITERATIONS / USERS;
+        }
+        Arrays.sort(rounds);
+        return rounds[ROUNDS / 2];
+    }
+
+    private static int blackhole;
+
+    private static void sink(Object value) {
+        blackhole ^= System.identityHashCode(value);
+    }
+}
@@ -0,0 +1,60 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba la caché de tokens verificados de JwtUtil.
+ */
+class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-key-for-ci-pipeline-32-chars-min";
+
+    @Test
+    @DisplayName("JWT: un token ya verificado se sirve desde caché")
+    void validateToken_reusesVerification() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+        String token = jwtUtil.generateToken("ana", Set.of("ROLE_EMPLOYEE"), 7L);
+
+        Claims first = jwtUtil.validateToken(token);
+        Claims second = jwtUtil.validateToken(token);
+
+        assertSame(first, second);
+        assertEquals(List.of("ROLE_EMPLOYEE"), second.get("roles"));
+        assertEquals(7L, second.get("employeeId", Long.class));
+        assertEquals(0.5, jwtUtil.verifiedCacheHitRate());
+    }
+
+    @Test
+    @DisplayName("JWT: la caché no alarga la vida de un token caducado")
+    void validateToken_honoursExpiration() throws InterruptedException {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 2_000, 100);
+        String token = jwtUtil.generateToken("ana", Set.of("ROLE_EMPLOYEE"));
+        jwtUtil.validateToken(token);
+
+        Thread.sleep(2_100);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.validateToken(token));
+    }
+
+    @Test
+    @DisplayName("JWT: un token manipulado no coincide con ninguna entrada y se rechaza")
+    void validateToken_rejectsTamperedToken() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+        String token = jwtUtil.generateToken("ana", Set.of("ROLE_EMPLOYEE"));
+        jwtUtil.validateToken(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtUtil.validateToken(tampered));
+    }
+}
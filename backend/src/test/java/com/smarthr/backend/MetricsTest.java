@@ -0,0 +1,102 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.Department;
+import com.smarthr.backend.metrics.PrometheusTextMeterRegistry;
+import com.smarthr.backend.repository.DepartmentRepository;
+import com.smarthr.backend.security.JwtUtil;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba el formato Prometheus, que se publican las métricas de endpoints, repositorios, pool e Hibernate
+ * y que por el puerto de la aplicación solo un ADMIN puede leerlas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MetricsTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private DepartmentRepository departmentRepository;
+
+    @AfterEach
+    void tearDown() {
+        departmentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Formato: contadores con _total, histogramas acumulados en segundos y etiquetas escapadas")
+    void registry_rendersPrometheusText() {
+        PrometheusTextMeterRegistry registry = new PrometheusTextMeterRegistry(Clock.SYSTEM);
+        Counter.builder("rag.outbox.delivered").tag("type", "say \"hi\"").register(registry).increment(3);
+        Timer timer = Timer.builder("rag.outbox.send")
+                .serviceLevelObjectives(Duration.ofMillis(100), Duration.ofSeconds(1))
+                .register(registry);
+        timer.record(Duration.ofMillis(50));
+        timer.record(Duration.ofMillis(500));
+        timer.record(Duration.ofSeconds(5));
+
+        String text = registry.scrape();
+
+        assertTrue(text.contains("# TYPE rag_outbox_delivered_total counter\n"), text);
+        assertTrue(text.contains("rag_outbox_delivered_total{type=\"say \\\"hi\\\"\"} 3.0\n"), text);
+        assertTrue(text.contains("# TYPE rag_outbox_send_seconds histogram\n"), text);
+        assertTrue(text.contains("rag_outbox_send_seconds_bucket{le=\"0.1\"} 1.0\n"), text);
+        assertTrue(text.contains("rag_outbox_send_seconds_bucket{le=\"1.0\"} 2.0\n"), text);
+        assertTrue(text.contains("rag_outbox_send_seconds_bucket{le=\"+Inf\"} 3.0\n"), text);
+        assertTrue(text.contains("rag_outbox_send_seconds_sum 5.55\n"), text);
+        assertTrue(text.contains("rag_outbox_send_seconds_max 5.0\n"), text);
+    }
+
+    @Test
+    @DisplayName("Scrape: latencia por endpoint, sentencias por petición, repositorios, Hikari e Hibernate")
+    void scrape_exposesApplicationMetrics() throws Exception {
+        departmentRepository.save(new Department(null, "Desarrollo", null, null));
+        mockMvc.perform(get("/api/departments")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("rrhh", Set.of("ROLE_RRHH"), 1L)))
+                .andExpect(status().isOk());
+
+        String text = mockMvc.perform(get("/actuator/prometheus")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("admin", Set.of("ROLE_ADMIN"), 2L)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(text.matches("(?s).*http_server_requests_seconds_bucket\\{[^}]*uri=\"/api/departments\"[^}]*le=\"0.005\"}.*"), text);
+        assertTrue(text.matches("(?s).*http_server_requests_queries_count\\{method=\"GET\",uri=\"/api/departments\"} 1.0.*"), text);
+        assertTrue(text.contains("spring_data_repository_invocations_seconds_bucket{"), text);
+        assertTrue(text.contains("hikaricp_connections_active{"), text);
+        assertTrue(text.contains("hibernate_statements_total "), text);
+        assertTrue(text.contains("hibernate_second_level_cache_requests_total{result=\"hit\"}"), text);
+    }
+
+    @Test
+    @DisplayName("Acceso: /actuator/health es público; las métricas no se sirven a anónimos ni a RRHH")
+    void scrape_requiresAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("rrhh", Set.of("ROLE_RRHH"), 1L)))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,185 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.*;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.security.JwtUtil;
+import com.smarthr.backend.service.EmployeeService;
+import com.smarthr.backend.web.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba la baja masiva: borrado por conjuntos, tombstones y un evento RAG por empleado.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OffboardingTest {
+
+    @Autowired private EmployeeService employeeService;
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private JobPositionRepository jobPositionRepository;
+    @Autowired private SkillRepository skillRepository;
+    @Autowired private ProjectRepository projectRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RefreshTokenRepository refreshTokenRepository;
+    @Autowired private ContractRepository contractRepository;
+    @Autowired private CompensationRepository compensationRepository;
+    @Autowired private AssignmentRepository assignmentRepository;
+    @Autowired private EmployeeSkillRepository employeeSkillRepository;
+    @Autowired private LeaveRequestRepository leaveRequestRepository;
+    @Autowired private PerformanceReviewRepository performanceReviewRepository;
+    @Autowired private EmployeeProfileRepository employeeProfileRepository;
+    @Autowired private RagOutboxEventRepository ragOutboxEventRepository;
+    @Autowired private RagTombstoneRepository ragTombstoneRepository;
+
+    private Employee ana;
+    private Employee luis;
+    private Employee eva;
+
+    @BeforeEach
+    void setUp() {
+        Department department = departmentRepository.save(new Department(null, "Desarrollo", "Software", null));
+        JobPosition jobPosition = jobPositionRepository.save(new JobPosition(null, "Backend Developer", null, null));
+        Skill skill = skillRepository.save(new Skill(null, "Java", null, null));
+        Project project = projectRepository.save(new Project(null, "PRJ001", "Portal Web", LocalDate.of(2024, 1, 1),
+                null, "Nike", "Madrid", null));
+
+        ana = employee("ana", department, jobPosition, skill, project);
+        luis = employee("luis", department, jobPosition, skill, project);
+        eva = employee("eva", department, jobPosition, skill, project);
+
+        // Evento pendiente de Ana que la baja debe sustituir
+        Instant now = Instant.now();
+        ragOutboxEventRepository.save(new RagOutboxEvent(null, RagOutboxEvent.EventType.UPSERT_EMPLOYEE,
+                "employee:" + ana.getId(), "{}", now, 0, now, null, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        performanceReviewRepository.deleteAll();
+        leaveRequestRepository.deleteAll();
+        employeeSkillRepository.deleteAll();
+        assignmentRepository.deleteAll();
+        compensationRepository.deleteAll();
+        contractRepository.deleteAll();
+        employeeRepository.deleteAll();
+        projectRepository.deleteAll();
+        skillRepository.deleteAll();
+        jobPositionRepository.deleteAll();
+        departmentRepository.deleteAll();
+        employeeProfileRepository.deleteAll();
+        ragOutboxEventRepository.deleteAll();
+        ragTombstoneRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Baja de varios empleados: se borran sus datos, quedan tombstones y un DELETE_EMPLOYEE por empleado")
+    void offboard_deletesDependentsAndEnqueuesDeletions() {
+        int deleted = employeeService.offboard(List.of(ana.getId(), luis.getId()));
+
+        assertEquals(2, deleted);
+        assertEquals(List.of(eva.getId()), employeeRepository.findAll().stream().map(Employee::getId).toList());
+        assertEquals(1, userRepository.count());
+        assertEquals(1, refreshTokenRepository.count());
+        assertEquals(1, contractRepository.count());
+        assertEquals(1, compensationRepository.count());
+        assertEquals(1, assignmentRepository.count());
+        assertEquals(1, employeeSkillRepository.count());
+        assertEquals(1, leaveRequestRepository.count());
+        assertEquals(1, performanceReviewRepository.count());
+        assertFalse(employeeProfileRepository.existsById(ana.getId()));
+
+        Map<String, Long> tombstones = ragTombstoneRepository.findAll().stream()
+                .collect(Collectors.groupingBy(RagTombstone::getEntityType, Collectors.counting()));
+        assertEquals(Map.of("employee", 2L, "leave", 2L, "assignment", 2L, "compensation", 2L,
+                "contract", 2L, "employee-skill", 2L), tombstones);
+        assertTrue(ragTombstoneRepository.findAll().stream()
+                .anyMatch(t -> "employee".equals(t.getEntityType()) && "ana@smarthr.dev".equals(t.getNaturalKey())));
+
+        List<RagOutboxEvent> events = ragOutboxEventRepository.findAll();
+        assertEquals(2, events.size());
+        assertTrue(events.stream().allMatch(e -> e.getEventType() == RagOutboxEvent.EventType.DELETE_EMPLOYEE));
+        assertTrue(events.stream().anyMatch(e -> e.getPayload().contains("Backend Developer")));
+    }
+
+    @Test
+    @DisplayName("Si algún id no existe no se borra nada")
+    void offboard_unknownId_deletesNothing() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> employeeService.offboard(List.of(ana.getId(), 999_999L)));
+
+        assertEquals(3, employeeRepository.count());
+        assertEquals(3, userRepository.count());
+        assertEquals(0, ragTombstoneRepository.count());
+    }
+
+    @Test
+    @DisplayName("API: solo RRHH y con al menos un id")
+    void endpoint_validatesRoleAndBody() throws Exception {
+        String body = "{\"employeeIds\":[" + luis.getId() + "]}";
+
+        mockMvc.perform(post("/api/employees/offboarding")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("eva", Set.of("ROLE_EMPLOYEE"), eva.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isForbidden());
+
+        String rrhh = "Bearer " + jwtUtil.generateToken("rrhh", Set.of("ROLE_RRHH"), 1L);
+        mockMvc.perform(post("/api/employees/offboarding")
+                        .header(HttpHeaders.AUTHORIZATION, rrhh)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"employeeIds\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/employees/offboarding")
+                        .header(HttpHeaders.AUTHORIZATION, rrhh)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isNoContent());
+
+        assertFalse(employeeRepository.existsById(luis.getId()));
+    }
+
+    private Employee employee(String name, Department department, JobPosition jobPosition, Skill skill, Project project) {
+        Employee e = employeeRepository.save(new Employee(null, name, "Madrid", name + "@smarthr.dev",
+                LocalDate.of(2022, 1, 1), department, jobPosition, null));
+        User user = userRepository.save(new User(null, name, "hash", Set.of("ROLE_EMPLOYEE"), e));
+        refreshTokenRepository.save(new RefreshToken(null, "token-" + name, user, Instant.now().plusSeconds(3600)));
+        contractRepository.save(new Contract(null, e, Contract.ContractType.PERMANENT, LocalDate.of(2022, 1, 1), null, 40, null));
+        compensationRepository.save(new Compensation(null, e, new BigDecimal("2500.00"), null, LocalDate.of(2022, 1, 1), null));
+        assignmentRepository.save(new Assignment(null, e, project, jobPosition, LocalDate.of(2024, 1, 1), null, null));
+        employeeSkillRepository.save(new EmployeeSkill(null, e, skill, 3, null));
+        leaveRequestRepository.save(new LeaveRequest(null, e, LeaveRequest.LeaveType.VACACIONES,
+                LeaveRequest.LeaveStatus.PENDING, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 15), null, null));
+        performanceReviewRepository.save(new PerformanceReview(null, e, LocalDate.of(2024, 12, 1),
+                PerformanceReview.Rating.GOOD, null));
+        return e;
+    }
+}
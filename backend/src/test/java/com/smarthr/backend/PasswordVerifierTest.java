@@ -0,0 +1,66 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.security.PasswordVerifier;
+import com.smarthr.backend.web.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Comprueba que la verificación de contraseñas usa un pool acotado y rechaza al saturarse.
+ */
+class PasswordVerifierTest {
+
+    @Test
+    @DisplayName("Verifier: delega en el PasswordEncoder y mide la latencia")
+    void matches_delegatesToEncoder() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordVerifier verifier = new PasswordVerifier(encoder, registry, 1, 1, Duration.ofSeconds(5));
+        String hash = encoder.encode("secreta");
+
+        assertTrue(verifier.matches("secreta", hash));
+        assertFalse(verifier.matches("otra", hash));
+        assertEquals(2, registry.get("auth.password.hash").timer().count());
+    }
+
+    @Test
+    @DisplayName("Verifier: con el hilo ocupado y la cola llena rechaza al momento")
+    void matches_whenSaturated_rejects() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.matches(any(), any())).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordVerifier verifier = new PasswordVerifier(slowEncoder, registry, 1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> verifier.matches("a", "h"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> verifier.matches("b", "h"));
+        while (verifier.queueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> verifier.matches("c", "h"));
+        assertEquals(1.0, registry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+}
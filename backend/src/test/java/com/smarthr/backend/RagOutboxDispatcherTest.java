@@ -0,0 +1,164 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.RagOutboxEvent;
+import com.smarthr.backend.repository.RagOutboxEventRepository;
+import com.smarthr.backend.service.RagAssistantClient;
+import com.smarthr.backend.service.RagOutboxDispatcher;
+import com.smarthr.backend.service.RagOutboxService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Comprueba la coalescencia, la entrega, los reintentos y el dead letter del outbox RAG.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RagOutboxDispatcherTest {
+
+    @Autowired private RagOutboxService outboxService;
+    @Autowired private RagOutboxDispatcher dispatcher;
+    @Autowired private RagOutboxEventRepository outboxRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @MockBean private RagAssistantClient assistantClient;
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Outbox: varios cambios de la misma entidad se entregan una sola vez con el último estado")
+    @SuppressWarnings("unchecked")
+    void dispatch_coalescesEventsOfSameEntity() {
+        enqueue(RagOutboxEvent.EventType.INSERT_LEAVE_REQUEST, "leave:1", Map.of("status", "PENDING"));
+        enqueue(RagOutboxEvent.EventType.UPSERT_LEAVE_REQUEST, "leave:1", Map.of("status", "APPROVED"));
+        enqueue(RagOutboxEvent.EventType.UPSERT_EMPLOYEE, "employee:7", Map.of("name", "Ana"));
+
+        assertEquals(2, outboxService.countPending());
+
+        assertEquals(2, dispatcher.dispatchBatch());
+
+        ArgumentCaptor<List<RagOutboxEvent>> batch = ArgumentCaptor.forClass(List.class);
+        verify(assistantClient, times(1)).sendBatch(batch.capture());
+        assertEquals(List.of(RagOutboxEvent.EventType.UPSERT_LEAVE_REQUEST, RagOutboxEvent.EventType.UPSERT_EMPLOYEE),
+                batch.getValue().stream().map(RagOutboxEvent::getEventType).toList());
+        assertEquals("{\"status\":\"APPROVED\"}", batch.getValue().get(0).getPayload());
+        assertEquals(0, outboxService.countPending());
+    }
+
+    @Test
+    @DisplayName("Outbox: un fallo reprograma el evento con backoff en vez de perderlo")
+    void dispatch_failureIsRetriedLater() {
+        doThrow(new IllegalStateException("assistant caído")).when(assistantClient).sendBatch(anyList());
+        enqueue(RagOutboxEvent.EventType.UPSERT_EMPLOYEE, "employee:7", Map.of("name", "Ana"));
+
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        List<RagOutboxEvent> pending = outboxRepository.findAll();
+        assertEquals(1, pending.size());
+        assertEquals(1, pending.get(0).getAttempts());
+        assertEquals("assistant caído", pending.get(0).getLastError());
+        assertTrue(pending.get(0).getNextAttemptAt().isAfter(Instant.now()));
+
+        // Aún no ha vencido el backoff
+        assertEquals(0, dispatcher.dispatchBatch());
+    }
+
+    @Test
+    @DisplayName("Outbox: si el asistente rechaza el lote, solo se reprograma el evento que falla")
+    @SuppressWarnings("unchecked")
+    void dispatch_rejectedBatchIsSplitToIsolateBadEvent() {
+        doAnswer(invocation -> {
+            List<RagOutboxEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(e -> e.getAggregateKey().equals("employee:3"))) {
+                throw new IllegalStateException("payload inválido");
+            }
+            return null;
+        }).when(assistantClient).sendBatch(anyList());
+        for (int i = 1; i <= 5; i++) {
+            enqueue(RagOutboxEvent.EventType.UPSERT_EMPLOYEE, "employee:" + i, Map.of("name", "E" + i));
+        }
+
+        assertEquals(5, dispatcher.dispatchBatch());
+
+        List<RagOutboxEvent> pending = outboxRepository.findAll();
+        assertEquals(List.of("employee:3"), pending.stream().map(RagOutboxEvent::getAggregateKey).toList());
+        assertEquals(1, pending.get(0).getAttempts());
+    }
+
+    @Test
+    @DisplayName("Outbox: sin conexión con el asistente se reprograma el lote entero sin partirlo")
+    void dispatch_unreachableAssistantRetriesWholeBatch() {
+        doThrow(new ResourceAccessException("Connection refused")).when(assistantClient).sendBatch(anyList());
+        enqueue(RagOutboxEvent.EventType.UPSERT_EMPLOYEE, "employee:1", Map.of("name", "Ana"));
+        enqueue(RagOutboxEvent.EventType.UPSERT_EMPLOYEE, "employee:2", Map.of("name", "Luis"));
+
+        assertEquals(2, dispatcher.dispatchBatch());
+
+        verify(assistantClient, times(1)).sendBatch(anyList());
+        assertTrue(outboxRepository.findAll().stream().allMatch(e -> e.getAttempts() == 1));
+    }
+
+    @Test
+    @DisplayName("Outbox: al agotar los reintentos el evento pasa a dead letter hasta que llega otro cambio")
+    void dispatch_exhaustedEventBecomesDeadLetter() {
+        doThrow(new IllegalStateException("payload inválido")).when(assistantClient).sendBatch(anyList());
+        enqueue(RagOutboxEvent.EventType.UPSERT_EMPLOYEE, "employee:7", Map.of("name", "Ana"));
+        RagOutboxEvent event = outboxRepository.findAll().get(0);
+        event.setAttempts(14);
+        outboxRepository.save(event);
+
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        RagOutboxEvent dead = outboxRepository.findById(event.getId()).orElseThrow();
+        assertNotNull(dead.getDeadAt());
+        assertEquals(0, outboxService.countPending());
+        assertEquals(1, outboxService.countDead());
+        assertTrue(outboxService.findDue(10).isEmpty());
+
+        // Un cambio nuevo de la entidad sustituye al evento muerto
+        enqueue(RagOutboxEvent.EventType.UPSERT_EMPLOYEE, "employee:7", Map.of("name", "Ana María"));
+        assertEquals(1, outboxService.countPending());
+        assertEquals(0, outboxService.countDead());
+    }
+
+    @Test
+    @DisplayName("Outbox: en una baja masiva se sustituyen los pendientes de todas las claves, troceando el IN")
+    void enqueueAll_replacesPendingEventsAcrossChunks() {
+        enqueue(RagOutboxEvent.EventType.UPSERT_EMPLOYEE, "employee:1", Map.of("name", "Ana"));
+        enqueue(RagOutboxEvent.EventType.UPSERT_EMPLOYEE, "employee:2500", Map.of("name", "Luis"));
+        Map<String, Object> deletions = new LinkedHashMap<>();
+        for (int i = 1; i <= 2500; i++) {
+            deletions.put("employee:" + i, Map.of("id", i));
+        }
+
+        transactionTemplate.executeWithoutResult(status ->
+                outboxService.enqueueAll(RagOutboxEvent.EventType.DELETE_EMPLOYEE, deletions));
+
+        List<RagOutboxEvent> pending = outboxRepository.findAll();
+        assertEquals(2500, pending.size());
+        assertTrue(pending.stream().allMatch(e -> e.getEventType() == RagOutboxEvent.EventType.DELETE_EMPLOYEE));
+    }
+
+    private void enqueue(RagOutboxEvent.EventType type, String key, Object payload) {
+        transactionTemplate.executeWithoutResult(status -> outboxService.enqueue(type, key, payload));
+    }
+}
@@ -0,0 +1,266 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.*;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.service.RagSnapshotService;
+import com.smarthr.backend.web.dto.CompanyRagSnapshotDto;
+import com.smarthr.backend.web.dto.EmployeeCompleteDto;
+import com.smarthr.backend.web.dto.RagChangeDto;
+import com.smarthr.backend.web.dto.RagDeletionDto;
+import com.smarthr.backend.web.dto.RagDeltaDto;
+import com.smarthr.backend.web.dto.RagSnapshotRecordDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba que el snapshot RAG se construye con un número constante de consultas,
+ * independientemente del número de empleados.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Lotes pequeños para que el streaming y los deltas recorran varias páginas
+        "rag.snapshot.batch-size=2",
+        // Sin margen en la marca de agua salvo en el test que lo comprueba
+        "rag.delta.safety-lag=PT0S"})
+@ActiveProfiles("test")
+class RagSnapshotServiceTest {
+
+    @Autowired private RagSnapshotService ragSnapshotService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private JobPositionRepository jobPositionRepository;
+    @Autowired private SkillRepository skillRepository;
+    @Autowired private ProjectRepository projectRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private EmployeeSkillRepository employeeSkillRepository;
+    @Autowired private AssignmentRepository assignmentRepository;
+    @Autowired private ContractRepository contractRepository;
+    @Autowired private CompensationRepository compensationRepository;
+    @Autowired private LeaveRequestRepository leaveRequestRepository;
+    @Autowired private RagTombstoneRepository ragTombstoneRepository;
+
+    private Department department;
+    private JobPosition jobPosition;
+    private Skill skill;
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        department = departmentRepository.save(new Department(null, "Desarrollo", "Software", null));
+        jobPosition = jobPositionRepository.save(new JobPosition(null, "Backend Developer", null, null));
+        skill = skillRepository.save(new Skill(null, "Java", "Lenguaje Java", null));
+        project = projectRepository.save(new Project(null, "PRJ001", "Portal Web", LocalDate.of(2024, 1, 1),
+                null, "Nike", "Madrid", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        leaveRequestRepository.deleteAll();
+        compensationRepository.deleteAll();
+        contractRepository.deleteAll();
+        assignmentRepository.deleteAll();
+        employeeSkillRepository.deleteAll();
+        employeeRepository.deleteAll();
+        projectRepository.deleteAll();
+        skillRepository.deleteAll();
+        jobPositionRepository.deleteAll();
+        departmentRepository.deleteAll();
+        ragTombstoneRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Snapshot: el número de consultas no crece con la plantilla")
+    void snapshot_queryCountIsConstant() {
+        seedEmployees(0, 3);
+        long queriesSmall = countQueries();
+
+        seedEmployees(3, 30);
+        long queriesLarge = countQueries();
+
+        assertEquals(queriesSmall, queriesLarge);
+    }
+
+    @Test
+    @DisplayName("Snapshot: cada empleado lleva su contrato y salario más recientes")
+    void snapshot_assemblesLatestContractAndCompensation() {
+        seedEmployees(0, 2);
+
+        CompanyRagSnapshotDto snapshot = ragSnapshotService.getCompanyRagSnapshot();
+
+        assertEquals(2, snapshot.employees().size());
+        assertEquals(2, snapshot.pendingLeaveRequests().size());
+
+        EmployeeCompleteDto first = snapshot.employees().get(0);
+        assertEquals("Desarrollo", first.department());
+        assertEquals("Backend Developer", first.jobPosition());
+        assertEquals(java.util.List.of("Java"), first.skills());
+        assertEquals(1, first.projects().size());
+        assertEquals("PRJ001", first.projects().get(0).code());
+        assertEquals("PERMANENT", first.contractType());
+        assertEquals(LocalDate.of(2024, 1, 1), first.contractStartDate());
+        assertEquals(0, new BigDecimal("3000").compareTo(first.baseSalary()));
+        assertEquals(1, first.leaveRequests().size());
+    }
+
+    @Test
+    @DisplayName("Snapshot streaming: emite los mismos registros que el snapshot completo, cada empleado una vez")
+    void streamSnapshot_emitsSameContentAsSnapshot() {
+        seedEmployees(0, 5);
+
+        List<RagSnapshotRecordDto> records = new ArrayList<>();
+        ragSnapshotService.streamCompanyRagSnapshot(records::add);
+
+        Map<String, Long> countByType = records.stream()
+                .collect(Collectors.groupingBy(RagSnapshotRecordDto::type, Collectors.counting()));
+        assertEquals(Map.of("employee", 5L, "project", 1L, "skill", 1L, "department", 1L, "leave", 5L), countByType);
+
+        List<Object> streamedEmployees = records.stream()
+                .filter(r -> r.type().equals("employee"))
+                .map(RagSnapshotRecordDto::data)
+                .toList();
+        assertEquals(ragSnapshotService.getCompanyRagSnapshot().employees(), streamedEmployees);
+
+        // 5 empleados en lotes de 2: tres páginas, ningún empleado repetido ni perdido
+        Set<Long> streamedIds = streamedEmployees.stream()
+                .map(e -> ((EmployeeCompleteDto) e).id())
+                .collect(Collectors.toSet());
+        assertEquals(Set.copyOf(employeeRepository.findAll().stream().map(Employee::getId).toList()), streamedIds);
+    }
+
+    @Test
+    @DisplayName("Delta: solo devuelve lo cambiado y lo borrado desde la marca de agua")
+    void delta_returnsOnlyChangesSinceWatermark() {
+        seedEmployees(0, 3);
+        List<Employee> employees = employeeRepository.findAllWithDepartmentAndJobPosition();
+        Instant watermark = ragSnapshotService.getCompanyRagDelta(Instant.EPOCH).watermark();
+
+        // Nuevo salario para el primero, ausencia borrada del segundo, skill nueva en el catálogo
+        compensationRepository.save(new Compensation(null, employees.get(0), new BigDecimal("3500"), null,
+                LocalDate.of(2025, 1, 1), null));
+        LeaveRequest leave = leaveRequestRepository.findByEmployeeId(employees.get(1).getId()).get(0);
+        leaveRequestRepository.delete(leave);
+        skillRepository.save(new Skill(null, "Kotlin", "Lenguaje Kotlin", null));
+
+        RagDeltaDto delta = ragSnapshotService.getCompanyRagDelta(watermark);
+
+        Set<Long> upsertedEmployees = delta.upserted().stream()
+                .filter(c -> c.type().equals("employee"))
+                .map(RagChangeDto::id)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(employees.get(0).getId(), employees.get(1).getId()), upsertedEmployees);
+        assertTrue(delta.upserted().stream().anyMatch(c -> c.type().equals("skill")));
+        assertTrue(delta.upserted().stream().noneMatch(c -> c.type().equals("project") || c.type().equals("department")));
+        assertEquals(List.of(new RagDeletionDto("leave", leave.getId(), null)), delta.deleted());
+
+        assertTrue(ragSnapshotService.getCompanyRagDelta(delta.watermark()).upserted().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Delta: renombrar un puesto o un departamento reenvía solo a los empleados que lo tienen")
+    void delta_catalogRenameResendsItsEmployees() {
+        seedEmployees(0, 2);
+        Department legal = departmentRepository.save(new Department(null, "Legal", null, null));
+        JobPosition lawyer = jobPositionRepository.save(new JobPosition(null, "Abogada", null, null));
+        Employee other = employeeRepository.save(new Employee(null, "Otra", "Madrid", "otra@smarthr.dev",
+                LocalDate.of(2023, 1, 1), legal, lawyer, null));
+        Set<Long> seeded = employeeRepository.findAllWithDepartmentAndJobPosition().stream()
+                .map(Employee::getId)
+                .filter(id -> !id.equals(other.getId()))
+                .collect(Collectors.toSet());
+        Instant watermark = ragSnapshotService.getCompanyRagDelta(Instant.EPOCH).watermark();
+
+        jobPosition.setTitle("Backend Engineer");
+        jobPositionRepository.save(jobPosition);
+
+        RagDeltaDto afterJobPosition = ragSnapshotService.getCompanyRagDelta(watermark);
+        assertEquals(seeded, employeeIds(afterJobPosition));
+        assertTrue(afterJobPosition.upserted().stream()
+                .filter(c -> c.type().equals("employee"))
+                .allMatch(c -> ((EmployeeCompleteDto) c.data()).jobPosition().equals("Backend Engineer")));
+
+        legal.setName("Jurídico");
+        departmentRepository.save(legal);
+
+        assertEquals(Set.of(other.getId()), employeeIds(ragSnapshotService.getCompanyRagDelta(afterJobPosition.watermark())));
+    }
+
+    @Test
+    @DisplayName("Delta: la marca de agua va un margen por detrás y la siguiente llamada repite el solape")
+    void delta_watermarkLagsBehindRead() {
+        seedEmployees(0, 2);
+        ReflectionTestUtils.setField(ragSnapshotService, "safetyLag", Duration.ofMinutes(5));
+        try {
+            Instant before = Instant.now();
+            RagDeltaDto first = ragSnapshotService.getCompanyRagDelta(Instant.EPOCH);
+            assertFalse(first.watermark().isAfter(before.minus(Duration.ofMinutes(5)).plusSeconds(1)));
+
+            // Lo escrito justo antes de la lectura vuelve a llegar: un commit tardío no se pierde
+            RagDeltaDto again = ragSnapshotService.getCompanyRagDelta(first.watermark());
+            assertEquals(first.upserted().stream().map(RagChangeDto::id).collect(Collectors.toSet()),
+                    again.upserted().stream().map(RagChangeDto::id).collect(Collectors.toSet()));
+        } finally {
+            ReflectionTestUtils.setField(ragSnapshotService, "safetyLag", Duration.ZERO);
+        }
+    }
+
+    private static Set<Long> employeeIds(RagDeltaDto delta) {
+        return delta.upserted().stream()
+                .filter(c -> c.type().equals("employee"))
+                .map(RagChangeDto::id)
+                .collect(Collectors.toSet());
+    }
+
+    private long countQueries() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        CompanyRagSnapshotDto snapshot = ragSnapshotService.getCompanyRagSnapshot();
+        assertFalse(snapshot.employees().isEmpty());
+        return stats.getPrepareStatementCount();
+    }
+
+    private void seedEmployees(int from, int to) {
+        for (int i = from; i < to; i++) {
+            Employee e = new Employee(null, "Empleado " + i, "Madrid", "empleado" + i + "@smarthr.dev",
+                    LocalDate.of(2023, 1, 1), department, jobPosition, null);
+            e = employeeRepository.save(e);
+
+            employeeSkillRepository.save(new EmployeeSkill(null, e, skill, 3, null));
+            assignmentRepository.save(new Assignment(null, e, project, jobPosition, LocalDate.of(2024, 1, 1), null, null));
+
+            contractRepository.save(new Contract(null, e, Contract.ContractType.TEMPORARY,
+                    LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31), 40, null));
+            contractRepository.save(new Contract(null, e, Contract.ContractType.PERMANENT,
+                    LocalDate.of(2024, 1, 1), null, 40, null));
+
+            compensationRepository.save(new Compensation(null, e, new BigDecimal("2500"), null,
+                    LocalDate.of(2023, 1, 1), null));
+            compensationRepository.save(new Compensation(null, e, new BigDecimal("3000"), null,
+                    LocalDate.of(2024, 1, 1), null));
+
+            leaveRequestRepository.save(new LeaveRequest(null, e, LeaveRequest.LeaveType.VACACIONES,
+                    LeaveRequest.LeaveStatus.PENDING, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 15), null, null));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.Department;
+import com.smarthr.backend.domain.Employee;
+import com.smarthr.backend.domain.JobPosition;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.service.ReferenceDataCache;
+import com.smarthr.backend.web.dto.DepartmentDto;
+import com.smarthr.backend.web.dto.EmployeeDto;
+import com.smarthr.backend.web.mapper.EmployeeMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba la caché de catálogos: lecturas repetidas sin consulta, invalidación al escribir y nombres en el mapper.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReferenceDataCacheTest {
+
+    @Autowired private ReferenceDataCache referenceDataCache;
+    @Autowired private EmployeeMapper employeeMapper;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private JobPositionRepository jobPositionRepository;
+    @Autowired private RagTombstoneRepository ragTombstoneRepository;
+    @Autowired private EmployeeProfileRepository employeeProfileRepository;
+
+    private Department department;
+    private JobPosition jobPosition;
+
+    @BeforeEach
+    void setUp() {
+        department = departmentRepository.save(new Department(null, "Finanzas", "Contabilidad", null));
+        jobPosition = jobPositionRepository.save(new JobPosition(null, "Analista", null, null));
+        List.of(ReferenceDataCache.DEPARTMENTS, ReferenceDataCache.JOB_POSITIONS).forEach(referenceDataCache::evict);
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeRepository.deleteAll();
+        jobPositionRepository.deleteAll();
+        departmentRepository.deleteAll();
+        ragTombstoneRepository.deleteAll();
+        employeeProfileRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Catálogos: la segunda lectura sale de la caché y guardar un departamento la invalida")
+    void departments_cachedUntilChanged() {
+        double hitsBefore = requests(ReferenceDataCache.DEPARTMENTS, "hit");
+
+        List<DepartmentDto> first = referenceDataCache.departments();
+        assertSame(first, referenceDataCache.departments());
+        assertEquals(hitsBefore + 1, requests(ReferenceDataCache.DEPARTMENTS, "hit"));
+
+        departmentRepository.save(new Department(null, "Legal", null, null));
+
+        List<DepartmentDto> afterSave = referenceDataCache.departments();
+        assertNotSame(first, afterSave);
+        assertTrue(afterSave.stream().anyMatch(d -> d.getName().equals("Legal")));
+    }
+
+    @Test
+    @DisplayName("Catálogos: un título inexistente no se cachea como ausente")
+    void jobPositionByTitle_missIsNotCached() {
+        assertTrue(referenceDataCache.jobPositionByTitle("Auditor").isEmpty());
+
+        jobPositionRepository.save(new JobPosition(null, "Auditor", null, null));
+
+        assertTrue(referenceDataCache.jobPositionByTitle("Auditor").isPresent());
+        assertEquals(jobPosition.getId(), referenceDataCache.jobPositionByTitle("Analista").orElseThrow().getId());
+    }
+
+    @Test
+    @DisplayName("Mapper: los nombres de departamento y puesto salen de la caché por id")
+    void employeeMapper_resolvesNamesById() {
+        Employee employee = employeeRepository.save(new Employee(null, "Ana Pérez", "madrid", "ana@smarthr.dev",
+                LocalDate.of(2024, 1, 1), department, jobPosition, null));
+
+        // Referencias sin nombre, como las que deja el mapper al escribir por id
+        Employee detached = new Employee();
+        detached.setId(employee.getId());
+        detached.setDepartment(employeeMapper.refDepartment(department.getId()));
+        detached.setJobPosition(employeeMapper.refJobPosition(jobPosition.getId()));
+
+        EmployeeDto dto = employeeMapper.toDto(detached);
+
+        assertEquals("Finanzas", dto.getDepartmentName());
+        assertEquals("Analista", dto.getJobPositionTitle());
+    }
+
+    private double requests(String cache, String result) {
+        return meterRegistry.get("reference.cache.requests").tags("cache", cache, "result", result)
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,87 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.repository.SchemaMigrator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba que las migraciones crean el esquema, quedan registradas y que las consultas usan sus índices.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SchemaMigrationTest {
+
+    @Autowired private SchemaMigrator schemaMigrator;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Historial: las versiones comunes quedan aplicadas y volver a migrar no hace nada")
+    void history_isRecordedOnce() throws Exception {
+        assertEquals(List.of(1, 2, 4, 5, 6), jdbcTemplate.queryForList(
+                "select version from schema_history order by version", Integer.class));
+        assertTrue(schemaMigrator.migrate().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Índices: existen los de claves foráneas y filtros")
+    void indexes_exist() {
+        Set<String> indexes = Set.copyOf(jdbcTemplate.queryForList(
+                "select lower(index_name) from information_schema.indexes where table_schema = 'PUBLIC'", String.class));
+
+        assertTrue(indexes.containsAll(Set.of(
+                "idx_leave_requests_employee_id", "idx_leave_requests_status", "idx_leave_requests_start_type_status",
+                "idx_contracts_employee_start", "idx_compensations_employee_effective",
+                "idx_employee_skills_skill_id", "idx_assignments_job_position_id",
+                "idx_users_roles_user_id", "idx_refresh_tokens_user_id",
+                // Los que antes se declaraban también con @Index en las entidades
+                "idx_employees_name_id", "idx_employees_department_id", "idx_employees_job_position_id",
+                "idx_employees_location", "idx_employees_hire_date", "idx_performance_reviews_employee_id",
+                "idx_contracts_employee_id", "idx_compensations_employee_id", "idx_assignments_project_dates",
+                "idx_rag_outbox_next_attempt", "idx_rag_outbox_aggregate_key", "idx_rag_tombstones_deleted_at")), indexes::toString);
+    }
+
+    @Test
+    @DisplayName("Planes: búsquedas por empleado y por estado van por índice")
+    void plans_useIndexes() {
+        // H2 indexa por su cuenta cada clave foránea; basta con que no recorra la tabla
+        String byEmployee = jdbcTemplate.queryForObject("explain select id from leave_requests where employee_id = 1", String.class);
+        assertNotNull(byEmployee);
+        assertFalse(byEmployee.toLowerCase().contains("tablescan"), byEmployee);
+
+        assertPlanUses("select id from leave_requests where status = 'PENDING'",
+                "idx_leave_requests_status");
+        assertPlanUses("select id from contracts where employee_id = 1 order by start_date desc fetch first 1 rows only",
+                "idx_contracts_employee_start");
+        assertPlanUses("select id from compensations where employee_id = 1 order by effective_from desc fetch first 1 rows only",
+                "idx_compensations_employee_effective");
+    }
+
+    @Test
+    @DisplayName("Separador: respeta literales, comentarios y bloques $$")
+    void statements_splitScript() {
+        String script = """
+                -- comentario; con punto y coma
+                insert into t values ('a;b');
+                do $$ begin perform 1; end $$;
+                select 1
+                """;
+
+        assertEquals(List.of("insert into t values ('a;b')", "do $$ begin perform 1; end $$", "select 1"),
+                SchemaMigrator.statements(script));
+    }
+
+    private void assertPlanUses(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        assertNotNull(plan);
+        assertTrue(plan.toLowerCase().contains(index), plan);
+    }
+}
@@ -0,0 +1,198 @@
+package com.smarthr.backend;
+
+import com.smarthr.backend.domain.*;
+import com.smarthr.backend.repository.*;
+import com.smarthr.backend.security.JwtUtil;
+import com.smarthr.backend.service.AggregateVersionService;
+import com.smarthr.backend.service.LeaveRequestService;
+import com.smarthr.backend.service.TeamCalendarService;
+import com.smarthr.backend.web.dto.LeaveRequestDto;
+import com.smarthr.backend.web.dto.TeamAbsenceDto;
+import com.smarthr.backend.web.dto.TeamAvailabilityDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba el calendario de ausencias por equipo y que el índice se renueva con las escrituras de su
+ * departamento, no con las de los demás.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TeamCalendarTest {
+
+    private static final LocalDate JULY_1 = LocalDate.of(2025, 7, 1);
+
+    @Autowired private TeamCalendarService teamCalendarService;
+    @Autowired private LeaveRequestService leaveRequestService;
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private LeaveRequestRepository leaveRequestRepository;
+    @Autowired private RagOutboxEventRepository ragOutboxEventRepository;
+    @Autowired private EmployeeProfileRepository employeeProfileRepository;
+    @Autowired private RagTombstoneRepository ragTombstoneRepository;
+    @Autowired private AggregateVersionService aggregateVersionService;
+
+    private Department desarrollo;
+    private Department ventas;
+    private Employee ana;
+    private Employee luis;
+    private LeaveRequest pendingOfLuis;
+
+    @BeforeEach
+    void setUp() {
+        desarrollo = departmentRepository.save(new Department(null, "Desarrollo", null, null));
+        ventas = departmentRepository.save(new Department(null, "Ventas", null, null));
+        ana = employee("Ana", desarrollo);
+        luis = employee("Luis", desarrollo);
+        employee("Eva", desarrollo);
+        Employee marta = employee("Marta", ventas);
+
+        leave(ana, LeaveRequest.LeaveStatus.APPROVED, JULY_1, JULY_1.plusDays(4));
+        leave(ana, LeaveRequest.LeaveStatus.APPROVED, JULY_1.plusDays(3), JULY_1.plusDays(6));
+        leave(luis, LeaveRequest.LeaveStatus.REJECTED, JULY_1, JULY_1.plusDays(9));
+        pendingOfLuis = leave(luis, LeaveRequest.LeaveStatus.PENDING, JULY_1.plusDays(2), JULY_1.plusDays(3));
+        leave(marta, LeaveRequest.LeaveStatus.APPROVED, JULY_1, JULY_1.plusDays(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        leaveRequestRepository.deleteAll();
+        employeeRepository.deleteAll();
+        departmentRepository.deleteAll();
+        ragOutboxEventRepository.deleteAll();
+        employeeProfileRepository.deleteAll();
+        ragTombstoneRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Disponibilidad: un empleado ausente cuenta una vez por día aunque tenga dos solicitudes que se solapan")
+    void availability_countsEmployeesPerDay() {
+        TeamAvailabilityDto approved = teamCalendarService.availability(desarrollo.getId(), JULY_1.plusDays(2), JULY_1.plusDays(7), false);
+
+        assertEquals(3, approved.headcount());
+        assertEquals(2, approved.absences().size());
+        assertEquals(List.of(1, 1, 1, 1, 1, 0), approved.days().stream().map(TeamAvailabilityDto.Day::absent).toList());
+        assertEquals(List.of(ana.getId()), approved.days().get(0).absentEmployeeIds());
+        assertEquals(3, approved.days().get(5).available());
+
+        TeamAvailabilityDto withPending = teamCalendarService.availability(desarrollo.getId(), JULY_1.plusDays(2), JULY_1.plusDays(3), true);
+        assertEquals(List.of(2, 2), withPending.days().stream().map(TeamAvailabilityDto.Day::absent).toList());
+        assertEquals(List.of(1, 1), withPending.days().stream().map(TeamAvailabilityDto.Day::available).toList());
+    }
+
+    @Test
+    @DisplayName("Conflictos: ausencias aprobadas de compañeros del mismo departamento; se renueva al aprobar")
+    void conflicts_refreshOnStatusChange() {
+        assertEquals(List.of(ana.getId(), ana.getId()),
+                teamCalendarService.conflicts(pendingOfLuis.getId()).stream().map(TeamAbsenceDto::employeeId).toList());
+
+        LeaveRequestDto request = new LeaveRequestDto();
+        request.setEmployeeId(ana.getId());
+        request.setType("ASUNTOSPROPIOS");
+        request.setStatus("PENDING");
+        request.setStartDate(JULY_1.plusDays(20));
+        request.setEndDate(JULY_1.plusDays(20));
+        LeaveRequestDto created = leaveRequestService.create(request);
+        assertTrue(teamCalendarService.conflicts(created.getId()).isEmpty());
+
+        leaveRequestService.changeStatus(pendingOfLuis.getId(), "APPROVED");
+        assertEquals(List.of(luis.getId()), teamCalendarService
+                .absences(desarrollo.getId(), JULY_1.plusDays(2), JULY_1.plusDays(2), false).stream()
+                .map(TeamAbsenceDto::employeeId).filter(luis.getId()::equals).toList());
+    }
+
+    @Test
+    @DisplayName("Versiones: una ausencia o un alta renuevan solo el equipo de su departamento")
+    void writes_onlyBumpTheirTeam() {
+        String desarrolloTeam = AggregateVersionService.team(desarrollo.getId());
+        long desarrolloVersion = aggregateVersionService.current(desarrolloTeam);
+        long ventasVersion = aggregateVersionService.current(AggregateVersionService.team(ventas.getId()));
+        long allTeams = aggregateVersionService.current(AggregateVersionService.TEAMS);
+
+        LeaveRequestDto request = new LeaveRequestDto();
+        request.setEmployeeId(ana.getId());
+        request.setType("ASUNTOSPROPIOS");
+        request.setStatus("PENDING");
+        request.setStartDate(JULY_1.plusDays(20));
+        request.setEndDate(JULY_1.plusDays(20));
+        leaveRequestService.create(request);
+        leaveRequestService.changeStatus(pendingOfLuis.getId(), "APPROVED");
+        employee("Raúl", desarrollo);
+
+        assertEquals(desarrolloVersion + 3, aggregateVersionService.current(desarrolloTeam));
+        assertEquals(ventasVersion, aggregateVersionService.current(AggregateVersionService.team(ventas.getId())));
+        assertEquals(allTeams, aggregateVersionService.current(AggregateVersionService.TEAMS));
+        assertEquals(4, teamCalendarService.availability(desarrollo.getId(), JULY_1, JULY_1, false).headcount());
+    }
+
+    @Test
+    @DisplayName("Datos corruptos: una ausencia con fin anterior al inicio se ignora y el calendario responde")
+    void invalidLeave_isSkipped() {
+        leave(luis, LeaveRequest.LeaveStatus.APPROVED, JULY_1.plusDays(5), JULY_1.plusDays(2));
+
+        TeamAvailabilityDto availability = teamCalendarService.availability(desarrollo.getId(), JULY_1, JULY_1.plusDays(6), false);
+
+        assertEquals(2, availability.absences().size());
+        assertTrue(availability.absences().stream().allMatch(a -> a.employeeId().equals(ana.getId())));
+    }
+
+    @Test
+    @DisplayName("API: RRHH, departamento existente y ventana válida")
+    void endpoint_validates() throws Exception {
+        String rrhh = "Bearer " + jwtUtil.generateToken("rrhh", Set.of("ROLE_RRHH"), 1L);
+
+        mockMvc.perform(get("/api/leave-requests/availability")
+                        .param("departmentId", String.valueOf(desarrollo.getId()))
+                        .param("from", "2025-07-01").param("to", "2025-07-03")
+                        .header(HttpHeaders.AUTHORIZATION, rrhh))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days.length()").value(3))
+                .andExpect(jsonPath("$.days[0].absent").value(1));
+
+        mockMvc.perform(get("/api/leave-requests/availability")
+                        .param("departmentId", String.valueOf(desarrollo.getId()))
+                        .param("from", "2025-07-03").param("to", "2025-07-01")
+                        .header(HttpHeaders.AUTHORIZATION, rrhh))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/leave-requests/availability")
+                        .param("departmentId", "999999")
+                        .param("from", "2025-07-01").param("to", "2025-07-03")
+                        .header(HttpHeaders.AUTHORIZATION, rrhh))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/leave-requests/" + pendingOfLuis.getId() + "/conflicts")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("ana", Set.of("ROLE_EMPLOYEE"), ana.getId())))
+                .andExpect(status().isForbidden());
+    }
+
+    private Employee employee(String name, Department department) {
+        return employeeRepository.save(new Employee(null, name, "Madrid", name.toLowerCase() + "@smarthr.dev",
+                LocalDate.of(2022, 1, 1), department, null, null));
+    }
+
+    private LeaveRequest leave(Employee employee, LeaveRequest.LeaveStatus status, LocalDate start, LocalDate end) {
+        return leaveRequestRepository.save(new LeaveRequest(null, employee, LeaveRequest.LeaveType.VACACIONES,
+                status, start, end, null, null));
+    }
+}
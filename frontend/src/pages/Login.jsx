@@ -40,6 +40,7 @@ export default function Login() {
             const data = await response.json();
 
             localStorage.setItem("token", data.token);
+            localStorage.setItem("refreshToken", data.refreshToken);
             const decoded = decodeJwt(data.token);
 
             if (!decoded || !decoded.roles) {